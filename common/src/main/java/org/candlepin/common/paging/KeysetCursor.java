@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.common.paging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+
+
+/**
+ * The KeysetCursor class represents the position of the last row of a page of results when paging
+ * by keyset (or "seek") rather than by offset. A cursor holds the value of the sort field and the
+ * ID of the last row returned, allowing the next page to be fetched with a restriction on those
+ * values instead of skipping over every preceding row.
+ * <p></p>
+ * Cursors are sent to clients as an opaque, URL-safe token. Since the token also records the sort
+ * field and order it was generated for, a token cannot be silently reused with a different sort.
+ */
+public class KeysetCursor {
+    private static final int VERSION = 1;
+
+    private static final char TYPE_NULL = 'N';
+    private static final char TYPE_STRING = 'S';
+    private static final char TYPE_DATE = 'D';
+    private static final char TYPE_TIMESTAMP = 'T';
+    private static final char TYPE_LONG = 'L';
+    private static final char TYPE_INTEGER = 'I';
+    private static final char TYPE_BOOLEAN = 'B';
+
+    private final String sortBy;
+    private final PageRequest.Order order;
+    private final Object sortValue;
+    private final Object id;
+
+    /**
+     * Creates a new keyset cursor.
+     *
+     * @param sortBy
+     *  the sort field requested by the client, or null if the default sort field was used
+     *
+     * @param order
+     *  the order requested by the client, or null if the default order was used
+     *
+     * @param sortValue
+     *  the value of the sort field for the last row of the page
+     *
+     * @param id
+     *  the ID of the last row of the page
+     *
+     * @throws IllegalArgumentException
+     *  if the ID is null, or either value is of a type that cannot be encoded
+     */
+    public KeysetCursor(String sortBy, PageRequest.Order order, Object sortValue, Object id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id is null");
+        }
+
+        checkType(sortValue);
+        checkType(id);
+
+        this.sortBy = sortBy;
+        this.order = order;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    private static void checkType(Object value) {
+        if (value != null && !(value instanceof String || value instanceof Date ||
+            value instanceof Long || value instanceof Integer || value instanceof Boolean)) {
+
+            throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass());
+        }
+    }
+
+    public String getSortBy() {
+        return this.sortBy;
+    }
+
+    public PageRequest.Order getOrder() {
+        return this.order;
+    }
+
+    public Object getSortValue() {
+        return this.sortValue;
+    }
+
+    public Object getId() {
+        return this.id;
+    }
+
+    /**
+     * Checks whether or not this cursor was generated for the sort field and order of the given
+     * page request.
+     *
+     * @param pageRequest
+     *  the page request to check
+     *
+     * @return
+     *  true if this cursor may be used with the given page request; false otherwise
+     */
+    public boolean matches(PageRequest pageRequest) {
+        return pageRequest != null &&
+            Objects.equals(this.sortBy, pageRequest.getSortBy()) &&
+            this.order == pageRequest.getOrder();
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     *
+     * @return
+     *  the encoded token
+     */
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeByte(VERSION);
+            out.writeBoolean(this.sortBy != null);
+            if (this.sortBy != null) {
+                out.writeUTF(this.sortBy);
+            }
+
+            out.writeByte(this.order != null ? this.order.ordinal() + 1 : 0);
+            writeValue(out, this.sortValue);
+            writeValue(out, this.id);
+            out.flush();
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        }
+        catch (IOException e) {
+            // This shouldn't happen with an in-memory stream
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decodes a token previously generated by the encode method.
+     *
+     * @param token
+     *  the token to decode
+     *
+     * @throws IllegalArgumentException
+     *  if the token is null or malformed
+     *
+     * @return
+     *  the decoded cursor
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("token is null");
+        }
+
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor version");
+            }
+
+            String sortBy = in.readBoolean() ? in.readUTF() : null;
+
+            int ordinal = in.readByte();
+            if (ordinal < 0 || ordinal > PageRequest.Order.values().length) {
+                throw new IllegalArgumentException("Invalid cursor order");
+            }
+
+            PageRequest.Order order = ordinal > 0 ? PageRequest.Order.values()[ordinal - 1] : null;
+            Object sortValue = readValue(in);
+            Object id = readValue(in);
+
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Unexpected trailing cursor data");
+            }
+
+            return new KeysetCursor(sortBy, order, sortValue, id);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeChar(TYPE_NULL);
+        }
+        else if (value instanceof String) {
+            out.writeChar(TYPE_STRING);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof Timestamp) {
+            // Timestamps may carry more precision than the millis held by the Date fields, which
+            // we need to retain to seek past the exact value
+            out.writeChar(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        }
+        else if (value instanceof Date) {
+            out.writeChar(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value instanceof Long) {
+            out.writeChar(TYPE_LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeChar(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        }
+        else {
+            out.writeChar(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        char type = in.readChar();
+
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+
+            case TYPE_STRING:
+                return in.readUTF();
+
+            case TYPE_DATE:
+                return new Date(in.readLong());
+
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+
+            case TYPE_LONG:
+                return in.readLong();
+
+            case TYPE_INTEGER:
+                return in.readInt();
+
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+
+            default:
+                throw new IllegalArgumentException("Invalid cursor value type: " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeysetCursor [sortBy: %s, order: %s, sortValue: %s, id: %s]",
+            this.sortBy, this.order, this.sortValue, this.id);
+    }
+}
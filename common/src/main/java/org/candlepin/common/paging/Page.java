@@ -25,6 +25,7 @@ public class Page<T> {
     private T pageData;
     private Integer maxRecords;
     private PageRequest pageRequest;
+    private KeysetCursor nextCursor;
 
     public T getPageData() {
         return pageData;
@@ -50,4 +51,18 @@ public class Page<T> {
         this.pageRequest = pageRequest;
     }
 
+    /**
+     * Fetches the cursor from which the next page of a keyset request can be fetched.
+     *
+     * @return
+     *  the cursor for the next page, or null if this is the last page
+     */
+    public KeysetCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(KeysetCursor nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
 }
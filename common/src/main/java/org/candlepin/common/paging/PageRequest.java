@@ -30,6 +30,8 @@ public class PageRequest {
     public static final String SORT_BY_PARAM = "sort_by";
     public static final String PAGE_PARAM = "page";
     public static final String PER_PAGE_PARAM = "per_page";
+    public static final String CURSOR_PARAM = "cursor";
+    public static final String INCLUDE_COUNT_PARAM = "include_count";
 
     public static final Integer DEFAULT_PAGE = Integer.valueOf(1);
     public static final Integer DEFAULT_PER_PAGE = Integer.valueOf(10);
@@ -39,6 +41,9 @@ public class PageRequest {
     private Integer perPage;
     private String sortBy;
     private Order order;
+    private boolean keyset;
+    private KeysetCursor cursor;
+    private Boolean includeCount;
 
     public Integer getPage() {
         return page;
@@ -75,4 +80,55 @@ public class PageRequest {
     public boolean isPaging() {
         return perPage != null && page != null;
     }
+
+    /**
+     * Checks whether or not this request pages by keyset rather than by offset. Keyset requests
+     * fetch the rows following the cursor provided by the client, if any, instead of skipping to
+     * a given page.
+     *
+     * @return
+     *  true if this request pages by keyset; false otherwise
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    /**
+     * Fetches the cursor marking the last row of the previous page of a keyset request. A keyset
+     * request without a cursor starts from the first row.
+     *
+     * @return
+     *  the cursor for this request, or null if this request starts from the first row
+     */
+    public KeysetCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(KeysetCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    public Boolean getIncludeCount() {
+        return includeCount;
+    }
+
+    public void setIncludeCount(Boolean includeCount) {
+        this.includeCount = includeCount;
+    }
+
+    /**
+     * Checks whether or not the total number of records should be counted for this request.
+     * Counting is opt-in for keyset requests, as it requires a full scan of the result set, while
+     * offset requests count by default to build their page links.
+     *
+     * @return
+     *  true if the total number of records should be counted; false otherwise
+     */
+    public boolean isCounting() {
+        return includeCount != null ? includeCount : !keyset;
+    }
 }
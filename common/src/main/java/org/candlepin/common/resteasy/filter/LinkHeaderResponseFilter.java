@@ -45,7 +45,8 @@ import javax.ws.rs.ext.Provider;
 /**
  * LinkHeaderResponseFilter inserts a Link header into the HTTP response to a request that asked for paging.
  * The Link header is defined in RFC 5988 and is used to communicated to the client the URLs for the next
- * page, previous page, first page, and last page.
+ * page, previous page, first page, and last page. Requests paging by keyset only receive links to the
+ * next and first pages, as keyset cursors can only move forward.
  */
 @Provider
 @Priority(Priorities.HEADER_DECORATOR)
@@ -102,18 +103,32 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         try {
             LinkHeader header = new LinkHeader();
 
-            Integer next = getNextPage(page);
-            if (next != null) {
-                header.addLink("next", "next", buildPageLink(builder, next), LINK_TYPE);
+            if (page.getPageRequest().isKeyset()) {
+                this.addKeysetLinks(header, builder, page);
             }
+            else if (page.getMaxRecords() != null) {
+                Integer next = getNextPage(page);
+                if (next != null) {
+                    header.addLink("next", "next", buildPageLink(builder, next), LINK_TYPE);
+                }
+
+                Integer prev = getPrevPage(page);
+                if (prev != null) {
+                    header.addLink("prev", "prev", buildPageLink(builder, prev), LINK_TYPE);
+                }
 
-            Integer prev = getPrevPage(page);
-            if (prev != null) {
-                header.addLink("prev", "prev", buildPageLink(builder, prev), LINK_TYPE);
+                header.addLink("first", "first", buildPageLink(builder, 1), LINK_TYPE);
+                header.addLink("last", "last", buildPageLink(builder, getLastPage(page)), LINK_TYPE);
             }
+            else {
+                // Without a record count, we can't know where the last page is
+                int current = page.getPageRequest().getPage();
+                if (current > 1) {
+                    header.addLink("prev", "prev", buildPageLink(builder, current - 1), LINK_TYPE);
+                }
 
-            header.addLink("first", "first", buildPageLink(builder, 1), LINK_TYPE);
-            header.addLink("last", "last", buildPageLink(builder, getLastPage(page)), LINK_TYPE);
+                header.addLink("first", "first", buildPageLink(builder, 1), LINK_TYPE);
+            }
 
             respContext.getHeaders().add(LINK_HEADER, header.toString());
         }
@@ -123,13 +138,28 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
                 MAX_LINK_LENGTH, e);
         }
 
-        respContext.getHeaders().add(TOTAL_RECORDS_COUNT, page.getMaxRecords());
+        if (page.getMaxRecords() != null) {
+            respContext.getHeaders().add(TOTAL_RECORDS_COUNT, page.getMaxRecords());
+        }
+    }
+
+    protected void addKeysetLinks(LinkHeader header, UriBuilder builder, Page<?> page) {
+        if (page.getNextCursor() != null) {
+            String token = page.getNextCursor().encode();
+            header.addLink("next", "next", buildLink(builder, PageRequest.CURSOR_PARAM, token), LINK_TYPE);
+        }
+
+        header.addLink("first", "first", buildLink(builder, PageRequest.CURSOR_PARAM, ""), LINK_TYPE);
     }
 
     protected String buildPageLink(UriBuilder b, int value) {
+        return this.buildLink(b, PageRequest.PAGE_PARAM, String.valueOf(value));
+    }
+
+    protected String buildLink(UriBuilder b, String param, String value) {
         // Copy so we can use the same builder for building each link.
         UriBuilder builder = b.clone();
-        builder.queryParam(PageRequest.PAGE_PARAM, String.valueOf(value));
+        builder.queryParam(param, value);
 
         String link = builder.build().toString();
 
@@ -207,7 +237,9 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         // parameters provided too.
         if (params != null) {
             for (Entry<String, List<String>> e : params.entrySet()) {
-                if (!e.getKey().equals(PageRequest.PAGE_PARAM)) {
+                if (!e.getKey().equals(PageRequest.PAGE_PARAM) &&
+                    !e.getKey().equals(PageRequest.CURSOR_PARAM)) {
+
                     for (String v : e.getValue()) {
                         builder = builder.queryParam(e.getKey(), v);
                     }
@@ -15,6 +15,7 @@
 package org.candlepin.common.resteasy.filter;
 
 import org.candlepin.common.exceptions.BadRequestException;
+import org.candlepin.common.paging.KeysetCursor;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.common.paging.PageRequest.Order;
 
@@ -55,8 +56,12 @@ public class PageRequestFilter implements ContainerRequestFilter {
         String perPage = params.getFirst(PageRequest.PER_PAGE_PARAM);
         String order = params.getFirst(PageRequest.ORDER_PARAM);
         String sortBy = params.getFirst(PageRequest.SORT_BY_PARAM);
+        String cursor = params.getFirst(PageRequest.CURSOR_PARAM);
+        String includeCount = params.getFirst(PageRequest.INCLUDE_COUNT_PARAM);
+
+        if (page != null || perPage != null || order != null || sortBy != null || cursor != null ||
+            includeCount != null) {
 
-        if (page != null || perPage != null || order != null || sortBy != null) {
             p = new PageRequest();
 
             if (order == null) {
@@ -70,8 +75,20 @@ public class PageRequestFilter implements ContainerRequestFilter {
              * sortBy is null. */
             p.setSortBy(sortBy);
 
+            if (includeCount != null) {
+                p.setIncludeCount(Boolean.valueOf(includeCount));
+            }
+
             try {
-                if (page == null && perPage != null) {
+                if (cursor != null) {
+                    // Keyset paging; an empty cursor requests the first page. Endpoints which can
+                    // only page by offset reject keyset requests.
+                    p.setKeyset(true);
+                    p.setCursor(readCursor(cursor, p));
+                    p.setPage(PageRequest.DEFAULT_PAGE);
+                    p.setPerPage(perPage != null ? readInteger(perPage) : PageRequest.DEFAULT_PER_PAGE);
+                }
+                else if (page == null && perPage != null) {
                     p.setPage(PageRequest.DEFAULT_PAGE);
                     p.setPerPage(readInteger(perPage));
                 }
@@ -107,6 +124,30 @@ public class PageRequestFilter implements ContainerRequestFilter {
                 " \"ascending\" or \"descending\""));
     }
 
+    private KeysetCursor readCursor(String value, PageRequest pageRequest) {
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        KeysetCursor cursor;
+
+        try {
+            cursor = KeysetCursor.decode(value);
+        }
+        catch (IllegalArgumentException e) {
+            I18n i18n = this.i18nProvider.get();
+            throw new BadRequestException(i18n.tr("the cursor parameter is not a valid paging cursor"), e);
+        }
+
+        if (!cursor.matches(pageRequest)) {
+            I18n i18n = this.i18nProvider.get();
+            throw new BadRequestException(i18n.tr("the cursor parameter was generated for a different " +
+                "sort_by or order"));
+        }
+
+        return cursor;
+    }
+
     private Integer readInteger(String value) {
         if (value != null) {
             int i = Integer.parseInt(value);
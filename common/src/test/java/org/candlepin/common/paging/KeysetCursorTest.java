@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.common.paging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.stream.Stream;
+
+
+
+/**
+ * Test suite for the KeysetCursor class
+ */
+public class KeysetCursorTest {
+
+    private static Stream<Object> sortValues() {
+        Timestamp timestamp = new Timestamp(1234567890123L);
+        timestamp.setNanos(123456789);
+
+        return Stream.of("value with spaces & symbols/=?", new Date(1234567890123L), timestamp, 42L, 7,
+            Boolean.TRUE, "");
+    }
+
+    @ParameterizedTest
+    @MethodSource("sortValues")
+    public void testEncodeDecodeRoundTrip(Object value) {
+        KeysetCursor cursor = new KeysetCursor("created", PageRequest.Order.DESCENDING, value, "id-1");
+        String token = cursor.encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(token);
+        assertEquals("created", decoded.getSortBy());
+        assertEquals(PageRequest.Order.DESCENDING, decoded.getOrder());
+        assertEquals(value, decoded.getSortValue());
+        assertEquals(value.getClass(), decoded.getSortValue().getClass());
+        assertEquals("id-1", decoded.getId());
+    }
+
+    @Test
+    public void testTokenIsUrlSafe() {
+        KeysetCursor cursor = new KeysetCursor(null, null, "????>>>>", "id");
+        assertTrue(cursor.encode().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void testNullSortAndOrderRoundTrip() {
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(null, null, null, 5).encode());
+
+        assertNull(decoded.getSortBy());
+        assertNull(decoded.getOrder());
+        assertNull(decoded.getSortValue());
+        assertEquals(5, decoded.getId());
+    }
+
+    @Test
+    public void testUnsupportedValueTypeRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new KeysetCursor(null, null, new Object(), "id"));
+        assertThrows(IllegalArgumentException.class, () -> new KeysetCursor(null, null, "value", null));
+    }
+
+    @Test
+    public void testMalformedTokensRejected() {
+        String token = new KeysetCursor("key", PageRequest.Order.ASCENDING, "value", "id").encode();
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token.substring(0, 6)));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token + "AA"));
+    }
+
+    @Test
+    public void testMatches() {
+        KeysetCursor cursor = new KeysetCursor("key", PageRequest.Order.ASCENDING, "value", "id");
+
+        PageRequest request = new PageRequest();
+        request.setSortBy("key");
+        request.setOrder(PageRequest.Order.ASCENDING);
+        assertTrue(cursor.matches(request));
+
+        request.setOrder(PageRequest.Order.DESCENDING);
+        assertFalse(cursor.matches(request));
+
+        request.setOrder(PageRequest.Order.ASCENDING);
+        request.setSortBy("name");
+        assertFalse(cursor.matches(request));
+    }
+}
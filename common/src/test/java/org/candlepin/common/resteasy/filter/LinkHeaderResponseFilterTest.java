@@ -15,6 +15,7 @@
 package org.candlepin.common.resteasy.filter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.eq;
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.when;
 
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.config.MapConfiguration;
+import org.candlepin.common.paging.KeysetCursor;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 
@@ -400,4 +402,100 @@ public class LinkHeaderResponseFilterTest {
         // Make sure that the page variable is only contained 4 times (once for each URI)
         assertEquals(4, StringUtils.countMatches(header, "&page="));
     }
+
+    @Test
+    public void testPostProcessWithKeysetPaging() throws Exception {
+        PageRequest keysetRequest = new PageRequest();
+        keysetRequest.setKeyset(true);
+        keysetRequest.setPage(1);
+        keysetRequest.setPerPage(5);
+        keysetRequest.setOrder(PageRequest.Order.ASCENDING);
+
+        KeysetCursor cursor = new KeysetCursor(null, PageRequest.Order.ASCENDING, "key-5", "id-5");
+
+        Page<Object> keysetPage = new Page<>();
+        keysetPage.setPageRequest(keysetRequest);
+        keysetPage.setNextCursor(cursor);
+
+        when(config.containsKey(eq(this.apiUrlPrefixKey))).thenReturn(false);
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyContext.pushContext(Page.class, keysetPage);
+
+        mockReq = MockHttpRequest.create("GET",
+            new URI("/candlepin/resource?order=asc&cursor=&per_page=5"),
+            new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        interceptor.filter(mockRequestContext, mockResponseContext);
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+
+        assertTrue(header.contains("rel=\"first\""));
+        assertTrue(header.contains("rel=\"next\""));
+        assertFalse(header.contains("rel=\"last\""));
+        assertFalse(header.contains("rel=\"prev\""));
+        assertTrue(header.contains("cursor=" + cursor.encode()));
+        assertEquals(2, StringUtils.countMatches(header, "cursor="));
+
+        // Counting is opt-in for keyset paging
+        assertNull(map.getFirst(LinkHeaderResponseFilter.TOTAL_RECORDS_COUNT));
+    }
+
+    @Test
+    public void testPostProcessWithKeysetPagingOnLastPage() throws Exception {
+        PageRequest keysetRequest = new PageRequest();
+        keysetRequest.setKeyset(true);
+        keysetRequest.setPage(1);
+        keysetRequest.setPerPage(5);
+
+        Page<Object> keysetPage = new Page<>();
+        keysetPage.setPageRequest(keysetRequest);
+        keysetPage.setMaxRecords(3);
+
+        when(config.containsKey(eq(this.apiUrlPrefixKey))).thenReturn(false);
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyContext.pushContext(Page.class, keysetPage);
+
+        mockReq = MockHttpRequest.create("GET",
+            new URI("/candlepin/resource?cursor=&include_count=true"),
+            new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        interceptor.filter(mockRequestContext, mockResponseContext);
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+
+        assertTrue(header.contains("rel=\"first\""));
+        assertFalse(header.contains("rel=\"next\""));
+        assertEquals(3, map.getFirst(LinkHeaderResponseFilter.TOTAL_RECORDS_COUNT));
+    }
+
+    @Test
+    public void testPostProcessWithPagingWithoutCount() throws Exception {
+        when(page.getPageRequest()).thenReturn(pageRequest);
+        when(page.getMaxRecords()).thenReturn(null);
+        when(pageRequest.isPaging()).thenReturn(true);
+        when(pageRequest.getPage()).thenReturn(2);
+
+        when(config.containsKey(eq(this.apiUrlPrefixKey))).thenReturn(false);
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyContext.pushContext(Page.class, page);
+
+        mockReq = MockHttpRequest.create("GET",
+            new URI("/candlepin/resource?page=2&per_page=10&include_count=false"),
+            new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        interceptor.filter(mockRequestContext, mockResponseContext);
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+
+        assertTrue(header.contains("rel=\"first\""));
+        assertTrue(header.contains("rel=\"prev\""));
+        assertFalse(header.contains("rel=\"last\""));
+        assertNull(map.getFirst(LinkHeaderResponseFilter.TOTAL_RECORDS_COUNT));
+    }
 }
@@ -17,11 +17,13 @@ package org.candlepin.common.resteasy.filter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.guice.CommonI18nProvider;
+import org.candlepin.common.paging.KeysetCursor;
 import org.candlepin.common.paging.PageRequest;
 
 import org.jboss.resteasy.core.ResteasyContext;
@@ -174,4 +176,110 @@ public class PageRequestFilterTest {
         assertEquals(PageRequest.Order.DESCENDING, p.getOrder());
         assertEquals("id", p.getSortBy());
     }
+
+    @Test
+    public void testKeysetWithoutCursor() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?cursor=&per_page=20");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertTrue(p.isKeyset());
+        assertNull(p.getCursor());
+        assertEquals(Integer.valueOf(20), p.getPerPage());
+        assertFalse(p.isCounting());
+    }
+
+    @Test
+    public void testKeysetWithCursor() throws Exception {
+        KeysetCursor cursor = new KeysetCursor("id", PageRequest.Order.ASCENDING, "abc", "abc");
+
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?sort_by=id&order=asc&include_count=true&cursor=" +
+            cursor.encode());
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertTrue(p.isKeyset());
+        assertEquals("abc", p.getCursor().getSortValue());
+        assertEquals(PageRequest.DEFAULT_PER_PAGE, p.getPerPage());
+        assertTrue(p.isCounting());
+    }
+
+    @Test
+    public void testAfterDateFilterIsNotPaging() throws Exception {
+        // Several endpoints take "after" as a date filter, which must not be parsed as a cursor
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?after=2020-01-01");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertNull(p);
+    }
+
+    @Test
+    public void testAfterDateFilterWithOffsetPaging() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?after=2020-01-01T00:00:00Z&page=2&per_page=5");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertFalse(p.isKeyset());
+        assertNull(p.getCursor());
+        assertEquals(Integer.valueOf(2), p.getPage());
+        assertEquals(Integer.valueOf(5), p.getPerPage());
+    }
+
+    @Test
+    public void testKeysetRejectsMalformedCursor() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?cursor=bad_cursor");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
+    @Test
+    public void testKeysetRejectsCursorForDifferentSort() throws Exception {
+        KeysetCursor cursor = new KeysetCursor("id", PageRequest.Order.ASCENDING, "abc", "abc");
+
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?sort_by=key&order=asc&cursor=" + cursor.encode());
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        assertThrows(BadRequestException.class, () -> interceptor.filter(mockRequestContext));
+    }
+
+    @Test
+    public void testOffsetPagingCountsByDefault() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?page=2");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertFalse(p.isKeyset());
+        assertTrue(p.isCounting());
+    }
+
+    @Test
+    public void testOffsetPagingCountCanBeDisabled() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?page=2&include_count=false");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyContext.getContextData(PageRequest.class);
+        assertFalse(p.isCounting());
+    }
 }
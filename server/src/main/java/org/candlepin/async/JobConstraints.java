@@ -15,6 +15,7 @@
 package org.candlepin.async;
 
 import org.candlepin.async.impl.ThrottledByJobKeyConstraint;
+import org.candlepin.async.impl.ThrottledByOwnerConstraint;
 import org.candlepin.async.impl.UniqueByArgConstraint;
 
 import java.util.List;
@@ -74,4 +75,20 @@ public class JobConstraints {
     public static JobConstraint throttledByJobKey(String key, int limit) {
         return new ThrottledByJobKeyConstraint(key, limit);
     }
+
+    /**
+     * Creates a new per-owner throttling constraint, limiting the number of jobs with the given
+     * key that may exist in non-terminal states for any single owner.
+     *
+     * @param key
+     *  The job key by which you want to throttle jobs
+     * @param limit
+     *  The maximum number of non-terminal jobs with the given key per owner
+     *
+     * @return
+     *  a new per-owner throttling constraint
+     */
+    public static JobConstraint throttledByOwner(String key, int limit) {
+        return new ThrottledByOwnerConstraint(key, limit);
+    }
 }
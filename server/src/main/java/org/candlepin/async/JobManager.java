@@ -62,6 +62,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -73,6 +74,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -111,6 +115,9 @@ public class JobManager implements ModeChangeListener {
     private static final Object SUSPEND_KEY_DEFAULT = "default_suspend_key";
     private static final Object SUSPEND_KEY_TRIGGERED = "triggered_suspend_key";
 
+    /** How often, in milliseconds, to re-read job statuses while waiting for jobs to terminate */
+    private static final long STATUS_WAIT_RECHECK_INTERVAL = 5000;
+
     /** Stores our mapping of job keys to job classes */
     private static final Map<String, Class<? extends AsyncJob>> JOB_KEY_MAP = new HashMap<>();
 
@@ -256,6 +263,33 @@ public class JobManager implements ModeChangeListener {
         }
     }
 
+    /**
+     * The JobStatusSynchronizer notifies threads waiting on a job once the transaction moving the
+     * job to a terminal state has been committed.
+     */
+    private static class JobStatusSynchronizer implements Synchronization {
+        private final JobStatusNotifier notifier;
+    private final Semaphore statusWaiters;
+        private final String jobId;
+
+        public JobStatusSynchronizer(JobStatusNotifier notifier, String jobId) {
+            this.notifier = notifier;
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == Status.STATUS_COMMITTED) {
+                this.notifier.jobTerminated(this.jobId);
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            // Intentionally left empty
+        }
+    }
+
     /**
      * Registers the given class for the specified key. If the key was already registered to
      * another class, the previously registered class will be returned.
@@ -339,6 +373,8 @@ public class JobManager implements ModeChangeListener {
     private final CandlepinRequestScope candlepinRequestScope;
     private final PrincipalProvider principalProvider;
     private final Injector injector;
+    private final JobMetrics metrics;
+    private final JobStatusNotifier notifier;
 
     private ManagerState state;
     private JobMessageSynchronizer synchronizer;
@@ -367,7 +403,9 @@ public class JobManager implements ModeChangeListener {
         JobMessageReceiver receiver,
         PrincipalProvider principalProvider,
         CandlepinRequestScope scope,
-        Injector injector) {
+        Injector injector,
+        JobMetrics metrics,
+        JobStatusNotifier notifier) {
 
         this.configuration = Objects.requireNonNull(configuration);
         this.schedulerFactory = Objects.requireNonNull(schedulerFactory);
@@ -379,6 +417,10 @@ public class JobManager implements ModeChangeListener {
         this.candlepinRequestScope = Objects.requireNonNull(scope);
         this.principalProvider = Objects.requireNonNull(principalProvider);
         this.injector = Objects.requireNonNull(injector);
+        this.metrics = Objects.requireNonNull(metrics);
+        this.notifier = Objects.requireNonNull(notifier);
+        this.statusWaiters = new Semaphore(
+            Math.max(0, configuration.getInt(ConfigProperties.ASYNC_JOBS_STATUS_WAIT_MAX_WAITERS)));
 
         this.state = ManagerState.CREATED;
         this.qrtzExecutor = new QuartzJobExecutor(this);
@@ -824,6 +866,85 @@ public class JobManager implements ModeChangeListener {
         return true;
     }
 
+    /**
+     * Fetches the message priority configured for the given job key. Jobs with a higher priority
+     * are picked up ahead of lower priority jobs waiting in the job queue, regardless of the order
+     * in which they were queued.
+     *
+     * @param jobKey
+     *  the key of the job for which to fetch the priority
+     *
+     * @return
+     *  the configured priority for the job, from 0 (lowest) to 9 (highest), or null if the job
+     *  does not define a valid priority
+     */
+    private Integer getJobPriority(String jobKey) {
+        Configuration config = jobKey != null ? this.jobConfig.get(jobKey) : null;
+
+        if (config != null && config.containsKey(ConfigProperties.ASYNC_JOBS_JOB_PRIORITY)) {
+            int priority = config.getInt(ConfigProperties.ASYNC_JOBS_JOB_PRIORITY);
+
+            if (priority >= 0 && priority <= 9) {
+                return priority;
+            }
+
+            log.warn("Ignoring invalid priority for job {}: {}", jobKey, priority);
+        }
+
+        return null;
+    }
+
+    /**
+     * Fetches the constraints to apply when queueing the job represented by the given job config.
+     * In addition to the constraints defined by the job itself, this includes a per-owner throttling
+     * constraint if an owner limit is configured for the job.
+     *
+     * @param config
+     *  the config of the job being queued
+     *
+     * @return
+     *  a collection of constraints to apply to the job
+     */
+    private Collection<JobConstraint> getJobConstraints(JobConfig config) {
+        Collection<JobConstraint> constraints = config.getConstraints();
+        Configuration jobConfig = this.jobConfig.get(config.getJobKey());
+
+        if (jobConfig != null && jobConfig.containsKey(ConfigProperties.ASYNC_JOBS_JOB_OWNER_LIMIT)) {
+            int limit = jobConfig.getInt(ConfigProperties.ASYNC_JOBS_JOB_OWNER_LIMIT);
+
+            if (limit > 0) {
+                constraints = new ArrayList<>(constraints != null ? constraints : Collections.emptyList());
+                constraints.add(JobConstraints.throttledByOwner(config.getJobKey(), limit));
+            }
+        }
+
+        return constraints;
+    }
+
+    /**
+     * Fetches the runtime metrics collected for jobs queued and executed by this node
+     *
+     * @return
+     *  the job metrics for this node
+     */
+    public JobMetrics getJobMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Fetches the number of jobs in the given states for each owner and job key. Each combination
+     * of owner and job key represents a lane of work competing for the job threads.
+     *
+     * @param states
+     *  the job states to count; if null or empty, jobs in any non-terminal state are counted
+     *
+     * @return
+     *  a map of owner keys to maps of job keys and job counts
+     */
+    public Map<String, Map<String, Long>> getJobCountsByLane(Collection<JobState> states) {
+        return this.jobCurator.getJobCountsByLane(states);
+    }
+
     /**
      * Checks if the job scheduler is enabled.
      * <p></p>
@@ -1041,6 +1162,101 @@ public class JobManager implements ModeChangeListener {
         return this.jobCurator.findJobs(queryBuilder);
     }
 
+    /**
+     * Fetches the job statuses associated with the specified job IDs, optionally waiting for the
+     * jobs to reach a terminal state. If a positive timeout is provided, this method blocks until
+     * every job found is in a terminal state or the timeout elapses, whichever comes first, and
+     * then returns the latest known statuses.
+     * <p></p>
+     * While waiting, the job statuses are only re-read from the database when this node commits a
+     * terminal state transition for one of the jobs, or periodically, to pick up transitions made
+     * by other nodes.
+     * <p></p>
+     * Since every waiting caller holds its thread, the number of concurrent waiters is limited by
+     * the {@link ConfigProperties#ASYNC_JOBS_STATUS_WAIT_MAX_WAITERS} configuration. Once that
+     * limit is reached, further calls return the current statuses without waiting.
+     *
+     * @param jobIds
+     *  a collection of IDs of the jobs to fetch
+     *
+     * @param timeout
+     *  the maximum amount of time to wait for the jobs to reach a terminal state, in milliseconds;
+     *  zero or negative values disable waiting
+     *
+     * @throws IllegalArgumentException
+     *  if jobIds is null
+     *
+     * @return
+     *  a list containing the job statuses found for the given job IDs
+     */
+    public List<AsyncJobStatus> waitForJobs(Collection<String> jobIds, long timeout) {
+        if (jobIds == null) {
+            throw new IllegalArgumentException("jobIds is null");
+        }
+
+        AsyncJobStatusQueryBuilder queryBuilder = new AsyncJobStatusQueryBuilder()
+            .setJobIds(jobIds);
+
+        if (timeout > 0) {
+            if (this.statusWaiters.tryAcquire()) {
+                try {
+                    return this.waitForJobs(jobIds, queryBuilder, timeout);
+                }
+                finally {
+                    this.statusWaiters.release();
+                }
+            }
+
+            log.debug("Too many requests waiting on job statuses; returning current statuses for: {}",
+                jobIds);
+        }
+
+        return this.jobCurator.findJobs(queryBuilder);
+    }
+
+    /**
+     * Waits for the jobs matched by the given query to reach a terminal state, or for the timeout
+     * to elapse. Callers must hold a status waiter permit.
+     */
+    private List<AsyncJobStatus> waitForJobs(Collection<String> jobIds,
+        AsyncJobStatusQueryBuilder queryBuilder, long timeout) {
+
+        long deadline = System.currentTimeMillis() + timeout;
+        List<AsyncJobStatus> statuses = null;
+
+        while (true) {
+            // Register before reading the statuses so we don't miss a transition committed between
+            // the read and the wait
+            CountDownLatch latch = this.notifier.register(jobIds);
+
+            try {
+                if (statuses != null) {
+                    // Evict the stale statuses so the query below re-reads them from the database
+                    this.jobCurator.evictAll(statuses);
+                }
+
+                statuses = this.jobCurator.findJobs(queryBuilder);
+
+                long remaining = deadline - System.currentTimeMillis();
+                boolean pending = statuses.stream()
+                    .anyMatch(status -> status.getState() == null || !status.getState().isTerminal());
+
+                if (remaining <= 0 || !pending) {
+                    return statuses;
+                }
+
+                latch.await(Math.min(remaining, STATUS_WAIT_RECHECK_INTERVAL), TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return statuses;
+            }
+            finally {
+                this.notifier.unregister(jobIds, latch);
+            }
+        }
+    }
+
     /**
      * Queues a job to be run on any Candlepin node backed by the same database as this node, and
      * is configured to process jobs matching the type of the specified job. If multiple nodes are
@@ -1088,7 +1304,7 @@ public class JobManager implements ModeChangeListener {
 
         try {
             // Check if the queueing is blocked by constraints
-            Collection<JobConstraint> constraints = config.getConstraints();
+            Collection<JobConstraint> constraints = this.getJobConstraints(config);
             Set<String> blockingJobIds = new HashSet<>();
 
             if (constraints != null && !constraints.isEmpty()) {
@@ -1107,6 +1323,7 @@ public class JobManager implements ModeChangeListener {
             if (blockingJobIds.isEmpty()) {
                 // Build and send the job message and update the job state accordingly
                 status = this.postJobStatusMessage(status);
+                this.metrics.jobQueued(status.getJobKey());
                 log.info("Job queued: {}", status);
             }
             else {
@@ -1197,7 +1414,8 @@ public class JobManager implements ModeChangeListener {
 
         try {
             // Build and send the job message
-            JobMessage message = new JobMessage(status.getId(), status.getJobKey());
+            JobMessage message = new JobMessage(status.getId(), status.getJobKey())
+                .setPriority(this.getJobPriority(status.getJobKey()));
             this.dispatcher.postJobMessage(message);
 
             // Update the job's status
@@ -1288,12 +1506,19 @@ public class JobManager implements ModeChangeListener {
                 throw new JobInitializationException(errmsg);
             }
 
+            // The job's last update is the point at which it was (re)queued
+            Date queued = status.getUpdated();
+            Date started = new Date();
+
             status.setExecutor(Util.getHostname());
             status.incrementAttempts();
-            status.setStartTime(new Date());
+            status.setStartTime(started);
             status.setEndTime(null);
             status = this.updateJobStatus(status, JobState.RUNNING, null);
 
+            this.metrics.jobStarted(status.getJobKey(),
+                queued != null ? started.getTime() - queued.getTime() : -1);
+
             // Impl note: We need to be sure we do not have a transaction open at this point
             EntityTransaction transaction = this.jobCurator.getTransaction();
             if (transaction != null && transaction.isActive()) {
@@ -1314,12 +1539,14 @@ public class JobManager implements ModeChangeListener {
             catch (JobExecutionException e) {
                 boolean retry = !e.isTerminal() && status.getAttempts() < status.getMaxAttempts();
                 status = this.processJobFailure(status, eventSink, e, retry);
+                this.metrics.jobCompleted(status.getJobKey(), this.getJobRuntime(status), false, retry);
 
                 throw e;
             }
             catch (Exception e) {
                 boolean retry = status.getAttempts() < status.getMaxAttempts();
                 status = this.processJobFailure(status, eventSink, e, retry);
+                this.metrics.jobCompleted(status.getJobKey(), this.getJobRuntime(status), false, retry);
 
                 throw new JobExecutionException(e);
             }
@@ -1327,6 +1554,7 @@ public class JobManager implements ModeChangeListener {
             eventSink.sendEvents();
             status.setEndTime(new Date());
             status = this.updateJobStatus(status, JobState.FINISHED);
+            this.metrics.jobCompleted(status.getJobKey(), this.getJobRuntime(status), true, false);
 
             if (status.logExecutionDetails()) {
                 log.info("Job \"{}\" completed in {}ms", status.getName(), this.getJobRuntime(status));
@@ -1589,7 +1817,13 @@ public class JobManager implements ModeChangeListener {
 
         try {
             this.setJobState(status, state);
-            return this.jobCurator.merge(status);
+            status = this.jobCurator.merge(status);
+
+            if (state.isTerminal()) {
+                this.notifyJobTerminated(status);
+            }
+
+            return status;
         }
         catch (Exception e) {
             String errmsg = String.format("Unable to update job state for job \"%s\": %s -> %s",
@@ -1715,11 +1949,34 @@ public class JobManager implements ModeChangeListener {
             }
 
             status = this.jobCurator.merge(status);
+
+            if (status.getState().isTerminal()) {
+                this.notifyJobTerminated(status);
+            }
         }
 
         return status;
     }
 
+    /**
+     * Notifies threads waiting on the given job that it has reached a terminal state. If a
+     * database transaction is active, the notification is deferred until the transaction commits.
+     *
+     * @param status
+     *  the job status which reached a terminal state
+     */
+    private void notifyJobTerminated(AsyncJobStatus status) {
+        Session session = this.jobCurator.currentSession();
+        Transaction transaction = session != null ? session.getTransaction() : null;
+
+        if (transaction != null && transaction.getStatus().isOneOf(JobMessageSynchronizer.ACTIVE_STATES)) {
+            transaction.registerSynchronization(new JobStatusSynchronizer(this.notifier, status.getId()));
+        }
+        else {
+            this.notifier.jobTerminated(status.getId());
+        }
+    }
+
     /**
      * Cleans up all jobs in the given terminal states within the date range provided. If no states
      * are provided, this method defaults to all terminal states. If non-terminal states are
@@ -15,6 +15,7 @@
 package org.candlepin.async;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 
@@ -25,6 +26,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class JobMessage {
     private String jobId;
     private String jobKey;
+    private Integer priority;
 
     @JsonCreator
     public JobMessage(@JsonProperty("jobId") String jobId, @JsonProperty("jobKey") String jobKey) {
@@ -61,6 +63,33 @@ public class JobMessage {
         return this.jobKey;
     }
 
+    /**
+     * Fetches the delivery priority of this message. The priority is used only when dispatching
+     * the message, and is not included in the serialized message.
+     *
+     * @return
+     *  The delivery priority of this message, or null if the default priority should be used
+     */
+    @JsonIgnore
+    public Integer getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * Sets the delivery priority of this message, from 0 (lowest) to 9 (highest).
+     *
+     * @param priority
+     *  The delivery priority of this message, or null to use the default priority
+     *
+     * @return
+     *  a reference to this job message
+     */
+    @JsonIgnore
+    public JobMessage setPriority(Integer priority) {
+        this.priority = priority;
+        return this;
+    }
+
     @Override
     public String toString() {
         return String.format("JobMessage [id: %s, key: %s]", this.jobKey, this.jobId);
@@ -290,6 +290,10 @@ public class JobMessageDispatcher {
                 .setDurable(true)
                 .setProperty(JOB_KEY_MESSAGE_PROPERTY, jobMessage.getJobKey());
 
+            if (jobMessage.getPriority() != null) {
+                message.setPriority(jobMessage.getPriority());
+            }
+
             String serializedJobMessage = this.objMapper.writeValueAsString(jobMessage);
             message.setBody(serializedJobMessage);
 
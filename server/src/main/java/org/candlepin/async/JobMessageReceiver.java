@@ -58,6 +58,7 @@ public class JobMessageReceiver {
     private final Configuration config;
     private final CPMSessionFactory cpmSessionFactory;
     private final ObjectMapper mapper;
+    private final JobMetrics metrics;
 
     private boolean initialized;
     private boolean suspended;
@@ -79,15 +80,19 @@ public class JobMessageReceiver {
      *
      * @param mapper
      *  the object mapper to use to deserialize job messages
+     *
+     * @param metrics
+     *  the job metrics to update as job messages are processed
      */
     @Inject
     public JobMessageReceiver(Configuration config, CPMSessionFactory cpmSessionFactory,
-        ObjectMapper mapper, UnitOfWork unitOfWork) {
+        ObjectMapper mapper, UnitOfWork unitOfWork, JobMetrics metrics) {
 
         this.config = Objects.requireNonNull(config);
         this.cpmSessionFactory = Objects.requireNonNull(cpmSessionFactory);
         this.mapper = Objects.requireNonNull(mapper);
         this.unitOfWork = Objects.requireNonNull(unitOfWork);
+        this.metrics = Objects.requireNonNull(metrics);
 
         this.initialized = false;
         this.suspended = false;
@@ -245,7 +250,7 @@ public class JobMessageReceiver {
         }
 
         try {
-            this.listener = new MessageListener(manager, this.mapper, this.unitOfWork);
+            this.listener = new MessageListener(manager, this.mapper, this.unitOfWork, this.metrics);
             this.filter = this.buildAMQPFilterExpression();
 
             int listenerThreads = this.config.getInt(ConfigProperties.ASYNC_JOBS_THREADS);
@@ -355,6 +360,7 @@ public class JobMessageReceiver {
         private final JobManager manager;
         private final ObjectMapper mapper;
         private final UnitOfWork unitOfWork;
+        private final JobMetrics metrics;
 
         /**
          * Initializes a new message listener using the specified job manager to process
@@ -362,11 +368,17 @@ public class JobMessageReceiver {
          *
          * @param manager
          *  The JobManager instance to process received job messages; cannot be null
+         *
+         * @param metrics
+         *  The JobMetrics instance to update as job messages are processed; cannot be null
          */
-        public MessageListener(JobManager manager, ObjectMapper mapper, UnitOfWork unitOfWork) {
+        public MessageListener(JobManager manager, ObjectMapper mapper, UnitOfWork unitOfWork,
+            JobMetrics metrics) {
+
             this.manager = Objects.requireNonNull(manager);
             this.mapper = Objects.requireNonNull(mapper);
             this.unitOfWork = Objects.requireNonNull(unitOfWork);
+            this.metrics = Objects.requireNonNull(metrics);
         }
 
         /**
@@ -374,6 +386,8 @@ public class JobMessageReceiver {
          */
         @Override
         public void handleMessage(CPMSession session, CPMConsumer consumer, CPMMessage message) {
+            JobMessage jobMessage = null;
+
             try {
                 if (log.isDebugEnabled()) {
                     log.debug("Received message: {}", this.serializeMessage(message));
@@ -385,9 +399,11 @@ public class JobMessageReceiver {
                 message.acknowledge();
 
                 // Read the message and deserialize the data.
-                JobMessage jobMessage = this.mapper.readValue(message.getBody(), JobMessage.class);
+                jobMessage = this.mapper.readValue(message.getBody(), JobMessage.class);
                 log.debug("Deserialized job message: {}", jobMessage);
 
+                this.metrics.messageReceived(jobMessage.getJobKey());
+
                 this.unitOfWork.begin();
 
                 // Execute the job
@@ -485,6 +501,10 @@ public class JobMessageReceiver {
                 this.rollback(session);
             }
             finally {
+                if (jobMessage != null) {
+                    this.metrics.messageProcessed(jobMessage.getJobKey());
+                }
+
                 this.unitOfWork.end();
             }
         }
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async;
+
+import org.candlepin.util.Util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * The JobMetrics class collects runtime metrics for the jobs queued and executed by this node:
+ * per-job-key histograms for the time jobs spend waiting in the queue and executing, counters for
+ * queued, completed, failed and retried jobs, and the number of jobs currently in flight on this
+ * node.
+ * <p></p>
+ * Metrics are held in memory and reset when the node restarts.
+ */
+@Singleton
+public class JobMetrics {
+
+    /** The upper bounds, in milliseconds, of the histogram buckets */
+    private static final long[] BUCKET_BOUNDS = {
+        10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 300000, 900000, 3600000
+    };
+
+    /**
+     * A lock-free histogram of durations, using fixed, exponentially increasing bucket bounds.
+     * Percentiles are estimated as the upper bound of the bucket containing the requested rank.
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets;
+        private final AtomicLong count;
+        private final AtomicLong sum;
+        private final AtomicLong max;
+
+        public Histogram() {
+            // One additional bucket for durations beyond the last bound
+            this.buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+            this.count = new AtomicLong();
+            this.sum = new AtomicLong();
+            this.max = new AtomicLong();
+        }
+
+        /**
+         * Records the given duration in this histogram. Negative durations are recorded as zero.
+         *
+         * @param duration
+         *  the duration to record, in milliseconds
+         */
+        public void record(long duration) {
+            duration = Math.max(0, duration);
+
+            int index = Arrays.binarySearch(BUCKET_BOUNDS, duration);
+            this.buckets.incrementAndGet(index >= 0 ? index : -(index + 1));
+
+            this.count.incrementAndGet();
+            this.sum.addAndGet(duration);
+            this.max.accumulateAndGet(duration, Math::max);
+        }
+
+        public long getCount() {
+            return this.count.get();
+        }
+
+        public long getSum() {
+            return this.sum.get();
+        }
+
+        public long getMax() {
+            return this.max.get();
+        }
+
+        public long getP50() {
+            return this.getPercentile(0.50);
+        }
+
+        public long getP90() {
+            return this.getPercentile(0.90);
+        }
+
+        public long getP99() {
+            return this.getPercentile(0.99);
+        }
+
+        /**
+         * Fetches the cumulative bucket counts of this histogram, keyed by the upper bound of each
+         * bucket in milliseconds. The final bucket, containing every recorded duration, is keyed by
+         * Long.MAX_VALUE.
+         *
+         * @return
+         *  a sorted map of bucket upper bounds to cumulative counts
+         */
+        public SortedMap<Long, Long> getBuckets() {
+            SortedMap<Long, Long> output = new TreeMap<>();
+            long cumulative = 0;
+
+            for (int i = 0; i < this.buckets.length(); ++i) {
+                cumulative += this.buckets.get(i);
+                output.put(i < BUCKET_BOUNDS.length ? BUCKET_BOUNDS[i] : Long.MAX_VALUE, cumulative);
+            }
+
+            return output;
+        }
+
+        private long getPercentile(double percentile) {
+            long total = this.count.get();
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(total * percentile);
+            long cumulative = 0;
+
+            for (int i = 0; i < BUCKET_BOUNDS.length; ++i) {
+                cumulative += this.buckets.get(i);
+
+                if (cumulative >= rank) {
+                    return Math.min(BUCKET_BOUNDS[i], this.max.get());
+                }
+            }
+
+            return this.max.get();
+        }
+    }
+
+    /**
+     * The metrics collected for a single job key
+     */
+    public static class JobKeyMetrics {
+        private final Histogram queueWait;
+        private final Histogram execution;
+        private final AtomicLong queued;
+        private final AtomicLong completed;
+        private final AtomicLong failed;
+        private final AtomicLong retried;
+        private final AtomicInteger inFlight;
+
+        public JobKeyMetrics() {
+            this.queueWait = new Histogram();
+            this.execution = new Histogram();
+            this.queued = new AtomicLong();
+            this.completed = new AtomicLong();
+            this.failed = new AtomicLong();
+            this.retried = new AtomicLong();
+            this.inFlight = new AtomicInteger();
+        }
+
+        public Histogram getQueueWait() {
+            return this.queueWait;
+        }
+
+        public Histogram getExecution() {
+            return this.execution;
+        }
+
+        public long getQueued() {
+            return this.queued.get();
+        }
+
+        public long getCompleted() {
+            return this.completed.get();
+        }
+
+        public long getFailed() {
+            return this.failed.get();
+        }
+
+        public long getRetried() {
+            return this.retried.get();
+        }
+
+        public int getInFlight() {
+            return this.inFlight.get();
+        }
+    }
+
+    private final String executor;
+    private final Map<String, JobKeyMetrics> metrics;
+    private final AtomicInteger inFlight;
+
+    public JobMetrics() {
+        this.executor = Util.getHostname();
+        this.metrics = new ConcurrentHashMap<>();
+        this.inFlight = new AtomicInteger();
+    }
+
+    private JobKeyMetrics getOrCreate(String jobKey) {
+        return this.metrics.computeIfAbsent(jobKey != null ? jobKey : "unknown", key -> new JobKeyMetrics());
+    }
+
+    /**
+     * Records that a job with the given key was queued.
+     *
+     * @param jobKey
+     *  the key of the queued job
+     */
+    public void jobQueued(String jobKey) {
+        this.getOrCreate(jobKey).queued.incrementAndGet();
+    }
+
+    /**
+     * Records that a job with the given key was picked up for execution after waiting in the queue
+     * for the given duration.
+     *
+     * @param jobKey
+     *  the key of the job starting execution
+     *
+     * @param queueWait
+     *  the time the job spent waiting in the queue, in milliseconds, or a negative value if the
+     *  wait time is not known
+     */
+    public void jobStarted(String jobKey, long queueWait) {
+        JobKeyMetrics keyMetrics = this.getOrCreate(jobKey);
+
+        if (queueWait >= 0) {
+            keyMetrics.queueWait.record(queueWait);
+        }
+    }
+
+    /**
+     * Records the completion of an execution attempt of a job with the given key.
+     *
+     * @param jobKey
+     *  the key of the executed job
+     *
+     * @param runtime
+     *  the duration of the execution attempt, in milliseconds
+     *
+     * @param successful
+     *  whether or not the job completed successfully
+     *
+     * @param retry
+     *  whether or not a failed job will be retried
+     */
+    public void jobCompleted(String jobKey, long runtime, boolean successful, boolean retry) {
+        JobKeyMetrics keyMetrics = this.getOrCreate(jobKey);
+        keyMetrics.execution.record(runtime);
+
+        if (successful) {
+            keyMetrics.completed.incrementAndGet();
+        }
+        else if (retry) {
+            keyMetrics.retried.incrementAndGet();
+        }
+        else {
+            keyMetrics.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records that this node has started processing a job message with the given job key. Each
+     * call must be paired with a call to messageProcessed.
+     *
+     * @param jobKey
+     *  the key of the job being processed
+     */
+    public void messageReceived(String jobKey) {
+        this.getOrCreate(jobKey).inFlight.incrementAndGet();
+        this.inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records that this node has finished processing a job message with the given job key.
+     *
+     * @param jobKey
+     *  the key of the job which was processed
+     */
+    public void messageProcessed(String jobKey) {
+        this.getOrCreate(jobKey).inFlight.decrementAndGet();
+        this.inFlight.decrementAndGet();
+    }
+
+    /**
+     * Fetches the name of the executor (node) to which these metrics belong
+     *
+     * @return
+     *  the name of the executor these metrics belong to
+     */
+    public String getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Fetches the number of jobs currently being processed by this node
+     *
+     * @return
+     *  the number of jobs in flight on this node
+     */
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Fetches the metrics collected for each job key, sorted by job key
+     *
+     * @return
+     *  a sorted map of job keys to the metrics collected for them
+     */
+    public SortedMap<String, JobKeyMetrics> getJobKeyMetrics() {
+        return new TreeMap<>(this.metrics);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * The JobStatusNotifier allows threads to block until one of a given set of jobs reaches a
+ * terminal state on this node, rather than repeatedly polling the database for job statuses.
+ * <p></p>
+ * Only state transitions committed by this node are observed; transitions performed by other
+ * nodes in a cluster are not, so waiting threads should always bound their waits and re-check
+ * the job statuses periodically.
+ */
+@Singleton
+public class JobStatusNotifier {
+
+    private final Map<String, Set<CountDownLatch>> waiters;
+
+    public JobStatusNotifier() {
+        this.waiters = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a new waiter for the given jobs. The returned latch is released the first time
+     * any of the jobs is reported as having reached a terminal state. Every registered latch must
+     * be released with a call to unregister once the caller is done waiting.
+     *
+     * @param jobIds
+     *  a collection of IDs of the jobs to wait on
+     *
+     * @throws IllegalArgumentException
+     *  if jobIds is null
+     *
+     * @return
+     *  a latch released when any of the given jobs reaches a terminal state
+     */
+    public CountDownLatch register(Collection<String> jobIds) {
+        if (jobIds == null) {
+            throw new IllegalArgumentException("jobIds is null");
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+
+        for (String jobId : jobIds) {
+            this.waiters.computeIfAbsent(jobId, key -> ConcurrentHashMap.newKeySet())
+                .add(latch);
+        }
+
+        return latch;
+    }
+
+    /**
+     * Removes a waiter previously registered for the given jobs.
+     *
+     * @param jobIds
+     *  the collection of job IDs with which the latch was registered
+     *
+     * @param latch
+     *  the latch to unregister
+     */
+    public void unregister(Collection<String> jobIds, CountDownLatch latch) {
+        if (jobIds == null || latch == null) {
+            return;
+        }
+
+        for (String jobId : jobIds) {
+            this.waiters.computeIfPresent(jobId, (key, latches) -> {
+                latches.remove(latch);
+                return latches.isEmpty() ? null : latches;
+            });
+        }
+    }
+
+    /**
+     * Notifies any threads waiting on the specified job that it has reached a terminal state.
+     *
+     * @param jobId
+     *  the ID of the job which reached a terminal state
+     */
+    public void jobTerminated(String jobId) {
+        if (jobId == null) {
+            return;
+        }
+
+        Set<CountDownLatch> latches = this.waiters.get(jobId);
+        if (latches != null) {
+            latches.forEach(CountDownLatch::countDown);
+        }
+    }
+
+    /**
+     * Fetches the number of jobs currently being waited on
+     *
+     * @return
+     *  the number of jobs with at least one registered waiter
+     */
+    public int getWaitedJobCount() {
+        return this.waiters.size();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import org.candlepin.async.JobConstraint;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.AsyncJobStatusCurator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * The ThrottledByOwnerConstraint constrains queuing of a job if the job's context owner already
+ * has the given number of jobs with the same key in non-terminal states. Jobs which are not run in
+ * the context of an owner are never constrained.
+ */
+public class ThrottledByOwnerConstraint implements JobConstraint {
+
+    private final String jobKey;
+    private final int limit;
+
+    public ThrottledByOwnerConstraint(String jobKey, int limit) {
+        if (jobKey == null || jobKey.isEmpty()) {
+            throw new IllegalArgumentException("Job key must be provided!");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be a positive integer!");
+        }
+        this.jobKey = jobKey;
+        this.limit = limit;
+    }
+
+    /**
+     * @{inheritDoc}
+     */
+    @Override
+    public Collection<String> test(AsyncJobStatusCurator jobCurator, AsyncJobStatus inbound) {
+        if (jobCurator == null) {
+            throw new IllegalArgumentException("jobCurator is null");
+        }
+
+        if (inbound == null) {
+            throw new IllegalArgumentException("inbound is null");
+        }
+
+        String ownerId = inbound.getContextOwnerId();
+        if (ownerId == null || ownerId.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> matching = jobCurator.fetchJobIdsByOwner(this.jobKey, ownerId);
+        return (matching != null && matching.size() >= this.limit) ? matching : Collections.emptyList();
+    }
+
+}
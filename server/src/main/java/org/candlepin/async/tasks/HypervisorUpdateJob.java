@@ -30,6 +30,7 @@ import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.service.impl.HypervisorUpdateAction;
+import org.candlepin.util.HypervisorReportCache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
@@ -66,6 +67,7 @@ public class HypervisorUpdateJob implements AsyncJob {
     private static final String REPORTER_ID_KEY = "reporter_id";
     private static final String DATA_KEY = "data";
     private static final String PRINCIPAL_KEY = "principal";
+    private static final String FINGERPRINT_KEY = "fingerprint";
     private static final int BULK_SIZE = 10;
 
     private ObjectMapper mapper;
@@ -74,6 +76,7 @@ public class HypervisorUpdateJob implements AsyncJob {
     private HypervisorUpdateAction hypervisorUpdateAction;
     private I18n i18n;
     private ModelTranslator translator;
+    private HypervisorReportCache reportCache;
 
     @Inject
     public HypervisorUpdateJob(
@@ -82,7 +85,8 @@ public class HypervisorUpdateJob implements AsyncJob {
         final ModelTranslator translator,
         final HypervisorUpdateAction hypervisorUpdateAction,
         final I18n i18n,
-        @Named("HypervisorUpdateJobObjectMapper") final ObjectMapper objectMapper) {
+        @Named("HypervisorUpdateJobObjectMapper") final ObjectMapper objectMapper,
+        final HypervisorReportCache reportCache) {
 
         this.ownerCurator = Objects.requireNonNull(ownerCurator);
         this.consumerCurator = Objects.requireNonNull(consumerCurator);
@@ -90,6 +94,7 @@ public class HypervisorUpdateJob implements AsyncJob {
         this.hypervisorUpdateAction = Objects.requireNonNull(hypervisorUpdateAction);
         this.i18n = Objects.requireNonNull(i18n);
         this.mapper = Objects.requireNonNull(objectMapper);
+        this.reportCache = Objects.requireNonNull(reportCache);
     }
 
     public static HypervisorUpdateJobConfig createJobConfig() {
@@ -126,12 +131,23 @@ public class HypervisorUpdateJob implements AsyncJob {
                 return;
             }
 
+            // The fingerprint is confirmed on this node, which may not be the node which received
+            // the report, so it must be recorded as pending here as well
+            String fingerprint = arguments.getAsString(FINGERPRINT_KEY);
+            this.reportCache.markPending(ownerKey, jobReporterId, fingerprint);
+
             final HypervisorList hypervisors = parsedHypervisors(arguments);
             final HypervisorUpdateAction.Result updateResult = hypervisorUpdateAction.update(
                 owner, hypervisors.getHypervisors(), create, principal, jobReporterId);
             final HypervisorUpdateResultDTO result = updateResult.getResult();
 
             log.info("Summary for report from {} by principal {}\n {}", jobReporterId, principal, result);
+
+            // Only a report reconciled without failures may be used to skip the reports following it
+            if (result.getFailedUpdate() == null || result.getFailedUpdate().isEmpty()) {
+                this.reportCache.confirm(ownerKey, jobReporterId, fingerprint);
+            }
+
             context.setJobResult(result);
         }
         catch (Exception e) {
@@ -218,6 +234,22 @@ public class HypervisorUpdateJob implements AsyncJob {
             return this;
         }
 
+        /**
+         * Sets the fingerprint of the report processed by this job, which is confirmed in the
+         * {@link HypervisorReportCache} once the report has been reconciled.
+         *
+         * @param fingerprint
+         *  the fingerprint of the report, or null if the report should not be fingerprinted
+         *
+         * @return
+         *  a reference to this job config
+         */
+        public HypervisorUpdateJobConfig setFingerprint(final String fingerprint) {
+            this.setJobArgument(FINGERPRINT_KEY, fingerprint);
+
+            return this;
+        }
+
         public HypervisorUpdateJobConfig setData(final String data) {
             if (data == null || data.isEmpty()) {
                 throw new IllegalArgumentException("hypervisor data is null");
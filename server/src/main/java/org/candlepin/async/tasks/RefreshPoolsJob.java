@@ -146,17 +146,20 @@ public class RefreshPoolsJob implements AsyncJob {
             throw new JobExecutionException("Nothing to do; owner no longer exists: " + ownerKey, true);
         }
 
+        Refresher refresher = poolManager.getRefresher(this.subAdapter, lazy);
+
         try {
             // Assume that we verified the request in the resource layer:
-            poolManager.getRefresher(this.subAdapter, lazy)
-                .add(owner)
+            refresher.add(owner)
                 .run();
         }
         catch (Exception e) {
             throw new JobExecutionException(e.getMessage(), e, false);
         }
 
-        context.setJobResult("Pools refreshed for owner: %s", owner.getDisplayName());
+        context.setJobResult("Pools refreshed for owner: %s; subscriptions updated: %d, unchanged: %d",
+            owner.getDisplayName(), refresher.getUpdatedSubscriptionCount(),
+            refresher.getSkippedSubscriptionCount());
     }
 
     /**
@@ -161,8 +161,15 @@ public class RegenProductEntitlementCertsJob implements AsyncJob {
             log.info("Regenerating entitlement certificates for {} owners with product: {}",
                 owners.size(), productId);
 
+            int ownerCount = 0;
             for (Owner owner : owners) {
-                this.poolManager.regenerateCertificatesOf(owner, productId, lazyRegen);
+                int ownerIndex = ++ownerCount;
+
+                // Report progress through the job result, so it can be followed via the job status
+                this.poolManager.regenerateCertificatesOf(owner, productId, lazyRegen,
+                    (processed, total) -> context.setJobResult(
+                        "Regenerated %d of %d entitlement certificates for owner %s (%d of %d owners)",
+                        processed, total, owner.getKey(), ownerIndex, owners.size()));
             }
         }
         else {
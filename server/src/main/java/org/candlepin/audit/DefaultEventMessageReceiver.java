@@ -19,7 +19,6 @@ import org.candlepin.async.impl.ActiveMQSessionFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
-import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.client.ClientMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,20 +47,15 @@ public class DefaultEventMessageReceiver extends EventMessageReceiver {
             msg.acknowledge();
             log.debug("ActiveMQ message {} acknowledged for listener: {}", msg.getMessageID(), listener);
 
-            // Process the message via our EventListener framework.
-            if (msg.getType() == ClientMessage.TEXT_TYPE) {
-                SimpleString sstr = msg.getBodyBuffer().readNullableSimpleString();
-                if (sstr != null) {
-                    body = sstr.toString();
-                }
-            }
-            else {
-                body = msg.getBodyBuffer().readString();
-            }
+            // Process the message via our EventListener framework. Batched messages are unpacked
+            // and their events processed in order; a failure on any of them fails the message as a
+            // whole, so listeners may see the earlier events of a redelivered batch more than once.
+            body = this.readBody(msg);
 
             log.debug("Got event: {}", body);
-            Event event = mapper.readValue(body, Event.class);
-            listener.onEvent(event);
+            for (Event event : this.readEvents(msg, body)) {
+                listener.onEvent(event);
+            }
 
             log.debug("Message listener {} processed message: {}: SUCCESS", listener, msg.getMessageID());
             // Finally commit the session so that the message is taken out of the queue.
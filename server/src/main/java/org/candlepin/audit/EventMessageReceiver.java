@@ -18,6 +18,18 @@ import org.candlepin.async.impl.ActiveMQSessionFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
 
 
 /**
@@ -49,4 +61,69 @@ public abstract class EventMessageReceiver extends MessageReceiver {
         session.start();
     }
 
+    /**
+     * Reads the payload of the given event message as a string, decompressing it if necessary.
+     *
+     * @param msg
+     *  the event message to read
+     *
+     * @throws IOException
+     *  if the payload of a compressed message cannot be decompressed
+     *
+     * @return
+     *  the payload of the message, which is either a single event or a JSON array of events
+     */
+    protected String readBody(ClientMessage msg) throws IOException {
+        String encoding = msg.getStringProperty(EventSinkImpl.EVENT_ENCODING_KEY);
+
+        if (EventSinkImpl.EVENT_ENCODING_GZIP.equals(encoding)) {
+            byte[] compressed = new byte[msg.getBodyBuffer().readableBytes()];
+            msg.getBodyBuffer().readBytes(compressed);
+
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int len;
+
+                while ((len = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, len);
+                }
+
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+
+        if (msg.getType() == ClientMessage.TEXT_TYPE) {
+            SimpleString sstr = msg.getBodyBuffer().readNullableSimpleString();
+            return sstr != null ? sstr.toString() : "";
+        }
+
+        return msg.getBodyBuffer().readString();
+    }
+
+    /**
+     * Deserializes the events contained in the given message payload. Messages sent with batching
+     * enabled contain a JSON array of events, while all other messages contain a single event.
+     *
+     * @param msg
+     *  the event message from which the payload was read
+     *
+     * @param body
+     *  the payload of the message
+     *
+     * @throws IOException
+     *  if the payload cannot be deserialized
+     *
+     * @return
+     *  a list containing the events in the message payload
+     */
+    protected List<Event> readEvents(ClientMessage msg, String body) throws IOException {
+        if (msg.containsProperty(EventSinkImpl.EVENT_BATCH_SIZE_KEY)) {
+            return this.mapper.readValue(body,
+                this.mapper.getTypeFactory().constructCollectionType(List.class, Event.class));
+        }
+
+        return Collections.singletonList(this.mapper.readValue(body, Event.class));
+    }
+
 }
@@ -16,6 +16,7 @@ package org.candlepin.audit;
 
 import org.candlepin.async.impl.ActiveMQSessionFactory;
 import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.mode.CandlepinModeManager;
 import org.candlepin.controller.mode.CandlepinModeManager.Mode;
 import org.candlepin.dto.manifest.v1.SubscriptionDTO;
@@ -38,8 +39,15 @@ import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import javax.inject.Inject;
 
@@ -56,6 +64,13 @@ public class EventSinkImpl implements EventSink {
     public static final String EVENT_TYPE_KEY = "EVENT_TYPE";
     public static final String EVENT_TARGET_KEY = "EVENT_TARGET";
 
+    /** Message property holding the number of events in a batched event message */
+    public static final String EVENT_BATCH_SIZE_KEY = "EVENT_BATCH_SIZE";
+
+    /** Message property holding the encoding of a compressed event message payload */
+    public static final String EVENT_ENCODING_KEY = "EVENT_ENCODING";
+    public static final String EVENT_ENCODING_GZIP = "gzip";
+
     private EventFactory eventFactory;
     private ObjectMapper mapper;
     private EventFilter eventFilter;
@@ -127,7 +142,9 @@ public class EventSinkImpl implements EventSink {
             // Lazily initialize the message sender when the first
             // message gets queued.
             if (messageSender == null) {
-                messageSender = new EventMessageSender(this.sessionFactory);
+                messageSender = new EventMessageSender(this.sessionFactory,
+                    this.config.getInt(ConfigProperties.ACTIVEMQ_EVENT_BATCH_SIZE),
+                    this.config.getBoolean(ConfigProperties.ACTIVEMQ_EVENT_BATCH_COMPRESSION));
             }
 
             messageSender.queueMessage(mapper.writeValueAsString(event), event.getType(), event.getTarget());
@@ -232,6 +249,11 @@ public class EventSinkImpl implements EventSink {
     /**
      * An internal class responsible for encapsulating a single session to the
      * event message broker.
+     * <p></p>
+     * When batching is enabled, queued events are grouped into messages containing a JSON array
+     * of up to batchSize events, optionally gzipped. Each batched message carries the number of
+     * events it contains in the EVENT_BATCH_SIZE property, and the event type and target
+     * properties when every event in the batch shares them.
      */
     private class EventMessageSender {
 
@@ -239,7 +261,13 @@ public class EventSinkImpl implements EventSink {
         private ClientSession session;
         private ClientProducer producer;
 
-        public EventMessageSender(ActiveMQSessionFactory sessionFactory) {
+        private final int batchSize;
+        private final boolean compress;
+        private final List<String> batch;
+        private Event.Type batchType;
+        private Event.Target batchTarget;
+
+        public EventMessageSender(ActiveMQSessionFactory sessionFactory, int batchSize, boolean compress) {
             try {
                 /*
                  * Uses a transacted ActiveMQ session, events will not be dispatched until
@@ -254,11 +282,15 @@ public class EventSinkImpl implements EventSink {
             catch (Exception e) {
                 throw new RuntimeException(e);
             }
+
+            this.batchSize = Math.max(1, batchSize);
+            this.compress = compress;
+            this.batch = new ArrayList<>();
+
             log.debug("Created new message sender.");
         }
 
-        public void queueMessage(String eventString, Event.Type type, Event.Target target)
-            throws ActiveMQException {
+        private void openSession() {
             if (session.isClosed()) {
                 try {
                     session = sessionFactory.getEgressSession(true);
@@ -269,9 +301,62 @@ public class EventSinkImpl implements EventSink {
                     throw new RuntimeException(e);
                 }
             }
+        }
+
+        public void queueMessage(String eventString, Event.Type type, Event.Target target)
+            throws ActiveMQException {
+
+            if (this.batchSize == 1) {
+                this.sendMessage(eventString, 1, type, target);
+                return;
+            }
+
+            if (this.batch.isEmpty()) {
+                this.batchType = type;
+                this.batchTarget = target;
+            }
+            else {
+                this.batchType = this.batchType == type ? type : null;
+                this.batchTarget = this.batchTarget == target ? target : null;
+            }
+
+            this.batch.add(eventString);
+
+            if (this.batch.size() >= this.batchSize) {
+                this.flushBatch();
+            }
+        }
+
+        private void flushBatch() throws ActiveMQException {
+            if (this.batch.isEmpty()) {
+                return;
+            }
 
-            ClientMessage message = session.createMessage(ClientMessage.TEXT_TYPE, true);
-            message.getBodyBuffer().writeNullableSimpleString(SimpleString.toSimpleString(eventString));
+            String payload = this.batch.stream().collect(Collectors.joining(",", "[", "]"));
+            this.sendMessage(payload, this.batch.size(), this.batchType, this.batchTarget);
+
+            this.batch.clear();
+        }
+
+        private void sendMessage(String payload, int count, Event.Type type, Event.Target target)
+            throws ActiveMQException {
+
+            this.openSession();
+
+            ClientMessage message;
+            if (count > 1 && this.compress) {
+                message = session.createMessage(ClientMessage.BYTES_TYPE, true);
+                message.getBodyBuffer().writeBytes(gzip(payload));
+                message.putStringProperty(EVENT_ENCODING_KEY, EVENT_ENCODING_GZIP);
+            }
+            else {
+                message = session.createMessage(ClientMessage.TEXT_TYPE, true);
+                message.getBodyBuffer().writeNullableSimpleString(SimpleString.toSimpleString(payload));
+            }
+
+            if (count > 1) {
+                message.putIntProperty(EVENT_BATCH_SIZE_KEY, count);
+            }
 
             // Set the event type and target if provided
             if (type != null) {
@@ -282,11 +367,19 @@ public class EventSinkImpl implements EventSink {
                 message.putStringProperty(EVENT_TARGET_KEY, target.name());
             }
 
-            // NOTE: not actually sent until we commit the session.
+            // NOTE: not actually sent until we commit the session. Sends on a transacted session
+            // do not block on broker acknowledgements; only the commit does.
             producer.send(message);
         }
 
         public void sendMessages() {
+            try {
+                this.flushBatch();
+            }
+            catch (Exception e) {
+                log.error("Error sending batched events", e);
+            }
+
             log.debug("Committing ActiveMQ transaction.");
             if (!session.isClosed()) {
                 try (ClientSession toClose = session) {
@@ -301,6 +394,8 @@ public class EventSinkImpl implements EventSink {
         }
 
         public void cancelMessages() {
+            this.batch.clear();
+
             log.warn("Rolling back ActiveMQ transaction.");
             if (!session.isClosed()) {
                 try (ClientSession toClose = session) {
@@ -312,5 +407,18 @@ public class EventSinkImpl implements EventSink {
             }
         }
 
+        private byte[] gzip(String payload) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            try (OutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(payload.getBytes(StandardCharsets.UTF_8));
+            }
+            catch (IOException e) {
+                // This shouldn't ever happen while writing to an in-memory buffer
+                throw new RuntimeException(e);
+            }
+
+            return bytes.toByteArray();
+        }
     }
 }
@@ -19,7 +19,6 @@ import org.candlepin.async.impl.ActiveMQSessionFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
-import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.client.ClientMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,20 +58,15 @@ public class QpidEventMessageReceiver extends EventMessageReceiver {
                     msg.getStringProperty(AMQ_ORIG_ADDRESS), origMsgId, msg.getAddress(), msg.getMessageID());
             }
 
-            // Process the message via our EventListener framework.
-            if (msg.getType() == ClientMessage.TEXT_TYPE) {
-                SimpleString sstr = msg.getBodyBuffer().readNullableSimpleString();
-                if (sstr != null) {
-                    body = sstr.toString();
-                }
-            }
-            else {
-                body = msg.getBodyBuffer().readString();
-            }
+            // Process the message via our EventListener framework. Batched messages are unpacked
+            // and their events processed in order; a failure on any of them fails the message as a
+            // whole, so listeners may see the earlier events of a redelivered batch more than once.
+            body = this.readBody(msg);
 
             log.debug("Got event: {}", body);
-            Event event = mapper.readValue(body, Event.class);
-            listener.onEvent(event);
+            for (Event event : this.readEvents(msg, body)) {
+                listener.onEvent(event);
+            }
             log.debug("Message listener {} processed message: {} [{}]: SUCCESS", listener, msgId, origMsgId);
 
             // Acknowledge the message so that the server knows that it was received.
@@ -18,6 +18,7 @@ import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerType;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
+import org.candlepin.model.OwnerInfoCounters;
 import org.candlepin.model.Pool;
 import org.candlepin.model.PoolCurator;
 import org.candlepin.model.PoolQuantity;
@@ -37,11 +38,14 @@ public class HandleEntitlementsOp implements BindOperation {
 
     private PoolCurator poolCurator;
     private EntitlementCurator entitlementCurator;
+    private OwnerInfoCounters ownerInfoCounters;
 
     @Inject
-    public HandleEntitlementsOp(PoolCurator poolCurator, EntitlementCurator entitlementCurator) {
+    public HandleEntitlementsOp(PoolCurator poolCurator, EntitlementCurator entitlementCurator,
+        OwnerInfoCounters ownerInfoCounters) {
         this.entitlementCurator = entitlementCurator;
         this.poolCurator = poolCurator;
+        this.ownerInfoCounters = ownerInfoCounters;
     }
 
     /**
@@ -95,6 +99,7 @@ public class HandleEntitlementsOp implements BindOperation {
 
         entitlementCurator.saveAll(entitlementMap.values(), false, false);
         poolCurator.updateAll(poolsToSave, false, false);
+        ownerInfoCounters.entitlementsCreated(entitlementMap.values());
 
         return true;
     }
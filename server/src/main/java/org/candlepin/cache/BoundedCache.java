@@ -0,0 +1,359 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+
+
+/**
+ * The BoundedCache is a node-local, in-memory cache holding a bounded number of values, evicting
+ * the least recently used values first. Values may optionally expire a fixed period after they
+ * are stored. All operations are synchronized on the cache.
+ * <p></p>
+ * Each cache keeps a count of its hits, misses and evictions, which are published along with any
+ * additional statistics registered by its owner through {@link #getStatistics()}. Caches created
+ * by injected components should be registered with the {@link CandlepinCache}, so their statistics
+ * are published together.
+ *
+ * @param <K>
+ *  the type of the keys of this cache
+ *
+ * @param <V>
+ *  the type of the values of this cache
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * A cached value and the time at which it expires
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long expiration;
+
+        public Entry(V value, long expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttl;
+    private final Map<K, Entry<V>> entries;
+    private final Map<String, Supplier<?>> statistics;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    /**
+     * Creates a new bounded cache.
+     *
+     * @param name
+     *  the name under which the statistics of this cache are published
+     *
+     * @param maxSize
+     *  the maximum number of values to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a value remains valid after it is stored; zero if values do not
+     *  expire
+     *
+     * @throws IllegalArgumentException
+     *  if name is null, or maxSize or ttl is negative
+     */
+    public BoundedCache(String name, int maxSize, long ttl) {
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative: " + maxSize);
+        }
+
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl is negative: " + ttl);
+        }
+
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttl = ttl * 1000;
+        this.statistics = new LinkedHashMap<>();
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (this.size() > BoundedCache.this.maxSize) {
+                    BoundedCache.this.evictions.incrementAndGet();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a new bounded cache whose values do not expire.
+     *
+     * @param name
+     *  the name under which the statistics of this cache are published
+     *
+     * @param maxSize
+     *  the maximum number of values to retain; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if name is null, or maxSize is negative
+     */
+    public BoundedCache(String name, int maxSize) {
+        this(name, maxSize, 0);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    private long expiration() {
+        return this.ttl > 0 ? System.currentTimeMillis() + this.ttl : Long.MAX_VALUE;
+    }
+
+    /*
+     * Fetches the unexpired value cached for the given key, removing it if it has expired. Must be
+     * called while synchronized on the cache.
+     */
+    private Entry<V> fetch(K key) {
+        Entry<V> entry = this.entries.get(key);
+
+        if (entry != null && entry.expiration <= System.currentTimeMillis()) {
+            this.entries.remove(key);
+            entry = null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Fetches the value cached for the given key, counting the lookup as a hit or a miss.
+     *
+     * @param key
+     *  the key of the value to fetch
+     *
+     * @return
+     *  the cached value, or null if no unexpired value is cached for the key
+     */
+    public V get(K key) {
+        return this.get(key, null);
+    }
+
+    /**
+     * Fetches the value cached for the given key, provided it is usable, counting the lookup as a
+     * hit or a miss. A value which is not usable is counted as a miss, but remains cached.
+     *
+     * @param key
+     *  the key of the value to fetch
+     *
+     * @param usable
+     *  a predicate determining whether the cached value may be used; if null, any cached value is
+     *  usable
+     *
+     * @return
+     *  the cached value, or null if no unexpired, usable value is cached for the key
+     */
+    public V get(K key, Predicate<? super V> usable) {
+        if (!this.isEnabled()) {
+            return null;
+        }
+
+        V value = null;
+
+        synchronized (this) {
+            Entry<V> entry = this.fetch(key);
+
+            if (entry != null && (usable == null || usable.test(entry.value))) {
+                value = entry.value;
+            }
+        }
+
+        (value != null ? this.hits : this.misses).incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Caches the given value for the given key, replacing any value previously cached for it and
+     * evicting the least recently used value if the cache is full.
+     *
+     * @param key
+     *  the key of the value
+     *
+     * @param value
+     *  the value to cache
+     */
+    public synchronized void put(K key, V value) {
+        if (this.isEnabled() && key != null && value != null) {
+            this.entries.put(key, new Entry<>(value, this.expiration()));
+        }
+    }
+
+    /**
+     * Atomically computes the value to cache for the given key from its current, unexpired value.
+     * The lookup is not counted as a hit or a miss. If the function returns the current value, its
+     * expiration is retained; any other value is cached as if it were put. If the function returns
+     * null, the current value is removed.
+     *
+     * @param key
+     *  the key of the value to compute
+     *
+     * @param function
+     *  the function computing the value to cache from the key and the current value, or null if no
+     *  value is cached for the key
+     *
+     * @return
+     *  the value now cached for the key, or the computed value if the cache is disabled
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        if (!this.isEnabled()) {
+            return function.apply(key, null);
+        }
+
+        synchronized (this) {
+            Entry<V> entry = this.fetch(key);
+            V current = entry != null ? entry.value : null;
+            V value = function.apply(key, current);
+
+            if (value == null) {
+                this.entries.remove(key);
+            }
+            else if (value != current) {
+                this.entries.put(key, new Entry<>(value, this.expiration()));
+            }
+
+            return value;
+        }
+    }
+
+    /**
+     * Removes the value cached for the given key, if present.
+     *
+     * @param key
+     *  the key of the value to remove
+     */
+    public synchronized void remove(K key) {
+        this.entries.remove(key);
+    }
+
+    /**
+     * Removes every cached value matching the given predicate.
+     *
+     * @param predicate
+     *  the predicate to test each key and value against
+     *
+     * @return
+     *  the number of values removed
+     */
+    public synchronized int removeIf(BiPredicate<? super K, ? super V> predicate) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = this.entries.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> mapping = iterator.next();
+
+            if (predicate.test(mapping.getKey(), mapping.getValue().value)) {
+                iterator.remove();
+                ++removed;
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Removes all values from this cache.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * Registers an additional statistic to publish along with the statistics of this cache.
+     *
+     * @param statistic
+     *  the name of the statistic
+     *
+     * @param supplier
+     *  the supplier of the current value of the statistic
+     *
+     * @return
+     *  this cache
+     */
+    public synchronized BoundedCache<K, V> addStatistic(String statistic, Supplier<?> supplier) {
+        this.statistics.put(statistic, supplier);
+        return this;
+    }
+
+    /**
+     * Fetches the statistics of this cache: whether it is enabled, its size and capacity, its hit,
+     * miss and eviction counts, followed by any additional statistics registered for it.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("enabled", this.isEnabled());
+        output.put("size", this.entries.size());
+        output.put("maxSize", this.maxSize);
+        output.put("hits", this.getHits());
+        output.put("misses", this.getMisses());
+        output.put("evictions", this.getEvictions());
+
+        this.statistics.forEach((statistic, supplier) -> output.put(statistic, supplier.get()));
+
+        return output;
+    }
+}
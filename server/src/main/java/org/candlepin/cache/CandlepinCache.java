@@ -16,6 +16,11 @@ package org.candlepin.cache;
 
 import com.google.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
 import javax.cache.CacheManager;
 import javax.inject.Singleton;
 
@@ -37,6 +42,12 @@ public class CandlepinCache {
      */
     private StatusCache statusCache;
 
+    /**
+     * Node-local caches registered by the components owning them, so their statistics can be
+     * published together.
+     */
+    private final List<BoundedCache<?, ?>> localCaches;
+
     @Inject
     public CandlepinCache(CacheManager cacheManager) {
         this.cacheManager = cacheManager;
@@ -44,6 +55,7 @@ public class CandlepinCache {
         // since the same static Status instance will be
         // reused across all instances.
         this.statusCache = new StatusCache();
+        this.localCaches = new ArrayList<>();
     }
 
     /**
@@ -56,4 +68,35 @@ public class CandlepinCache {
         return this.statusCache;
     }
 
+    /**
+     * Registers a node-local cache, publishing its statistics along with those of the other
+     * registered caches.
+     *
+     * @param cache
+     *  the cache to register
+     *
+     * @throws IllegalArgumentException
+     *  if cache is null
+     */
+    public synchronized void registerLocalCache(BoundedCache<?, ?> cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("cache is null");
+        }
+
+        this.localCaches.add(cache);
+    }
+
+    /**
+     * Retrieves the node-local caches registered with this wrapper, ordered by name.
+     *
+     * @return
+     *  a collection of the registered node-local caches
+     */
+    public synchronized Collection<BoundedCache<?, ?>> getLocalCaches() {
+        List<BoundedCache<?, ?>> caches = new ArrayList<>(this.localCaches);
+        caches.sort(Comparator.comparing(BoundedCache::getName));
+
+        return caches;
+    }
+
 }
@@ -156,6 +156,15 @@ public class ConfigProperties {
     public static final String ACTIVEMQ_JAAS_CERTIFICATE_LOGIN_NAME =
         "candlepin.messaging.activemq.embedded.jaas_certificate_login_name";
 
+    // The maximum number of events to group into a single event message. Batching greatly reduces
+    // the per-message cost of transactions emitting many events, but any external consumers of the
+    // event queues must be able to unpack batched messages. A value of 1 disables batching.
+    public static final String ACTIVEMQ_EVENT_BATCH_SIZE = "candlepin.messaging.activemq.event_batch_size";
+
+    // Whether or not to gzip the payload of batched event messages
+    public static final String ACTIVEMQ_EVENT_BATCH_COMPRESSION =
+        "candlepin.messaging.activemq.event_batch_compression";
+
     // AMQP stuff
     public static final String AMQP_INTEGRATION_ENABLED = "candlepin.amqp.enable";
     public static final String AMQP_CONNECT_STRING = "candlepin.amqp.connect";
@@ -194,6 +203,25 @@ public class ConfigProperties {
 
     public static final String SYNC_WORK_DIR = "candlepin.sync.work_dir";
 
+    /**
+     *  Whether or not manifests are imported directly from the archive stream, verifying the
+     *  signature and parsing the manifest contents as they are read, rather than extracting the
+     *  archive to the sync work directory first.
+     */
+    public static final String SYNC_STREAMING_IMPORT = "candlepin.sync.streaming_import";
+
+    /**
+     *  Where manifest files stored for async imports and exports are kept; either "database" to
+     *  store them in the database, or "filesystem" to store them in the manifest store directory.
+     *  The manifest store directory must not be located within the sync work directory, as the
+     *  latter is periodically purged by the manifest cleaner job. In a clustered deployment, the
+     *  directory must be on storage shared by every node; otherwise an export written by the node
+     *  running the job cannot be downloaded through another node. An unknown store prevents
+     *  Candlepin from starting.
+     */
+    public static final String MANIFEST_STORE = "candlepin.sync.manifest_store";
+    public static final String MANIFEST_STORE_DIR = "candlepin.sync.manifest_store.dir";
+
     /**
      *  Controls which facts will be stored by Candlepin -- facts with keys that do not match this
      *  value will be discarded.
@@ -208,15 +236,107 @@ public class ConfigProperties {
     public static final String ENV_CONTENT_FILTERING = "candlepin.environment_content_filtering";
     public static final String USE_SYSTEM_UUID_FOR_MATCHING = "candlepin.use_system_uuid_for_matching";
 
+    /**
+     * Whether hypervisor reports are reconciled in batches, diffing each batch of reported hosts
+     * against the existing host consumers and guest IDs and writing the changes together, rather
+     * than reconciling and committing each host separately.
+     */
+    public static final String HYPERVISOR_BULK_RECONCILIATION =
+        "candlepin.hypervisor.bulk_reconciliation.enabled";
+
+    /**
+     * The number of reported hosts reconciled per transaction when bulk hypervisor reconciliation is
+     * enabled.
+     */
+    public static final String HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE =
+        "candlepin.hypervisor.bulk_reconciliation.batch_size";
+
+    /**
+     * The number of subscriptions whose pools are refreshed together during an owner refresh. The
+     * existing pools of each batch are loaded together and their changes written back together.
+     * A value of 0 or 1 refreshes each subscription separately.
+     */
+    public static final String POOL_REFRESH_BATCH_SIZE = "candlepin.refresh.pool_batch_size";
+
+    /**
+     * The maximum number of virt-who report fingerprints to retain, one per owner and reporter.
+     * Reports matching the fingerprint of the last report processed for their reporter are treated
+     * as heartbeats rather than being reconciled again. Zero disables fingerprinting.
+     * Fingerprints are local to each node, so hosts or guests deleted through another node are not
+     * restored by an unchanged report until its fingerprint expires.
+     */
+    public static final String HYPERVISOR_REPORT_CACHE_SIZE = "candlepin.hypervisor.report_cache.size";
+
+    /**
+     * The number of seconds a virt-who report fingerprint remains valid, after which the next
+     * report from the reporter is reconciled in full regardless of its content.
+     */
+    public static final String HYPERVISOR_REPORT_CACHE_TTL = "candlepin.hypervisor.report_cache.ttl";
+
+    /**
+     * The maximum age, in seconds, of cached owner info served by the owner info endpoint. Cached
+     * consumer and entitlement totals are adjusted as they change, while the remaining values are
+     * recomputed once the cached copy expires. Zero disables caching.
+     */
+    public static final String OWNER_INFO_MAX_AGE = "candlepin.owner_info.max_age";
+
+    /**
+     * The interval, in seconds, at which each node recomputes the owner info it has cached,
+     * correcting any drift in the adjusted totals. Zero disables reconciliation, leaving cached owner
+     * info to be recomputed only once it expires. Has no effect if owner info caching is disabled.
+     */
+    public static final String OWNER_INFO_RECONCILE_INTERVAL = "candlepin.owner_info.reconcile_interval";
+
     public static final String CONSUMER_SYSTEM_NAME_PATTERN = "candlepin.consumer_system_name_pattern";
     public static final String CONSUMER_PERSON_NAME_PATTERN = "candlepin.consumer_person_name_pattern";
 
+    /**
+     * The interval, in seconds, at which buffered consumer check-ins are written to the database.
+     * Zero disables buffering, writing each check-in as it is received. When enabled, a consumer's
+     * last check-in may lag behind by up to this interval.
+     */
+    public static final String CONSUMER_CHECKIN_FLUSH_INTERVAL = "candlepin.consumer.checkin.flush_interval";
+
     public static final String PREFIX_WEBURL = "candlepin.export.prefix.weburl";
     public static final String PREFIX_APIURL = "candlepin.export.prefix.apiurl";
     public static final String PASSPHRASE_SECRET_FILE = "candlepin.passphrase.path";
 
     public static final String PRODUCT_CACHE_MAX = "candlepin.cache.product_cache_max";
 
+    /**
+     * The maximum number of compressed content payloads to retain for V3 entitlement certificates.
+     * Zero disables the cache.
+     */
+    public static final String CONTENT_PAYLOAD_CACHE_SIZE = "candlepin.cache.content_payload_cache_size";
+
+    /**
+     * The maximum number of signed content access payloads to retain, one per owner and
+     * environment. Zero disables the cache.
+     */
+    public static final String CONTENT_ACCESS_PAYLOAD_CACHE_SIZE =
+        "candlepin.cache.content_access_payload_cache_size";
+
+    /**
+     * The number of seconds a cached content access payload remains valid. As the cache is local to
+     * each node, this bounds how long a node may serve a payload invalidated by another.
+     */
+    public static final String CONTENT_ACCESS_PAYLOAD_CACHE_TTL =
+        "candlepin.cache.content_access_payload_cache_ttl";
+
+    /**
+     * The maximum number of owner-product and owner-content mappings to cache. Zero disables the
+     * caches. Cached mappings are confirmed against the database before use, so enabling the caches
+     * only saves the lookup of the entity itself.
+     */
+    public static final String OWNER_ENTITY_CACHE_SIZE = "candlepin.cache.owner_entity_cache_size";
+
+    /**
+     * The number of seconds a cached owner-product or owner-content mapping remains valid. As the
+     * caches are local to each node, this bounds how long a node may resolve an owner's product or
+     * content to a version replaced by another.
+     */
+    public static final String OWNER_ENTITY_CACHE_TTL = "candlepin.cache.owner_entity_cache_ttl";
+
     public static final String INTEGER_FACTS = "candlepin.integer_facts";
     private static final String INTEGER_FACT_LIST = "";
 
@@ -267,12 +387,53 @@ public class ConfigProperties {
      */
     public static final String CRL_SERIAL_BATCH_SIZE = "candlepin.crl.update_serial_batch_size";
 
+    /**
+     * Whether or not newly revoked serials should be written to a delta CRL rather than to the
+     * complete CRL. When enabled, the complete (base) CRL is only rewritten on the schedule defined
+     * by the base rebuild interval, at which point the delta CRL is folded into it.
+     */
+    public static final String CRL_DELTA_ENABLED = "candlepin.crl.delta.enabled";
+    public static final String CRL_DELTA_FILE_PATH = "candlepin.crl.delta.file";
+
+    /**
+     * The minimum number of hours between rebuilds of the base CRL while delta CRLs are enabled
+     */
+    public static final String CRL_BASE_REBUILD_INTERVAL = "candlepin.crl.delta.base_rebuild_interval";
+
     public static final String IDENTITY_CERT_YEAR_ADDENDUM = "candlepin.identityCert.yr.addendum";
     /**
      * Identity certificate expiry threshold in days
      */
     public static final String IDENTITY_CERT_EXPIRY_THRESHOLD = "candlepin.identityCert.expiry.threshold";
 
+    /**
+     * The number of threads used to sign entitlement certificates when regenerating certificates in
+     * bulk. Zero uses one thread per available processor, while one disables parallel signing.
+     */
+    public static final String ENT_CERT_REGEN_THREADS = "candlepin.entitlement_cert.regen.threads";
+
+    /**
+     * The number of regenerated entitlements to flush to the database at a time while regenerating
+     * certificates in bulk.
+     */
+    public static final String ENT_CERT_REGEN_BATCH_SIZE = "candlepin.entitlement_cert.regen.batch_size";
+
+    /**
+     * The maximum number of pre-generated RSA key pairs to retain for consumer registration. Zero
+     * disables the pool, generating each key pair as it is needed.
+     */
+    public static final String KEYPAIR_POOL_HIGH_WATERMARK = "candlepin.pki.keypair_pool.high_watermark";
+
+    /**
+     * The number of pooled key pairs below which the key pair pool is refilled in the background.
+     */
+    public static final String KEYPAIR_POOL_LOW_WATERMARK = "candlepin.pki.keypair_pool.low_watermark";
+
+    /**
+     * The number of background threads used to refill the key pair pool.
+     */
+    public static final String KEYPAIR_POOL_THREADS = "candlepin.pki.keypair_pool.threads";
+
     public static final String SWAGGER_ENABLED = "candlepin.swagger.enabled";
 
     /** Enabled dev page used to interactively login to a Keycloak instance and generate offline token. */
@@ -297,6 +458,20 @@ public class ConfigProperties {
     public static final String ASYNC_JOBS_JOB_ENABLED = "enabled";
     public static final String ASYNC_JOBS_JOB_SCHEDULE = "schedule";
 
+    // The message priority of a job, from 0 (lowest) to 9 (highest). Queued jobs with a higher
+    // priority are executed ahead of lower priority jobs. Jobs without a priority use the message
+    // broker's default priority of 4. No job has a priority by default: the broker always delivers
+    // the highest priority message available, so a steady stream of higher priority jobs can keep
+    // lower priority jobs waiting indefinitely. Priorities do not provide fairness between owners;
+    // that requires the owner_limit setting below.
+    public static final String ASYNC_JOBS_JOB_PRIORITY = "priority";
+
+    // The maximum number of jobs with the job's key that any single owner may have in non-terminal
+    // states. Jobs queued beyond the limit are aborted rather than held back until the owner's
+    // other jobs finish, so clients must be prepared to retry them. Zero or an absent value
+    // disables the limit.
+    public static final String ASYNC_JOBS_JOB_OWNER_LIMIT = "owner_limit";
+
     // "Temporary" configuration to limit the scope of the jobs/schedule endpoint. Only job keys
     // specified in this property will be allowed to be triggered via the schedule endpoint.
     public static final String ASYNC_JOBS_TRIGGERABLE_JOBS = "candlepin.async.triggerable_jobs";
@@ -314,6 +489,15 @@ public class ConfigProperties {
     // How long (in seconds) to wait for job threads to finish during a graceful Tomcat shutdown
     public static final String ASYNC_JOBS_THREAD_SHUTDOWN_TIMEOUT = "candlepin.async.thread.shutdown.timeout";
 
+    // The maximum time (in seconds) a client may wait on the job status endpoints for jobs to reach
+    // a terminal state. Requests asking for a longer wait are capped to this value. Every waiting
+    // client holds a request thread, so this should be kept well below the client's poll interval.
+    public static final String ASYNC_JOBS_STATUS_WAIT_MAX = "candlepin.async.status_wait.max";
+
+    // The maximum number of requests which may wait on job statuses at the same time. Requests
+    // received while this many are already waiting return the current statuses without waiting.
+    public static final String ASYNC_JOBS_STATUS_WAIT_MAX_WAITERS = "candlepin.async.status_wait.max_waiters";
+
     /**
      * Fetches a string representing the prefix for all per-job configuration for the specified job.
      * The job key or class name may be used, but the usage must be consistent.
@@ -353,6 +537,37 @@ public class ConfigProperties {
 
     public static final String ENTITLER_BULK_SIZE = "entitler.bulk.size";
 
+    /**
+     * The number of pre-initialized rules runners to pool per version of the rules. Pooled runners
+     * are leased for the duration of a request or job. A size of zero disables pooling.
+     */
+    public static final String RULES_RUNNER_POOL_SIZE = "candlepin.rules.runner_pool.size";
+
+    /**
+     * The maximum time, in milliseconds, to wait for a pooled rules runner to be returned when every
+     * runner is leased. Once elapsed, an unpooled runner is created instead.
+     */
+    public static final String RULES_RUNNER_POOL_WAIT_TIMEOUT = "candlepin.rules.runner_pool.wait_timeout";
+
+    /**
+     * The engine used to select pools during autobind; either "javascript" to invoke the rules, or
+     * "native" to use the equivalent Java implementation.
+     */
+    public static final String AUTOBIND_ENGINE = "candlepin.rules.autobind.engine";
+
+    /**
+     * The engine used to calculate consumer compliance status; either "javascript" to invoke the
+     * rules, or "native" to use the equivalent Java implementation.
+     */
+    public static final String COMPLIANCE_ENGINE = "candlepin.rules.compliance.engine";
+
+    /**
+     * The maximum number of consumers for which to retain the last calculated compliance status.
+     * A retained status is reused until the consumer's compliance inputs change, or one of its
+     * entitlements starts or expires. Zero disables the cache.
+     */
+    public static final String COMPLIANCE_CACHE_SIZE = "candlepin.rules.compliance.cache_size";
+
     public static final Map<String, String> DEFAULT_PROPERTIES = new HashMap<String, String>() {
         private static final long serialVersionUID = 1L;
 
@@ -377,6 +592,8 @@ public class ConfigProperties {
             this.put(ACTIVEMQ_EMBEDDED_BROKER, "true");
             this.put(ACTIVEMQ_JAAS_INVM_LOGIN_NAME, "InVMLogin");
             this.put(ACTIVEMQ_JAAS_CERTIFICATE_LOGIN_NAME, "CertificateLogin");
+            this.put(ACTIVEMQ_EVENT_BATCH_SIZE, "1");
+            this.put(ACTIVEMQ_EVENT_BATCH_COMPRESSION, "false");
 
             // By default, connect to embedded artemis (InVM)
             this.put(ACTIVEMQ_BROKER_URL, "vm://0");
@@ -427,8 +644,14 @@ public class ConfigProperties {
             this.put(CRL_FILE_PATH, "/var/lib/candlepin/candlepin-crl.crl");
             this.put(CRL_NEXT_UPDATE_DELTA, "1");
             this.put(CRL_SERIAL_BATCH_SIZE, "1000000");
+            this.put(CRL_DELTA_ENABLED, "false");
+            this.put(CRL_DELTA_FILE_PATH, "/var/lib/candlepin/candlepin-crl-delta.crl");
+            this.put(CRL_BASE_REBUILD_INTERVAL, "24");
 
             this.put(SYNC_WORK_DIR, "/var/cache/candlepin/sync");
+            this.put(SYNC_STREAMING_IMPORT, "false");
+            this.put(MANIFEST_STORE, "database");
+            this.put(MANIFEST_STORE_DIR, "/var/lib/candlepin/manifests");
             this.put(CONSUMER_FACTS_MATCHER, ".*");
             this.put(TRUSTED_AUTHENTICATION, "false");
             this.put(SSL_AUTHENTICATION, "true");
@@ -450,6 +673,11 @@ public class ConfigProperties {
 
             this.put(IDENTITY_CERT_YEAR_ADDENDUM, "16");
             this.put(IDENTITY_CERT_EXPIRY_THRESHOLD, "90");
+            this.put(ENT_CERT_REGEN_THREADS, "0");
+            this.put(ENT_CERT_REGEN_BATCH_SIZE, "500");
+            this.put(KEYPAIR_POOL_HIGH_WATERMARK, "50");
+            this.put(KEYPAIR_POOL_LOW_WATERMARK, "20");
+            this.put(KEYPAIR_POOL_THREADS, "1");
             this.put(SHARD_WEBAPP, "candlepin");
 
             // defaults
@@ -459,10 +687,18 @@ public class ConfigProperties {
 
             this.put(ENV_CONTENT_FILTERING, "true");
             this.put(USE_SYSTEM_UUID_FOR_MATCHING, "true");
+            this.put(HYPERVISOR_BULK_RECONCILIATION, "false");
+            this.put(HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE, "500");
+            this.put(POOL_REFRESH_BATCH_SIZE, "0");
+            this.put(HYPERVISOR_REPORT_CACHE_SIZE, "0");
+            this.put(HYPERVISOR_REPORT_CACHE_TTL, "3600");
+            this.put(OWNER_INFO_MAX_AGE, "0");
+            this.put(OWNER_INFO_RECONCILE_INTERVAL, "900");
 
             // what constitutes a valid consumer name
             this.put(CONSUMER_SYSTEM_NAME_PATTERN, "[\\#\\?\\'\\`\\!@{}()\\[\\]\\?&\\w-\\.]+");
             this.put(CONSUMER_PERSON_NAME_PATTERN, "[\\#\\?\\'\\`\\!@{}()\\[\\]\\?&\\w-\\.]+");
+            this.put(CONSUMER_CHECKIN_FLUSH_INTERVAL, "0");
 
             this.put(PREFIX_WEBURL, "localhost:8443/candlepin");
             this.put(PREFIX_APIURL, "localhost:8443/candlepin");
@@ -476,6 +712,11 @@ public class ConfigProperties {
              *  a larger memory footprint as the cache fills up.
              */
             this.put(PRODUCT_CACHE_MAX, "100");
+            this.put(CONTENT_PAYLOAD_CACHE_SIZE, "1000");
+            this.put(CONTENT_ACCESS_PAYLOAD_CACHE_SIZE, "1000");
+            this.put(CONTENT_ACCESS_PAYLOAD_CACHE_TTL, "300");
+            this.put(OWNER_ENTITY_CACHE_SIZE, "0");
+            this.put(OWNER_ENTITY_CACHE_TTL, "60");
 
             /** As we do math on some facts and attributes, we need to constrain some values */
             this.put(INTEGER_FACTS, INTEGER_FACT_LIST);
@@ -496,10 +737,18 @@ public class ConfigProperties {
             this.put("org.quartz.threadPool.threadCount", "15");
             this.put("org.quartz.threadPool.threadPriority", "5");
 
+            this.put(RULES_RUNNER_POOL_SIZE, "32");
+            this.put(RULES_RUNNER_POOL_WAIT_TIMEOUT, "0");
+            this.put(AUTOBIND_ENGINE, "javascript");
+            this.put(COMPLIANCE_ENGINE, "javascript");
+            this.put(COMPLIANCE_CACHE_SIZE, "10000");
+
             this.put(ASYNC_JOBS_THREADS, "10");
             this.put(ASYNC_JOBS_QUEUE_WHILE_SUSPENDED, "true");
             this.put(ASYNC_JOBS_SCHEDULER_ENABLED, "true");
             this.put(ASYNC_JOBS_THREAD_SHUTDOWN_TIMEOUT, "600"); // 10 minutes
+            this.put(ASYNC_JOBS_STATUS_WAIT_MAX, "10");
+            this.put(ASYNC_JOBS_STATUS_WAIT_MAX_WAITERS, "20");
 
             this.put(jobConfig(ActiveEntitlementJob.JOB_KEY, ASYNC_JOBS_JOB_SCHEDULE),
                 ActiveEntitlementJob.DEFAULT_SCHEDULE);
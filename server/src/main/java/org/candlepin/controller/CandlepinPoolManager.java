@@ -25,6 +25,7 @@ import org.candlepin.bind.PoolOperationCallback;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
+import org.candlepin.common.util.VersionUtil;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Cdn;
@@ -59,6 +60,7 @@ import org.candlepin.policy.SystemPurposeComplianceRules;
 import org.candlepin.policy.ValidationError;
 import org.candlepin.policy.ValidationResult;
 import org.candlepin.policy.activationkey.ActivationKeyRules;
+import org.candlepin.policy.js.JsRunnerProvider;
 import org.candlepin.policy.js.autobind.AutobindRules;
 import org.candlepin.policy.js.compliance.ComplianceRules;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
@@ -144,6 +146,7 @@ public class CandlepinPoolManager implements PoolManager {
     private CdnCurator cdnCurator;
     private OwnerManager ownerManager;
     private BindChainFactory bindChainFactory;
+    private JsRunnerProvider jsRunnerProvider;
 
     @Inject protected JsonProvider jsonProvider;
 
@@ -179,7 +182,8 @@ public class CandlepinPoolManager implements PoolManager {
         OwnerManager ownerManager,
         CdnCurator cdnCurator,
         I18n i18n,
-        BindChainFactory bindChainFactory) {
+        BindChainFactory bindChainFactory,
+        JsRunnerProvider jsRunnerProvider) {
 
         this.poolCurator = poolCurator;
         this.sink = sink;
@@ -207,6 +211,7 @@ public class CandlepinPoolManager implements PoolManager {
         this.cdnCurator = cdnCurator;
         this.i18n = i18n;
         this.bindChainFactory = bindChainFactory;
+        this.jsRunnerProvider = jsRunnerProvider;
     }
 
     /*
@@ -216,7 +221,7 @@ public class CandlepinPoolManager implements PoolManager {
     @Transactional
     @SuppressWarnings("checkstyle:methodlength")
     @Traceable
-    void refreshPoolsWithRegeneration(SubscriptionServiceAdapter subAdapter,
+    RefreshResult refreshPoolsWithRegeneration(SubscriptionServiceAdapter subAdapter,
         @TraceableParam("owner") Owner owner, boolean lazy) {
 
         Date now = new Date();
@@ -262,6 +267,24 @@ public class CandlepinPoolManager implements PoolManager {
         Map<String, Product> importedProducts = importResult.getImportedEntities();
         Map<String, Product> updatedProducts = importResult.getUpdatedEntities();
 
+        // Fetch the fingerprints of the subscription data each master pool was last refreshed from,
+        // so subscriptions which have not changed since can be skipped entirely. A non-lazy refresh
+        // processes every subscription, repairing any pools the fingerprints cannot account for.
+        Map<String, String> fingerprints = lazy ?
+            this.poolCurator.getMasterPoolFingerprints(owner) :
+            Collections.emptyMap();
+
+        Set<String> bonusPoolSubIds = lazy ?
+            this.poolCurator.getBonusPoolSubscriptionIds(owner) :
+            Collections.emptySet();
+
+        String rulesVersion = this.getRefreshRulesVersion();
+        int updated = 0;
+        int skipped = 0;
+
+        int batchSize = this.config.getInt(ConfigProperties.POOL_REFRESH_BATCH_SIZE);
+        List<Pool> batch = new ArrayList<>();
+
         log.debug("Refreshing {} pool(s)...", subscriptionMap.size());
         for (Iterator<? extends SubscriptionInfo> si = subscriptionMap.values().iterator(); si.hasNext();) {
             SubscriptionInfo sub = si.next();
@@ -273,10 +296,40 @@ public class CandlepinPoolManager implements PoolManager {
                 continue;
             }
 
+            String fingerprint = SubscriptionFingerprinter.fingerprint(sub, importedProducts, rulesVersion);
+
+            if (fingerprint.equals(fingerprints.get(sub.getId())) &&
+                !this.referencesUpdatedProducts(sub, updatedProducts) &&
+                !this.isMissingBonusPool(sub, importedProducts, bonusPoolSubIds)) {
+
+                log.debug("Skipping unchanged subscription: {}", sub);
+
+                ++skipped;
+                continue;
+            }
+
             log.debug("Processing subscription: {}", sub);
             Pool pool = this.convertToMasterPoolImpl(sub, owner, importedProducts);
             pool.setLocked(true);
-            this.refreshPoolsForMasterPool(pool, false, lazy, updatedProducts);
+            pool.setSubscriptionFingerprint(fingerprint);
+
+            if (batchSize > 1) {
+                batch.add(pool);
+
+                if (batch.size() >= batchSize) {
+                    this.refreshPoolsForMasterPools(batch, lazy, updatedProducts);
+                    batch.clear();
+                }
+            }
+            else {
+                this.refreshPoolsForMasterPool(pool, false, lazy, updatedProducts);
+            }
+
+            ++updated;
+        }
+
+        if (!batch.isEmpty()) {
+            this.refreshPoolsForMasterPools(batch, lazy, updatedProducts);
         }
 
         // delete pools whose subscription disappeared:
@@ -296,8 +349,88 @@ public class CandlepinPoolManager implements PoolManager {
         List<Pool> floatingPools = poolCurator.getOwnersFloatingPools(owner);
         updateFloatingPools(floatingPools, lazy, updatedProducts);
 
-        log.info("Refresh pools for owner: {} completed in: {}ms", owner.getKey(),
-            System.currentTimeMillis() - now.getTime());
+        log.info("Refresh pools for owner: {} completed in: {}ms; subscriptions updated: {}, unchanged: {}",
+            owner.getKey(), System.currentTimeMillis() - now.getTime(), updated, skipped);
+
+        return new RefreshResult(updated, skipped);
+    }
+
+    /**
+     * Fetches the version of the rules used to build pools during a refresh. As pool creation is
+     * partly implemented by the server itself, the server version is included alongside the
+     * version of the rules file.
+     *
+     * @return
+     *  the version of the rules used to build pools
+     */
+    String getRefreshRulesVersion() {
+        return this.jsRunnerProvider.getRulesVersion() + '/' + VersionUtil.getVersionString();
+    }
+
+    /**
+     * Checks whether the given subscription should have a bonus pool, but does not have one. This
+     * can happen when the pool was removed or never created (BZ 1012386), in which case the
+     * subscription must not be skipped so the pool is recreated.
+     *
+     * @param sub
+     *  the subscription to check
+     *
+     * @param products
+     *  a mapping of product IDs to the product versions the subscription's pools will reference
+     *
+     * @param bonusPoolSubIds
+     *  the IDs of the subscriptions which have a bonus pool
+     *
+     * @return
+     *  true if the subscription is missing its bonus pool; false otherwise
+     */
+    private boolean isMissingBonusPool(SubscriptionInfo sub, Map<String, Product> products,
+        Set<String> bonusPoolSubIds) {
+
+        if (bonusPoolSubIds.contains(sub.getId()) || sub.getProduct() == null) {
+            return false;
+        }
+
+        return this.poolRules.requiresBonusPool(products.get(sub.getProduct().getId()));
+    }
+
+    /**
+     * Checks whether any product referenced by the given subscription is present in the map of
+     * updated products.
+     *
+     * @param sub
+     *  the subscription to check
+     *
+     * @param updatedProducts
+     *  a mapping of product IDs to products updated by the current refresh
+     *
+     * @return
+     *  true if the subscription references an updated product; false otherwise
+     */
+    private boolean referencesUpdatedProducts(SubscriptionInfo sub, Map<String, Product> updatedProducts) {
+        if (updatedProducts == null || updatedProducts.isEmpty()) {
+            return false;
+        }
+
+        List<ProductInfo> pinfos = new ArrayList<>();
+        pinfos.add(sub.getProduct());
+        pinfos.add(sub.getDerivedProduct());
+
+        if (sub.getProvidedProducts() != null) {
+            pinfos.addAll(sub.getProvidedProducts());
+        }
+
+        if (sub.getDerivedProvidedProducts() != null) {
+            pinfos.addAll(sub.getDerivedProvidedProducts());
+        }
+
+        for (ProductInfo pinfo : pinfos) {
+            if (pinfo != null && updatedProducts.containsKey(pinfo.getId())) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private Owner resolveOwner(Owner owner) {
@@ -352,6 +485,123 @@ public class CandlepinPoolManager implements PoolManager {
             }
         }
 
+        this.updateSubscriptionPools(pool, subscriptionPools, changedProducts);
+
+        // Cleans up pools on other owners who have migrated subs away
+        removeAndDeletePoolsOnOtherOwners(subscriptionPools, pool);
+
+        // capture the original quantity to check for updates later
+        Long originalQuantity = pool.getQuantity();
+
+        // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
+        // pair still exists.
+        createAndEnrichPools(pool, subscriptionPools);
+
+        // don't update floating here, we'll do that later so we don't update anything twice
+        Set<String> updatedMasterPools = updatePoolsForMasterPool(
+            subscriptionPools, pool, originalQuantity, updateStackDerived, changedProducts);
+
+        regenerateCertificatesByEntIds(updatedMasterPools, lazy);
+    }
+
+    /**
+     * Refreshes the pools of several master pools at once. This performs the same work as calling
+     * refreshPoolsForMasterPool for each master pool without updating stack derived pools, but
+     * fetches the existing pools of every subscription in a single query, persists the new pools
+     * together, and processes the resulting pool updates and entitlement changes in bulk.
+     *
+     * @param masterPools
+     *  the master pools to refresh, each built from a different subscription
+     *
+     * @param lazy
+     *  whether or not to regenerate affected entitlement certificates lazily
+     *
+     * @param changedProducts
+     *  a mapping of product IDs to products updated by the current refresh
+     */
+    @Transactional
+    void refreshPoolsForMasterPools(List<Pool> masterPools, boolean lazy,
+        Map<String, Product> changedProducts) {
+
+        if (masterPools == null || masterPools.isEmpty()) {
+            return;
+        }
+
+        // These don't all necessarily belong to this owner
+        Map<String, List<Pool>> subscriptionPoolMap = new HashMap<>();
+        for (Pool pool : masterPools) {
+            subscriptionPoolMap.put(pool.getSubscriptionId(), new ArrayList<>());
+        }
+
+        List<Pool> existingPools = this.poolCurator
+            .getPoolsBySubscriptionIds(subscriptionPoolMap.keySet())
+            .list();
+
+        for (Pool existing : existingPools) {
+            List<Pool> subscriptionPools = subscriptionPoolMap.get(existing.getSubscriptionId());
+
+            if (subscriptionPools != null) {
+                subscriptionPools.add(existing);
+            }
+        }
+
+        log.debug("Refreshing {} master pool(s) in a batch", masterPools.size());
+
+        List<Pool> createdPools = new ArrayList<>();
+        List<PoolUpdate> updatedPools = new ArrayList<>();
+        Map<String, EventBuilder> poolEvents = new HashMap<>();
+
+        for (Pool pool : masterPools) {
+            List<Pool> subscriptionPools = subscriptionPoolMap.get(pool.getSubscriptionId());
+
+            this.updateSubscriptionPools(pool, subscriptionPools, changedProducts);
+            removeAndDeletePoolsOnOtherOwners(subscriptionPools, pool);
+
+            Long originalQuantity = pool.getQuantity();
+
+            // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
+            // pair still exists.
+            createdPools.addAll(poolRules.createAndEnrichPools(pool, subscriptionPools));
+
+            if (!subscriptionPools.isEmpty()) {
+                for (Pool existing : subscriptionPools) {
+                    EventBuilder eventBuilder = eventFactory
+                        .getEventBuilder(Target.POOL, Type.MODIFIED)
+                        .setEventData(existing);
+
+                    poolEvents.put(existing.getId(), eventBuilder);
+                }
+
+                updatedPools.addAll(poolRules.updatePools(pool, subscriptionPools, originalQuantity,
+                    changedProducts));
+            }
+        }
+
+        log.debug("Creating {} pool(s) for batch", createdPools.size());
+        this.createPools(createdPools);
+
+        // See the note in updatePoolsForMasterPool regarding BZ 1567922
+        poolCurator.flush();
+
+        regenerateCertificatesByEntIds(processPoolUpdates(poolEvents, updatedPools), lazy);
+    }
+
+    /**
+     * Updates the product references, lock state and subscription fingerprint of the existing pools
+     * of a subscription to reflect the given master pool.
+     *
+     * @param pool
+     *  the master pool being refreshed
+     *
+     * @param subscriptionPools
+     *  the existing pools of the master pool's subscription
+     *
+     * @param changedProducts
+     *  a mapping of product IDs to products updated by the current refresh
+     */
+    private void updateSubscriptionPools(Pool pool, List<Pool> subscriptionPools,
+        Map<String, Product> changedProducts) {
+
         // Update product references on the pools, I guess
         // TODO: Should this be performed by poolRules? Seems like that should be a thing.
         for (Pool subPool : subscriptionPools) {
@@ -376,23 +626,13 @@ public class CandlepinPoolManager implements PoolManager {
             if (pool.isLocked()) {
                 subPool.setLocked(true);
             }
-        }
 
-        // Cleans up pools on other owners who have migrated subs away
-        removeAndDeletePoolsOnOtherOwners(subscriptionPools, pool);
-
-        // capture the original quantity to check for updates later
-        Long originalQuantity = pool.getQuantity();
-
-        // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
-        // pair still exists.
-        createAndEnrichPools(pool, subscriptionPools);
-
-        // don't update floating here, we'll do that later so we don't update anything twice
-        Set<String> updatedMasterPools = updatePoolsForMasterPool(
-            subscriptionPools, pool, originalQuantity, updateStackDerived, changedProducts);
-
-        regenerateCertificatesByEntIds(updatedMasterPools, lazy);
+            // Record the fingerprint of the data the master pool is refreshed from. Refreshes which
+            // do not provide one clear it, forcing the next owner refresh to process the subscription.
+            if ("master".equals(subPool.getSubscriptionSubKey())) {
+                subPool.setSubscriptionFingerprint(pool.getSubscriptionFingerprint());
+            }
+        }
     }
 
     private void removeAndDeletePoolsOnOtherOwners(List<Pool> existingPools, Pool pool) {
@@ -1827,6 +2067,14 @@ public class CandlepinPoolManager implements PoolManager {
         this.ecGenerator.regenerateCertificatesOf(owner, productId, lazy);
     }
 
+    @Override
+    @Transactional
+    public void regenerateCertificatesOf(Owner owner, String productId, boolean lazy,
+        EntitlementCertificateGenerator.ProgressListener listener) {
+
+        this.ecGenerator.regenerateCertificatesOf(owner, productId, lazy, listener);
+    }
+
     @Override
     @Transactional
     public Set<Pool> revokeEntitlements(List<Entitlement> entsToRevoke) {
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * The CertificateSigningExecutor provides the bounded pool of worker threads on which entitlement
+ * certificates are signed and encoded during bulk regeneration. Signing is CPU-bound and entirely
+ * independent of the database, so it can be spread across every available processor while the
+ * regenerating thread remains the only one to touch the session.
+ * <p></p>
+ * The worker threads are daemon threads which are only started once work is submitted, and are
+ * discarded after a period of inactivity.
+ */
+public class CertificateSigningExecutor {
+    private static Logger log = LoggerFactory.getLogger(CertificateSigningExecutor.class);
+
+    private static final long IDLE_TIMEOUT = 60;
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    @Inject
+    public CertificateSigningExecutor(Configuration config) {
+        this(config.getInt(ConfigProperties.ENT_CERT_REGEN_THREADS, 1));
+    }
+
+    /**
+     * Creates a new certificate signing executor.
+     *
+     * @param threads
+     *  the number of worker threads to use; zero uses one thread per available processor, and one
+     *  disables parallel signing entirely
+     *
+     * @throws IllegalArgumentException
+     *  if threads is negative
+     */
+    public CertificateSigningExecutor(int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads is negative: " + threads);
+        }
+
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        if (this.parallelism > 1) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(this.parallelism, this.parallelism,
+                IDLE_TIMEOUT, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new SignerThreadFactory());
+
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+
+            log.info("Entitlement certificates will be signed using {} threads", this.parallelism);
+        }
+        else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Checks whether or not certificates should be signed in parallel.
+     *
+     * @return
+     *  true if more than one signing thread is available; false otherwise
+     */
+    public boolean isParallel() {
+        return this.executor != null;
+    }
+
+    /**
+     * Fetches the number of threads available for signing certificates.
+     *
+     * @return
+     *  the number of signing threads
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Fetches the executor on which certificates are to be signed. If parallel signing is
+     * disabled, the returned executor runs tasks on the submitting thread.
+     *
+     * @return
+     *  the executor on which to sign certificates
+     */
+    public Executor getExecutor() {
+        return this.executor != null ? this.executor : Runnable::run;
+    }
+
+    /**
+     * ThreadFactory creating named daemon threads, so an idle signing pool never holds up shutdown
+     */
+    private static class SignerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "cert-signer-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * The ConsumerCheckInBuffer coalesces consumer check-ins in memory, writing them to the database
+ * periodically rather than as each is received. Only the latest check-in of each consumer is
+ * retained between flushes, and all buffered check-ins are written in bulk.
+ * <p></p>
+ * The flush interval is controlled by the candlepin.consumer.checkin.flush_interval property; an
+ * interval of zero disables buffering entirely, writing each check-in immediately. Any buffered
+ * check-ins are written when the buffer is shut down.
+ */
+@Singleton
+public class ConsumerCheckInBuffer {
+    private static Logger log = LoggerFactory.getLogger(ConsumerCheckInBuffer.class);
+
+    private final ConsumerCurator consumerCurator;
+    private final long interval;
+    private final Map<String, Date> pending;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean shutdown;
+
+    @Inject
+    public ConsumerCheckInBuffer(ConsumerCurator consumerCurator, Configuration config) {
+        this(consumerCurator, config.getLong(ConfigProperties.CONSUMER_CHECKIN_FLUSH_INTERVAL, 0));
+    }
+
+    /**
+     * Creates a new check-in buffer.
+     *
+     * @param consumerCurator
+     *  the ConsumerCurator to use for writing check-ins
+     *
+     * @param interval
+     *  the interval, in seconds, at which to write buffered check-ins; zero disables buffering
+     *
+     * @throws IllegalArgumentException
+     *  if consumerCurator is null or interval is negative
+     */
+    public ConsumerCheckInBuffer(ConsumerCurator consumerCurator, long interval) {
+        if (consumerCurator == null) {
+            throw new IllegalArgumentException("consumerCurator is null");
+        }
+
+        if (interval < 0) {
+            throw new IllegalArgumentException("interval is negative: " + interval);
+        }
+
+        this.consumerCurator = consumerCurator;
+        this.interval = interval;
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Checks whether or not check-ins are buffered.
+     *
+     * @return
+     *  true if check-ins are buffered and written periodically; false if they are written
+     *  immediately
+     */
+    public boolean isBuffering() {
+        return this.interval > 0;
+    }
+
+    /**
+     * Records a check-in for the given consumer at the current time.
+     *
+     * @param consumer
+     *  the consumer checking in
+     */
+    public void checkIn(Consumer consumer) {
+        this.checkIn(consumer, new Date());
+    }
+
+    /**
+     * Records a check-in for the given consumer at the given time. If buffering is disabled, or the
+     * buffer has been shut down, the check-in is written immediately.
+     *
+     * @param consumer
+     *  the consumer checking in
+     *
+     * @param checkinDate
+     *  the time of the check-in
+     */
+    public void checkIn(Consumer consumer, Date checkinDate) {
+        if (consumer == null || consumer.getId() == null || checkinDate == null) {
+            return;
+        }
+
+        if (!this.isBuffering() || !this.start()) {
+            this.consumerCurator.updateLastCheckin(consumer, checkinDate);
+            return;
+        }
+
+        this.pending.merge(consumer.getId(), checkinDate,
+            (current, latest) -> latest.after(current) ? latest : current);
+
+        // If we raced with shutdown, the final flush may have already happened
+        if (this.shutdown) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Starts the periodic flush, if it has not already been started.
+     *
+     * @return
+     *  true if the buffer is accepting check-ins; false if it has been shut down
+     */
+    private synchronized boolean start() {
+        if (this.shutdown) {
+            return false;
+        }
+
+        if (this.executor == null) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "consumer-checkin-flush");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+            this.executor.scheduleWithFixedDelay(this::flushSafely, this.interval, this.interval,
+                TimeUnit.SECONDS);
+
+            log.info("Consumer check-ins will be written every {} seconds", this.interval);
+        }
+
+        return true;
+    }
+
+    /**
+     * Fetches the number of consumers with check-ins waiting to be written.
+     *
+     * @return
+     *  the number of buffered check-ins
+     */
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Writes all buffered check-ins to the database. Should the write fail, the check-ins are
+     * returned to the buffer to be written by a later flush.
+     *
+     * @return
+     *  the number of check-ins written
+     */
+    public int flush() {
+        Map<String, Date> checkins = new HashMap<>();
+
+        for (String consumerId : new ArrayList<>(this.pending.keySet())) {
+            Date checkin = this.pending.remove(consumerId);
+
+            if (checkin != null) {
+                checkins.put(consumerId, checkin);
+            }
+        }
+
+        if (checkins.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            this.consumerCurator.updateLastCheckins(checkins);
+            log.debug("Wrote {} buffered consumer check-ins", checkins.size());
+
+            return checkins.size();
+        }
+        catch (RuntimeException e) {
+            checkins.forEach((consumerId, checkin) -> this.pending.merge(consumerId, checkin,
+                (current, previous) -> current.after(previous) ? current : previous));
+
+            throw e;
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            this.flush();
+        }
+        catch (Exception e) {
+            log.error("Unable to write buffered consumer check-ins; will retry on the next flush", e);
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes any buffered check-ins. Check-ins received after the
+     * buffer has been shut down are written immediately.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            this.shutdown = true;
+
+            if (this.executor != null) {
+                this.executor.shutdown();
+
+                try {
+                    this.executor.awaitTermination(this.interval, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        try {
+            int count = this.flush();
+            log.info("Consumer check-in buffer shut down; wrote {} remaining check-ins", count);
+        }
+        catch (Exception e) {
+            log.error("Unable to write {} buffered consumer check-ins during shutdown",
+                this.pending.size(), e);
+        }
+    }
+}
@@ -44,6 +44,8 @@ import org.candlepin.model.Product;
 import org.candlepin.pki.PKIUtility;
 import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.pki.X509ExtensionWrapper;
+import org.candlepin.util.ContentAccessPayloadCache;
+import org.candlepin.util.ContentAccessPayloadCache.CachedPayload;
 import org.candlepin.util.OIDUtil;
 import org.candlepin.util.Util;
 import org.candlepin.util.X509V3ExtensionUtil;
@@ -198,6 +200,7 @@ public class ContentAccessManager {
     private EnvironmentCurator environmentCurator;
     private ContentAccessCertificateCurator contentAccessCertCurator;
     private EventSink eventSink;
+    private ContentAccessPayloadCache payloadCache;
 
     private boolean standalone;
 
@@ -216,7 +219,8 @@ public class ContentAccessManager {
         ConsumerTypeCurator consumerTypeCurator,
         EnvironmentCurator environmentCurator,
         ContentAccessCertificateCurator contentAccessCertCurator,
-        EventSink eventSink) {
+        EventSink eventSink,
+        ContentAccessPayloadCache payloadCache) {
 
         this.config = Objects.requireNonNull(config);
         this.pki = Objects.requireNonNull(pki);
@@ -232,6 +236,7 @@ public class ContentAccessManager {
         this.environmentCurator = Objects.requireNonNull(environmentCurator);
         this.contentAccessCertCurator = Objects.requireNonNull(contentAccessCertCurator);
         this.eventSink = Objects.requireNonNull(eventSink);
+        this.payloadCache = Objects.requireNonNull(payloadCache);
 
         this.standalone = this.config.getBoolean(ConfigProperties.STANDALONE, true);
     }
@@ -302,19 +307,7 @@ public class ContentAccessManager {
             pem = existing.getCert();
         }
 
-        Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
-
-        // we need to see if this is newer than the previous result
-        OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
-            .getContentAccess(owner.getId(), env == null ? null : env.getId());
-
-        if (oeca == null) {
-            String contentJson = createPayloadAndSignature(owner, env);
-            oeca = new OwnerEnvContentAccess(owner, env, contentJson);
-            oeca = ownerEnvContentAccessCurator.saveOrUpdate(oeca);
-        }
-
-        pem += oeca.getContentJson();
+        pem += this.getContentPayload(owner, consumer).getPayload();
 
         result.setCert(pem);
         result.setCreated(existing.getCreated());
@@ -327,6 +320,62 @@ public class ContentAccessManager {
         return result;
     }
 
+    /**
+     * Fetches the signed content access payload shared by all consumers in the given consumer's
+     * owner and environment, building and persisting it if necessary.
+     */
+    private CachedPayload getContentPayload(Owner owner, Consumer consumer) throws IOException {
+        CachedPayload cached = this.payloadCache.get(owner.getId(), consumer.getEnvironmentId());
+
+        if (cached == null) {
+            Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
+
+            // we need to see if this is newer than the previous result
+            OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
+                .getContentAccess(owner.getId(), env == null ? null : env.getId());
+
+            if (oeca == null) {
+                String contentJson = createPayloadAndSignature(owner, env);
+                oeca = new OwnerEnvContentAccess(owner, env, contentJson);
+                oeca = ownerEnvContentAccessCurator.saveOrUpdate(oeca);
+            }
+
+            cached = this.payloadCache.put(owner.getId(), env == null ? null : env.getId(),
+                oeca.getContentJson(), oeca.getUpdated());
+        }
+
+        return cached;
+    }
+
+    /**
+     * Builds the entity tag of the content access certificate and payload currently served to the
+     * given consumer, without regenerating either. The tag is only available while the owner's
+     * payload is cached and the consumer's certificate remains valid.
+     *
+     * @param consumer
+     *  the consumer for which to build an entity tag
+     *
+     * @return
+     *  the entity tag of the consumer's content access certificate, or null if it cannot be
+     *  determined without rebuilding the certificate
+     */
+    public String getContentAccessETag(Consumer consumer) {
+        if (consumer == null) {
+            return null;
+        }
+
+        CachedPayload cached = this.payloadCache.get(consumer.getOwnerId(), consumer.getEnvironmentId());
+        ContentAccessCertificate cert = consumer.getContentAccessCert();
+
+        if (cached == null || cert == null || cert.getSerial() == null ||
+            cert.getSerial().getExpiration().getTime() < System.currentTimeMillis()) {
+
+            return null;
+        }
+
+        return "\"" + cert.getSerial().getId() + "-" + cached.getDigest() + "\"";
+    }
+
     private String createPayloadAndSignature(Owner owner, Environment environment)
         throws IOException {
 
@@ -553,13 +602,23 @@ public class ContentAccessManager {
             return true;
         }
 
-        Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
-        OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
-            .getContentAccess(consumer.getOwnerId(), env == null ? null : env.getId());
+        Date updated;
+
+        CachedPayload cached = this.payloadCache.get(consumer.getOwnerId(), consumer.getEnvironmentId());
+        if (cached != null) {
+            updated = cached.getUpdated();
+        }
+        else {
+            Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
+            OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator
+                .getContentAccess(consumer.getOwnerId(), env == null ? null : env.getId());
+
+            updated = oeca != null ? oeca.getUpdated() : null;
+        }
 
-        return oeca == null ||
+        return updated == null ||
             consumer.getContentAccessCert() == null ||
-            oeca.getUpdated().getTime() > date.getTime();
+            updated.getTime() > date.getTime();
     }
 
     @Transactional
@@ -712,6 +771,21 @@ public class ContentAccessManager {
         // removed cached versions of content access cert data
         this.ownerEnvContentAccessCurator.removeAllForOwner(owner.getId());
         ownerCurator.flush();
+
+        this.payloadCache.invalidateOwner(owner.getId());
+    }
+
+    /**
+     * Removes the cached content access data for the given environment, such that it is rebuilt
+     * to reflect the environment's current content.
+     *
+     * @param environment
+     *  The environment for which to refresh content access
+     */
+    @Transactional
+    public void refreshEnvironmentForContentAccess(Environment environment) {
+        this.ownerEnvContentAccessCurator.removeAllForEnvironment(environment.getId());
+        this.payloadCache.invalidateEnvironment(environment.getId());
     }
 
 }
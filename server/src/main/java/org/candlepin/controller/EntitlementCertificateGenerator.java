@@ -16,6 +16,8 @@ package org.candlepin.controller;
 
 import org.candlepin.audit.EventFactory;
 import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCertificate;
@@ -38,16 +40,22 @@ import com.google.inject.persist.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 
@@ -64,6 +72,25 @@ import java.util.Set;
 public class EntitlementCertificateGenerator {
     private static Logger log = LoggerFactory.getLogger(EntitlementCertificateGenerator.class);
 
+    /** The default number of regenerated entitlements to persist at a time */
+    public static final int DEFAULT_REGEN_BATCH_SIZE = 500;
+
+    /**
+     * Listener notified periodically as entitlement certificates are regenerated immediately.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after a block of entitlements has been processed.
+         *
+         * @param processed
+         *  the number of entitlements processed so far
+         *
+         * @param total
+         *  the total number of entitlements being processed
+         */
+        void onProgress(int processed, int total);
+    }
+
     private EntitlementCertificateCurator entitlementCertificateCurator;
     private EntitlementCertServiceAdapter entCertServiceAdapter;
     private ContentAccessManager contentAccessManager;
@@ -73,15 +100,45 @@ public class EntitlementCertificateGenerator {
     private ProductCurator productCurator;
     private EventSink eventSink;
     private EventFactory eventFactory;
+    private CertificateSigningExecutor signer;
+    private int batchSize;
 
 
-    @Inject
     public EntitlementCertificateGenerator(EntitlementCertificateCurator entitlementCertificateCurator,
         EntitlementCertServiceAdapter entCertServiceAdapter, EntitlementCurator entitlementCurator,
         PoolCurator poolCurator, EventSink eventSink, EventFactory eventFactory,
         ProductCurator productCurator, ContentAccessManager contentAccessManager,
         OwnerCurator ownerCurator) {
 
+        this(entitlementCertificateCurator, entCertServiceAdapter, entitlementCurator, poolCurator,
+            eventSink, eventFactory, productCurator, contentAccessManager, ownerCurator,
+            new CertificateSigningExecutor(1), DEFAULT_REGEN_BATCH_SIZE);
+    }
+
+    @Inject
+    public EntitlementCertificateGenerator(EntitlementCertificateCurator entitlementCertificateCurator,
+        EntitlementCertServiceAdapter entCertServiceAdapter, EntitlementCurator entitlementCurator,
+        PoolCurator poolCurator, EventSink eventSink, EventFactory eventFactory,
+        ProductCurator productCurator, ContentAccessManager contentAccessManager,
+        OwnerCurator ownerCurator, CertificateSigningExecutor signer, Configuration config) {
+
+        this(entitlementCertificateCurator, entCertServiceAdapter, entitlementCurator, poolCurator,
+            eventSink, eventFactory, productCurator, contentAccessManager, ownerCurator, signer,
+            config.getInt(ConfigProperties.ENT_CERT_REGEN_BATCH_SIZE, DEFAULT_REGEN_BATCH_SIZE));
+    }
+
+    public EntitlementCertificateGenerator(EntitlementCertificateCurator entitlementCertificateCurator,
+        EntitlementCertServiceAdapter entCertServiceAdapter, EntitlementCurator entitlementCurator,
+        PoolCurator poolCurator, EventSink eventSink, EventFactory eventFactory,
+        ProductCurator productCurator, ContentAccessManager contentAccessManager,
+        OwnerCurator ownerCurator, CertificateSigningExecutor signer, int batchSize) {
+
+        if (signer == null) {
+            throw new IllegalArgumentException("signer is null");
+        }
+
+        this.signer = signer;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_REGEN_BATCH_SIZE;
         this.entitlementCertificateCurator = entitlementCertificateCurator;
         this.entCertServiceAdapter = entCertServiceAdapter;
         this.contentAccessManager = contentAccessManager;
@@ -217,7 +274,7 @@ public class EntitlementCertificateGenerator {
             this.regenerateCertificatesLazyImpl(entitlements);
         }
         else {
-            this.regenerateCertificatesImpl(entitlements);
+            this.regenerateCertificatesImpl(entitlements, null);
         }
     }
 
@@ -233,39 +290,278 @@ public class EntitlementCertificateGenerator {
     }
 
     /**
-     * Regenerates the certificates for the specified entitlements.
+     * Regenerates the certificates for the specified entitlements, signing them in parallel if
+     * the signing executor allows it.
      */
-    private void regenerateCertificatesImpl(Iterable<Entitlement> entitlements) {
-        if (entitlements != null) {
-            Set<String> entIds = new HashSet<>();
+    private void regenerateCertificatesImpl(Iterable<Entitlement> entitlements, ProgressListener listener) {
+        if (entitlements == null) {
+            return;
+        }
 
-            for (Entitlement entitlement : entitlements) {
-                try {
-                    // Generate new cert
-                    EntitlementCertificate generated = this.generateEntitlementCertificate(
-                        entitlement.getPool(), entitlement, false);
+        if (this.signer.isParallel()) {
+            List<Entitlement> entList = new ArrayList<>();
+            entitlements.forEach(entList::add);
+
+            this.regenerateCertificatesParallelImpl(entList, listener);
+            return;
+        }
+
+        int total = listener != null ? this.count(entitlements) : 0;
+        int processed = 0;
+        Set<String> entIds = new HashSet<>();
+
+        for (Entitlement entitlement : entitlements) {
+            try {
+                // Generate new cert
+                EntitlementCertificate generated = this.generateEntitlementCertificate(
+                    entitlement.getPool(), entitlement, false);
+
+                // Apply to the entitlement
+                entitlement.setDirty(false);
+                entitlement.setCertificates(Collections.singleton(generated));
+
+                // send entitlement changed event.
+                this.eventSink.queueEvent(this.eventFactory.entitlementChanged(entitlement));
+
+                entIds.add(entitlement.getId());
+            }
+            catch (CertificateSizeException cse) {
+                // Uh oh... do nothing for now.
+                log.warn("The certificate cannot be regenerated at this time: {}", cse.getMessage());
+            }
+
+            if (listener != null && ++processed % this.batchSize == 0) {
+                listener.onProgress(processed, total);
+            }
+        }
+
+        // Clear the old certs before we save so we don't end up in a weird state
+        int count = this.entitlementCertificateCurator.deleteByEntitlementIds(entIds);
+        log.debug("{} old entitlement certificates deleted", count);
+
+        // Save everything
+        this.entitlementCurator.saveOrUpdateAll(entitlements, false, false);
+
+        if (listener != null) {
+            listener.onProgress(total, total);
+        }
+    }
+
+    /**
+     * Regenerates the certificates for the specified entitlements, signing them on the signing
+     * executor. All database work, including gathering the content for each certificate, remains on
+     * the calling thread; at most a bounded number of batches are left signing at any time.
+     * <p></p>
+     * The new certificates are persisted in blocks, each flushed as it is completed. A certificate
+     * is not applied to its entitlement until the entitlement's old certificates have been deleted,
+     * as any intervening flush would otherwise persist the new certificate ahead of the deletion.
+     */
+    private void regenerateCertificatesParallelImpl(List<Entitlement> entitlements,
+        ProgressListener listener) {
+
+        List<SigningBatch> batches = this.partitionByConsumer(entitlements);
+        int window = 2 * this.signer.getParallelism();
 
-                    // Apply to the entitlement
-                    entitlement.setDirty(false);
-                    entitlement.setCertificates(Collections.singleton(generated));
+        log.info("Regenerating {} entitlement certificates in {} batches using {} signing threads",
+            entitlements.size(), batches.size(), this.signer.getParallelism());
 
-                    // send entitlement changed event.
-                    this.eventSink.queueEvent(this.eventFactory.entitlementChanged(entitlement));
+        Deque<SigningBatch> inflight = new ArrayDeque<>();
+        Map<Entitlement, EntitlementCertificate> pending = new LinkedHashMap<>();
+        int processed = 0;
 
-                    entIds.add(entitlement.getId());
+        for (SigningBatch batch : batches) {
+            this.submit(batch);
+            inflight.add(batch);
+
+            while (inflight.size() >= window) {
+                processed += this.complete(inflight.poll(), pending);
+                this.flushIfFull(pending, processed, entitlements.size(), listener);
+            }
+        }
+
+        while (!inflight.isEmpty()) {
+            processed += this.complete(inflight.poll(), pending);
+            this.flushIfFull(pending, processed, entitlements.size(), listener);
+        }
+
+        this.flush(pending);
+
+        if (listener != null) {
+            listener.onProgress(entitlements.size(), entitlements.size());
+        }
+    }
+
+    /**
+     * Splits the given entitlements into batches which may be signed together: each batch belongs
+     * to a single consumer, and contains at most one entitlement from any given pool.
+     */
+    private List<SigningBatch> partitionByConsumer(List<Entitlement> entitlements) {
+        Map<Consumer, List<SigningBatch>> consumerBatches = new LinkedHashMap<>();
+        List<SigningBatch> batches = new ArrayList<>();
+
+        for (Entitlement entitlement : entitlements) {
+            Pool pool = entitlement.getPool();
+            List<SigningBatch> existing = consumerBatches
+                .computeIfAbsent(entitlement.getConsumer(), key -> new ArrayList<>());
+
+            SigningBatch target = null;
+            for (SigningBatch batch : existing) {
+                if (!batch.entitlements.containsKey(pool.getId())) {
+                    target = batch;
+                    break;
                 }
-                catch (CertificateSizeException cse) {
-                    // Uh oh... do nothing for now.
-                    log.warn("The certificate cannot be regenerated at this time: {}", cse.getMessage());
+            }
+
+            if (target == null) {
+                target = new SigningBatch(entitlement.getConsumer());
+                existing.add(target);
+                batches.add(target);
+            }
+
+            target.entitlements.put(pool.getId(), entitlement);
+            target.products.put(pool.getId(), pool.getProduct());
+            target.poolQuantities.put(pool.getId(), new PoolQuantity(pool, entitlement.getQuantity()));
+        }
+
+        return batches;
+    }
+
+    /**
+     * Prepares the certificates of the given batch on this thread, and submits them for signing.
+     */
+    private void submit(SigningBatch batch) {
+        try {
+            batch.future = this.entCertServiceAdapter.generateEntitlementCertsAsync(batch.consumer,
+                batch.poolQuantities, batch.entitlements, batch.products, this.signer.getExecutor());
+        }
+        catch (CertVersionConflictException | CertificateSizeException e) {
+            CompletableFuture<Map<String, EntitlementCertificate>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+
+            batch.future = failed;
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits for the given batch to be signed, and queues its certificates to be applied.
+     *
+     * @return
+     *  the number of entitlements processed
+     */
+    private int complete(SigningBatch batch, Map<Entitlement, EntitlementCertificate> pending) {
+        try {
+            Map<String, EntitlementCertificate> certs = batch.future.join();
+
+            for (Map.Entry<String, Entitlement> entry : batch.entitlements.entrySet()) {
+                pending.put(entry.getValue(), certs.get(entry.getKey()));
+            }
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+
+            if (cause instanceof CertificateSizeException && batch.entitlements.size() > 1) {
+                // One of the certificates is too large; fall back to generating them individually
+                // so only the offending certificate is skipped
+                for (Entitlement entitlement : batch.entitlements.values()) {
+                    try {
+                        pending.put(entitlement, this.generateEntitlementCertificate(
+                            entitlement.getPool(), entitlement, false));
+                    }
+                    catch (CertificateSizeException cse) {
+                        log.warn("The certificate cannot be regenerated at this time: {}",
+                            cse.getMessage());
+                    }
                 }
             }
+            else if (cause instanceof CertificateSizeException) {
+                log.warn("The certificate cannot be regenerated at this time: {}", cause.getMessage());
+            }
+            else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else {
+                throw new RuntimeException(cause);
+            }
+        }
+
+        return batch.entitlements.size();
+    }
+
+    /**
+     * Persists the pending certificates if a full block has been gathered.
+     */
+    private void flushIfFull(Map<Entitlement, EntitlementCertificate> pending, int processed, int total,
+        ProgressListener listener) {
+
+        if (pending.size() >= this.batchSize) {
+            this.flush(pending);
+
+            if (listener != null) {
+                listener.onProgress(processed, total);
+            }
+        }
+    }
+
+    /**
+     * Deletes the old certificates of the pending entitlements, applies their new certificates and
+     * flushes them to the database.
+     */
+    private void flush(Map<Entitlement, EntitlementCertificate> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<String> entIds = new HashSet<>();
+        for (Entitlement entitlement : pending.keySet()) {
+            entIds.add(entitlement.getId());
+        }
+
+        // Clear the old certs before applying the new ones so we don't end up in a weird state
+        int count = this.entitlementCertificateCurator.deleteByEntitlementIds(entIds);
+        log.debug("{} old entitlement certificates deleted", count);
+
+        for (Map.Entry<Entitlement, EntitlementCertificate> entry : pending.entrySet()) {
+            Entitlement entitlement = entry.getKey();
+
+            entitlement.setDirty(false);
+            entitlement.setCertificates(Collections.singleton(entry.getValue()));
+
+            // send entitlement changed event.
+            this.eventSink.queueEvent(this.eventFactory.entitlementChanged(entitlement));
+        }
+
+        this.entitlementCurator.saveOrUpdateAll(pending.keySet(), true, false);
+        pending.clear();
+    }
+
+    private int count(Iterable<Entitlement> entitlements) {
+        if (entitlements instanceof Collection) {
+            return ((Collection<Entitlement>) entitlements).size();
+        }
 
-            // Clear the old certs before we save so we don't end up in a weird state
-            int count = this.entitlementCertificateCurator.deleteByEntitlementIds(entIds);
-            log.debug("{} old entitlement certificates deleted", count);
+        int count = 0;
+        for (Entitlement entitlement : entitlements) {
+            ++count;
+        }
+
+        return count;
+    }
 
-            // Save everything
-            this.entitlementCurator.saveOrUpdateAll(entitlements, false, false);
+    /**
+     * The entitlements of a single consumer to be signed together, indexed by pool ID
+     */
+    private static class SigningBatch {
+        private final Consumer consumer;
+        private final Map<String, Entitlement> entitlements = new HashMap<>();
+        private final Map<String, Product> products = new HashMap<>();
+        private final Map<String, PoolQuantity> poolQuantities = new HashMap<>();
+        private CompletableFuture<Map<String, EntitlementCertificate>> future;
+
+        public SigningBatch(Consumer consumer) {
+            this.consumer = consumer;
         }
     }
 
@@ -394,12 +690,49 @@ public class EntitlementCertificateGenerator {
      */
     @Transactional
     public void regenerateCertificatesOf(Owner owner, String productId, boolean lazy) {
+        this.regenerateCertificatesOf(owner, productId, lazy, null);
+    }
+
+    /**
+     * Regenerates the entitlement certificates of all entitlements for pools using the specified
+     * product, notifying the given listener of progress as the certificates are regenerated.
+     *
+     * @param owner
+     *  The owner for which to regenerate entitlement certificates
+     *
+     * @param productId
+     *  The Red Hat ID of the product for which to regenerate certificates
+     *
+     * @param lazy
+     *  Whether or not to generate the certificate immediately, or mark it dirty and allow it to be
+     *  regenerated on-demand
+     *
+     * @param listener
+     *  An optional listener to notify of progress during immediate regeneration
+     */
+    @Transactional
+    public void regenerateCertificatesOf(Owner owner, String productId, boolean lazy,
+        ProgressListener listener) {
+
         List<Pool> pools = this.poolCurator.listAvailableEntitlementPools(
             null, owner, productId, new Date()
         );
 
-        for (Pool pool : pools) {
-            this.regenerateCertificatesOf(pool.getEntitlements(), lazy);
+        if (lazy) {
+            for (Pool pool : pools) {
+                this.regenerateCertificatesLazyImpl(pool.getEntitlements());
+            }
+        }
+        else {
+            // Regenerate the entitlements of every pool together, so they can be signed in parallel
+            List<Entitlement> entitlements = new ArrayList<>();
+            for (Pool pool : pools) {
+                if (pool.getEntitlements() != null) {
+                    entitlements.addAll(pool.getEntitlements());
+                }
+            }
+
+            this.regenerateCertificatesImpl(entitlements, listener);
         }
     }
 
@@ -55,10 +55,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xnap.commons.i18n.I18n;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Set;
 
@@ -158,6 +157,53 @@ public class ManifestManager {
         return export;
     }
 
+    /**
+     * Generates a manifest for the specified consumer and writes it to the specified response.
+     * The manifest is fully generated before anything is written to the response, so a failure
+     * while generating it can still be reported to the client as an error rather than as a
+     * truncated archive.
+     *
+     * @param consumerUuid the target consumer's UUID.
+     * @param cdnLabel the CDN label to store in the meta file.
+     * @param webUrl the URL pointing to the manifest's originating web application.
+     * @param apiUrl the API URL pointing to the manifest's originating candlepin API.
+     * @param extensionData data to be passed to the {@link ExportExtensionAdapter} when creating
+     *                      a new export of the target consumer.
+     * @param response the response to write the manifest to.
+     * @throws ExportCreationException when an export fails.
+     */
+    public void writeManifestToResponse(String consumerUuid, String cdnLabel, String webUrl, String apiUrl,
+        Map<String, String> extensionData, HttpServletResponse response) throws ExportCreationException {
+
+        log.info("Exporting consumer {}", consumerUuid);
+
+        Consumer consumer = validateConsumerForExport(consumerUuid, cdnLabel);
+        poolManager.regenerateDirtyEntitlements(consumer);
+
+        // The archive is written in a single pass, but is staged on disk so nothing is committed to
+        // the response until the export is known to be complete.
+        File archive = exporter.getFullExport(consumer, cdnLabel, webUrl, apiUrl, extensionData);
+
+        try {
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition",
+                "attachment; filename=" + String.format("%s-export.zip", consumer.getUuid()));
+
+            // NOTE: The response output stream is expected to be closed by its creator.
+            OutputStream output = response.getOutputStream();
+            FileUtils.copyFile(archive, output);
+            output.flush();
+        }
+        catch (IOException e) {
+            throw new ExportCreationException("Unable to write export archive", e);
+        }
+        finally {
+            FileUtils.deleteQuietly(archive.getParentFile());
+        }
+
+        sink.queueEvent(eventFactory.exportCreated(consumer));
+    }
+
     /**
      * Stores the specified archive via the {@link ManifestFileService} and triggers an
      * asynchronous manifest import.
@@ -288,20 +334,13 @@ public class ManifestManager {
                     exportedConsumer.getUuid()));
         }
 
-        BufferedOutputStream output = null;
-        InputStream input = null;
         try {
             response.setContentType("application/zip");
             response.setHeader("Content-Disposition", "attachment; filename=" + manifest.getName());
 
-            // NOTE: Input and output streams are expected to be closed by their creators.
-            input = manifest.getInputStream();
-            output = new BufferedOutputStream(response.getOutputStream());
-            int data = input.read();
-            while (data != -1) {
-                output.write(data);
-                data = input.read();
-            }
+            // NOTE: The output stream is expected to be closed by its creator.
+            OutputStream output = response.getOutputStream();
+            manifest.writeTo(output);
             output.flush();
         }
         catch (Exception e) {
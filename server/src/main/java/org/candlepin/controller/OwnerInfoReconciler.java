@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfoCounters;
+import org.candlepin.model.OwnerInfoCurator;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * The OwnerInfoReconciler periodically recomputes the owner info cached by this node's
+ * OwnerInfoCounters, correcting any drift between the incrementally maintained counts and the
+ * database. As the cached owner info is held in memory by each node, every node runs its own
+ * reconciler rather than relying on a scheduled job, which would only correct the node running it.
+ * <p></p>
+ * The interval is controlled by the candlepin.owner_info.reconcile_interval property; the
+ * reconciler is not started if the interval is zero or owner info caching is disabled.
+ */
+@Singleton
+public class OwnerInfoReconciler {
+    private static Logger log = LoggerFactory.getLogger(OwnerInfoReconciler.class);
+
+    private final OwnerCurator ownerCurator;
+    private final OwnerInfoCurator ownerInfoCurator;
+    private final OwnerInfoCounters ownerInfoCounters;
+    private final UnitOfWork unitOfWork;
+    private final long interval;
+
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public OwnerInfoReconciler(OwnerCurator ownerCurator, OwnerInfoCurator ownerInfoCurator,
+        OwnerInfoCounters ownerInfoCounters, UnitOfWork unitOfWork, Configuration config) {
+
+        this(ownerCurator, ownerInfoCurator, ownerInfoCounters, unitOfWork,
+            config.getLong(ConfigProperties.OWNER_INFO_RECONCILE_INTERVAL, 0));
+    }
+
+    /**
+     * Creates a new owner info reconciler.
+     *
+     * @param ownerCurator
+     *  the OwnerCurator to use for resolving owners
+     *
+     * @param ownerInfoCurator
+     *  the OwnerInfoCurator to use for recomputing owner info
+     *
+     * @param ownerInfoCounters
+     *  the OwnerInfoCounters holding this node's cached owner info
+     *
+     * @param unitOfWork
+     *  the unit of work to wrap each reconciliation in
+     *
+     * @param interval
+     *  the interval, in seconds, at which to reconcile cached owner info; zero disables
+     *  reconciliation
+     *
+     * @throws IllegalArgumentException
+     *  if any of the provided components are null, or interval is negative
+     */
+    public OwnerInfoReconciler(OwnerCurator ownerCurator, OwnerInfoCurator ownerInfoCurator,
+        OwnerInfoCounters ownerInfoCounters, UnitOfWork unitOfWork, long interval) {
+
+        if (ownerCurator == null) {
+            throw new IllegalArgumentException("ownerCurator is null");
+        }
+
+        if (ownerInfoCurator == null) {
+            throw new IllegalArgumentException("ownerInfoCurator is null");
+        }
+
+        if (ownerInfoCounters == null) {
+            throw new IllegalArgumentException("ownerInfoCounters is null");
+        }
+
+        if (unitOfWork == null) {
+            throw new IllegalArgumentException("unitOfWork is null");
+        }
+
+        if (interval < 0) {
+            throw new IllegalArgumentException("interval is negative: " + interval);
+        }
+
+        this.ownerCurator = ownerCurator;
+        this.ownerInfoCurator = ownerInfoCurator;
+        this.ownerInfoCounters = ownerInfoCounters;
+        this.unitOfWork = unitOfWork;
+        this.interval = interval;
+    }
+
+    /**
+     * Checks whether or not cached owner info is reconciled.
+     *
+     * @return
+     *  true if owner info caching is enabled and the reconciliation interval is non-zero; false
+     *  otherwise
+     */
+    public boolean isEnabled() {
+        return this.interval > 0 && this.ownerInfoCounters.isEnabled();
+    }
+
+    /**
+     * Starts the periodic reconciliation, if it is enabled and has not already been started.
+     */
+    public synchronized void start() {
+        if (!this.isEnabled() || this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "owner-info-reconciler");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        this.executor.scheduleWithFixedDelay(this::reconcileSafely, this.interval, this.interval,
+            TimeUnit.SECONDS);
+
+        log.info("Cached owner info will be reconciled every {} seconds", this.interval);
+    }
+
+    /**
+     * Recomputes the owner info of each owner with cached owner info on this node. Cached owner
+     * info of owners which no longer exist is discarded.
+     *
+     * @return
+     *  the number of owners for which owner info was recomputed
+     */
+    public int reconcile() {
+        if (!this.ownerInfoCounters.isEnabled()) {
+            return 0;
+        }
+
+        int reconciled = 0;
+
+        this.unitOfWork.begin();
+        try {
+            for (String ownerId : this.ownerInfoCounters.getOwnerIds()) {
+                Owner owner = this.ownerCurator.get(ownerId);
+
+                if (owner == null) {
+                    log.debug("Discarding cached owner info for deleted owner: {}", ownerId);
+                    this.ownerInfoCounters.invalidate(ownerId);
+                    continue;
+                }
+
+                this.ownerInfoCurator.refresh(owner);
+                ++reconciled;
+            }
+        }
+        finally {
+            this.unitOfWork.end();
+        }
+
+        return reconciled;
+    }
+
+    private void reconcileSafely() {
+        try {
+            int reconciled = this.reconcile();
+            log.debug("Reconciled owner info for {} owner(s)", reconciled);
+        }
+        catch (Exception e) {
+            log.error("Unable to reconcile cached owner info; will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Stops the periodic reconciliation.
+     */
+    public synchronized void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+}
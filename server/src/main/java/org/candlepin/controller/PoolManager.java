@@ -139,6 +139,9 @@ public interface PoolManager {
 
     void regenerateCertificatesOf(Owner owner, String productId, boolean lazy);
 
+    void regenerateCertificatesOf(Owner owner, String productId, boolean lazy,
+        EntitlementCertificateGenerator.ProgressListener listener);
+
     void regenerateCertificatesOf(Consumer consumer, boolean lazy);
 
     int revokeAllEntitlements(Consumer consumer);
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+
+
+/**
+ * The RefreshResult reports how many subscriptions a pool refresh updated, and how many it skipped
+ * as their data had not changed since the previous refresh.
+ */
+public class RefreshResult {
+
+    private final int updated;
+    private final int skipped;
+
+    public RefreshResult(int updated, int skipped) {
+        this.updated = updated;
+        this.skipped = skipped;
+    }
+
+    /**
+     * Fetches the number of subscriptions whose pools were refreshed.
+     *
+     * @return
+     *  the number of updated subscriptions
+     */
+    public int getUpdatedCount() {
+        return this.updated;
+    }
+
+    /**
+     * Fetches the number of subscriptions whose pools were left untouched as the subscription had
+     * not changed.
+     *
+     * @return
+     *  the number of skipped subscriptions
+     */
+    public int getSkippedCount() {
+        return this.skipped;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RefreshResult [updated: %d, skipped: %d]", this.updated, this.skipped);
+    }
+}
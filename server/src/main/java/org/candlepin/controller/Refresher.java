@@ -47,6 +47,9 @@ public class Refresher {
     private Map<String, Owner> owners = new HashMap<>();
     private Set<Product> products = new HashSet<>();
 
+    private int updatedSubscriptions;
+    private int skippedSubscriptions;
+
     Refresher(CandlepinPoolManager poolManager, SubscriptionServiceAdapter subAdapter,
         OwnerManager ownerManager, boolean lazy) {
 
@@ -149,10 +152,39 @@ public class Refresher {
         }
 
         for (Owner owner : this.owners.values()) {
-            poolManager.refreshPoolsWithRegeneration(this.subAdapter, owner, this.lazy);
+            RefreshResult result = poolManager
+                .refreshPoolsWithRegeneration(this.subAdapter, owner, this.lazy);
+
+            if (result != null) {
+                this.updatedSubscriptions += result.getUpdatedCount();
+                this.skippedSubscriptions += result.getSkippedCount();
+            }
+
             poolManager.recalculatePoolQuantitiesForOwner(owner);
             ownerManager.updateRefreshDate(owner);
         }
     }
 
+    /**
+     * Fetches the number of subscriptions refreshed for the owners added to this refresher by the
+     * previous runs.
+     *
+     * @return
+     *  the number of updated subscriptions
+     */
+    public int getUpdatedSubscriptionCount() {
+        return this.updatedSubscriptions;
+    }
+
+    /**
+     * Fetches the number of subscriptions skipped for the owners added to this refresher by the
+     * previous runs, as they had not changed since they were last refreshed.
+     *
+     * @return
+     *  the number of skipped subscriptions
+     */
+    public int getSkippedSubscriptionCount() {
+        return this.skippedSubscriptions;
+    }
+
 }
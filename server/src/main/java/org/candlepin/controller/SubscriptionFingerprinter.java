@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import org.candlepin.model.Product;
+import org.candlepin.service.model.BrandingInfo;
+import org.candlepin.service.model.CdnInfo;
+import org.candlepin.service.model.CertificateInfo;
+import org.candlepin.service.model.ProductInfo;
+import org.candlepin.service.model.SubscriptionInfo;
+import org.candlepin.util.DigestUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+
+/**
+ * The SubscriptionFingerprinter builds a digest of the upstream data of a subscription which is
+ * copied onto its master pool during a refresh: its dates, quantity, upstream references, CDN,
+ * certificate and products. Products contribute their attributes and branding, as well as the UUID
+ * of the product version mapped to the owner, so a product or content change made elsewhere also
+ * changes the fingerprint. The version of the rules the pools were built with is included as well,
+ * so a rules or server upgrade causes every subscription to be processed again. Collections are
+ * sorted, so the order in which the upstream source lists them does not affect the result.
+ */
+final class SubscriptionFingerprinter {
+
+    private SubscriptionFingerprinter() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Builds the fingerprint of the given subscription.
+     *
+     * @param subscription
+     *  the subscription to fingerprint
+     *
+     * @param products
+     *  a mapping of product IDs to the product versions the subscription's pools will reference
+     *
+     * @param rulesVersion
+     *  the version of the rules the subscription's pools will be built with
+     *
+     * @throws IllegalArgumentException
+     *  if subscription is null
+     *
+     * @return
+     *  the fingerprint of the subscription
+     */
+    public static String fingerprint(SubscriptionInfo subscription, Map<String, Product> products,
+        String rulesVersion) {
+
+        if (subscription == null) {
+            throw new IllegalArgumentException("subscription is null");
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        append(builder, rulesVersion);
+        append(builder, subscription.getId());
+        append(builder, subscription.getQuantity());
+        append(builder, time(subscription.getStartDate()));
+        append(builder, time(subscription.getEndDate()));
+        append(builder, subscription.getContractNumber());
+        append(builder, subscription.getAccountNumber());
+        append(builder, subscription.getOrderNumber());
+        append(builder, subscription.getUpstreamPoolId());
+        append(builder, subscription.getUpstreamEntitlementId());
+        append(builder, subscription.getUpstreamConsumerId());
+
+        CdnInfo cdn = subscription.getCdn();
+        append(builder, cdn != null ? cdn.getLabel() : null);
+
+        CertificateInfo cert = subscription.getCertificate();
+        append(builder, cert != null ? cert.getKey() : null);
+        append(builder, cert != null ? cert.getCertificate() : null);
+
+        appendProduct(builder, subscription.getProduct(), products);
+        appendProduct(builder, subscription.getDerivedProduct(), products);
+        appendProducts(builder, subscription.getProvidedProducts(), products);
+        appendProducts(builder, subscription.getDerivedProvidedProducts(), products);
+
+        return DigestUtil.sha256(builder.toString());
+    }
+
+    private static Long time(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    private static void append(StringBuilder builder, Object value) {
+        builder.append(value != null ? value : "\1").append('\0');
+    }
+
+    private static void appendProduct(StringBuilder builder, ProductInfo pinfo,
+        Map<String, Product> products) {
+
+        if (pinfo == null) {
+            append(builder, null);
+            return;
+        }
+
+        Product product = products != null ? products.get(pinfo.getId()) : null;
+
+        append(builder, pinfo.getId());
+        append(builder, product != null ? product.getUuid() : null);
+        append(builder, pinfo.getAttributes() != null ? new TreeMap<>(pinfo.getAttributes()) : null);
+
+        Collection<? extends BrandingInfo> branding = pinfo.getBranding();
+        List<String> brands = new ArrayList<>();
+
+        if (branding != null) {
+            for (BrandingInfo brand : branding) {
+                brands.add(brand.getProductId() + '\0' + brand.getName() + '\0' + brand.getType());
+            }
+        }
+
+        brands.sort(Comparator.naturalOrder());
+        append(builder, brands);
+    }
+
+    private static void appendProducts(StringBuilder builder, Collection<? extends ProductInfo> pinfos,
+        Map<String, Product> products) {
+
+        List<String> ids = new ArrayList<>();
+
+        if (pinfos != null) {
+            for (ProductInfo pinfo : pinfos) {
+                Product product = products != null ? products.get(pinfo.getId()) : null;
+                ids.add(pinfo.getId() + '\0' + (product != null ? product.getUuid() : null));
+            }
+        }
+
+        ids.sort(Comparator.naturalOrder());
+        append(builder, ids);
+    }
+
+}
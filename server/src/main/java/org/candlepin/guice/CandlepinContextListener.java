@@ -29,13 +29,18 @@ import org.candlepin.common.config.MapConfiguration;
 import org.candlepin.common.logging.LoggingConfigurator;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.config.DatabaseConfigFactory;
+import org.candlepin.controller.ConsumerCheckInBuffer;
+import org.candlepin.controller.OwnerInfoReconciler;
 import org.candlepin.controller.QpidStatusMonitor;
 import org.candlepin.controller.SuspendModeTransitioner;
 import org.candlepin.logging.LoggerContextListener;
 import org.candlepin.messaging.CPMContextListener;
+import org.candlepin.pki.KeyPairPool;
 import org.candlepin.pki.impl.JSSProviderLoader;
+import org.candlepin.policy.js.RulesEngine;
 import org.candlepin.resteasy.AnnotationLocator;
 import org.candlepin.swagger.CandlepinSwaggerModelConverter;
+import org.candlepin.sync.file.ManifestFileServiceProvider;
 import org.candlepin.util.CrlFileUtil;
 import org.candlepin.util.Util;
 
@@ -66,6 +71,7 @@ import java.nio.charset.Charset;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedList;
@@ -136,6 +142,22 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
             throw new RuntimeException(e);
         }
 
+        try {
+            validateRulesEngines(config);
+        }
+        catch (ConfigurationException e) {
+            log.error("Invalid rules engine configuration.  Aborting initialization.", e);
+            throw new RuntimeException(e);
+        }
+
+        try {
+            validateManifestStore(config);
+        }
+        catch (ConfigurationException e) {
+            log.error("Invalid manifest store configuration.  Aborting initialization.", e);
+            throw new RuntimeException(e);
+        }
+
         LoggingConfigurator.init(config);
 
         servletContext.setAttribute(CONFIGURATION_NAME, config);
@@ -215,6 +237,9 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         this.jobManager.initialize();
         this.jobManager.start();
 
+        // Each node reconciles the owner info it has cached itself
+        injector.getInstance(OwnerInfoReconciler.class).start();
+
         loggerListener = injector.getInstance(LoggerContextListener.class);
 
         // Custom ModelConverter to handle our specific serialization requirements
@@ -263,6 +288,11 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         // Tear down the job system
         this.jobManager.shutdown();
 
+        // Write any buffered consumer check-ins while the database is still available
+        injector.getInstance(ConsumerCheckInBuffer.class).shutdown();
+        injector.getInstance(KeyPairPool.class).shutdown();
+        injector.getInstance(OwnerInfoReconciler.class).shutdown();
+
         // if amqp is enabled, close all connections.
         if (config.getBoolean(ConfigProperties.AMQP_INTEGRATION_ENABLED)) {
             Util.closeSafely(injector.getInstance(AMQPBusPublisher.class), "AMQPBusPublisher");
@@ -339,6 +369,40 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         return EncryptedConfiguration.merge(systemConfig, databaseConfig, defaults);
     }
 
+    /**
+     * Verifies the configured rules engines are known, so a mistyped engine fails at startup
+     * rather than silently falling back to the javascript rules.
+     */
+    protected void validateRulesEngines(Configuration config) throws ConfigurationException {
+        List<String> keys = Arrays.asList(ConfigProperties.AUTOBIND_ENGINE,
+            ConfigProperties.COMPLIANCE_ENGINE);
+
+        for (String key : keys) {
+            String label = config.getString(key, null);
+
+            try {
+                RulesEngine.fromLabel(label);
+            }
+            catch (IllegalArgumentException e) {
+                throw new ConfigurationException(
+                    String.format("Unknown rules engine configured for %s: %s", key, label), e);
+            }
+        }
+    }
+
+    /**
+     * Verifies the configured manifest store is known, so a mistyped store fails at startup rather
+     * than silently storing manifest files in the database.
+     */
+    protected void validateManifestStore(Configuration config) throws ConfigurationException {
+        String store = config.getString(ConfigProperties.MANIFEST_STORE, null);
+
+        if (store != null && !ManifestFileServiceProvider.isKnownStore(store)) {
+            throw new ConfigurationException(String.format("Unknown manifest store configured for %s: %s",
+                ConfigProperties.MANIFEST_STORE, store));
+        }
+    }
+
     private DatabaseConfigFactory.SupportedDatabase determinDatabaseConfiguration(String dialect) {
         if (StringUtils.containsIgnoreCase(
             dialect, DatabaseConfigFactory.SupportedDatabase.MYSQL.getLabel())) {
@@ -82,6 +82,7 @@ import org.candlepin.common.util.VersionUtil;
 import org.candlepin.common.validation.CandlepinMessageInterpolator;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.CandlepinPoolManager;
+import org.candlepin.controller.CertificateSigningExecutor;
 import org.candlepin.controller.Entitler;
 import org.candlepin.controller.OwnerManager;
 import org.candlepin.controller.PoolManager;
@@ -101,6 +102,7 @@ import org.candlepin.messaging.impl.noop.NoopSessionFactory;
 import org.candlepin.model.CPRestrictions;
 import org.candlepin.model.UeberCertificateGenerator;
 import org.candlepin.pki.CertificateReader;
+import org.candlepin.pki.KeyPairPool;
 import org.candlepin.pki.PKIUtility;
 import org.candlepin.pki.PrivateKeyReader;
 import org.candlepin.pki.impl.JSSPKIUtility;
@@ -110,6 +112,7 @@ import org.candlepin.policy.criteria.CriteriaRules;
 import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.JsRunnerProvider;
 import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.compliance.ComplianceStatusCache;
 import org.candlepin.policy.js.entitlement.Enforcer;
 import org.candlepin.policy.js.entitlement.EntitlementRules;
 import org.candlepin.policy.js.entitlement.EntitlementRulesTranslator;
@@ -152,6 +155,7 @@ import org.candlepin.resteasy.filter.AuthorizationFeature;
 import org.candlepin.resteasy.filter.CandlepinQueryInterceptor;
 import org.candlepin.resteasy.filter.CandlepinSuspendModeFilter;
 import org.candlepin.resteasy.filter.ConsumerCheckInFilter;
+import org.candlepin.resteasy.filter.KeysetPagingFilter;
 import org.candlepin.resteasy.filter.SecurityHoleAuthorizationFilter;
 import org.candlepin.resteasy.filter.StoreFactory;
 import org.candlepin.resteasy.filter.SuperAdminAuthorizationFilter;
@@ -169,10 +173,13 @@ import org.candlepin.sync.MetaExporter;
 import org.candlepin.sync.RulesExporter;
 import org.candlepin.sync.SyncUtils;
 import org.candlepin.util.AttributeValidator;
+import org.candlepin.util.ContentAccessPayloadCache;
+import org.candlepin.util.ContentPayloadCache;
 import org.candlepin.util.DateSource;
 import org.candlepin.util.DateSourceImpl;
 import org.candlepin.util.ExpiryDateFunction;
 import org.candlepin.util.FactValidator;
+import org.candlepin.util.HypervisorReportCache;
 import org.candlepin.util.X509ExtensionUtil;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -255,6 +262,7 @@ public class CandlepinModule extends AbstractModule {
         bind(SuspendModeTransitioner.class).asEagerSingleton();
         bind(ScheduledExecutorService.class).toProvider(ScheduledExecutorServiceProvider.class);
         bind(HypervisorUpdateAction.class);
+        bind(HypervisorReportCache.class).asEagerSingleton();
         bind(OwnerManager.class);
         bind(PoolRules.class);
         bind(CriteriaRules.class);
@@ -283,6 +291,7 @@ public class CandlepinModule extends AbstractModule {
         bind(Principal.class).toProvider(PrincipalProvider.class);
         bind(JsRunnerProvider.class).asEagerSingleton();
         bind(JsRunner.class).toProvider(JsRunnerProvider.class);
+        bind(ComplianceStatusCache.class).asEagerSingleton();
         bind(RulesObjectMapper.class).asEagerSingleton();
         bind(SyncUtils.class).asEagerSingleton();
         bind(UniqueIdGenerator.class).to(DefaultUniqueIdGenerator.class);
@@ -317,6 +326,10 @@ public class CandlepinModule extends AbstractModule {
         bind(CertificateReader.class).asEagerSingleton();
         bind(PrivateKeyReader.class).to(JSSPrivateKeyReader.class);
         bind(X509ExtensionUtil.class);
+        bind(ContentPayloadCache.class).asEagerSingleton();
+        bind(ContentAccessPayloadCache.class).asEagerSingleton();
+        bind(CertificateSigningExecutor.class).asEagerSingleton();
+        bind(KeyPairPool.class).asEagerSingleton();
     }
 
     private void resources() {
@@ -413,6 +426,7 @@ public class CandlepinModule extends AbstractModule {
     private void configureInterceptors() {
         bind(ConsumerCheckInFilter.class);
         bind(PageRequestFilter.class);
+        bind(KeysetPagingFilter.class);
         bind(CandlepinQueryInterceptor.class);
         bind(VersionResponseFilter.class);
         bind(LinkHeaderResponseFilter.class);
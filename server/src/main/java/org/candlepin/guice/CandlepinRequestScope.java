@@ -20,6 +20,8 @@ import com.google.inject.Provider;
 import com.google.inject.Scope;
 
 import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,8 +34,12 @@ import java.util.Map;
  * A per-request / per-unit of work scope. This implementation is
  * more appropriate for Candlepin, because it works even in
  * our Quartz jobs (standard Guice annotation RequestScoped doesn't).
+ *
+ * Scoped objects implementing AutoCloseable are closed when the scope is exited, allowing them
+ * to release any resources borrowed for the duration of the request.
  */
 public class CandlepinRequestScope implements Scope {
+    private static Logger log = LoggerFactory.getLogger(CandlepinRequestScope.class);
 
     public void enter() {
         CandlepinRequestScopeData data = new CandlepinRequestScopeData();
@@ -41,7 +47,21 @@ public class CandlepinRequestScope implements Scope {
     }
 
     public void exit() {
+        CandlepinRequestScopeData data = ResteasyContext.getContextData(CandlepinRequestScopeData.class);
         ResteasyContext.popContextData(CandlepinRequestScopeData.class);
+
+        if (data != null) {
+            for (Object scoped : data.get().values()) {
+                if (scoped instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) scoped).close();
+                    }
+                    catch (Exception e) {
+                        log.warn("Unable to close request scoped object: {}", scoped, e);
+                    }
+                }
+            }
+        }
     }
 
     public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
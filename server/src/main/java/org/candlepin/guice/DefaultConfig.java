@@ -30,8 +30,8 @@ import org.candlepin.service.impl.DefaultOwnerServiceAdapter;
 import org.candlepin.service.impl.DefaultProductServiceAdapter;
 import org.candlepin.service.impl.DefaultUserServiceAdapter;
 import org.candlepin.service.impl.ImportSubscriptionServiceAdapter;
-import org.candlepin.sync.file.DBManifestService;
 import org.candlepin.sync.file.ManifestFileService;
+import org.candlepin.sync.file.ManifestFileServiceProvider;
 
 import com.google.inject.AbstractModule;
 
@@ -52,7 +52,7 @@ class DefaultConfig extends AbstractModule {
         bind(EntitlementCertServiceAdapter.class).to(DefaultEntitlementCertServiceAdapter.class);
         bind(UserServiceAdapter.class).to(DefaultUserServiceAdapter.class);
         bind(ProductServiceAdapter.class).to(DefaultProductServiceAdapter.class);
-        bind(ManifestFileService.class).to(DBManifestService.class);
+        bind(ManifestFileService.class).toProvider(ManifestFileServiceProvider.class);
         bind(ExportExtensionAdapter.class).to(DefaultExportExtensionAdapter.class);
         bind(SubscriptionServiceAdapter.class).to(ImportSubscriptionServiceAdapter.class);
     }
@@ -68,6 +68,29 @@ public interface CPMMessage {
      */
     boolean isDurable();
 
+    /**
+     * Sets the delivery priority of this message, from 0 (lowest) to 9 (highest). Messages with
+     * a higher priority are delivered ahead of lower priority messages waiting in the same queue.
+     *
+     * @param priority
+     *  The priority to assign to this message
+     *
+     * @throws IllegalArgumentException
+     *  if the priority is not within the range of 0 to 9
+     *
+     * @return
+     *  a reference to this message
+     */
+    CPMMessage setPriority(int priority);
+
+    /**
+     * Fetches the delivery priority of this message.
+     *
+     * @return
+     *  the priority of this message
+     */
+    int getPriority();
+
 
     // Message details
     /**
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.util.ElementTransformer;
+
+import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.persistence.LockModeType;
+
+
+
+/**
+ * The AppendedCandlepinQuery class is a decorator for standard CandlepinQuery implementations,
+ * appending a fixed collection of elements to the results of the base query. This allows
+ * endpoints which return database results along with a small number of elements which are not
+ * backed by the query (such as a consumer's content access certificate) to continue streaming
+ * their output rather than collecting it into a list.
+ * <p></p>
+ * Paging, ordering and criteria are applied to the base query only; the appended elements are
+ * returned after the last result of the base query. When the results are limited, the base query
+ * is asked for one extra row to determine whether more results follow the current page, and the
+ * appended elements are only returned with the last page. Row-based output methods also operate
+ * on the base query alone, as the appended elements do not have any backing rows.
+ *
+ * @param <T>
+ *  The element type returned by this query
+ */
+public class AppendedCandlepinQuery<T> implements CandlepinQuery<T> {
+
+    /**
+     * The AppendedResultIterator class returns the elements of an existing ResultIterator
+     * instance, followed by the elements of a collection.
+     *
+     * @param <T>
+     *  The element type to be returned by this iterators's output methods
+     */
+    private static class AppendedResultIterator<T> implements ResultIterator<T> {
+        private ResultIterator<T> iterator;
+        private Iterator<T> appended;
+        private int limit;
+        private int count;
+        private boolean inBase;
+
+        public AppendedResultIterator(ResultIterator<T> iterator, Collection<T> appended, int limit) {
+            if (iterator == null) {
+                throw new IllegalArgumentException("iterator is null");
+            }
+
+            this.iterator = iterator;
+            this.appended = appended.iterator();
+            this.limit = limit;
+            this.count = 0;
+            this.inBase = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.inBase) {
+                boolean pageFull = this.limit > -1 && this.count >= this.limit;
+
+                if (!pageFull && this.iterator.hasNext()) {
+                    return true;
+                }
+
+                // If the base query has rows beyond the current page, this isn't the last page
+                if (pageFull && this.iterator.hasNext()) {
+                    this.appended = Collections.emptyIterator();
+                }
+
+                // Base results are exhausted; release the cursor before moving on to the extras
+                this.inBase = false;
+                this.iterator.close();
+            }
+
+            return this.appended.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (this.inBase) {
+                ++this.count;
+                return this.iterator.next();
+            }
+
+            return this.appended.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            this.iterator.close();
+        }
+    }
+
+    private CandlepinQuery<T> query;
+    private List<T> appended;
+    private int limit;
+
+    /**
+     * Creates a new AppendedCandlepinQuery instance which returns the results of the given query,
+     * followed by the given elements.
+     *
+     * @param query
+     *  The CandlepinQuery providing the leading results
+     *
+     * @param elements
+     *  The elements to append to the results of the provided query
+     *
+     * @throws IllegalArgumentException
+     *  if either the query or elements are null
+     */
+    public AppendedCandlepinQuery(CandlepinQuery<T> query, Collection<T> elements) {
+        if (query == null) {
+            throw new IllegalArgumentException("query is null");
+        }
+
+        if (elements == null) {
+            throw new IllegalArgumentException("elements is null");
+        }
+
+        this.query = query;
+        this.appended = new ArrayList<>(elements);
+        this.limit = -1;
+    }
+
+    /**
+     * Creates a new AppendedCandlepinQuery instance which returns the results of the given query,
+     * followed by the given elements.
+     *
+     * @param query
+     *  The CandlepinQuery providing the leading results
+     *
+     * @param elements
+     *  The elements to append to the results of the provided query
+     *
+     * @throws IllegalArgumentException
+     *  if either the query or elements are null
+     */
+    @SafeVarargs
+    public AppendedCandlepinQuery(CandlepinQuery<T> query, T... elements) {
+        this(query, elements != null ? Arrays.asList(elements) : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> useSession(Session session) {
+        this.query.useSession(session);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> setFirstResult(int offset) {
+        this.query.setFirstResult(offset);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> setMaxResults(int limit) {
+        this.limit = limit;
+
+        // Fetch one row past the page so we can tell whether or not it is the last page
+        this.query.setMaxResults(limit > -1 && limit < Integer.MAX_VALUE ? limit + 1 : limit);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> addOrder(Order order) {
+        this.query.addOrder(order);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> addCriterion(Criterion criterion) {
+        this.query.addCriterion(criterion);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> setLockMode(LockModeType lockMode) {
+        this.query.setLockMode(lockMode);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <O> CandlepinQuery<O> transform(ElementTransformer<T, O> transformer) {
+        return new TransformedCandlepinQuery(this, transformer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<T> list() {
+        List<T> output = new LinkedList<>(this.query.list());
+
+        if (this.limit > -1 && output.size() > this.limit) {
+            // More results follow this page; the appended elements belong to the last page
+            return output.subList(0, this.limit);
+        }
+
+        output.addAll(this.appended);
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Object[]> listProperties(String... properties) {
+        // Appended elements have no backing rows to read properties from
+        return this.query.listProperties(properties);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEach(ResultProcessor<T> processor) {
+        return this.forEach(0, false, processor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEach(int column, ResultProcessor<T> processor) {
+        return this.forEach(column, false, processor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEach(int column, boolean evict, ResultProcessor<T> processor) {
+        if (processor == null) {
+            throw new IllegalArgumentException("processor is null");
+        }
+
+        final ResultProcessor<T> wrapped = processor;
+        final int limit = this.limit;
+        final boolean[] cont = new boolean[] { true };
+        final boolean[] more = new boolean[] { false };
+        final int[] count = new int[] { 0 };
+
+        this.query.forEach(column, evict, new ResultProcessor<T>() {
+            @Override
+            public boolean process(T element) {
+                if (limit > -1 && count[0] >= limit) {
+                    // More results follow this page; the appended elements belong to the last page
+                    more[0] = true;
+                    return false;
+                }
+
+                ++count[0];
+                cont[0] = wrapped.process(element);
+                return cont[0];
+            }
+        });
+
+        if (!more[0]) {
+            for (Iterator<T> iterator = this.appended.iterator(); cont[0] && iterator.hasNext();) {
+                cont[0] = processor.process(iterator.next());
+                ++count[0];
+            }
+        }
+
+        return count[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int forEachRow(ResultProcessor<Object[]> processor) {
+        return this.query.forEachRow(processor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultIterator<T> iterate() {
+        return this.iterate(0, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return this.iterate(0, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultIterator<T> iterate(int column) {
+        return this.iterate(column, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultIterator<T> iterate(int column, boolean evict) {
+        ResultIterator<T> iterator = this.query.iterate(column, evict);
+        return new AppendedResultIterator<>(iterator, this.appended, this.limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResultIterator<Object[]> iterateByRow() {
+        return this.query.iterateByRow();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T uniqueResult() {
+        if (this.appended.isEmpty()) {
+            return this.query.uniqueResult();
+        }
+
+        return this.appended.size() == 1 && this.query.getRowCount() == 0 ? this.appended.get(0) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRowCount() {
+        return this.query.getRowCount() + this.appended.size();
+    }
+
+}
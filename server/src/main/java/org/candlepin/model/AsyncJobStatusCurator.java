@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -675,4 +676,83 @@ public class AsyncJobStatusCurator extends AbstractHibernateCurator<AsyncJobStat
             .getResultList();
     }
 
+    /**
+     * Fetches a collection of job IDs for jobs in non-terminal states matching the given job key
+     * and running in the context of the specified owner.
+     * <p></p>
+     * This method is designed specifically for the throttled-by-owner constraint.
+     *
+     * @param jobKey
+     *  the job key to restrict
+     *
+     * @param ownerId
+     *  the ID of the context owner to restrict
+     *
+     * @throws IllegalArgumentException
+     *  if jobKey or ownerId is null or empty
+     *
+     * @return
+     *  A collection of IDs of non-terminal jobs matching the given job key and owner
+     */
+    public List<String> fetchJobIdsByOwner(String jobKey, String ownerId) {
+        if (jobKey == null || jobKey.isEmpty()) {
+            throw new IllegalArgumentException("jobKey is null or empty");
+        }
+
+        if (ownerId == null || ownerId.isEmpty()) {
+            throw new IllegalArgumentException("ownerId is null or empty");
+        }
+
+        String jpql = "SELECT job.id FROM AsyncJobStatus job " +
+            "WHERE job.jobKey = :job_key AND job.ownerId = :owner_id AND job.state IN (:states)";
+
+        return this.getEntityManager()
+            .createQuery(jpql, String.class)
+            .setParameter("job_key", jobKey)
+            .setParameter("owner_id", ownerId)
+            .setParameter("states", this.getNonTerminalStates())
+            .getResultList();
+    }
+
+    /**
+     * Fetches the number of jobs in each of the given states, grouped into lanes by the key of the
+     * job's context owner and the job key. Jobs without a context owner are counted under a null
+     * owner key.
+     *
+     * @param states
+     *  the job states to count; if null or empty, jobs in any non-terminal state are counted
+     *
+     * @return
+     *  a map of owner keys to maps of job keys and job counts
+     */
+    public Map<String, Map<String, Long>> getJobCountsByLane(Collection<JobState> states) {
+        if (states == null || states.isEmpty()) {
+            states = this.getNonTerminalStates();
+        }
+
+        String jpql = "SELECT owner.key, job.jobKey, COUNT(job.id) FROM AsyncJobStatus job " +
+            "LEFT JOIN job.owner owner " +
+            "WHERE job.state IN (:states) " +
+            "GROUP BY owner.key, job.jobKey";
+
+        List<Object[]> rows = this.getEntityManager()
+            .createQuery(jpql, Object[].class)
+            .setParameter("states", states)
+            .getResultList();
+
+        Map<String, Map<String, Long>> lanes = new HashMap<>();
+        for (Object[] row : rows) {
+            lanes.computeIfAbsent((String) row[0], key -> new HashMap<>())
+                .put((String) row[1], (Long) row[2]);
+        }
+
+        return lanes;
+    }
+
+    private Collection<JobState> getNonTerminalStates() {
+        return Arrays.stream(JobState.values())
+            .filter(s -> !s.isTerminal())
+            .collect(Collectors.toSet());
+    }
+
 }
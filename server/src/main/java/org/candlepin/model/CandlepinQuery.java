@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.Iterator;
@@ -88,6 +89,17 @@ public interface CandlepinQuery<T> extends Iterable<T> {
      */
     CandlepinQuery<T> addOrder(Order order);
 
+    /**
+     * Adds the specified restriction when executing this query.
+     *
+     * @param criterion
+     *  The restriction to apply when executing this query
+     *
+     * @return
+     *  this query instance
+     */
+    CandlepinQuery<T> addCriterion(Criterion criterion);
+
     /**
      * Sets the locking mode for the query. The lock mode will be applied to the database rows
      * representing the entities returned by this query.
@@ -132,6 +144,20 @@ public interface CandlepinQuery<T> extends Iterable<T> {
      */
     List<T> list();
 
+    /**
+     * Executes this query and returns only the values of the specified properties for each row,
+     * in the order they are specified. Any ordering, offset and limit applied to this query are
+     * retained, making this useful for cheaply fetching the keys of a page of results without
+     * loading the entities themselves.
+     *
+     * @param properties
+     *  The names of the properties to fetch
+     *
+     * @return
+     *  a list containing an array of the property values for each row of the results
+     */
+    List<Object[]> listProperties(String... properties);
+
     /**
      * Steps through the results of a column of the given query row-by-row, rather than dumping the
      * entire query result into memory before processing it. This method will always pass the first
@@ -199,6 +199,28 @@ public class CertificateSerialCurator extends AbstractHibernateCurator<Certifica
         return this.cpQueryFactory.<CertificateSerial>buildQuery(this.currentSession(), criteria);
     }
 
+    /**
+     * Fetches the serials of the entitlement certificates of the given consumer which belong to
+     * pools that have not yet expired. The serials are projected directly from the certificates,
+     * allowing them to be streamed without loading the certificates or their serials.
+     *
+     * @param consumer
+     *  The consumer for which to fetch entitlement certificate serials
+     *
+     * @return
+     *  a CandlepinQuery to fetch the entitlement certificate serials of the given consumer
+     */
+    public CandlepinQuery<Long> findEntitlementSerialIds(Consumer consumer) {
+        DetachedCriteria criteria = DetachedCriteria.forClass(EntitlementCertificate.class)
+            .createAlias("entitlement", "ent")
+            .createAlias("ent.pool", "p")
+            .add(Restrictions.eq("ent.consumer", consumer))
+            .add(Restrictions.ge("p.endDate", new Date()))
+            .setProjection(Projections.property("serial.id"));
+
+        return this.cpQueryFactory.<Long>buildQuery(this.currentSession(), criteria);
+    }
+
     @SuppressWarnings("unchecked")
     public List<Long> listEntitlementSerialIds(Consumer c) {
         String hql = "SELECT s.id" +
@@ -21,6 +21,7 @@ import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.guice.PrincipalProvider;
 import org.candlepin.resteasy.parameter.KeyValueParameter;
 import org.candlepin.util.FactValidator;
+import org.candlepin.util.HypervisorReportCache;
 import org.candlepin.util.Util;
 
 import com.google.common.collect.Iterables;
@@ -83,6 +84,8 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     @Inject private OwnerCurator ownerCurator;
     @Inject private Provider<HostCache> cachedHostsProvider;
     @Inject private PrincipalProvider principalProvider;
+    @Inject private OwnerInfoCounters ownerInfoCounters;
+    @Inject private HypervisorReportCache hypervisorReportCache;
 
     public ConsumerCurator() {
         super(Consumer.class);
@@ -93,7 +96,11 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     public Consumer create(Consumer entity, boolean flush) {
         entity.ensureUUID();
         this.validateFacts(entity);
-        return super.create(entity, flush);
+
+        Consumer created = super.create(entity, flush);
+        this.ownerInfoCounters.consumerCreated(created);
+
+        return created;
     }
 
     @Override
@@ -121,6 +128,12 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
 
         // Actually delete the consumer
         super.delete(entity);
+        this.ownerInfoCounters.consumerDeleted(entity);
+
+        // Reports mapping the deleted host or guest must be reconciled again to restore it
+        if (entity.getHypervisorId() != null || entity.isGuest()) {
+            this.hypervisorReportCache.invalidateOwner(owner.getKey());
+        }
 
         // Save our deletion record
         this.deletedConsumerCurator.saveOrUpdate(deletedConsumer);
@@ -577,6 +590,62 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
             .executeUpdate();
     }
 
+    /**
+     * Updates the last check-in time of the specified consumers in bulk. Each block of consumers is
+     * updated using a single statement, rather than a statement per consumer. Consumers which have
+     * already checked in at or after the given time are left unchanged, and the updated timestamp
+     * of a consumer is never moved backwards.
+     *
+     * @param checkins
+     *  A mapping of consumer IDs to their latest check-in times
+     *
+     * @return
+     *  the number of consumers updated
+     */
+    @Transactional
+    public int updateLastCheckins(Map<String, Date> checkins) {
+        if (checkins == null || checkins.isEmpty()) {
+            return 0;
+        }
+
+        int count = 0;
+
+        for (List<Entry<String, Date>> block : Iterables.partition(checkins.entrySet(),
+            getCaseBlockSize())) {
+
+            StringBuilder cases = new StringBuilder("(CASE id");
+            for (int i = 0; i < block.size(); ++i) {
+                cases.append(" WHEN :cid").append(i).append(" THEN :date").append(i);
+            }
+            cases.append(" END)");
+
+            // Buffered check-ins may be written well after they were received, so neither column is
+            // allowed to move backwards past a newer value written in the interim
+            String sql = new StringBuilder("UPDATE cp_consumer SET lastcheckin = ").append(cases)
+                .append(", updated = GREATEST(updated, ").append(cases).append(")")
+                .append(" WHERE id IN (:cids) AND (lastcheckin IS NULL OR lastcheckin < ")
+                .append(cases).append(")")
+                .toString();
+
+            Query query = this.currentSession().createSQLQuery(sql);
+            List<String> ids = new ArrayList<>(block.size());
+
+            for (int i = 0; i < block.size(); ++i) {
+                Entry<String, Date> checkin = block.get(i);
+
+                query.setParameter("cid" + i, checkin.getKey())
+                    .setTimestamp("date" + i, checkin.getValue());
+
+                ids.add(checkin.getKey());
+            }
+
+            count += query.setParameterList("cids", ids)
+                .executeUpdate();
+        }
+
+        return count;
+    }
+
     @Transactional
     public void heartbeatUpdate(final String reporterId, final Date checkIn, final String ownerKey)
         throws PersistenceException {
@@ -24,9 +24,11 @@ import org.hibernate.LockMode;
 import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.engine.spi.SessionImplementor;
@@ -223,6 +225,19 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> addCriterion(Criterion criterion) {
+        if (criterion == null) {
+            throw new IllegalArgumentException("criterion is null");
+        }
+
+        this.criteria.add(criterion);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -259,6 +274,39 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         return list != null ? list : Collections.<T>emptyList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Object[]> listProperties(String... properties) {
+        if (properties == null || properties.length == 0) {
+            throw new IllegalArgumentException("no properties provided");
+        }
+
+        // Impl note:
+        // The projection set here is discarded when the initial state is restored on the next
+        // execution, so it won't carry over to other output methods.
+        Criteria executable = this.getExecutableCriteria();
+
+        ProjectionList projection = Projections.projectionList();
+        for (String property : properties) {
+            projection.add(Projections.property(property));
+        }
+
+        executable.setProjection(projection);
+        List<?> rows = executable.list();
+        List<Object[]> output = new ArrayList<>();
+
+        if (rows != null) {
+            for (Object row : rows) {
+                // Single-property projections are not returned as arrays
+                output.add(row instanceof Object[] ? (Object[]) row : new Object[] { row });
+            }
+        }
+
+        return output;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.Collections;
@@ -121,6 +122,19 @@ public class EmptyCandlepinQuery<T> implements CandlepinQuery<T> {
         return this;
     }
 
+    /**
+     * Returns a reference to this CandlepinQuery instance.
+     *
+     * @param criterion
+     *
+     * @return
+     *  this query instance
+     */
+    @Override
+    public CandlepinQuery<T> addCriterion(Criterion criterion) {
+        return this;
+    }
+
     /**
      * Returns a reference to this CandlepinQuery instance.
      *
@@ -158,6 +172,19 @@ public class EmptyCandlepinQuery<T> implements CandlepinQuery<T> {
         return Collections.<T>emptyList();
     }
 
+    /**
+     * Returns an empty list.
+     *
+     * @param properties
+     *
+     * @return
+     *  an empty list
+     */
+    @Override
+    public List<Object[]> listProperties(String... properties) {
+        return Collections.<Object[]>emptyList();
+    }
+
     /**
      * Immediately returns zero without invoking any of the given processor's methods.
      *
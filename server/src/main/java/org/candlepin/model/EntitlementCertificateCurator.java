@@ -17,11 +17,13 @@ package org.candlepin.model;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
+import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -65,6 +67,37 @@ public class EntitlementCertificateCurator extends AbstractHibernateCurator<Enti
             .list();
     }
 
+    /**
+     * Fetches the entitlement certificates of the given consumer which belong to pools that have
+     * not yet expired. If a collection of serials is provided, only the certificates with those
+     * serials will be returned.
+     *
+     * @param consumer
+     *  The consumer for which to fetch entitlement certificates
+     *
+     * @param serials
+     *  An optional collection of serials with which to filter the certificates
+     *
+     * @return
+     *  a CandlepinQuery to fetch the entitlement certificates of the given consumer
+     */
+    public CandlepinQuery<EntitlementCertificate> findForConsumer(Consumer consumer,
+        Collection<Long> serials) {
+
+        DetachedCriteria criteria = DetachedCriteria.forClass(EntitlementCertificate.class)
+            .createAlias("entitlement", "ent")
+            .createAlias("ent.pool", "p")
+            .add(Restrictions.eq("ent.consumer", consumer))
+            // Never show a consumer expired certificates
+            .add(Restrictions.ge("p.endDate", new Date()));
+
+        if (serials != null && !serials.isEmpty()) {
+            criteria.add(CPRestrictions.in("serial.id", serials));
+        }
+
+        return this.cpQueryFactory.<EntitlementCertificate>buildQuery(this.currentSession(), criteria);
+    }
+
     @Transactional
     public void delete(EntitlementCertificate cert) {
         // make sure to delete it! else get ready to face
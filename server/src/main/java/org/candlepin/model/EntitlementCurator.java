@@ -68,19 +68,22 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
     private OwnerProductCurator ownerProductCurator;
     private ProductCurator productCurator;
     private ConsumerTypeCurator consumerTypeCurator;
+    private OwnerInfoCounters ownerInfoCounters;
 
     /**
      * default ctor
      */
     @Inject
     public EntitlementCurator(OwnerProductCurator ownerProductCurator, ProductCurator productCurator,
-        ConsumerTypeCurator consumerTypeCurator, CandlepinQueryFactory cpQueryFactory) {
+        ConsumerTypeCurator consumerTypeCurator, CandlepinQueryFactory cpQueryFactory,
+        OwnerInfoCounters ownerInfoCounters) {
         super(Entitlement.class);
 
         this.cpQueryFactory = cpQueryFactory;
         this.ownerProductCurator = ownerProductCurator;
         this.productCurator = productCurator;
         this.consumerTypeCurator = consumerTypeCurator;
+        this.ownerInfoCounters = ownerInfoCounters;
     }
 
     // TODO: handles addition of new entitlements only atm!
@@ -772,6 +775,8 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
      *  The collection of entitlement entities to delete
      */
     public void batchDelete(Collection<Entitlement> entitlements) {
+        this.ownerInfoCounters.entitlementsDeleted(entitlements);
+
         for (Entitlement entitlement : entitlements) {
             this.deleteImpl(entitlement);
 
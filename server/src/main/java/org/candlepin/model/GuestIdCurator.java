@@ -14,6 +14,11 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.util.HypervisorReportCache;
+
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
@@ -29,10 +34,24 @@ public class GuestIdCurator extends AbstractHibernateCurator<GuestId> {
 
     private static Logger log = LoggerFactory.getLogger(GuestIdCurator.class);
 
+    @Inject private HypervisorReportCache hypervisorReportCache;
+
     public GuestIdCurator() {
         super(GuestId.class);
     }
 
+    @Override
+    @Transactional
+    public void delete(GuestId entity) {
+        super.delete(entity);
+
+        // Reports mapping the removed guest must be reconciled again to restore it
+        Consumer host = entity != null ? entity.getConsumer() : null;
+        if (host != null && host.getOwner() != null) {
+            this.hypervisorReportCache.invalidateOwner(host.getOwner().getKey());
+        }
+    }
+
     public CandlepinQuery<GuestId> listByConsumer(Consumer consumer) {
         DetachedCriteria criteria = this.createSecureDetachedCriteria()
             .add(Restrictions.eq("consumer", consumer));
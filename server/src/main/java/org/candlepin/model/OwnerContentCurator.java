@@ -14,6 +14,7 @@
  */
 package org.candlepin.model;
 
+import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
 import org.hibernate.Criteria;
@@ -42,6 +43,8 @@ import javax.inject.Singleton;
 public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent> {
     private static Logger log = LoggerFactory.getLogger(OwnerContentCurator.class);
 
+    @Inject private OwnerContentCache contentCache;
+
     /**
      * Default constructor
      */
@@ -55,13 +58,42 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
 
     @Transactional
     public Content getContentById(String ownerId, String contentId) {
-        return (Content) this.createSecureCriteria()
+        // Cached mappings are only used when the principal's permissions would not further
+        // restrict the lookup
+        boolean cacheable = this.getSecureCriteriaRestrictions(OwnerContent.class) == null;
+
+        if (cacheable) {
+            String uuid = this.contentCache.getUuid(ownerId, contentId);
+
+            if (uuid != null) {
+                // Other nodes cannot invalidate our cached mappings, and superseded versions remain
+                // in the database until they're orphaned, so confirm the mapping is still current
+                // before using it
+                Content content = this.isContentUuidMappedToOwner(uuid, ownerId) ?
+                    this.currentSession().get(Content.class, uuid) :
+                    null;
+
+                if (content != null) {
+                    return content;
+                }
+
+                this.contentCache.invalidate(ownerId, contentId);
+            }
+        }
+
+        Content content = (Content) this.createSecureCriteria()
             .createAlias("owner", "owner")
             .createAlias("content", "content")
             .setProjection(Projections.property("content"))
             .add(Restrictions.eq("owner.id", ownerId))
             .add(Restrictions.eq("content.id", contentId))
             .uniqueResult();
+
+        if (cacheable && content != null) {
+            this.contentCache.put(ownerId, contentId, content.getUuid());
+        }
+
+        return content;
     }
 
     public CandlepinQuery<Owner> getOwnersByContent(Content content) {
@@ -238,13 +270,17 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
 
     @Transactional
     public boolean isContentMappedToOwner(Content content, Owner owner) {
+        return this.isContentUuidMappedToOwner(content.getUuid(), owner.getId());
+    }
+
+    private boolean isContentUuidMappedToOwner(String contentUuid, String ownerId) {
         String jpql = "SELECT count(op) FROM OwnerContent op " +
             "WHERE op.owner.id = :owner_id AND op.content.uuid = :content_uuid";
 
         long count = (Long) this.getEntityManager()
             .createQuery(jpql)
-            .setParameter("owner_id", owner.getId())
-            .setParameter("content_uuid", content.getUuid())
+            .setParameter("owner_id", ownerId)
+            .setParameter("content_uuid", contentUuid)
             .getSingleResult();
 
         return count > 0;
@@ -254,6 +290,7 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
     public boolean mapContentToOwner(Content content, Owner owner) {
         if (!this.isContentMappedToOwner(content, owner)) {
             this.create(new OwnerContent(owner, content));
+            this.contentCache.invalidate(owner.getId(), content.getId());
 
             return true;
         }
@@ -301,6 +338,8 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
             .setParameter("content_uuid", content.getUuid())
             .executeUpdate();
 
+        this.contentCache.invalidate(owner.getId(), content.getId());
+
         return rows > 0;
     }
 
@@ -309,6 +348,8 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
         String jpql = "DELETE FROM OwnerContent op " +
             "WHERE op.content.uuid = :content_uuid";
 
+        this.contentCache.invalidateEntity(content.getId());
+
         return this.getEntityManager()
             .createQuery(jpql)
             .setParameter("content_uuid", content.getUuid())
@@ -320,6 +361,8 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
         String jpql = "DELETE FROM OwnerContent op " +
             "WHERE op.owner.id = :owner_id";
 
+        this.contentCache.invalidateOwner(owner.getId());
+
         return this.getEntityManager()
             .createQuery(jpql)
             .setParameter("owner_id", owner.getId())
@@ -462,6 +505,8 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
         int count = this.bulkSQLUpdate(OwnerContent.DB_TABLE, "content_uuid", uuidMap, criteria);
         log.info("{} owner-content relations updated", count);
 
+        this.contentCache.invalidateOwner(owner.getId());
+
         // Impl note:
         // We're not managing product-content references, since versioning changes require us to
         // handle that with more explicit logic. Instead, we rely on the content manager using
@@ -523,6 +568,8 @@ public class OwnerContentCurator extends AbstractHibernateCurator<OwnerContent>
             int count = this.bulkSQLDelete(OwnerContent.DB_TABLE, criteria);
             log.info("{} owner-content relations removed", count);
 
+            this.contentCache.invalidateOwner(owner.getId());
+
             // Impl note:
             // We're not managing product-content references, since versioning changes require us to
             // handle that with more explicit logic. Instead, we rely on the content manager using
@@ -0,0 +1,353 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.cache.BoundedCache;
+
+import com.google.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * The OwnerEntityCache maps an owner and an entity ID to the UUID of the entity version currently
+ * mapped to that owner. As product and content entities are immutable and a new version of an
+ * entity always receives a new UUID, caching only the mapping is sufficient for the entities
+ * themselves to be served by the second-level cache.
+ * <p></p>
+ * Mappings must be invalidated whenever an owner's entity references change. Invalidations take
+ * effect immediately and again once the transaction making the change completes, so a lookup
+ * performed by another transaction in the interim cannot re-cache a stale mapping. The
+ * invalidations made by a transaction are collected and repeated together by a single
+ * synchronization. As invalidation only affects the local node, mappings also expire after a
+ * configurable period, and callers must confirm a cached mapping is still current before using it.
+ * The cache is bounded, evicting the least recently used mappings first.
+ */
+public class OwnerEntityCache {
+
+    /** An array of transaction states that are valid to synchronize against */
+    private static final TransactionStatus[] ACTIVE_STATES = {
+        TransactionStatus.ACTIVE, TransactionStatus.MARKED_ROLLBACK
+    };
+
+    private static class Entry {
+        private final String ownerId;
+        private final String entityId;
+        private final String uuid;
+
+        public Entry(String ownerId, String entityId, String uuid) {
+            this.ownerId = ownerId;
+            this.entityId = entityId;
+            this.uuid = uuid;
+        }
+    }
+
+    /**
+     * The invalidations made during a given transaction, which are repeated once it completes
+     */
+    private class PendingInvalidations implements Synchronization {
+        private final Transaction transaction;
+        private final Set<String> keys;
+        private final Set<String> ownerIds;
+        private final Set<String> entityIds;
+
+        public PendingInvalidations(Transaction transaction) {
+            this.transaction = transaction;
+            this.keys = new HashSet<>();
+            this.ownerIds = new HashSet<>();
+            this.entityIds = new HashSet<>();
+        }
+
+        @Override
+        public void beforeCompletion() {
+            // Intentionally left empty
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (OwnerEntityCache.this.pending) {
+                OwnerEntityCache.this.pending.remove(this.transaction);
+            }
+
+            // Mappings cached while the change was pending may be stale regardless of the outcome,
+            // so they're removed on both commit and rollback
+            synchronized (this) {
+                OwnerEntityCache.this.removeKeys(this.keys);
+                OwnerEntityCache.this.removeOwners(this.ownerIds);
+                OwnerEntityCache.this.removeEntities(this.entityIds);
+            }
+        }
+    }
+
+    private final Provider<EntityManager> entityManager;
+    private final BoundedCache<String, Entry> entries;
+    private final Map<Transaction, PendingInvalidations> pending;
+
+    /**
+     * Creates a new owner entity cache.
+     *
+     * @param entityManager
+     *  the entity manager provider used to repeat invalidations once their transaction completes;
+     *  if null, invalidations are only applied immediately
+     *
+     * @param maxSize
+     *  the maximum number of mappings to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a mapping remains valid; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize or ttl is negative
+     */
+    public OwnerEntityCache(Provider<EntityManager> entityManager, int maxSize, long ttl) {
+        this("owner_entity", entityManager, maxSize, ttl);
+    }
+
+    /**
+     * Creates a new owner entity cache.
+     *
+     * @param name
+     *  the name under which the statistics of this cache are published
+     *
+     * @param entityManager
+     *  the entity manager provider used to repeat invalidations once their transaction completes;
+     *  if null, invalidations are only applied immediately
+     *
+     * @param maxSize
+     *  the maximum number of mappings to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a mapping remains valid; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize or ttl is negative
+     */
+    protected OwnerEntityCache(String name, Provider<EntityManager> entityManager, int maxSize, long ttl) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative: " + maxSize);
+        }
+
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl is negative: " + ttl);
+        }
+
+        this.entityManager = entityManager;
+        this.pending = new IdentityHashMap<>();
+
+        // Callers confirm cached mappings, but invalidation only affects the local node, so
+        // mappings must expire; without a TTL the cache is disabled outright
+        this.entries = new BoundedCache<>(name, ttl > 0 ? maxSize : 0, ttl);
+    }
+
+    public boolean isEnabled() {
+        return this.entries.isEnabled();
+    }
+
+    /**
+     * @return the bounded cache backing this cache, to be registered for publishing statistics
+     */
+    protected BoundedCache<?, ?> getBoundedCache() {
+        return this.entries;
+    }
+
+    private static String buildKey(String ownerId, String entityId) {
+        return ownerId + '\0' + entityId;
+    }
+
+    /**
+     * Fetches the UUID of the entity version mapped to the given owner and entity ID.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     *
+     * @param entityId
+     *  the ID of the entity
+     *
+     * @return
+     *  the cached entity UUID, or null if no valid mapping is cached
+     */
+    public String getUuid(String ownerId, String entityId) {
+        if (ownerId == null || entityId == null) {
+            return null;
+        }
+
+        Entry entry = this.entries.get(buildKey(ownerId, entityId));
+        return entry != null ? entry.uuid : null;
+    }
+
+    /**
+     * Caches the UUID of the entity version mapped to the given owner and entity ID.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     *
+     * @param entityId
+     *  the ID of the entity
+     *
+     * @param uuid
+     *  the UUID of the entity version mapped to the owner
+     */
+    public void put(String ownerId, String entityId, String uuid) {
+        if (ownerId != null && entityId != null && uuid != null) {
+            this.entries.put(buildKey(ownerId, entityId), new Entry(ownerId, entityId, uuid));
+        }
+    }
+
+    /**
+     * Removes the mapping cached for the given owner and entity ID.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     *
+     * @param entityId
+     *  the ID of the entity
+     */
+    public void invalidate(String ownerId, String entityId) {
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        String key = buildKey(ownerId, entityId);
+        this.removeKeys(Collections.singleton(key));
+
+        PendingInvalidations invalidations = this.getPendingInvalidations();
+        if (invalidations != null) {
+            synchronized (invalidations) {
+                invalidations.keys.add(key);
+            }
+        }
+    }
+
+    /**
+     * Removes every mapping cached for the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     */
+    public void invalidateOwner(String ownerId) {
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        this.removeOwners(Collections.singleton(ownerId));
+
+        PendingInvalidations invalidations = this.getPendingInvalidations();
+        if (invalidations != null) {
+            synchronized (invalidations) {
+                invalidations.ownerIds.add(ownerId);
+            }
+        }
+    }
+
+    /**
+     * Removes the mappings cached for the given entity ID, for every owner.
+     *
+     * @param entityId
+     *  the ID of the entity
+     */
+    public void invalidateEntity(String entityId) {
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        this.removeEntities(Collections.singleton(entityId));
+
+        PendingInvalidations invalidations = this.getPendingInvalidations();
+        if (invalidations != null) {
+            synchronized (invalidations) {
+                invalidations.entityIds.add(entityId);
+            }
+        }
+    }
+
+    /*
+     * Fetches the invalidations pending on the current transaction, registering them with the
+     * transaction on first use. Returns null if there is no active transaction to synchronize on.
+     */
+    private PendingInvalidations getPendingInvalidations() {
+        if (this.entityManager == null) {
+            return null;
+        }
+
+        Session session = (Session) this.entityManager.get().getDelegate();
+        Transaction transaction = session.getTransaction();
+
+        if (transaction == null || !transaction.getStatus().isOneOf(ACTIVE_STATES)) {
+            return null;
+        }
+
+        synchronized (this.pending) {
+            PendingInvalidations invalidations = this.pending.get(transaction);
+
+            if (invalidations == null) {
+                invalidations = new PendingInvalidations(transaction);
+                transaction.registerSynchronization(invalidations);
+                this.pending.put(transaction, invalidations);
+            }
+
+            return invalidations;
+        }
+    }
+
+    private void removeKeys(Collection<String> keys) {
+        keys.forEach(this.entries::remove);
+    }
+
+    private void removeOwners(Collection<String> ownerIds) {
+        if (!ownerIds.isEmpty()) {
+            this.entries.removeIf((key, entry) -> ownerIds.contains(entry.ownerId));
+        }
+    }
+
+    private void removeEntities(Collection<String> entityIds) {
+        if (!entityIds.isEmpty()) {
+            this.entries.removeIf((key, entry) -> entityIds.contains(entry.entityId));
+        }
+    }
+
+    /**
+     * Removes all mappings from this cache.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Fetches the statistics of this cache.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public Map<String, Object> getStatistics() {
+        return this.entries.getStatistics();
+    }
+}
@@ -192,6 +192,60 @@ public class OwnerInfo {
         }
     }
 
+    /**
+     * Adjusts the consumer totals for the given consumer type and guest state by the specified
+     * amount. Used to keep a cached instance current between full recalculations.
+     */
+    void adjustConsumerCount(String typeLabel, boolean guest, int delta) {
+        consumerCounts.merge(typeLabel, delta, Integer::sum);
+        consumerGuestCounts.merge(guest ? GUEST : PHYSICAL, delta, Integer::sum);
+    }
+
+    /**
+     * Adjusts the consumed entitlement total for the given consumer type by the specified quantity.
+     */
+    void adjustConsumerEntitlementCount(String typeLabel, int delta) {
+        entitlementsConsumedByType.merge(typeLabel, delta, Integer::sum);
+    }
+
+    /**
+     * Adjusts the consumed entitlement totals for the given product family by the specified
+     * quantity. A null family is counted against the default "none" family.
+     */
+    void adjustFamilyEntitlementCount(String family, boolean virt, int delta) {
+        ConsumptionTypeCounts typeCounts = entitlementsConsumedByFamily
+            .computeIfAbsent(family != null ? family : "none", key -> new ConsumptionTypeCounts(0, 0));
+
+        if (virt) {
+            typeCounts.guest += delta;
+        }
+        else {
+            typeCounts.physical += delta;
+        }
+    }
+
+    /**
+     * Creates a deep copy of this OwnerInfo instance.
+     */
+    OwnerInfo copy() {
+        OwnerInfo copy = new OwnerInfo();
+
+        copy.consumerCounts.putAll(this.consumerCounts);
+        copy.consumerGuestCounts.putAll(this.consumerGuestCounts);
+        copy.entitlementsConsumedByType.putAll(this.entitlementsConsumedByType);
+        copy.consumerTypeCountByPool.putAll(this.consumerTypeCountByPool);
+        copy.enabledConsumerTypeCountByPool.putAll(this.enabledConsumerTypeCountByPool);
+        copy.consumerCountsByComplianceStatus.putAll(this.consumerCountsByComplianceStatus);
+
+        for (Map.Entry<String, ConsumptionTypeCounts> entry : this.entitlementsConsumedByFamily.entrySet()) {
+            ConsumptionTypeCounts counts = entry.getValue();
+            copy.entitlementsConsumedByFamily.put(entry.getKey(),
+                new ConsumptionTypeCounts(counts.physical, counts.guest));
+        }
+
+        return copy;
+    }
+
     public Map<String, Integer> getConsumerGuestCounts() {
         return consumerGuestCounts;
     }
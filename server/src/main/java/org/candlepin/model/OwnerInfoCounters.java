@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * The OwnerInfoCounters maintains an in-memory copy of the most recently computed OwnerInfo for
+ * each owner, allowing the owner info endpoint to skip its aggregate queries while the copy is
+ * within the configured freshness bound.
+ *
+ * Consumer totals and consumed entitlement totals are adjusted as consumers are created or deleted
+ * and entitlements are bound or revoked, once the transaction making the change commits. Values
+ * depending on pool dates or attributes, such as the pool counts per consumer type, are only
+ * updated when the owner info is recomputed; either when the cached copy expires or when the
+ * OwnerInfoReconciler runs. Cached owner info is held by each node separately, and is reconciled
+ * by each node's own OwnerInfoReconciler.
+ */
+@Singleton
+public class OwnerInfoCounters {
+    private static Logger log = LoggerFactory.getLogger(OwnerInfoCounters.class);
+
+    /** An array of transaction states that are valid to synchronize against */
+    private static final TransactionStatus[] ACTIVE_STATES = {
+        TransactionStatus.ACTIVE, TransactionStatus.MARKED_ROLLBACK
+    };
+
+    /**
+     * A single adjustment to be applied to a cached OwnerInfo once its transaction commits
+     */
+    private interface Adjustment {
+        void apply(OwnerInfo info);
+    }
+
+    private static class Entry {
+        private final OwnerInfo info;
+        private final long computed;
+
+        public Entry(OwnerInfo info, long computed) {
+            this.info = info;
+            this.computed = computed;
+        }
+    }
+
+    private final Provider<EntityManager> entityManager;
+    private final ConsumerTypeCurator consumerTypeCurator;
+    private final long maxAge;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a new OwnerInfoCounters instance
+     *
+     * @param entityManager
+     *  the entity manager provider used to defer adjustments until their transaction commits; if
+     *  null, adjustments are applied immediately
+     *
+     * @param consumerTypeCurator
+     *  the curator used to resolve consumer types
+     *
+     * @param maxAge
+     *  the maximum age, in milliseconds, of a cached OwnerInfo; zero disables caching
+     */
+    public OwnerInfoCounters(Provider<EntityManager> entityManager,
+        ConsumerTypeCurator consumerTypeCurator, long maxAge) {
+
+        if (consumerTypeCurator == null) {
+            throw new IllegalArgumentException("consumerTypeCurator is null");
+        }
+
+        this.entityManager = entityManager;
+        this.consumerTypeCurator = consumerTypeCurator;
+        this.maxAge = Math.max(0, maxAge);
+        this.entries = new HashMap<>();
+    }
+
+    @Inject
+    public OwnerInfoCounters(Provider<EntityManager> entityManager,
+        ConsumerTypeCurator consumerTypeCurator, Configuration config) {
+
+        this(entityManager, consumerTypeCurator,
+            config.getLong(ConfigProperties.OWNER_INFO_MAX_AGE, 0) * 1000);
+    }
+
+    /**
+     * Checks whether or not owner info caching is enabled
+     *
+     * @return
+     *  true if owner info is cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return this.maxAge > 0;
+    }
+
+    /**
+     * Fetches a copy of the cached owner info for the given owner, provided it was computed within
+     * the configured freshness bound.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch owner info
+     *
+     * @return
+     *  a copy of the cached owner info, or null if the owner has no fresh owner info
+     */
+    public synchronized OwnerInfo get(String ownerId) {
+        Entry entry = this.entries.get(ownerId);
+
+        if (entry != null && System.currentTimeMillis() - entry.computed > this.maxAge) {
+            this.entries.remove(ownerId);
+            entry = null;
+        }
+
+        return entry != null ? entry.info.copy() : null;
+    }
+
+    /**
+     * Stores the given owner info for the specified owner, replacing any existing entry.
+     *
+     * @param ownerId
+     *  the ID of the owner to which the owner info belongs
+     *
+     * @param info
+     *  the owner info to store
+     *
+     * @param computed
+     *  the time at which computation of the owner info started; used as the basis for its age
+     */
+    public synchronized void put(String ownerId, OwnerInfo info, Date computed) {
+        if (!this.isEnabled() || ownerId == null || info == null) {
+            return;
+        }
+
+        this.entries.put(ownerId, new Entry(info.copy(), computed.getTime()));
+    }
+
+    /**
+     * Removes the cached owner info for the given owner, if present.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to discard owner info
+     */
+    public synchronized void invalidate(String ownerId) {
+        this.entries.remove(ownerId);
+    }
+
+    /**
+     * Fetches the IDs of the owners which currently have cached owner info.
+     *
+     * @return
+     *  a set containing the IDs of owners with cached owner info
+     */
+    public synchronized Set<String> getOwnerIds() {
+        return new HashSet<>(this.entries.keySet());
+    }
+
+    /**
+     * Fetches the number of owners with cached owner info
+     *
+     * @return
+     *  the number of owners with cached owner info
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Records the creation of the given consumer.
+     *
+     * @param consumer
+     *  the consumer that was created
+     */
+    public void consumerCreated(Consumer consumer) {
+        this.adjustConsumer(consumer, 1);
+    }
+
+    /**
+     * Records the deletion of the given consumer. Entitlements held by the consumer are expected
+     * to have been revoked separately.
+     *
+     * @param consumer
+     *  the consumer that was deleted
+     */
+    public void consumerDeleted(Consumer consumer) {
+        this.adjustConsumer(consumer, -1);
+    }
+
+    /**
+     * Records the binding of the given entitlements.
+     *
+     * @param entitlements
+     *  the entitlements that were created
+     */
+    public void entitlementsCreated(Collection<Entitlement> entitlements) {
+        this.adjustEntitlements(entitlements, 1);
+    }
+
+    /**
+     * Records the revocation of the given entitlements.
+     *
+     * @param entitlements
+     *  the entitlements that were deleted
+     */
+    public void entitlementsDeleted(Collection<Entitlement> entitlements) {
+        this.adjustEntitlements(entitlements, -1);
+    }
+
+    private void adjustConsumer(Consumer consumer, int delta) {
+        if (consumer == null || !this.isCached(consumer.getOwnerId())) {
+            return;
+        }
+
+        String typeLabel = this.consumerTypeCurator.getConsumerType(consumer).getLabel();
+        boolean guest = consumer.isGuest();
+
+        Map<String, List<Adjustment>> adjustments = new HashMap<>();
+        adjustments.computeIfAbsent(consumer.getOwnerId(), key -> new ArrayList<>())
+            .add(info -> info.adjustConsumerCount(typeLabel, guest, delta));
+
+        this.schedule(adjustments);
+    }
+
+    private void adjustEntitlements(Collection<Entitlement> entitlements, int sign) {
+        if (entitlements == null || entitlements.isEmpty() || !this.isEnabled()) {
+            return;
+        }
+
+        Set<String> cached = this.getOwnerIds();
+        Map<String, List<Adjustment>> adjustments = new HashMap<>();
+        Date now = new Date();
+
+        for (Entitlement entitlement : entitlements) {
+            Consumer consumer = entitlement.getConsumer();
+            Pool pool = entitlement.getPool();
+
+            if (consumer == null || pool == null || !cached.contains(consumer.getOwnerId()) ||
+                entitlement.getQuantity() == null) {
+                continue;
+            }
+
+            String typeLabel = this.consumerTypeCurator.getConsumerType(consumer).getLabel();
+            int quantity = sign * entitlement.getQuantity();
+
+            // Family totals only cover pools active at the time of computation
+            boolean active = !now.before(pool.getStartDate()) && !now.after(pool.getEndDate());
+            String family = pool.getMergedAttribute(Pool.Attributes.PRODUCT_FAMILY);
+            boolean virt = "true".equalsIgnoreCase(pool.getMergedAttribute(Pool.Attributes.VIRT_ONLY));
+
+            adjustments.computeIfAbsent(consumer.getOwnerId(), key -> new ArrayList<>())
+                .add(info -> {
+                    info.adjustConsumerEntitlementCount(typeLabel, quantity);
+
+                    if (active) {
+                        info.adjustFamilyEntitlementCount(family, virt, quantity);
+                    }
+                });
+        }
+
+        this.schedule(adjustments);
+    }
+
+    private synchronized boolean isCached(String ownerId) {
+        return ownerId != null && this.entries.containsKey(ownerId);
+    }
+
+    private synchronized void apply(Map<String, List<Adjustment>> adjustments) {
+        for (Map.Entry<String, List<Adjustment>> item : adjustments.entrySet()) {
+            Entry entry = this.entries.get(item.getKey());
+
+            if (entry != null) {
+                item.getValue().forEach(adjustment -> adjustment.apply(entry.info));
+            }
+        }
+    }
+
+    /**
+     * Applies the given adjustments once the current transaction commits, or immediately if there
+     * is no active transaction. Adjustments made by a transaction that is rolled back are discarded.
+     */
+    private void schedule(Map<String, List<Adjustment>> adjustments) {
+        if (adjustments.isEmpty()) {
+            return;
+        }
+
+        Transaction transaction = null;
+        if (this.entityManager != null) {
+            Session session = (Session) this.entityManager.get().getDelegate();
+            transaction = session.getTransaction();
+        }
+
+        if (transaction != null && transaction.getStatus().isOneOf(ACTIVE_STATES)) {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // Intentionally left empty
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        apply(adjustments);
+                    }
+                    else {
+                        log.debug("Discarding owner info adjustments; transaction status: {}", status);
+                    }
+                }
+            });
+        }
+        else {
+            this.apply(adjustments);
+        }
+    }
+}
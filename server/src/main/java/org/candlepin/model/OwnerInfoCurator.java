@@ -55,20 +55,63 @@ public class OwnerInfoCurator {
     private ConsumerTypeCurator consumerTypeCurator;
     private ConsumerCurator consumerCurator;
     private PoolCurator poolCurator;
+    private OwnerInfoCounters ownerInfoCounters;
 
     @Inject
     public OwnerInfoCurator(Provider<EntityManager> entityManager,
         ConsumerCurator consumerCurator, ConsumerTypeCurator consumerTypeCurator,
-        PoolCurator poolCurator) {
+        PoolCurator poolCurator, OwnerInfoCounters ownerInfoCounters) {
         this.entityManager = entityManager;
         this.consumerCurator = consumerCurator;
         this.consumerTypeCurator = consumerTypeCurator;
         this.poolCurator = poolCurator;
+        this.ownerInfoCounters = ownerInfoCounters;
     }
 
+    /**
+     * Fetches the owner info for the given owner. If owner info caching is enabled and the owner
+     * has cached owner info within the configured freshness bound, the cached values are returned
+     * without querying the database.
+     *
+     * @param owner
+     *  the owner for which to fetch owner info
+     *
+     * @return
+     *  the owner info for the given owner
+     */
     public OwnerInfo getByOwner(Owner owner) {
-        OwnerInfo info = new OwnerInfo();
+        if (this.ownerInfoCounters.isEnabled()) {
+            OwnerInfo cached = this.ownerInfoCounters.get(owner.getId());
+
+            if (cached != null) {
+                log.debug("Using cached owner info for owner: {}", owner.getKey());
+                return cached;
+            }
+        }
+
+        return this.refresh(owner);
+    }
+
+    /**
+     * Computes the owner info for the given owner, replacing any cached owner info for the owner
+     * when owner info caching is enabled.
+     *
+     * @param owner
+     *  the owner for which to compute owner info
+     *
+     * @return
+     *  the computed owner info for the given owner
+     */
+    public OwnerInfo refresh(Owner owner) {
         Date now = new Date();
+        OwnerInfo info = this.computeOwnerInfo(owner, now);
+
+        this.ownerInfoCounters.put(owner.getId(), info, now);
+        return info;
+    }
+
+    private OwnerInfo computeOwnerInfo(Owner owner, Date now) {
+        OwnerInfo info = new OwnerInfo();
 
         // TODO:
         // Make sure this doesn't choke on MySQL, since we're doing queries with the cursor open.
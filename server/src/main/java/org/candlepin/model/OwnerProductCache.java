@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.cache.CandlepinCache;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+
+
+
+/**
+ * The OwnerProductCache caches the UUIDs of the product versions mapped to each owner, allowing
+ * OwnerProductCurator to resolve product lookups by owner and product ID without querying the owner-product
+ * mappings.
+ */
+@Singleton
+public class OwnerProductCache extends OwnerEntityCache {
+
+    public OwnerProductCache(Provider<EntityManager> entityManager, int maxSize, long ttl) {
+        super("owner_product", entityManager, maxSize, ttl);
+    }
+
+    @Inject
+    public OwnerProductCache(Provider<EntityManager> entityManager, Configuration config,
+        CandlepinCache candlepinCache) {
+
+        this(entityManager, config.getInt(ConfigProperties.OWNER_ENTITY_CACHE_SIZE, 0),
+            config.getLong(ConfigProperties.OWNER_ENTITY_CACHE_TTL, 0));
+
+        candlepinCache.registerLocalCache(this.getBoundedCache());
+    }
+}
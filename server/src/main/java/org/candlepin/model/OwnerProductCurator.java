@@ -16,6 +16,7 @@ package org.candlepin.model;
 
 import org.candlepin.model.activationkeys.ActivationKey;
 
+import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
 import org.hibernate.Criteria;
@@ -49,6 +50,8 @@ import javax.inject.Singleton;
 public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct> {
     private static Logger log = LoggerFactory.getLogger(OwnerProductCurator.class);
 
+    @Inject private OwnerProductCache productCache;
+
     /**
      * Default constructor
      */
@@ -72,13 +75,42 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public Product getProductById(String ownerId, String productId) {
-        return (Product) this.createSecureCriteria()
+        // Cached mappings are only used when the principal's permissions would not further
+        // restrict the lookup
+        boolean cacheable = this.getSecureCriteriaRestrictions(OwnerProduct.class) == null;
+
+        if (cacheable) {
+            String uuid = this.productCache.getUuid(ownerId, productId);
+
+            if (uuid != null) {
+                // Other nodes cannot invalidate our cached mappings, and superseded versions remain
+                // in the database until they're orphaned, so confirm the mapping is still current
+                // before using it
+                Product product = this.isProductUuidMappedToOwner(uuid, ownerId) ?
+                    this.currentSession().get(Product.class, uuid) :
+                    null;
+
+                if (product != null) {
+                    return product;
+                }
+
+                this.productCache.invalidate(ownerId, productId);
+            }
+        }
+
+        Product product = (Product) this.createSecureCriteria()
             .createAlias("owner", "owner")
             .createAlias("product", "product")
             .setProjection(Projections.property("product"))
             .add(Restrictions.eq("owner.id", ownerId))
             .add(Restrictions.eq("product.id", productId))
             .uniqueResult();
+
+        if (cacheable && product != null) {
+            this.productCache.put(ownerId, productId, product.getUuid());
+        }
+
+        return product;
     }
 
     @Transactional
@@ -325,13 +357,17 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public boolean isProductMappedToOwner(Product product, Owner owner) {
+        return this.isProductUuidMappedToOwner(product.getUuid(), owner.getId());
+    }
+
+    private boolean isProductUuidMappedToOwner(String productUuid, String ownerId) {
         String jpql = "SELECT count(op) FROM OwnerProduct op " +
             "WHERE op.owner.id = :owner_id AND op.product.uuid = :product_uuid";
 
         long count = (Long) this.getEntityManager()
             .createQuery(jpql)
-            .setParameter("owner_id", owner.getId())
-            .setParameter("product_uuid", product.getUuid())
+            .setParameter("owner_id", ownerId)
+            .setParameter("product_uuid", productUuid)
             .getSingleResult();
 
         return count > 0;
@@ -341,6 +377,7 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
     public boolean mapProductToOwner(Product product, Owner owner) {
         if (!this.isProductMappedToOwner(product, owner)) {
             this.create(new OwnerProduct(owner, product));
+            this.productCache.invalidate(owner.getId(), product.getId());
 
             return true;
         }
@@ -385,6 +422,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
             .setParameter("product_uuid", product.getUuid())
             .executeUpdate();
 
+        this.productCache.invalidate(owner.getId(), product.getId());
+
         return rows > 0;
     }
 
@@ -393,6 +432,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         String jpql = "DELETE FROM OwnerProduct op " +
             "WHERE op.product.uuid = :product_uuid";
 
+        this.productCache.invalidateEntity(product.getId());
+
         return this.getEntityManager()
             .createQuery(jpql)
             .setParameter("product_uuid", product.getUuid())
@@ -404,6 +445,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         String jpql = "DELETE FROM OwnerProduct op " +
             "WHERE op.owner.id = :owner_id";
 
+        this.productCache.invalidateOwner(owner.getId());
+
         return this.getEntityManager()
             .createQuery(jpql)
             .setParameter("owner_id", owner.getId())
@@ -545,6 +588,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
         log.debug("{} owner-product relations updated", count);
 
+        this.productCache.invalidateOwner(owner.getId());
+
         // pool provided and derived products
         count = this.bulkSQLUpdate(Pool.DB_TABLE, "product_uuid", uuidMap, criteria);
 
@@ -667,6 +712,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
             int count = this.bulkSQLDelete(OwnerProduct.DB_TABLE, criteria);
             log.info("{} owner-product relations removed", count);
 
+            this.productCache.invalidateOwner(owner.getId());
+
             // Impl note:
             // Even though there's a valid argument to be made here to do so, we do not unlink
             // content from a product. This may cause headaches in the future when a product object
@@ -393,6 +393,15 @@ public class Pool extends AbstractHibernateObject<Pool> implements Owned, Named,
     @Type(type = "org.hibernate.type.NumericBooleanType")
     private Boolean locked;
 
+    /**
+     * A digest of the upstream subscription data this master pool was last refreshed from, used to
+     * skip subscriptions which have not changed since the previous refresh.
+     */
+    @Column(name = "subscription_fingerprint")
+    @Size(max = 64)
+    @JsonIgnore
+    private String subscriptionFingerprint;
+
     public Pool() {
         this.activeSubscription = Boolean.TRUE;
         this.providedProducts = new HashSet<>();
@@ -1532,4 +1541,12 @@ public class Pool extends AbstractHibernateObject<Pool> implements Owned, Named,
         this.locked = locked;
     }
 
+    public String getSubscriptionFingerprint() {
+        return this.subscriptionFingerprint;
+    }
+
+    public void setSubscriptionFingerprint(String subscriptionFingerprint) {
+        this.subscriptionFingerprint = subscriptionFingerprint;
+    }
+
 }
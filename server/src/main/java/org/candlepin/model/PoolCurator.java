@@ -1408,6 +1408,69 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         }
     }
 
+    /**
+     * Fetches a map of subscription IDs to the subscription fingerprints stored on the master pools
+     * of the given owner. Master pools which do not have a fingerprint are not included in the
+     * output. If the owner does not have any fingerprinted master pools, this method returns an
+     * empty map.
+     *
+     * @param owner
+     *  The owner for which to fetch subscription fingerprints
+     *
+     * @return
+     *  a map of subscription IDs to subscription fingerprints for the given owner's master pools
+     */
+    public Map<String, String> getMasterPoolFingerprints(Owner owner) {
+        Map<String, String> fingerprints = new HashMap<>();
+
+        if (owner != null && owner.getId() != null) {
+            String jpql = "SELECT ss.subscriptionId, ss.pool.subscriptionFingerprint " +
+                "FROM SourceSubscription ss " +
+                "WHERE ss.pool.owner.id = :owner_id " +
+                "  AND ss.subscriptionSubKey = 'master' " +
+                "  AND ss.pool.subscriptionFingerprint IS NOT NULL";
+
+            List<Object[]> rows = this.getEntityManager()
+                .createQuery(jpql, Object[].class)
+                .setParameter("owner_id", owner.getId())
+                .getResultList();
+
+            for (Object[] row : rows) {
+                fingerprints.put((String) row[0], (String) row[1]);
+            }
+        }
+
+        return fingerprints;
+    }
+
+    /**
+     * Fetches the IDs of the subscriptions for which the given owner has a bonus pool. If the owner
+     * does not have any bonus pools, this method returns an empty set.
+     *
+     * @param owner
+     *  The owner for which to fetch the subscription IDs
+     *
+     * @return
+     *  a set of subscription IDs of the given owner's bonus pools
+     */
+    public Set<String> getBonusPoolSubscriptionIds(Owner owner) {
+        Set<String> subscriptionIds = new HashSet<>();
+
+        if (owner != null && owner.getId() != null) {
+            String jpql = "SELECT ss.subscriptionId " +
+                "FROM SourceSubscription ss " +
+                "WHERE ss.pool.owner.id = :owner_id " +
+                "  AND ss.subscriptionSubKey = 'derived'";
+
+            subscriptionIds.addAll(this.getEntityManager()
+                .createQuery(jpql, String.class)
+                .setParameter("owner_id", owner.getId())
+                .getResultList());
+        }
+
+        return subscriptionIds;
+    }
+
     /**
      * Retrieves the set of all known product IDs, as determined by looking only at pool data. If
      * there are no known products, this method returns an empty set.
@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.Iterator;
@@ -155,6 +156,15 @@ public class TransformedCandlepinQuery<I, O> implements CandlepinQuery<O> {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<O> addCriterion(Criterion criterion) {
+        this.query.addCriterion(criterion);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -192,6 +202,15 @@ public class TransformedCandlepinQuery<I, O> implements CandlepinQuery<O> {
         return output;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Object[]> listProperties(String... properties) {
+        // Properties are read from the untransformed rows
+        return this.query.listProperties(properties);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * The KeyPairPool maintains a bounded supply of pre-generated RSA key pairs, so the generation of
+ * a key pair is no longer part of registering a consumer. Key pairs are generated by background
+ * threads whenever the number of pooled pairs falls below the low watermark, until the pool
+ * reaches its high watermark. Should the pool be exhausted, key pairs are generated inline.
+ * <p></p>
+ * The pool is filled lazily, starting with the first key pair taken from it. A high watermark of
+ * zero disables the pool, generating every key pair inline.
+ */
+@Singleton
+public class KeyPairPool {
+    private static Logger log = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final long IDLE_TIMEOUT = 60;
+
+    private final PKIUtility pki;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int threads;
+    private final BlockingQueue<KeyPair> pool;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicInteger fillers;
+    private final AtomicLong taken;
+    private final AtomicLong starved;
+
+    private volatile boolean shutdown;
+
+    @Inject
+    public KeyPairPool(PKIUtility pki, Configuration config) {
+        this(pki, config.getInt(ConfigProperties.KEYPAIR_POOL_LOW_WATERMARK, 0),
+            config.getInt(ConfigProperties.KEYPAIR_POOL_HIGH_WATERMARK, 0),
+            config.getInt(ConfigProperties.KEYPAIR_POOL_THREADS, 1));
+    }
+
+    /**
+     * Creates a new key pair pool.
+     *
+     * @param pki
+     *  the PKIUtility to use for generating key pairs
+     *
+     * @param lowWatermark
+     *  the number of pooled key pairs below which the pool is refilled
+     *
+     * @param highWatermark
+     *  the maximum number of key pairs to pool; zero disables the pool
+     *
+     * @param threads
+     *  the number of background threads with which to refill the pool
+     *
+     * @throws IllegalArgumentException
+     *  if pki is null, either watermark is negative, the low watermark exceeds the high watermark,
+     *  or fewer than one thread is requested for an enabled pool
+     */
+    public KeyPairPool(PKIUtility pki, int lowWatermark, int highWatermark, int threads) {
+        if (pki == null) {
+            throw new IllegalArgumentException("pki is null");
+        }
+
+        if (lowWatermark < 0 || highWatermark < 0 || lowWatermark > highWatermark) {
+            throw new IllegalArgumentException(String.format(
+                "invalid watermarks; low: %d, high: %d", lowWatermark, highWatermark));
+        }
+
+        if (highWatermark > 0 && threads < 1) {
+            throw new IllegalArgumentException("threads is less than one: " + threads);
+        }
+
+        this.pki = pki;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.threads = threads;
+
+        this.fillers = new AtomicInteger();
+        this.taken = new AtomicLong();
+        this.starved = new AtomicLong();
+
+        if (highWatermark > 0) {
+            this.pool = new LinkedBlockingQueue<>(highWatermark);
+            this.executor = new ThreadPoolExecutor(threads, threads, IDLE_TIMEOUT, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new GeneratorThreadFactory());
+
+            this.executor.allowCoreThreadTimeOut(true);
+
+            log.info("Pooling up to {} key pairs, refilled below {} using {} threads",
+                highWatermark, lowWatermark, threads);
+        }
+        else {
+            this.pool = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Takes a key pair from the pool, generating a new key pair inline if the pool is empty or
+     * disabled. Taking a key pair which leaves the pool below its low watermark schedules the
+     * pool to be refilled in the background.
+     *
+     * @return
+     *  a newly generated key pair which has not been handed out before
+     *
+     * @throws NoSuchAlgorithmException
+     *  if a key pair must be generated inline and the key algorithm is unavailable
+     */
+    public KeyPair take() throws NoSuchAlgorithmException {
+        this.taken.incrementAndGet();
+
+        if (this.pool == null) {
+            return this.pki.generateNewKeyPair();
+        }
+
+        KeyPair keypair = this.pool.poll();
+
+        if (this.pool.size() < this.lowWatermark || keypair == null) {
+            this.refill();
+        }
+
+        if (keypair == null) {
+            long starved = this.starved.incrementAndGet();
+            log.debug("Key pair pool is empty; generating key pair inline ({} of {} requests starved)",
+                starved, this.taken.get());
+
+            keypair = this.pki.generateNewKeyPair();
+        }
+
+        return keypair;
+    }
+
+    /**
+     * Starts background fillers until every refill thread is busy filling the pool.
+     */
+    private void refill() {
+        if (this.shutdown) {
+            return;
+        }
+
+        for (int count = this.fillers.get(); count < this.threads; count = this.fillers.get()) {
+            if (this.fillers.compareAndSet(count, count + 1)) {
+                try {
+                    this.executor.execute(this::fill);
+                }
+                catch (RejectedExecutionException e) {
+                    // The pool was shut down after our check above; release the filler slot
+                    this.fillers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates key pairs until the pool reaches its high watermark or is shut down.
+     */
+    private void fill() {
+        try {
+            while (!this.shutdown && this.pool.remainingCapacity() > 0) {
+                if (!this.pool.offer(this.pki.generateNewKeyPair())) {
+                    break;
+                }
+            }
+        }
+        catch (Exception e) {
+            log.error("Unable to generate key pair for pool", e);
+        }
+        finally {
+            this.fillers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Discards all pooled key pairs and stops any background fillers. Key pairs taken after the
+     * pool has been shut down are generated inline.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.pool.clear();
+        }
+    }
+
+    /**
+     * Fetches the number of key pairs currently available in the pool.
+     *
+     * @return
+     *  the number of pooled key pairs
+     */
+    public int getDepth() {
+        return this.pool != null ? this.pool.size() : 0;
+    }
+
+    /**
+     * Fetches the number of key pairs requested from the pool since it was created, including any
+     * requests which were generated inline.
+     *
+     * @return
+     *  the number of key pairs taken from the pool
+     */
+    public long getTakenCount() {
+        return this.taken.get();
+    }
+
+    /**
+     * Fetches the number of key pairs which had to be generated inline because the enabled pool was
+     * empty.
+     *
+     * @return
+     *  the number of key pair requests the pool could not satisfy
+     */
+    public long getStarvedCount() {
+        return this.starved.get();
+    }
+
+    /**
+     * ThreadFactory creating named daemon threads, so an idle pool never holds up shutdown
+     */
+    private static class GeneratorThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "keypair-generator-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        }
+    }
+}
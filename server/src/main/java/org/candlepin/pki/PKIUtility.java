@@ -23,6 +23,7 @@ import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.Signature;
 import java.security.cert.CertificateException;
 import java.security.cert.X509CRL;
 import java.security.cert.X509Certificate;
@@ -51,6 +52,19 @@ public interface PKIUtility {
      */
     X509CRL createX509CRL(List<X509CRLEntryWrapper> entries, BigInteger crlNumber);
 
+    /**
+     * Generate a delta CRL containing the provided entries.  The delta CRL identifies the changes
+     * made since the complete CRL with the given base CRL number, as described in RFC 5280, section
+     * 5.2.4.  The CRL will be signed with the key retrieved from CertificateReader.
+     *
+     * @param entries the entries
+     * @param crlNumber the CRL number to use
+     * @param baseCrlNumber the CRL number of the complete CRL to which the delta applies
+     * @return the x509 delta CRL
+     */
+    X509CRL createX509DeltaCRL(List<X509CRLEntryWrapper> entries, BigInteger crlNumber,
+        BigInteger baseCrlNumber);
+
     /**
      * Take an X509Certificate object and return a byte[] of the certificate,
      * PEM encoded
@@ -117,4 +131,30 @@ public interface PKIUtility {
     KeyPair generateNewKeyPair() throws NoSuchAlgorithmException;
 
     byte[] getSHA256WithRSAHash(InputStream input);
+
+    /**
+     * Creates a SHA256withRSA signature initialized for signing with the CA key. Unlike
+     * getSHA256WithRSAHash, this allows data to be signed as it is being written, without having
+     * to read it back from an input stream afterward.
+     *
+     * @return
+     *  a Signature instance initialized for signing with the CA key
+     */
+    Signature getSHA256WithRSASigner();
+
+    /**
+     * Creates SHA256withRSA signatures initialized for verification against the CA certificate and
+     * each of the upstream CA certificates, in that order. This allows data to be verified as it is
+     * being read, in a single pass, rather than once per certificate.
+     *
+     * @return
+     *  a list of Signature instances initialized for verification with the CA certificates
+     *
+     * @throws CertificateException
+     *  if any of the CA certificates cannot be read
+     *
+     * @throws IOException
+     *  if an IOException occurs while reading the CA certificates
+     */
+    List<Signature> getSHA256WithRSAVerifiers() throws CertificateException, IOException;
 }
@@ -21,6 +21,7 @@ import org.candlepin.pki.SubjectKeyIdentifierWriter;
 import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.pki.X509CRLEntryWrapper;
 import org.candlepin.pki.X509ExtensionWrapper;
+import org.candlepin.util.OIDUtil;
 import org.candlepin.util.Util;
 
 import com.google.common.base.Charsets;
@@ -280,6 +281,22 @@ public class JSSPKIUtility extends ProviderBasedPKIUtility {
 
     @Override
     public X509CRL createX509CRL(List<X509CRLEntryWrapper> entries, BigInteger crlNumber) {
+        return this.buildX509CRL(entries, crlNumber, null);
+    }
+
+    @Override
+    public X509CRL createX509DeltaCRL(List<X509CRLEntryWrapper> entries, BigInteger crlNumber,
+        BigInteger baseCrlNumber) {
+
+        if (baseCrlNumber == null) {
+            throw new IllegalArgumentException("baseCrlNumber is null");
+        }
+
+        return this.buildX509CRL(entries, crlNumber, baseCrlNumber);
+    }
+
+    private X509CRL buildX509CRL(List<X509CRLEntryWrapper> entries, BigInteger crlNumber,
+        BigInteger baseCrlNumber) {
         try {
             X509Certificate caCert = reader.getCACert();
 
@@ -294,6 +311,12 @@ public class JSSPKIUtility extends ProviderBasedPKIUtility {
             crlExtensions.add(new CRLNumberExtension(crlNumber));
             crlExtensions.add(buildAuthorityKeyIdentifier(caCert));
 
+            if (baseCrlNumber != null) {
+                // The delta CRL indicator must always be marked critical
+                crlExtensions.add(buildCustomExtension(OIDUtil.DELTA_CRL_INDICATOR, true,
+                    new INTEGER(baseCrlNumber)));
+            }
+
             X500Name issuer = new X500Name(caCert.getIssuerX500Principal().getEncoded());
             Date until = Util.addDaysToDt(config.getInt(ConfigProperties.CRL_NEXT_UPDATE_DELTA));
             X509CRLImpl crlImpl = new X509CRLImpl(
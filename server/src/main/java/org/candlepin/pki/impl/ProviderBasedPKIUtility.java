@@ -50,6 +50,7 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -207,8 +208,7 @@ public abstract class ProviderBasedPKIUtility implements PKIUtility {
     @Override
     public byte[] getSHA256WithRSAHash(InputStream input) {
         try {
-            Signature signature = Signature.getInstance("SHA256withRSA");
-            signature.initSign(reader.getCaKey());
+            Signature signature = this.getSHA256WithRSASigner();
 
             updateSignature(input, signature);
             return signature.sign();
@@ -218,6 +218,43 @@ public abstract class ProviderBasedPKIUtility implements PKIUtility {
         }
     }
 
+    @Override
+    public Signature getSHA256WithRSASigner() {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(reader.getCaKey());
+
+            return signature;
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<Signature> getSHA256WithRSAVerifiers() throws CertificateException, IOException {
+        List<X509Certificate> certs = new ArrayList<>();
+        certs.add(reader.getCACert());
+        certs.addAll(reader.getUpstreamCACerts());
+
+        List<Signature> verifiers = new ArrayList<>();
+
+        try {
+            for (X509Certificate cert : certs) {
+                log.debug("Verify against: {}", cert.getSerialNumber());
+
+                Signature signature = Signature.getInstance("SHA256withRSA");
+                signature.initVerify(cert);
+                verifiers.add(signature);
+            }
+        }
+        catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+
+        return verifiers;
+    }
+
     @Override
     public boolean verifySHA256WithRSAHashAgainstCACerts(File input, byte[] signedHash)
         throws CertificateException, IOException {
@@ -24,6 +24,13 @@ import org.mozilla.javascript.Wrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+
 /**
  * JsRunner - Responsible for running the javascript rules methods in all
  * namespaces.
@@ -36,11 +43,15 @@ public class JsRunner {
     private Object rulesNameSpace;
     private String namespace;
     private Scriptable scope;
+    private Map<String, Object> nameSpaces;
+    private Set<Object> variables;
 
     private boolean initialized = false;
 
     public JsRunner(Scriptable scope) {
         this.scope = scope;
+        this.nameSpaces = new HashMap<>();
+        this.variables = new HashSet<>();
     }
 
     /**
@@ -54,6 +65,14 @@ public class JsRunner {
     public void init(String namespace) {
         this.namespace = namespace;
 
+        // Pooled runners retain the namespaces initialized by previous leases
+        Object initializedNameSpace = this.nameSpaces.get(namespace);
+        if (initializedNameSpace != null) {
+            this.rulesNameSpace = initializedNameSpace;
+            this.initialized = true;
+            return;
+        }
+
         if (!initialized) {
 
             Context context = Context.enter();
@@ -62,6 +81,10 @@ public class JsRunner {
                 this.rulesNameSpace = unwrapReturnValue(((Function) func)
                     .call(context, scope, scope, Context.emptyArgs));
 
+                if (this.rulesNameSpace != null) {
+                    this.nameSpaces.put(namespace, this.rulesNameSpace);
+                }
+
                 this.initialized = true;
             }
             catch (RhinoException ex) {
@@ -74,11 +97,42 @@ public class JsRunner {
         }
     }
 
+    /**
+     * Resets this runner so it may be reused by another request. The variables applied to the
+     * runner's scope by the previous request are removed, while any initialized namespaces are
+     * retained.
+     */
+    void reset() {
+        for (Object id : this.variables) {
+            if (id instanceof String) {
+                this.scope.delete((String) id);
+            }
+            else if (id instanceof Integer) {
+                this.scope.delete((Integer) id);
+            }
+        }
+
+        this.variables.clear();
+        this.rulesNameSpace = null;
+        this.namespace = null;
+        this.initialized = false;
+    }
+
     public void reinitTo(String namespace) {
         initialized = false;
+        this.nameSpaces.remove(namespace);
         init(namespace);
     }
 
+    /*
+     * Applies the given context to this runner's scope, tracking the variables it defines so they
+     * can be removed once the runner is reset.
+     */
+    private void apply(JsContext context) {
+        context.applyTo(scope);
+        this.variables.addAll(Arrays.asList(scope.getIds()));
+    }
+
     Object unwrapReturnValue(Object result) {
         if (result instanceof Wrapper) {
             result = ((Wrapper) result).unwrap();
@@ -108,7 +162,7 @@ public class JsRunner {
     @SuppressWarnings("unchecked")
     public <T> T invokeMethod(String method, JsContext context)
         throws NoSuchMethodException, RhinoException {
-        context.applyTo(scope);
+        this.apply(context);
         return (T) invokeMethod(method);
     }
 
@@ -129,7 +183,7 @@ public class JsRunner {
     }
 
     public <T> T invokeRule(String ruleName, JsContext context) {
-        context.applyTo(scope);
+        this.apply(context);
         return invokeRule(ruleName);
     }
 
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+
+
+/**
+ * The JsRunnerPool maintains a bounded set of pre-initialized JsRunner instances for a single
+ * version of the compiled rules. Runners are leased for the duration of a request and returned
+ * to the pool once the request completes.
+ * <p></p>
+ * Whenever the rules are recompiled, the pool is invalidated by atomically swapping in a new
+ * generation of runners. Runners leased from a previous generation are discarded rather than
+ * returned when their lease is closed.
+ * <p></p>
+ * When every pooled runner is leased, the pool will optionally wait for a runner to be returned
+ * before falling back to creating a throwaway runner which is not retained by the pool.
+ */
+public class JsRunnerPool {
+    private static Logger log = LoggerFactory.getLogger(JsRunnerPool.class);
+
+    /**
+     * A single lease of a JsRunner from this pool. Closing the lease returns the runner to the
+     * pool it was leased from, if that pool is still current.
+     */
+    public class Lease implements AutoCloseable {
+        private final Generation generation;
+        private final JsRunner runner;
+        private final boolean pooled;
+        private boolean closed;
+
+        private Lease(Generation generation, JsRunner runner, boolean pooled) {
+            this.generation = generation;
+            this.runner = runner;
+            this.pooled = pooled;
+            this.closed = false;
+        }
+
+        public JsRunner getRunner() {
+            return this.runner;
+        }
+
+        @Override
+        public void close() {
+            if (!this.closed) {
+                this.closed = true;
+                release(this);
+            }
+        }
+    }
+
+    /**
+     * The set of runners created from a single compilation of the rules
+     */
+    private static class Generation {
+        private final Date rulesUpdated;
+        private final Supplier<JsRunner> factory;
+        private final BlockingQueue<JsRunner> idle;
+
+        public Generation(Date rulesUpdated, Supplier<JsRunner> factory, int size) {
+            this.rulesUpdated = rulesUpdated;
+            this.factory = factory;
+            this.idle = new LinkedBlockingQueue<>();
+
+            for (int i = 0; i < size; ++i) {
+                this.idle.offer(factory.get());
+            }
+        }
+    }
+
+    private final int size;
+    private final long waitTimeout;
+    private final AtomicReference<Generation> generation;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong waits;
+    private final AtomicLong waitTime;
+    private final AtomicLong invalidations;
+
+    /**
+     * Creates a new JsRunnerPool retaining up to the given number of runners per rules version.
+     *
+     * @param size
+     *  the number of runners to retain per version of the rules; must be a positive integer
+     *
+     * @param waitTimeout
+     *  the maximum amount of time, in milliseconds, to wait for a runner to be returned when every
+     *  pooled runner is leased. A timeout of zero disables waiting.
+     *
+     * @throws IllegalArgumentException
+     *  if size is less than one, or waitTimeout is negative
+     */
+    public JsRunnerPool(int size, long waitTimeout) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size is less than one");
+        }
+
+        if (waitTimeout < 0) {
+            throw new IllegalArgumentException("waitTimeout is negative");
+        }
+
+        this.size = size;
+        this.waitTimeout = waitTimeout;
+        this.generation = new AtomicReference<>();
+
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.waits = new AtomicLong();
+        this.waitTime = new AtomicLong();
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * Invalidates any runners currently held by this pool and pre-warms a new set of runners
+     * using the provided factory. Outstanding leases from the previous generation will be
+     * discarded when closed.
+     *
+     * @param rulesUpdated
+     *  the update timestamp of the rules the factory creates runners for
+     *
+     * @param factory
+     *  a supplier which creates new runners for the current version of the rules
+     */
+    public void invalidate(Date rulesUpdated, Supplier<JsRunner> factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("factory is null");
+        }
+
+        Generation previous = this.generation.getAndSet(new Generation(rulesUpdated, factory, this.size));
+        if (previous != null) {
+            previous.idle.clear();
+            this.invalidations.incrementAndGet();
+        }
+
+        log.debug("JsRunner pool initialized with {} runners for rules timestamp: {}", this.size,
+            rulesUpdated);
+    }
+
+    /**
+     * Leases a runner from this pool. The lease must be closed once the runner is no longer in use.
+     *
+     * @throws IllegalStateException
+     *  if the pool has not yet been initialized via invalidate
+     *
+     * @return
+     *  a lease for a runner created from the current version of the rules
+     */
+    public Lease borrow() {
+        Generation current = this.generation.get();
+        if (current == null) {
+            throw new IllegalStateException("JsRunner pool has not been initialized");
+        }
+
+        JsRunner runner = current.idle.poll();
+
+        if (runner == null && this.waitTimeout > 0) {
+            long start = System.nanoTime();
+
+            try {
+                runner = current.idle.poll(this.waitTimeout, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                this.waits.incrementAndGet();
+                this.waitTime.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        if (runner != null) {
+            this.hits.incrementAndGet();
+            return new Lease(current, runner, true);
+        }
+
+        this.misses.incrementAndGet();
+        log.debug("JsRunner pool exhausted; creating unpooled runner");
+
+        return new Lease(current, current.factory.get(), false);
+    }
+
+    private void release(Lease lease) {
+        // Only return the runner if it belongs to the current generation; stale and overflow runners
+        // are simply dropped.
+        if (lease.pooled && lease.generation == this.generation.get()) {
+            lease.runner.reset();
+            lease.generation.idle.offer(lease.runner);
+        }
+    }
+
+    /**
+     * Fetches the update timestamp of the rules backing the current generation of runners.
+     *
+     * @return
+     *  the update timestamp of the rules currently pooled, or null if the pool is uninitialized
+     */
+    public Date getRulesUpdated() {
+        Generation current = this.generation.get();
+        return current != null ? current.rulesUpdated : null;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getIdleCount() {
+        Generation current = this.generation.get();
+        return current != null ? current.idle.size() : 0;
+    }
+
+    /**
+     * Fetches the number of leases which were satisfied by a pooled runner.
+     *
+     * @return
+     *  the number of pool hits
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Fetches the number of leases which required creating an unpooled runner.
+     *
+     * @return
+     *  the number of pool misses
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Fetches the number of leases which had to wait for a runner to be returned to the pool.
+     *
+     * @return
+     *  the number of leases which waited on the pool
+     */
+    public long getWaits() {
+        return this.waits.get();
+    }
+
+    /**
+     * Fetches the total time, in milliseconds, spent waiting for runners to be returned.
+     *
+     * @return
+     *  the total time spent waiting on the pool, in milliseconds
+     */
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(this.waitTime.get());
+    }
+
+    public long getInvalidations() {
+        return this.invalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JsRunnerPool [size: %d, idle: %d, hits: %d, misses: %d, waits: %d, " +
+            "wait time: %dms]", this.getSize(), this.getIdleCount(), this.getHits(), this.getMisses(),
+            this.getWaits(), this.getWaitTime());
+    }
+}
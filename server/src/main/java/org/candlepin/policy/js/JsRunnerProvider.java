@@ -14,6 +14,8 @@
  */
 package org.candlepin.policy.js;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.Rules;
 import org.candlepin.model.Rules.RulesSourceEnum;
 import org.candlepin.model.RulesCurator;
@@ -37,12 +39,16 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Reads/compiles our javascript rules and the standard js objects only
  * once across the JVM lifetime (and whenever the rules require a recompile), and creates
  * lightweight execution scopes per thread/request.
+ *
+ * When enabled, execution scopes are leased from a pool of pre-initialized runners for the
+ * current version of the rules, rather than being created anew for every request.
  */
 public class JsRunnerProvider implements Provider<JsRunner> {
     private static Logger log = LoggerFactory.getLogger(JsRunnerProvider.class);
 
     private RulesCurator rulesCurator;
     private Provider<JsRunnerRequestCache> cacheProvider;
+    private JsRunnerPool pool;
     private Script script;
     private Scriptable scope;
     /**
@@ -82,10 +88,44 @@ public class JsRunnerProvider implements Provider<JsRunner> {
     }
 
     @Inject
+    public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider,
+        Configuration config) {
+
+        this(rulesCurator, cacheProvider,
+            config.getInt(ConfigProperties.RULES_RUNNER_POOL_SIZE, 0),
+            config.getLong(ConfigProperties.RULES_RUNNER_POOL_WAIT_TIMEOUT, 0));
+    }
+
     public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider) {
+        this(rulesCurator, cacheProvider, 0, 0);
+    }
+
+    /**
+     * Creates a new JsRunnerProvider, optionally leasing runners from a pool of the given size.
+     *
+     * @param rulesCurator
+     *  the curator to use to fetch the rules
+     *
+     * @param cacheProvider
+     *  the provider of the request scoped rules cache
+     *
+     * @param poolSize
+     *  the number of pre-initialized runners to pool; a size of zero disables pooling
+     *
+     * @param poolWaitTimeout
+     *  the maximum time, in milliseconds, to wait for a pooled runner to become available
+     */
+    public JsRunnerProvider(RulesCurator rulesCurator, Provider<JsRunnerRequestCache> cacheProvider,
+        int poolSize, long poolWaitTimeout) {
+
         this.rulesCurator = rulesCurator;
         this.cacheProvider = cacheProvider;
 
+        if (poolSize > 0) {
+            log.debug("Pooling up to {} rules runners", poolSize);
+            this.pool = new JsRunnerPool(poolSize, poolWaitTimeout);
+        }
+
         log.debug("Compiling rules for initial load");
         this.rulesCurator.updateDbRules();
         this.compileRules();
@@ -125,6 +165,11 @@ public class JsRunnerProvider implements Provider<JsRunner> {
                 script.exec(context, scope);
                 ((ScriptableObject) scope).sealObject();
                 this.currentRulesUpdated = newUpdated;
+
+                if (this.pool != null) {
+                    final Scriptable compiled = scope;
+                    this.pool.invalidate(newUpdated, () -> this.createRunner(compiled));
+                }
             }
             finally {
                 Context.exit();
@@ -147,30 +192,58 @@ public class JsRunnerProvider implements Provider<JsRunner> {
             updated = rulesCurator.getUpdated();
             cache.setUpdated(updated);
         }
+        // Avoid a write lock if we can
+        if (!updated.equals(this.currentRulesUpdated)) {
+            compileRules();
+        }
+
+        // Lease a pre-initialized runner for the remainder of the request, if pooling is enabled
+        if (this.pool != null) {
+            JsRunnerPool.Lease lease = this.pool.borrow();
+            cache.addLease(lease);
+
+            return lease.getRunner();
+        }
+
         /*
          * Create a new thread/request local javascript scope for the JsRules,
          * based on the preinitialized global one (which contains our js rules).
          */
-        // Avoid a write lock if we can
-        if (!updated.equals(this.currentRulesUpdated)) {
-            compileRules();
+        scriptLock.readLock().lock();
+        try {
+            return this.createRunner(scope);
         }
+        finally {
+            scriptLock.readLock().unlock();
+        }
+    }
+
+    private JsRunner createRunner(Scriptable globalScope) {
         Scriptable rulesScope;
-        scriptLock.readLock().lock();
+
+        Context context = Context.enter();
         try {
-            Context context = Context.enter();
-            rulesScope = context.newObject(scope);
-            rulesScope.setPrototype(scope);
+            rulesScope = context.newObject(globalScope);
+            rulesScope.setPrototype(globalScope);
             rulesScope.setParentScope(null);
-            Context.exit();
         }
         finally {
-            scriptLock.readLock().unlock();
+            Context.exit();
         }
 
         return new JsRunner(rulesScope);
     }
 
+    /**
+     * Fetches the pool of runners leased by this provider.
+     *
+     * @return
+     *  the runner pool used by this provider, or null if pooling is disabled
+     */
+    public JsRunnerPool getPool() {
+        return this.pool;
+    }
+
     public String getRulesVersion() {
         if (rulesVersion == null) {
             compileRules();
@@ -16,19 +16,24 @@ package org.candlepin.policy.js;
 
 import org.candlepin.guice.CandlepinRequestScoped;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 
 /**
  * A request scoped cache that is used to mitigate repeated
- * DB requests for cp_rules.updated column.
+ * DB requests for cp_rules.updated column. Also tracks any
+ * runners leased from the JsRunnerPool during the request,
+ * returning them to the pool when the request ends.
  * @author fnguyen
  *
  */
 @CandlepinRequestScoped
-public class JsRunnerRequestCache {
+public class JsRunnerRequestCache implements AutoCloseable {
 
     private Date updated = null;
+    private List<JsRunnerPool.Lease> leases = new ArrayList<>();
 
     public void setUpdated(Date updated) {
         this.updated = updated;
@@ -37,4 +42,17 @@ public class JsRunnerRequestCache {
     public Date getUpdated() {
         return updated;
     }
+
+    public void addLease(JsRunnerPool.Lease lease) {
+        leases.add(lease);
+    }
+
+    @Override
+    public void close() {
+        for (JsRunnerPool.Lease lease : leases) {
+            lease.close();
+        }
+
+        leases.clear();
+    }
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+
+
+/**
+ * The RulesEngine enum represents the implementations available for the rules which have been
+ * ported from javascript to Java.
+ */
+public enum RulesEngine {
+    /** Invoke the functions defined by the javascript rules */
+    JAVASCRIPT("javascript"),
+
+    /** Use the Java implementation of the rules */
+    NATIVE("native");
+
+    private final String label;
+
+    RulesEngine(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Fetches the rules engine for the given label. If no label is provided, the javascript engine
+     * is returned.
+     *
+     * @param label
+     *  the label of the engine to fetch, ignoring case
+     *
+     * @throws IllegalArgumentException
+     *  if the label does not match any rules engine
+     *
+     * @return
+     *  the rules engine matching the label, or the javascript engine if the label is null
+     */
+    public static RulesEngine fromLabel(String label) {
+        if (label == null) {
+            return JAVASCRIPT;
+        }
+
+        for (RulesEngine engine : RulesEngine.values()) {
+            if (engine.label.equalsIgnoreCase(label.trim())) {
+                return engine;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown rules engine: " + label);
+    }
+}
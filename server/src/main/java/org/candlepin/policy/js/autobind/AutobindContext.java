@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.GuestIdDTO;
+import org.candlepin.dto.rules.v1.OwnerDTO;
+import org.candlepin.dto.rules.v1.PoolDTO;
+
+import java.util.List;
+import java.util.Set;
+
+
+
+/**
+ * The AutobindContext holds the translated inputs of a single pool selection, as passed to an
+ * AutobindEngine.
+ */
+public class AutobindContext {
+
+    private ConsumerDTO consumer;
+    private OwnerDTO owner;
+    private String serviceLevelOverride;
+    private List<PoolDTO> pools;
+    private String[] productIds;
+    private ComplianceStatusDTO compliance;
+    private Set<String> exemptLevels;
+    private boolean considerDerived;
+    private List<GuestIdDTO> guestIds;
+
+    public ConsumerDTO getConsumer() {
+        return this.consumer;
+    }
+
+    public AutobindContext setConsumer(ConsumerDTO consumer) {
+        this.consumer = consumer;
+        return this;
+    }
+
+    public OwnerDTO getOwner() {
+        return this.owner;
+    }
+
+    public AutobindContext setOwner(OwnerDTO owner) {
+        this.owner = owner;
+        return this;
+    }
+
+    public String getServiceLevelOverride() {
+        return this.serviceLevelOverride;
+    }
+
+    public AutobindContext setServiceLevelOverride(String serviceLevelOverride) {
+        this.serviceLevelOverride = serviceLevelOverride;
+        return this;
+    }
+
+    public List<PoolDTO> getPools() {
+        return this.pools;
+    }
+
+    public AutobindContext setPools(List<PoolDTO> pools) {
+        this.pools = pools;
+        return this;
+    }
+
+    public String[] getProductIds() {
+        return this.productIds;
+    }
+
+    public AutobindContext setProductIds(String[] productIds) {
+        this.productIds = productIds;
+        return this;
+    }
+
+    public ComplianceStatusDTO getCompliance() {
+        return this.compliance;
+    }
+
+    public AutobindContext setCompliance(ComplianceStatusDTO compliance) {
+        this.compliance = compliance;
+        return this;
+    }
+
+    public Set<String> getExemptLevels() {
+        return this.exemptLevels;
+    }
+
+    public AutobindContext setExemptLevels(Set<String> exemptLevels) {
+        this.exemptLevels = exemptLevels;
+        return this;
+    }
+
+    public boolean isConsiderDerived() {
+        return this.considerDerived;
+    }
+
+    public AutobindContext setConsiderDerived(boolean considerDerived) {
+        this.considerDerived = considerDerived;
+        return this;
+    }
+
+    public List<GuestIdDTO> getGuestIds() {
+        return this.guestIds;
+    }
+
+    public AutobindContext setGuestIds(List<GuestIdDTO> guestIds) {
+        this.guestIds = guestIds;
+        return this;
+    }
+}
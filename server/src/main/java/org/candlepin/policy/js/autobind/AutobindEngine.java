@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import java.util.Map;
+
+
+
+/**
+ * An AutobindEngine implements the select_pools rule, choosing the pools, and the quantity of
+ * each, which best cover a consumer.
+ */
+public interface AutobindEngine {
+
+    /**
+     * Selects the best pools to cover the consumer described by the given context.
+     *
+     * @param context
+     *  the autobind context containing the consumer, candidate pools and compliance status
+     *
+     * @throws NoSuchMethodException
+     *  if the engine does not provide pool selection, and the default selection should be used
+     *
+     * @return
+     *  a mapping of pool IDs to the quantity to consume from each selected pool
+     */
+    Map<String, Integer> selectPools(AutobindContext context) throws NoSuchMethodException;
+}
@@ -14,6 +14,8 @@
  */
 package org.candlepin.policy.js.autobind;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
 import org.candlepin.dto.rules.v1.ConsumerDTO;
@@ -34,15 +36,13 @@ import org.candlepin.model.PoolQuantity;
 import org.candlepin.model.Product;
 import org.candlepin.model.ProductCurator;
 import org.candlepin.policy.js.JsRunner;
-import org.candlepin.policy.js.JsonJsContext;
-import org.candlepin.policy.js.RuleExecutionException;
+import org.candlepin.policy.js.RulesEngine;
 import org.candlepin.policy.js.RulesObjectMapper;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
 import org.candlepin.util.X509ExtensionUtil;
 
 import com.google.inject.Inject;
 
-import org.mozilla.javascript.RhinoException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,39 +52,62 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 
 /**
  * AutobindRules
  *
- * Defers to rules to determine the best match of pools for a given consumer.
+ * Defers to rules to determine the best match of pools for a given consumer. The rules are evaluated
+ * by the autobind engine selected by configuration.
  */
 public class AutobindRules {
 
-    protected static final String SELECT_POOL_FUNCTION = "select_pools";
+    protected static final String SELECT_POOL_FUNCTION = JsAutobindEngine.SELECT_POOL_FUNCTION;
     private static Logger log = LoggerFactory.getLogger(AutobindRules.class);
 
-    private JsRunner jsRules;
-    private RulesObjectMapper mapper;
+    private AutobindEngine engine;
     private ProductCurator productCurator;
     private ConsumerTypeCurator consumerTypeCurator;
     private OwnerCurator ownerCurator;
     private ModelTranslator translator;
 
     @Inject
+    public AutobindRules(JsRunner jsRules, ProductCurator productCurator,
+        ConsumerTypeCurator consumerTypeCurator, OwnerCurator ownerCurator, RulesObjectMapper mapper,
+        ModelTranslator translator, Configuration config) {
+
+        this(createEngine(config, jsRules, mapper), productCurator, consumerTypeCurator, ownerCurator,
+            translator);
+    }
+
     public AutobindRules(JsRunner jsRules, ProductCurator productCurator,
         ConsumerTypeCurator consumerTypeCurator, OwnerCurator ownerCurator, RulesObjectMapper mapper,
         ModelTranslator translator) {
 
-        this.jsRules = jsRules;
+        this(new JsAutobindEngine(jsRules, mapper), productCurator, consumerTypeCurator, ownerCurator,
+            translator);
+    }
+
+    public AutobindRules(AutobindEngine engine, ProductCurator productCurator,
+        ConsumerTypeCurator consumerTypeCurator, OwnerCurator ownerCurator, ModelTranslator translator) {
+
+        this.engine = engine;
         this.productCurator = productCurator;
         this.ownerCurator = ownerCurator;
         this.consumerTypeCurator = consumerTypeCurator;
-        this.mapper = mapper;
         this.translator = translator;
+    }
+
+    private static AutobindEngine createEngine(Configuration config, JsRunner jsRules,
+        RulesObjectMapper mapper) {
 
-        jsRules.init("autobind_name_space");
+        RulesEngine type = RulesEngine.fromLabel(config.getString(ConfigProperties.AUTOBIND_ENGINE));
+        log.debug("Using {} autobind engine", type.getLabel());
+
+        return type == RulesEngine.NATIVE ?
+            new NativeAutobindEngine() :
+            new JsAutobindEngine(jsRules, mapper);
     }
 
     public List<PoolQuantity> selectBestPools(Consumer consumer, String[] productIds,
@@ -123,12 +146,10 @@ public class AutobindRules {
             poolDTOs.add(this.translator.translate(pool, PoolDTO.class));
         }
 
-        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
+        List<GuestIdDTO> guestIds = consumer.getGuestIds() == null ? new ArrayList<>() :
             consumer.getGuestIds().stream()
-            .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
-
-        // Provide objects for the script:
-        JsonJsContext args = new JsonJsContext(mapper);
+            .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class))
+            .collect(Collectors.toList());
 
         ConsumerDTO consumerDTO = this.translator.translate(consumer, ConsumerDTO.class);
 
@@ -141,35 +162,28 @@ public class AutobindRules {
             }
         }
 
-        args.put("consumer", consumerDTO);
         Owner owner = ownerCurator.findOwnerById(consumer.getOwnerId());
-        args.put("owner", this.translator.translate(owner, OwnerDTO.class));
-        args.put("serviceLevelOverride", serviceLevelOverride);
-        args.put("pools", poolDTOs.toArray());
-        args.put("products", productIds);
-        args.put("log", log, false);
-        args.put("compliance", this.translator.translate(compliance, ComplianceStatusDTO.class));
-        args.put("exemptList", exemptLevels);
-        args.put("considerDerived", considerDerived);
-        args.put("guestIds", guestIdStream);
-
-        // Convert the JSON returned into a Map object:
+
+        AutobindContext context = new AutobindContext()
+            .setConsumer(consumerDTO)
+            .setOwner(this.translator.translate(owner, OwnerDTO.class))
+            .setServiceLevelOverride(serviceLevelOverride)
+            .setPools(poolDTOs)
+            .setProductIds(productIds)
+            .setCompliance(this.translator.translate(compliance, ComplianceStatusDTO.class))
+            .setExemptLevels(exemptLevels)
+            .setConsiderDerived(considerDerived)
+            .setGuestIds(guestIds);
+
         Map<String, Integer> result = null;
         try {
-            String json = jsRules.invokeMethod(SELECT_POOL_FUNCTION, args);
-            result = mapper.toObject(json, Map.class);
-            if (log.isDebugEnabled()) {
-                log.debug("Executed javascript rule: {}", SELECT_POOL_FUNCTION);
-            }
+            result = this.engine.selectPools(context);
         }
         catch (NoSuchMethodException e) {
             log.warn("No method found: {}", SELECT_POOL_FUNCTION);
             log.warn("Resorting to default pool selection behavior.");
             return selectBestPoolDefault(pools);
         }
-        catch (RhinoException e) {
-            throw new RuleExecutionException(e);
-        }
 
         if (pools.size() > 0 && (result == null || result.isEmpty())) {
             logProducts("Rules did not select a pool for products: {} and consumer installed products: {}",
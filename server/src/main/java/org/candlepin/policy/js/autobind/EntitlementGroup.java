@@ -0,0 +1,645 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import org.candlepin.policy.js.compliance.ComplianceReason;
+import org.candlepin.policy.js.coverage.Coverage;
+import org.candlepin.policy.js.coverage.CoverageCalculator;
+import org.candlepin.policy.js.coverage.JsValues;
+import org.candlepin.policy.js.coverage.RulesAttributes;
+import org.candlepin.policy.js.coverage.RulesConsumer;
+import org.candlepin.policy.js.coverage.RulesEntitlement;
+import org.candlepin.policy.js.coverage.RulesPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+
+
+/**
+ * An entitlement group allows the native autobind engine to check and modify groups of available
+ * pools uniformly, regardless of whether they form a stack or a single entitlement. This is a
+ * port of the entitlement groups created by the rules, and must behave identically to them.
+ */
+class EntitlementGroup {
+    private static Logger log = LoggerFactory.getLogger(EntitlementGroup.class);
+
+    private final boolean stackable;
+    private final String stackId;
+    private final RulesConsumer consumer;
+    private final List<RulesEntitlement> attachedEnts;
+    private final boolean considerDerived;
+    private final ToDoubleFunction<RulesPool> priorities;
+
+    private List<RulesPool> pools;
+    private List<String> installed;
+
+    // The pool quantities and average priority should only be used after pruning the pools
+    private Map<String, Double> poolQuantity;
+    private Double averagePriority;
+
+    /**
+     * Creates a new entitlement group.
+     *
+     * @param stackable
+     *  whether or not the group represents a stack
+     *
+     * @param stackId
+     *  the stack ID of the group, if stackable
+     *
+     * @param installed
+     *  the list of products which still need to be covered. This list is shared between groups, and
+     *  is modified as groups are selected
+     *
+     * @param consumer
+     *  the consumer for which pools are being selected
+     *
+     * @param attachedEnts
+     *  the consumer's existing entitlements
+     *
+     * @param considerDerived
+     *  whether or not to consider the derived products of pools
+     *
+     * @param priorities
+     *  a function which calculates the priority of a pool
+     */
+    EntitlementGroup(boolean stackable, String stackId, List<String> installed, RulesConsumer consumer,
+        List<RulesEntitlement> attachedEnts, boolean considerDerived,
+        ToDoubleFunction<RulesPool> priorities) {
+
+        this.stackable = stackable;
+        this.stackId = stackId;
+        this.installed = installed;
+        this.consumer = consumer;
+        this.attachedEnts = attachedEnts;
+        this.considerDerived = considerDerived;
+        this.priorities = priorities;
+
+        this.pools = new ArrayList<>();
+    }
+
+    public boolean isStackable() {
+        return this.stackable;
+    }
+
+    public String getStackId() {
+        return this.stackId;
+    }
+
+    public List<RulesPool> getPools() {
+        return this.pools;
+    }
+
+    public void addPool(RulesPool pool) {
+        this.pools.add(pool);
+    }
+
+    public void setInstalled(List<String> installed) {
+        this.installed = installed;
+    }
+
+    public List<RulesEntitlement> getAttachedEnts() {
+        return this.attachedEnts;
+    }
+
+    /**
+     * Determines whether or not it is possible for this group to fully cover the consumer. If the
+     * group is stackable, pools which break compliance are removed.
+     *
+     * @return
+     *  true if the group can cover the consumer; false otherwise
+     */
+    public boolean validate() {
+        List<RulesEntitlement> allEnts = this.getAllEnts(this.pools, true);
+
+        if (allEnts.isEmpty()) {
+            log.debug("No entitlements");
+            return false;
+        }
+
+        if (!this.stackable) {
+            return CoverageCalculator.getEntitlementCoverage(this.consumer, allEnts.get(0), allEnts)
+                .isCovered();
+        }
+
+        // At this point, we must be stackable
+        Coverage coverage = CoverageCalculator.getStackCoverage(this.consumer, this.stackId, allEnts);
+        if (!coverage.isCovered()) {
+            log.debug("validate - stack '{}' is partial with all entitlements stacked.", this.stackId);
+
+            List<String> attrsToRemove = new ArrayList<>();
+            for (ComplianceReason reason : coverage.getReasons()) {
+                // Note: the reason keys are upper case, so this check never matches. It is retained
+                // to mirror the rules exactly.
+                if (RulesAttributes.ARCH.equals(reason.getKey())) {
+                    log.debug("This stack contains an arch mismatch");
+                    return false;
+                }
+
+                attrsToRemove.add(reason.getKey().toLowerCase());
+            }
+
+            // remove all pools with attributes that we cannot support
+            List<RulesPool> poolsWithoutBadAttrs = new ArrayList<>();
+            for (int i = this.pools.size() - 1; i >= 0; --i) {
+                RulesPool pool = this.pools.get(i);
+                boolean valid = true;
+
+                for (String attribute : attrsToRemove) {
+                    if (JsValues.isTruthy(pool.getProductAttribute(attribute))) {
+                        valid = false;
+                        break;
+                    }
+                }
+
+                if (valid) {
+                    poolsWithoutBadAttrs.add(pool);
+                }
+            }
+
+            log.debug("validate - Removed {} of {} pools from stack '{}'",
+                this.pools.size() - poolsWithoutBadAttrs.size(), this.pools.size(), this.stackId);
+
+            this.pools = poolsWithoutBadAttrs;
+            allEnts = this.getAllEnts(this.pools, true);
+
+            return CoverageCalculator.getStackCoverage(this.consumer, this.stackId, allEnts).isCovered();
+        }
+
+        return true;
+    }
+
+    static boolean isHostSpecific(RulesPool pool) {
+        return pool.getAttribute(RulesAttributes.REQUIRES_HOST) != null;
+    }
+
+    static boolean isVirtOnly(RulesPool pool) {
+        Object virtOnly = pool.getProductAttribute(RulesAttributes.VIRT_ONLY);
+        return JsValues.equalsIgnoreCase("true", toStringValue(virtOnly));
+    }
+
+    private int countMatchingPools(Predicate<RulesPool> predicate) {
+        int count = 0;
+
+        for (RulesPool pool : this.pools) {
+            if (predicate.test(pool)) {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
+    public int getNumHostSpecific() {
+        return this.countMatchingPools(EntitlementGroup::isHostSpecific);
+    }
+
+    public int getNumVirtOnly() {
+        return this.countMatchingPools(EntitlementGroup::isVirtOnly);
+    }
+
+    /**
+     * Generates the combinations of the given attributes, up to the given length.
+     */
+    private static List<List<String>> getSets(List<String> list, int maxLength) {
+        List<List<String>> results = new ArrayList<>();
+
+        if (list.isEmpty()) {
+            results.add(new ArrayList<>());
+            return results;
+        }
+
+        for (List<String> set : getSets(list.subList(1, list.size()), maxLength)) {
+            if (set.size() < maxLength) {
+                List<String> extended = new ArrayList<>();
+                extended.add(list.get(0));
+                extended.addAll(set);
+
+                results.add(extended);
+            }
+
+            results.add(set);
+        }
+
+        return results;
+    }
+
+    /**
+     * Generates the sets of stacked attributes to attempt to remove from the group
+     */
+    private List<List<String>> getAttributeSets(List<RulesPool> pools) {
+        List<String> stackAttributes = new ArrayList<>();
+
+        // get unique list of additive stack attributes
+        for (String attribute : this.consumer.getComplianceAttributes()) {
+            if (!RulesAttributes.ARCH.equals(attribute)) {
+                // Only check attributes that the pools actually use
+                for (RulesPool pool : pools) {
+                    if (pool.hasProductAttribute(attribute)) {
+                        stackAttributes.add(attribute);
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<List<String>> sets = getSets(stackAttributes, stackAttributes.size() - 1);
+        sets.removeIf(List::isEmpty);
+
+        return sets;
+    }
+
+    /**
+     * Removes parallel stacks, so we aren't essentially binding two stacks that would be fully
+     * compliant on their own.
+     */
+    public void removeExtraAttrs() {
+        List<List<RulesPool>> possiblePoolSets = new ArrayList<>();
+        possiblePoolSets.add(this.pools);
+
+        int satisfiableProdSize = this.getProvidedProducts().size();
+        String satisfiableRole = this.getCommonRole(this.consumer.getRole());
+        int satisfiableAddonSize = this.getCommonAddons(this.consumer.getAddOns()).size();
+
+        for (List<String> attrsToRemove : this.getAttributeSets(this.pools)) {
+            for (String attribute : attrsToRemove) {
+                List<RulesPool> poolsWithout = new ArrayList<>();
+
+                for (RulesPool pool : this.pools) {
+                    if (!JsValues.isTruthy(pool.getProductAttribute(attribute))) {
+                        poolsWithout.add(pool);
+                    }
+                }
+
+                List<RulesEntitlement> allEnts = this.getAllEnts(poolsWithout, true);
+                if (CoverageCalculator.getStackCoverage(this.consumer, this.stackId, allEnts).isCovered() &&
+                    this.getProvidedProducts(poolsWithout).size() == satisfiableProdSize &&
+                    Objects.equals(this.getCommonRole(this.consumer.getRole()), satisfiableRole) &&
+                    this.getCommonAddons(this.consumer.getAddOns()).size() == satisfiableAddonSize) {
+
+                    possiblePoolSets.add(poolsWithout);
+                }
+            }
+        }
+
+        int best = 0;
+        double bestPriority = 0.0;
+        int numPools = this.pools.size();
+
+        for (int i = 0; i < possiblePoolSets.size(); ++i) {
+            List<RulesPool> pools = possiblePoolSets.get(i);
+            double priority = 0;
+
+            for (RulesPool pool : pools) {
+                // use virt only if possible
+                if (isVirtOnly(pool)) {
+                    priority += 100;
+                }
+
+                // better still if host_specific
+                if (isHostSpecific(pool)) {
+                    priority += 150;
+                }
+            }
+
+            // Priority per pool, that way we don't tend towards stacks with more pools.
+            priority /= pools.size();
+
+            if (priority > bestPriority) {
+                bestPriority = priority;
+                best = i;
+                numPools = pools.size();
+            }
+            else if (priority == bestPriority && numPools > pools.size()) {
+                best = i;
+                numPools = pools.size();
+            }
+        }
+
+        this.pools = possiblePoolSets.get(best);
+    }
+
+    /**
+     * Removes all pools from a stackable group which aren't necessary for compliance
+     */
+    public void prunePools() {
+        // We know this group is required at this point, so we cannot remove the one pool if it's
+        // non-stackable
+        if (!this.stackable) {
+            return;
+        }
+
+        // Sort pools such that we preserve virt_only and host_requires if possible. As with the
+        // rules, the sort must be stable.
+        this.pools.sort(this::comparePools);
+
+        int priorPoolSize = this.pools.size();
+        int satisfiableProdSize = this.getProvidedProducts().size();
+        String satisfiableRole = this.getCommonRole(this.consumer.getRole());
+        int satisfiableAddonSize = this.getCommonAddons(this.consumer.getAddOns()).size();
+
+        for (int i = this.pools.size() - 1; i >= 0; --i) {
+            RulesPool temp = this.pools.remove(i);
+
+            List<RulesEntitlement> ents = this.getAllEnts(this.pools, false);
+            if (ents.isEmpty() ||
+                !CoverageCalculator.getStackCoverage(this.consumer, this.stackId, this.withAttached(ents))
+                    .isCovered() ||
+                this.getProvidedProducts().size() != satisfiableProdSize ||
+                !Objects.equals(this.getCommonRole(this.consumer.getRole()), satisfiableRole) ||
+                this.getCommonAddons(this.consumer.getAddOns()).size() != satisfiableAddonSize) {
+
+                // if something has broken, we add the pool back
+                this.pools.add(temp);
+            }
+            else {
+                log.debug("prune_pools - permanently removing pool: {} because it is redundant",
+                    temp.getId());
+            }
+        }
+
+        log.debug("removed {} of {} pools", priorPoolSize - this.pools.size(), priorPoolSize);
+    }
+
+    /**
+     * Sorts pools in descending order of priority, preferring pools which expire first
+     */
+    private int comparePools(RulesPool pool0, RulesPool pool1) {
+        double priority0 = this.priorities.applyAsDouble(pool0);
+        double priority1 = this.priorities.applyAsDouble(pool1);
+
+        long end0 = getTime(pool0.getEndDate());
+        long end1 = getTime(pool1.getEndDate());
+
+        if (end0 > end1) {
+            priority1 += 1;
+        }
+        else if (end0 < end1) {
+            priority0 += 1;
+        }
+
+        double diff = priority1 - priority0;
+        return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+    }
+
+    private static long getTime(Date date) {
+        return date != null ? date.getTime() : 0;
+    }
+
+    public double getTotalQuantity() {
+        double total = 0;
+
+        for (double quantity : this.getPoolQuantity().values()) {
+            total += quantity;
+        }
+
+        return total;
+    }
+
+    /**
+     * Calculates the average priority of the pools in this group. This should not be used before
+     * pruning the pools.
+     *
+     * @return
+     *  the average priority of the pools in this group
+     */
+    public double getAveragePriority() {
+        if (this.averagePriority == null) {
+            double total = 0;
+
+            for (RulesPool pool : this.pools) {
+                total += this.priorities.applyAsDouble(pool);
+            }
+
+            this.averagePriority = total / this.pools.size();
+        }
+
+        return this.averagePriority;
+    }
+
+    /**
+     * Determines the quantity required from each pool in this group to cover the consumer. This
+     * should not be used before pruning the pools.
+     *
+     * @return
+     *  a mapping of pool IDs to the quantity required from each pool
+     */
+    public Map<String, Double> getPoolQuantity() {
+        if (this.poolQuantity != null) {
+            return this.poolQuantity;
+        }
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        List<RulesEntitlement> ents = this.getAllEnts(this.pools, false);
+        List<RulesEntitlement> allEnts = this.withAttached(ents);
+
+        for (int i = 0; i < this.pools.size(); ++i) {
+            RulesPool pool = this.pools.get(i);
+
+            double increment = 1;
+            if (pool.hasProductAttribute(RulesAttributes.INSTANCE_MULTIPLIER) && !this.consumer.isGuest()) {
+                increment = JsValues.parseInt(pool.getProductAttribute(RulesAttributes.INSTANCE_MULTIPLIER));
+            }
+
+            // entitlement index matches pool index
+            RulesEntitlement current = ents.get(i);
+
+            for (double q = increment; q <= pool.getCurrentlyAvailable(); q += increment) {
+                current.setQuantity(q);
+
+                Coverage coverage = this.stackable ?
+                    CoverageCalculator.getStackCoverage(this.consumer, this.stackId, allEnts) :
+                    CoverageCalculator.getEntitlementCoverage(this.consumer, current, allEnts);
+
+                if (coverage.isCovered()) {
+                    result.put(pool.getId(), q);
+                    break;
+                }
+            }
+        }
+
+        this.poolQuantity = result;
+        return result;
+    }
+
+    private List<RulesEntitlement> getAllEnts(List<RulesPool> pools, boolean withAttached) {
+        List<RulesEntitlement> ents = new ArrayList<>();
+
+        for (RulesPool pool : pools) {
+            ents.add(RulesEntitlement.forPool(pool));
+        }
+
+        return withAttached ? this.withAttached(ents) : ents;
+    }
+
+    private List<RulesEntitlement> withAttached(List<RulesEntitlement> ents) {
+        List<RulesEntitlement> all = new ArrayList<>(ents);
+        all.addAll(this.attachedEnts);
+
+        return all;
+    }
+
+    public List<String> getProvidedProducts() {
+        return this.getProvidedProducts(this.pools);
+    }
+
+    /**
+     * Returns the list of all provided product IDs from the given pools which still need to be
+     * covered.
+     */
+    private List<String> getProvidedProducts(List<RulesPool> pools) {
+        List<String> provided = new ArrayList<>();
+
+        for (RulesPool pool : pools) {
+            // If we are considering derived provided products, check to see if this pool has any and
+            // use them instead of the regular set if so:
+            List<String> products = this.considerDerived && pool.hasDerived() ?
+                pool.getDerivedProducts() :
+                pool.getProducts();
+
+            for (String productId : products) {
+                if (!provided.contains(productId) && this.installed.contains(productId)) {
+                    provided.add(productId);
+                }
+            }
+        }
+
+        return provided;
+    }
+
+    /**
+     * Returns the list of add-ons the group will cover, which the consumer requires.
+     *
+     * @param addons
+     *  the add-ons required by the consumer
+     *
+     * @return
+     *  the list of add-ons in common
+     */
+    public List<String> getCommonAddons(List<String> addons) {
+        List<String> common = new ArrayList<>();
+
+        for (String groupAddon : getAddonsPools(this.pools)) {
+            boolean isCommon = false;
+
+            for (String addon : addons) {
+                if (!JsValues.isTruthy(addon) || addon.trim().isEmpty()) {
+                    isCommon = false;
+                }
+
+                if (JsValues.equalsIgnoreCase(addon.trim(), groupAddon)) {
+                    isCommon = true;
+                }
+            }
+
+            if (isCommon) {
+                common.add(groupAddon);
+            }
+        }
+
+        return common;
+    }
+
+    /**
+     * Returns the role the group will cover, if the consumer requires it.
+     *
+     * @param role
+     *  the role required by the consumer
+     *
+     * @return
+     *  the trimmed role if covered by this group; null otherwise
+     */
+    public String getCommonRole(String role) {
+        if (!JsValues.isTruthy(role) || role.trim().isEmpty()) {
+            return null;
+        }
+
+        role = role.trim();
+
+        for (String groupRole : getRolePools(this.pools)) {
+            if (JsValues.equalsIgnoreCase(groupRole, role)) {
+                return role;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the list of unique add-ons provided by the given pools.
+     *
+     * @param pools
+     *  the pools from which to collect add-ons
+     *
+     * @return
+     *  the list of add-ons provided by the pools
+     */
+    public static List<String> getAddonsPools(List<RulesPool> pools) {
+        return collectAttributeValues(pools, "addons");
+    }
+
+    /**
+     * Returns the list of unique roles provided by the given pools.
+     *
+     * @param pools
+     *  the pools from which to collect roles
+     *
+     * @return
+     *  the list of roles provided by the pools
+     */
+    public static List<String> getRolePools(List<RulesPool> pools) {
+        return collectAttributeValues(pools, "roles");
+    }
+
+    private static List<String> collectAttributeValues(List<RulesPool> pools, String attribute) {
+        List<String> values = new ArrayList<>();
+
+        for (RulesPool pool : pools) {
+            for (String value : pool.retrievePoolAttributeValues(attribute)) {
+                if (!values.contains(value)) {
+                    values.add(value);
+                }
+            }
+        }
+
+        return values;
+    }
+
+    private static String toStringValue(Object value) {
+        return value != null ? JsValues.toString(value) : null;
+    }
+
+    /**
+     * Returns the identifier of the group, for logging.
+     */
+    @Override
+    public String toString() {
+        if (this.stackable) {
+            return String.format("stack_id: '%s'", this.stackId);
+        }
+
+        return this.pools.isEmpty() ? "unknown: 'unknown'" :
+            String.format("pool: '%s'", this.pools.get(0).getId());
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.JsonJsContext;
+import org.candlepin.policy.js.RuleExecutionException;
+import org.candlepin.policy.js.RulesObjectMapper;
+
+import org.mozilla.javascript.RhinoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+
+
+/**
+ * The JsAutobindEngine selects pools by invoking the select_pools function of the javascript
+ * rules.
+ */
+public class JsAutobindEngine implements AutobindEngine {
+
+    protected static final String SELECT_POOL_FUNCTION = "select_pools";
+
+    // The rules log through the AutobindRules category, as they did before the engines were split out
+    private static Logger log = LoggerFactory.getLogger(AutobindRules.class);
+
+    private final JsRunner jsRules;
+    private final RulesObjectMapper mapper;
+
+    public JsAutobindEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        this.jsRules = jsRules;
+        this.mapper = mapper;
+
+        jsRules.init("autobind_name_space");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> selectPools(AutobindContext context) throws NoSuchMethodException {
+        // Provide objects for the script:
+        JsonJsContext args = new JsonJsContext(mapper);
+
+        args.put("consumer", context.getConsumer());
+        args.put("owner", context.getOwner());
+        args.put("serviceLevelOverride", context.getServiceLevelOverride());
+        args.put("pools", context.getPools().toArray());
+        args.put("products", context.getProductIds());
+        args.put("log", log, false);
+        args.put("compliance", context.getCompliance());
+        args.put("exemptList", context.getExemptLevels());
+        args.put("considerDerived", context.isConsiderDerived());
+        args.put("guestIds", context.getGuestIds());
+
+        // Convert the JSON returned into a Map object:
+        try {
+            String json = jsRules.invokeMethod(SELECT_POOL_FUNCTION, args);
+            Map<String, Integer> result = mapper.toObject(json, Map.class);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Executed javascript rule: {}", SELECT_POOL_FUNCTION);
+            }
+
+            return result;
+        }
+        catch (RhinoException e) {
+            throw new RuleExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,572 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.autobind;
+
+import org.candlepin.dto.rules.v1.PoolDTO;
+import org.candlepin.policy.js.coverage.ComplianceTracker;
+import org.candlepin.policy.js.coverage.CoverageCalculator;
+import org.candlepin.policy.js.coverage.FactValueCalculator;
+import org.candlepin.policy.js.coverage.JsValues;
+import org.candlepin.policy.js.coverage.RulesAttributes;
+import org.candlepin.policy.js.coverage.RulesCompliance;
+import org.candlepin.policy.js.coverage.RulesConsumer;
+import org.candlepin.policy.js.coverage.RulesEntitlement;
+import org.candlepin.policy.js.coverage.RulesPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+
+
+/**
+ * The NativeAutobindEngine is a Java implementation of the select_pools function of the rules. It
+ * operates directly on the translated rules DTOs, avoiding the JSON serialization and script
+ * execution performed by the JsAutobindEngine, and must select the same pools and quantities.
+ */
+public class NativeAutobindEngine implements AutobindEngine {
+    private static Logger log = LoggerFactory.getLogger(NativeAutobindEngine.class);
+
+    /** Pool priority weights for each system purpose attribute, in the order they are applied */
+    private static final String[] PRIORITY_ATTRIBUTES = { "products", "roles", "addons", "support_level",
+        "usage" };
+    private static final double[] PRIORITY_WEIGHTS = { 5600, 2800, 1400, 700, 350 };
+
+    /** Attributes for which the pool value is matched as closely as possible to the consumer */
+    private static final List<String> PRIORITY_QUANTITY_ATTRIBUTES = Arrays.asList(
+        RulesAttributes.SOCKETS, RulesAttributes.CORES, RulesAttributes.RAM, RulesAttributes.VCPU);
+
+    @Override
+    public Map<String, Integer> selectPools(AutobindContext context) {
+        RulesConsumer consumer = new RulesConsumer(context.getConsumer(), context.getGuestIds());
+        RulesCompliance compliance = new RulesCompliance(context.getCompliance(), consumer);
+        consumer.setCompliance(compliance);
+
+        List<RulesPool> pools = this.createPools(context.getPools(), consumer);
+        boolean considerDerived = context.isConsiderDerived();
+        log.debug("considerDerived = {}", considerDerived);
+
+        List<RulesEntitlement> attachedEnts = this.getAttachedEnts(compliance);
+        List<RulesPool> validPools = this.getValidPools(pools, consumer);
+
+        List<String> installed = context.getProductIds() != null ?
+            new ArrayList<>(Arrays.asList(context.getProductIds())) :
+            new ArrayList<>();
+
+        // filter compliant products from this list
+        for (String productId : compliance.getCompliantProducts().keySet()) {
+            installed.remove(productId);
+        }
+
+        // filter role and addons if they have been fulfilled
+        String role = this.getRemainingRole(consumer.getRole(), attachedEnts);
+        List<String> addons = this.getRemainingAddons(consumer.getAddOns(), attachedEnts);
+
+        // Pool priorities do not change during a selection, so we only calculate them once per pool
+        Map<RulesPool, Double> priorities = new IdentityHashMap<>();
+        ToDoubleFunction<RulesPool> priorityFunction = pool ->
+            priorities.computeIfAbsent(pool, key -> getPoolPriority(key, consumer));
+
+        List<EntitlementGroup> entGroups = this.buildEntitlementGroups(validPools, installed, consumer,
+            attachedEnts, considerDerived, priorityFunction);
+        log.debug("Total ent groups: {}", entGroups.size());
+
+        List<EntitlementGroup> validGroups = new ArrayList<>();
+        for (int i = entGroups.size() - 1; i >= 0; --i) {
+            EntitlementGroup group = entGroups.get(i);
+
+            if (group.validate()) {
+                // Only really consider the group if it provides a necessary product, role, addon,
+                // or stacks with an existing partial stack
+                if (!getCommonProducts(installed, group).isEmpty() ||
+                    group.getCommonRole(role) != null ||
+                    !group.getCommonAddons(addons).isEmpty() ||
+                    !group.getAttachedEnts().isEmpty()) {
+
+                    validGroups.add(group);
+                    group.removeExtraAttrs();
+                    group.prunePools();
+                }
+                else {
+                    log.debug("Group with {} provides no needed products, roles or addons", group);
+                }
+            }
+            else {
+                log.debug("Group with {} failed validation.", group);
+            }
+        }
+
+        log.debug("valid ent groups size: {}", validGroups.size());
+        List<EntitlementGroup> bestGroups = this.getBestEntitlementGroups(validGroups, installed, compliance,
+            role, addons);
+        log.debug("best_groups size: {}", bestGroups.size());
+
+        Map<String, Integer> selected = new LinkedHashMap<>();
+        for (EntitlementGroup group : bestGroups) {
+            for (Map.Entry<String, Double> entry : group.getPoolQuantity().entrySet()) {
+                selected.put(entry.getKey(), entry.getValue().intValue());
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Converts the candidate pools and determines the quantity currently available from each.
+     */
+    private List<RulesPool> createPools(List<PoolDTO> source, RulesConsumer consumer) {
+        List<RulesPool> pools = new ArrayList<>();
+
+        if (source == null) {
+            return pools;
+        }
+
+        for (PoolDTO dto : source) {
+            RulesPool pool = new RulesPool(dto, consumer);
+
+            if (pool.getQuantity() == -1) {
+                // In the unlimited case, we need at most the number required to cover the system
+                pool.setCurrentlyAvailable(getSuggestedPoolQuantity(pool, consumer));
+            }
+            else {
+                pool.setCurrentlyAvailable(pool.getAvailable());
+            }
+
+            // If the pool is not multi-entitlable, only one may be used
+            if (pool.getCurrentlyAvailable() > 0 && !pool.isMultiEnt()) {
+                pool.setCurrentlyAvailable(1);
+            }
+
+            pools.add(pool);
+        }
+
+        return pools;
+    }
+
+    private static double getSuggestedPoolQuantity(RulesPool pool, RulesConsumer consumer) {
+        if (pool.isMultiEnt() && pool.hasProductAttribute(RulesAttributes.STACKING_ID)) {
+            ComplianceTracker tracker = ComplianceTracker.fromPool(pool, consumer);
+            return CoverageCalculator.getQuantityToCoverStack(tracker, pool, consumer,
+                Collections.emptyList());
+        }
+
+        return 1;
+    }
+
+    /**
+     * Collects the distinct entitlements from the consumer's current compliance status.
+     */
+    private List<RulesEntitlement> getAttachedEnts(RulesCompliance compliance) {
+        List<RulesEntitlement> attached = new ArrayList<>();
+
+        List<Map<String, List<RulesEntitlement>>> sources = Arrays.asList(compliance.getPartialStacks(),
+            compliance.getPartiallyCompliantProducts(), compliance.getCompliantProducts());
+
+        for (Map<String, List<RulesEntitlement>> source : sources) {
+            for (List<RulesEntitlement> entitlements : source.values()) {
+                for (RulesEntitlement entitlement : entitlements) {
+                    boolean contains = false;
+
+                    for (RulesEntitlement existing : attached) {
+                        if (Objects.equals(existing.getId(), entitlement.getId())) {
+                            contains = true;
+                            break;
+                        }
+                    }
+
+                    if (!contains) {
+                        attached.add(entitlement);
+                    }
+                }
+            }
+        }
+
+        return attached;
+    }
+
+    /**
+     * Returns all pools that can be attached to the consumer.
+     */
+    private List<RulesPool> getValidPools(List<RulesPool> pools, RulesConsumer consumer) {
+        boolean isGuest = consumer.isGuest();
+        String consumerArch = consumer.getFact(RulesAttributes.ARCH_FACT);
+        List<RulesPool> valid = new ArrayList<>();
+
+        for (RulesPool pool : pools) {
+            Object productArch = pool.getProductAttribute(RulesAttributes.ARCH);
+
+            // The rules check the arch against the consumer's type object rather than its label, so
+            // the consumer is never treated as a system here.
+            if (!CoverageCalculator.architectureMatches(
+                productArch != null ? JsValues.toString(productArch) : null, consumerArch, null)) {
+
+                log.debug("Skipping pool {} since the ARCH doesn't match that of the consumer", pool.getId());
+                continue;
+            }
+
+            // if physical, and pool is virt_only, invalid.
+            if (!isGuest && EntitlementGroup.isVirtOnly(pool)) {
+                log.debug("Skipping pool {} since a physical system can not consume from a virt-only pool.",
+                    pool.getId());
+                continue;
+            }
+
+            if (!(pool.getCurrentlyAvailable() > 0)) {
+                log.debug("Skipping pool {} since all entitlements have been consumed.", pool.getId());
+                continue;
+            }
+
+            valid.add(pool);
+        }
+
+        return valid;
+    }
+
+    private String getRemainingRole(String role, List<RulesEntitlement> attachedEnts) {
+        if (role == null) {
+            return "";
+        }
+
+        if (attachedEnts.isEmpty() || role.isEmpty()) {
+            return role;
+        }
+
+        for (String attachedRole : EntitlementGroup.getRolePools(getPools(attachedEnts))) {
+            if (JsValues.equalsIgnoreCase(attachedRole, role.trim())) {
+                return "";
+            }
+        }
+
+        return role;
+    }
+
+    private List<String> getRemainingAddons(List<String> addons, List<RulesEntitlement> attachedEnts) {
+        if (addons == null) {
+            return new ArrayList<>();
+        }
+
+        // As with the rules, the consumer's own list is used when there is nothing attached
+        if (attachedEnts.isEmpty()) {
+            return addons;
+        }
+
+        List<String> attachedAddons = EntitlementGroup.getAddonsPools(getPools(attachedEnts));
+        List<String> remaining = new ArrayList<>();
+
+        for (String addon : addons) {
+            boolean contains = false;
+
+            for (String attachedAddon : attachedAddons) {
+                if (JsValues.equalsIgnoreCase(attachedAddon, addon.trim())) {
+                    contains = true;
+                }
+            }
+
+            if (!contains) {
+                remaining.add(addon);
+            }
+        }
+
+        return remaining;
+    }
+
+    private static List<RulesPool> getPools(List<RulesEntitlement> entitlements) {
+        List<RulesPool> pools = new ArrayList<>();
+
+        for (RulesEntitlement entitlement : entitlements) {
+            pools.add(entitlement.getPool());
+        }
+
+        return pools;
+    }
+
+    /**
+     * Builds entitlement groups that allow us to treat stacks and individual entitlements the same
+     */
+    private List<EntitlementGroup> buildEntitlementGroups(List<RulesPool> validPools, List<String> installed,
+        RulesConsumer consumer, List<RulesEntitlement> attachedEnts, boolean considerDerived,
+        ToDoubleFunction<RulesPool> priorities) {
+
+        List<EntitlementGroup> groups = new ArrayList<>();
+
+        for (RulesPool pool : validPools) {
+            if (pool.isStacked()) {
+                Object stackAttribute = pool.getProductAttribute(RulesAttributes.STACKING_ID);
+                String stackId = stackAttribute != null ? JsValues.toString(stackAttribute) : null;
+                boolean found = false;
+
+                for (EntitlementGroup group : groups) {
+                    if (Objects.equals(group.getStackId(), stackId)) {
+                        group.addPool(pool);
+                        found = true;
+                        break;
+                    }
+                }
+
+                // If the pool is stackable, and not part of an existing group, create a new group
+                if (!found) {
+                    EntitlementGroup group = new EntitlementGroup(true, stackId, installed, consumer,
+                        attachedEnts, considerDerived, priorities);
+
+                    group.addPool(pool);
+                    groups.add(group);
+                }
+            }
+            else {
+                // if the entitlement is not stackable, create a new group for it
+                EntitlementGroup group = new EntitlementGroup(false, "", installed, consumer, attachedEnts,
+                    considerDerived, priorities);
+
+                group.addPool(pool);
+                groups.add(group);
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * Returns the list of product IDs the group will cover, which the consumer requires.
+     */
+    private static List<String> getCommonProducts(List<String> installed, EntitlementGroup group) {
+        List<String> common = new ArrayList<>();
+
+        for (String productId : group.getProvidedProducts()) {
+            if (installed.contains(productId)) {
+                common.add(productId);
+            }
+        }
+
+        return common;
+    }
+
+    private EntitlementGroup findBestEntGroup(List<EntitlementGroup> groups, List<String> installed,
+        String role, List<String> addons) {
+
+        boolean stacked = false;
+        EntitlementGroup best = null;
+        double totalPoolQuantity = Double.MAX_VALUE;
+        double bestAvgPriority = 0;
+        int bestNumHostSpecific = 0;
+        int bestNumVirtOnly = 0;
+        boolean virtOnlyFound = false;
+        boolean hostSpecificFound = false;
+
+        for (EntitlementGroup group : groups) {
+            double groupAvgPriority = group.getAveragePriority();
+            int intersection = getCommonProducts(installed, group).size();
+            boolean roleNeeded = group.getCommonRole(role) != null;
+            boolean addonsNeeded = !group.getCommonAddons(addons).isEmpty();
+            double groupPoolQuantity = group.getTotalQuantity();
+            int groupNumHostSpecific = group.getNumHostSpecific();
+            int groupNumVirtOnly = group.getNumVirtOnly();
+
+            // Skip this group if we've found virt or host_specific and this group is not, or if it
+            // does not satisfy any products, roles or addons.
+            if ((!roleNeeded && !addonsNeeded && intersection <= 0) ||
+                (hostSpecificFound && groupNumHostSpecific < bestNumHostSpecific) ||
+                (virtOnlyFound && groupNumVirtOnly < bestNumVirtOnly)) {
+
+                continue;
+            }
+
+            boolean newBestFound = false;
+            if (groupNumHostSpecific > bestNumHostSpecific) {
+                hostSpecificFound = true;
+                newBestFound = true;
+            }
+            else if (groupNumHostSpecific < bestNumHostSpecific) {
+                newBestFound = false;
+            }
+            else if (groupAvgPriority > bestAvgPriority) {
+                newBestFound = true;
+            }
+            else if (groupAvgPriority < bestAvgPriority) {
+                newBestFound = false;
+            }
+            else if (groupNumVirtOnly > bestNumVirtOnly) {
+                virtOnlyFound = true;
+                newBestFound = true;
+            }
+            else if (groupNumVirtOnly < bestNumVirtOnly) {
+                newBestFound = false;
+            }
+            else if (groupPoolQuantity < totalPoolQuantity) {
+                newBestFound = true;
+            }
+            else if (groupPoolQuantity > totalPoolQuantity) {
+                newBestFound = false;
+            }
+            else if (stacked && !group.isStackable()) {
+                newBestFound = true;
+            }
+            else if (roleNeeded || addonsNeeded) {
+                newBestFound = true;
+            }
+
+            if (newBestFound) {
+                stacked = group.isStackable();
+                totalPoolQuantity = groupPoolQuantity;
+                bestAvgPriority = groupAvgPriority;
+                best = group;
+                bestNumHostSpecific = groupNumHostSpecific;
+                bestNumVirtOnly = groupNumVirtOnly;
+            }
+        }
+
+        return best;
+    }
+
+    private List<EntitlementGroup> getBestEntitlementGroups(List<EntitlementGroup> groups,
+        List<String> installed, RulesCompliance compliance, String role, List<String> addons) {
+
+        List<EntitlementGroup> best = new ArrayList<>();
+
+        for (String stackId : compliance.getPartialStacks().keySet()) {
+            for (EntitlementGroup group : groups) {
+                if (Objects.equals(group.getStackId(), stackId)) {
+                    // don't have to worry about products that other stacks are handling
+                    List<String> inCommon = getCommonProducts(installed, group);
+                    group.setInstalled(inCommon);
+                    best.add(group);
+
+                    installed.removeAll(inCommon);
+                }
+            }
+        }
+
+        EntitlementGroup group = this.findBestEntGroup(groups, installed, role, addons);
+        while (group != null) {
+            log.debug("get_best_entitlement_groups: New Best is group with {}", group);
+            best.add(group);
+
+            List<String> productsInCommon = getCommonProducts(installed, group);
+            installed.removeAll(productsInCommon);
+            group.setInstalled(productsInCommon);
+
+            List<String> addonsInCommon = group.getCommonAddons(addons);
+            addons.removeAll(addonsInCommon);
+
+            if (group.getCommonRole(role) != null) {
+                role = null;
+            }
+
+            group = this.findBestEntGroup(groups, installed, role, addons);
+        }
+
+        return best;
+    }
+
+    /**
+     * Calculates the priority of a pool for the given consumer. Higher priority pools are
+     * preferred when selecting pools.
+     *
+     * @param pool
+     *  the pool for which to calculate the priority
+     *
+     * @param consumer
+     *  the consumer for which pools are being selected
+     *
+     * @return
+     *  the priority of the pool
+     */
+    static double getPoolPriority(RulesPool pool, RulesConsumer consumer) {
+        // start with a default large enough to make sure that if all the highest syspurpose mismatch
+        // rules get applied, the total score will not go below zero.
+        double priority = 545;
+
+        for (int i = 0; i < PRIORITY_ATTRIBUTES.length; ++i) {
+            String attribute = PRIORITY_ATTRIBUTES[i];
+
+            List<String> specifiedSet = consumer.retrieveSpecifiedAttributeValues(attribute);
+            List<String> unsatisfiedSet = consumer.retrieveUnsatisfiedAttributeValues(attribute);
+            List<String> poolSet = pool.retrievePoolAttributeValues(attribute);
+
+            double matchRuleScore = 0;
+            double nullRuleScore = 0;
+            double mismatchRuleScore = 0;
+
+            if (unsatisfiedSet.isEmpty() && poolSet.isEmpty()) {
+                nullRuleScore = 0.01;
+            }
+
+            if (!unsatisfiedSet.isEmpty()) {
+                matchRuleScore = (double) JsValues.intersection(unsatisfiedSet, poolSet).size() /
+                    unsatisfiedSet.size();
+            }
+
+            if (!specifiedSet.isEmpty() && !poolSet.isEmpty()) {
+                mismatchRuleScore = ((double) JsValues.difference(specifiedSet, poolSet).size() /
+                    specifiedSet.size()) * -0.05;
+            }
+
+            priority += (nullRuleScore + matchRuleScore + mismatchRuleScore) * PRIORITY_WEIGHTS[i];
+        }
+
+        // use virt only if possible
+        if (EntitlementGroup.isVirtOnly(pool)) {
+            priority += 100;
+        }
+
+        // better still if host_specific
+        if (EntitlementGroup.isHostSpecific(pool)) {
+            priority += 150;
+        }
+
+        // Special case to match socket counts exactly if possible. We don't want to waste a pair
+        // of two socket subscriptions when we have a 4 socket sub.
+        List<String> complianceAttributes = consumer.getComplianceAttributes();
+        for (String attribute : PRIORITY_QUANTITY_ATTRIBUTES) {
+            if (!complianceAttributes.contains(attribute)) {
+                continue;
+            }
+
+            Object fact = FactValueCalculator.getFact(attribute, consumer);
+            double consumerVal = fact != null ? JsValues.toNumber(fact) : Double.NaN;
+            double poolVal = JsValues.parseInt(pool.getProductAttribute(attribute));
+
+            if (consumerVal > 0 && poolVal > 0) {
+                double required = Math.ceil(consumerVal / poolVal);
+
+                // Don't count pools instance_multiplier times for "required", however let's be sure
+                // there are enough available if we give it preference.
+                double multi = RulesAttributes.SOCKETS.equals(attribute) ? pool.getInstanceMulti() : 1;
+
+                if (pool.getAvailable() / multi >= required) {
+                    // Maximum of 10 with an exact match. We prefer the closest match possible. A
+                    // half point is lost for every additional quantity. We double this value so that
+                    // it trumps the date comparator.
+                    priority += Math.max(0,
+                        10 - (poolVal * required - consumerVal) - ((required - 1) / 2)) * 2;
+                }
+            }
+            else {
+                priority += 20;
+            }
+        }
+
+        log.debug("Final overall score for pool {}: {}", pool.getId(), priority);
+        return priority;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.dto.rules.v1.GuestIdDTO;
+
+import java.util.Date;
+import java.util.List;
+
+
+
+/**
+ * The ComplianceContext holds the translated inputs of a single compliance calculation, as
+ * passed to a ComplianceEngine.
+ */
+public class ComplianceContext {
+
+    private ConsumerDTO consumer;
+    private List<EntitlementDTO> entitlements;
+    private List<GuestIdDTO> guestIds;
+    private Date onDate;
+    private boolean calculateCompliantUntil;
+    private boolean calculateProductComplianceDateRanges;
+
+    public ConsumerDTO getConsumer() {
+        return this.consumer;
+    }
+
+    public ComplianceContext setConsumer(ConsumerDTO consumer) {
+        this.consumer = consumer;
+        return this;
+    }
+
+    public List<EntitlementDTO> getEntitlements() {
+        return this.entitlements;
+    }
+
+    public ComplianceContext setEntitlements(List<EntitlementDTO> entitlements) {
+        this.entitlements = entitlements;
+        return this;
+    }
+
+    public List<GuestIdDTO> getGuestIds() {
+        return this.guestIds;
+    }
+
+    public ComplianceContext setGuestIds(List<GuestIdDTO> guestIds) {
+        this.guestIds = guestIds;
+        return this;
+    }
+
+    public Date getOnDate() {
+        return this.onDate;
+    }
+
+    public ComplianceContext setOnDate(Date onDate) {
+        this.onDate = onDate;
+        return this;
+    }
+
+    public boolean isCalculateCompliantUntil() {
+        return this.calculateCompliantUntil;
+    }
+
+    public ComplianceContext setCalculateCompliantUntil(boolean calculateCompliantUntil) {
+        this.calculateCompliantUntil = calculateCompliantUntil;
+        return this;
+    }
+
+    public boolean isCalculateProductComplianceDateRanges() {
+        return this.calculateProductComplianceDateRanges;
+    }
+
+    public ComplianceContext setCalculateProductComplianceDateRanges(boolean calculate) {
+        this.calculateProductComplianceDateRanges = calculate;
+        return this;
+    }
+}
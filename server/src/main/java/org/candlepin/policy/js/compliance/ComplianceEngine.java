@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+
+
+
+/**
+ * A ComplianceEngine implements the compliance rules, determining the extent to which a
+ * consumer's entitlements cover its installed products.
+ */
+public interface ComplianceEngine {
+
+    /**
+     * Calculates the compliance status of the consumer described by the given context on the
+     * context's date.
+     *
+     * @param context
+     *  the compliance context containing the consumer, its entitlements and the date to check
+     *
+     * @return
+     *  the compliance status of the consumer
+     */
+    ComplianceStatusDTO getStatus(ComplianceContext context);
+
+    /**
+     * Checks if the entitlements in the given context fully cover the consumer for the given
+     * stack.
+     *
+     * @param context
+     *  the compliance context containing the consumer and the entitlements to consider
+     *
+     * @param stackId
+     *  the ID of the stack to check
+     *
+     * @return
+     *  true if the stack is compliant; false otherwise
+     */
+    boolean isStackCompliant(ComplianceContext context, String stackId);
+
+    /**
+     * Checks if the given entitlement fully covers the consumer in the given context.
+     *
+     * @param context
+     *  the compliance context containing the consumer and the entitlements to consider for
+     *  global attributes
+     *
+     * @param entitlement
+     *  the entitlement to check
+     *
+     * @return
+     *  true if the entitlement is compliant; false otherwise
+     */
+    boolean isEntitlementCompliant(ComplianceContext context, EntitlementDTO entitlement);
+}
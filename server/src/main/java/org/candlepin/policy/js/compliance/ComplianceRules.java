@@ -15,6 +15,8 @@
 package org.candlepin.policy.js.compliance;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ComplianceReasonDTO;
 import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
@@ -32,8 +34,8 @@ import org.candlepin.model.GuestId;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.policy.js.JsRunner;
-import org.candlepin.policy.js.JsonJsContext;
 import org.candlepin.policy.js.RuleExecutionException;
+import org.candlepin.policy.js.RulesEngine;
 import org.candlepin.policy.js.RulesObjectMapper;
 import org.candlepin.policy.js.compliance.hash.ComplianceStatusHasher;
 
@@ -59,35 +61,63 @@ import java.util.stream.Stream;
 /**
  * ComplianceRules
  *
- * A class used to check consumer compliance status.
+ * A class used to check consumer compliance status. The status is calculated by the compliance
+ * engine selected by configuration.
  */
 public class ComplianceRules {
     private static Logger log = LoggerFactory.getLogger(ComplianceRules.class);
 
-    private JsRunner jsRules;
+    private ComplianceEngine engine;
+    private ComplianceStatusCache statusCache;
     private EntitlementCurator entCurator;
     private StatusReasonMessageGenerator generator;
     private EventSink eventSink;
     private ConsumerCurator consumerCurator;
     private ConsumerTypeCurator consumerTypeCurator;
-    private RulesObjectMapper mapper;
     private ModelTranslator translator;
 
     @Inject
+    public ComplianceRules(JsRunner jsRules, EntitlementCurator entCurator,
+        StatusReasonMessageGenerator generator, EventSink eventSink, ConsumerCurator consumerCurator,
+        ConsumerTypeCurator consumerTypeCurator, RulesObjectMapper mapper, ModelTranslator translator,
+        Configuration config, ComplianceStatusCache statusCache) {
+
+        this(createEngine(config, jsRules, mapper), entCurator, generator, eventSink, consumerCurator,
+            consumerTypeCurator, translator);
+
+        this.statusCache = statusCache;
+    }
+
     public ComplianceRules(JsRunner jsRules, EntitlementCurator entCurator,
         StatusReasonMessageGenerator generator, EventSink eventSink, ConsumerCurator consumerCurator,
         ConsumerTypeCurator consumerTypeCurator, RulesObjectMapper mapper, ModelTranslator translator) {
 
-        this.jsRules = jsRules;
+        this(new JsComplianceEngine(jsRules, mapper), entCurator, generator, eventSink, consumerCurator,
+            consumerTypeCurator, translator);
+    }
+
+    public ComplianceRules(ComplianceEngine engine, EntitlementCurator entCurator,
+        StatusReasonMessageGenerator generator, EventSink eventSink, ConsumerCurator consumerCurator,
+        ConsumerTypeCurator consumerTypeCurator, ModelTranslator translator) {
+
+        this.engine = engine;
         this.entCurator = entCurator;
         this.generator = generator;
         this.eventSink = eventSink;
         this.consumerCurator = consumerCurator;
         this.consumerTypeCurator = consumerTypeCurator;
-        this.mapper = mapper;
         this.translator = translator;
+    }
+
+    private static ComplianceEngine createEngine(Configuration config, JsRunner jsRules,
+        RulesObjectMapper mapper) {
+
+        RulesEngine type = RulesEngine.fromLabel(config.getString(ConfigProperties.COMPLIANCE_ENGINE));
+        log.debug("Using {} compliance engine", type.getLabel());
 
-        jsRules.init("compliance_name_space");
+        return type == RulesEngine.NATIVE ?
+            new NativeComplianceEngine() :
+            new JsComplianceEngine(jsRules, mapper);
     }
 
     /**
@@ -154,11 +184,11 @@ public class ComplianceRules {
      *        (also expensive)
      * @return Compliance status.
      */
-    @SuppressWarnings("checkstyle:indentation")
     public ComplianceStatus getStatus(Consumer consumer, Collection<Entitlement> newEntitlements, Date date,
         boolean calculateCompliantUntil, boolean updateConsumer, boolean calculateProductComplianceDateRanges,
         boolean currentCompliance) {
 
+        boolean requestedCurrentDate = date == null;
         if (date == null) {
             date = new Date();
         }
@@ -167,16 +197,6 @@ public class ComplianceRules {
             updateEntsOnStart(consumer);
         }
 
-        Stream<EntitlementDTO> entStream = Stream.concat(
-            newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
-            consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
-                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
-
-        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
-            consumer.getGuestIds().stream()
-                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
-
-
         // Status can only be 'disabled' when in golden ticket mode
         if (consumer.getOwner() != null && consumer.getOwner().isContentAccessEnabled()) {
             ComplianceStatus cs = new ComplianceStatus(new Date());
@@ -192,30 +212,52 @@ public class ComplianceRules {
             return new ComplianceStatus(new Date());
         }
 
-        JsonJsContext args = new JsonJsContext(mapper);
-        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("entitlements", entStream);
-        args.put("ondate", date);
-        args.put("calculateCompliantUntil", calculateCompliantUntil);
-        args.put("calculateProductComplianceDateRanges", calculateProductComplianceDateRanges);
-        args.put("log", log, false);
-        args.put("guestIds", guestIdStream);
-
-        // Convert the JSON returned into a ComplianceStatus object:
-        String json = jsRules.runJsFunction(String.class, "get_status", args);
+        // Reuse the last status calculated for the consumer if its inputs have not changed. Only the
+        // current status of the consumer's existing entitlements is retained.
+        boolean cacheable = this.statusCache != null && this.statusCache.isEnabled() &&
+            currentCompliance && requestedCurrentDate && consumer.getUuid() != null &&
+            (newEntitlements == null || newEntitlements.isEmpty()) && !calculateProductComplianceDateRanges;
+
+        String inputHash = null;
+        if (cacheable) {
+            inputHash = this.statusCache.hashInputs(consumer);
+            ComplianceStatus cached = this.statusCache.get(consumer.getUuid(), inputHash, date,
+                calculateCompliantUntil, consumer.getEntitlements());
+
+            if (cached != null) {
+                for (ComplianceReason reason : cached.getReasons()) {
+                    generator.setMessage(consumer, reason, cached.getDate());
+                }
+
+                applyStatus(consumer, cached, updateConsumer);
+                return cached;
+            }
+        }
+
+        List<Entitlement> entitlements = Stream.concat(
+            newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
+            consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
+            .collect(Collectors.toList());
+
+        ComplianceContext context = this.buildContext(consumer, this.translateEntitlements(entitlements))
+            .setOnDate(date)
+            .setCalculateCompliantUntil(calculateCompliantUntil)
+            .setCalculateProductComplianceDateRanges(calculateProductComplianceDateRanges);
+
+        ComplianceStatusDTO statusDTO = this.engine.getStatus(context);
         try {
-            ComplianceStatusDTO statusDTO = mapper.toObject(json, ComplianceStatusDTO.class);
             ComplianceStatus status = new ComplianceStatus();
-            Set<Entitlement> allEntitlements = Stream.concat(
-                newEntitlements != null ? newEntitlements.stream() : Stream.empty(),
-                consumer.getEntitlements() != null ? consumer.getEntitlements().stream() : Stream.empty())
-                .collect(Collectors.toSet());
-            populateEntity(status, statusDTO, allEntitlements);
+            populateEntity(status, statusDTO, new HashSet<>(entitlements));
 
             for (ComplianceReason reason : status.getReasons()) {
                 generator.setMessage(consumer, reason, status.getDate());
             }
 
+            if (cacheable) {
+                this.statusCache.put(consumer.getUuid(), inputHash, status, calculateCompliantUntil,
+                    getNextTransition(entitlements, date));
+            }
+
             if (currentCompliance) {
                 applyStatus(consumer, status, updateConsumer);
             }
@@ -256,45 +298,62 @@ public class ComplianceRules {
         }
     }
 
-    @SuppressWarnings("checkstyle:indentation")
     public boolean isStackCompliant(Consumer consumer, String stackId, List<Entitlement> entsToConsider) {
-        Stream<EntitlementDTO> entStream = entsToConsider == null ? Stream.empty() :
-            entsToConsider.stream()
-                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+        ComplianceContext context = this.buildContext(consumer, this.translateEntitlements(entsToConsider));
+        return this.engine.isStackCompliant(context, stackId);
+    }
 
-        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
-            consumer.getGuestIds().stream()
-                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
+    public boolean isEntitlementCompliant(Consumer consumer, Entitlement ent, Date onDate) {
+        List<Entitlement> ents = entCurator.listByConsumerAndDate(consumer, onDate).list();
 
-        JsonJsContext args = new JsonJsContext(mapper);
-        args.put("stack_id", stackId);
-        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("entitlements", entStream);
-        args.put("log", log, false);
-        args.put("guestIds", guestIdStream);
+        ComplianceContext context = this.buildContext(consumer, this.translateEntitlements(ents));
+        EntitlementDTO entitlement = this.translator.translate(ent, EntitlementDTO.class);
 
-        return jsRules.runJsFunction(Boolean.class, "is_stack_compliant", args);
+        return this.engine.isEntitlementCompliant(context, entitlement);
     }
 
-    @SuppressWarnings("checkstyle:indentation")
-    public boolean isEntitlementCompliant(Consumer consumer, Entitlement ent, Date onDate) {
-        List<Entitlement> ents = entCurator.listByConsumerAndDate(consumer, onDate).list();
+    /**
+     * Determines the first date after the given date on which any of the given entitlements starts
+     * or expires, and the set of entitlements active on the date changes.
+     *
+     * @return
+     *  the date on which the active entitlements next change, or null if they never change
+     */
+    private static Date getNextTransition(Collection<Entitlement> entitlements, Date date) {
+        long next = Long.MAX_VALUE;
 
-        Stream<EntitlementDTO> entStream = ents == null ? Stream.empty() :
-            ents.stream().map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
+        for (Entitlement entitlement : entitlements) {
+            Date start = entitlement.getStartDate();
+            if (start != null && start.after(date)) {
+                next = Math.min(next, start.getTime());
+            }
 
-        Stream<GuestIdDTO> guestIdStream = consumer.getGuestIds() == null ? Stream.empty() :
-            consumer.getGuestIds().stream()
-                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class));
+            // Entitlements remain active through their end date
+            Date end = entitlement.getEndDate();
+            if (end != null && end.getTime() + 1 > date.getTime()) {
+                next = Math.min(next, end.getTime() + 1);
+            }
+        }
+
+        return next != Long.MAX_VALUE ? new Date(next) : null;
+    }
 
-        JsonJsContext args = new JsonJsContext(mapper);
-        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("entitlement", this.translator.translate(ent, EntitlementDTO.class));
-        args.put("entitlements", entStream);
-        args.put("log", log, false);
-        args.put("guestIds", guestIdStream);
+    private List<EntitlementDTO> translateEntitlements(Collection<Entitlement> entitlements) {
+        return entitlements == null ? Collections.emptyList() : entitlements.stream()
+            .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class))
+            .collect(Collectors.toList());
+    }
+
+    private ComplianceContext buildContext(Consumer consumer, List<EntitlementDTO> entitlements) {
+        List<GuestIdDTO> guestIds = consumer.getGuestIds() == null ? Collections.emptyList() :
+            consumer.getGuestIds().stream()
+                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class))
+                .collect(Collectors.toList());
 
-        return jsRules.runJsFunction(Boolean.class, "is_ent_compliant", args);
+        return new ComplianceContext()
+            .setConsumer(this.translator.translate(consumer, ConsumerDTO.class))
+            .setEntitlements(entitlements)
+            .setGuestIds(guestIds);
     }
 
     private String getComplianceStatusHash(ComplianceStatus status, Consumer consumer) {
@@ -0,0 +1,357 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.cache.BoundedCache;
+import org.candlepin.cache.CandlepinCache;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.Entitlement;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.policy.js.compliance.hash.ComplianceInputHasher;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+
+
+/**
+ * The ComplianceStatusCache retains the last compliance status calculated for each consumer,
+ * along with a hash of the inputs from which it was calculated. A cached status is reused for as
+ * long as the consumer's inputs are unchanged and no entitlement has started or expired since it
+ * was calculated, allowing repeated compliance checks to skip the rules entirely.
+ * <p></p>
+ * The cache is bounded, evicting the least recently used consumers first. As cached statuses are
+ * validated against the current state of the consumer, the cache is safe to use on every node of
+ * a cluster.
+ * <p></p>
+ * Cached statuses do not retain any entities. Entitlements are held by ID and resolved against the
+ * consumer's entitlements from the current session whenever a cached status is reused, so a cached
+ * status never exposes detached or stale entities from the session which calculated it.
+ */
+public class ComplianceStatusCache {
+    private static Logger log = LoggerFactory.getLogger(ComplianceStatusCache.class);
+
+    /**
+     * A single cached status, and the conditions under which it may be reused
+     */
+    private static class Entry {
+        private final String inputHash;
+        private final ComplianceStatus status;
+        private final Map<String, Set<String>> compliantProducts;
+        private final Map<String, Set<String>> partiallyCompliantProducts;
+        private final Map<String, Set<String>> partialStacks;
+        private final boolean compliantUntilCalculated;
+        private final Date validFrom;
+        private final Date validUntil;
+
+        public Entry(String inputHash, ComplianceStatus status, boolean compliantUntilCalculated,
+            Date validFrom, Date validUntil) {
+
+            this.inputHash = inputHash;
+            this.status = copy(status, status.getDate());
+            this.compliantProducts = toIds(status.getCompliantProducts());
+            this.partiallyCompliantProducts = toIds(status.getPartiallyCompliantProducts());
+            this.partialStacks = toIds(status.getPartialStacks());
+            this.compliantUntilCalculated = compliantUntilCalculated;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        public boolean isValid(String inputHash, Date date, boolean calculateCompliantUntil) {
+            return this.inputHash.equals(inputHash) &&
+                (this.compliantUntilCalculated || !calculateCompliantUntil) &&
+                !date.before(this.validFrom) &&
+                (this.validUntil == null || date.before(this.validUntil));
+        }
+
+        public boolean isResolvable(Map<String, Entitlement> entitlements) {
+            return isResolvable(this.compliantProducts, entitlements) &&
+                isResolvable(this.partiallyCompliantProducts, entitlements) &&
+                isResolvable(this.partialStacks, entitlements);
+        }
+
+        private static boolean isResolvable(Map<String, Set<String>> source,
+            Map<String, Entitlement> entitlements) {
+
+            return source == null || source.values().stream()
+                .allMatch(ids -> entitlements.keySet().containsAll(ids));
+        }
+    }
+
+    private final JsRunnerProvider jsRunnerProvider;
+    private final BoundedCache<String, Entry> entries;
+    private final AtomicLong unresolved;
+
+    @Inject
+    public ComplianceStatusCache(Configuration config, JsRunnerProvider jsRunnerProvider,
+        CandlepinCache candlepinCache) {
+
+        this(config.getInt(ConfigProperties.COMPLIANCE_CACHE_SIZE, 0), jsRunnerProvider);
+        candlepinCache.registerLocalCache(this.entries);
+    }
+
+    /**
+     * Creates a new compliance status cache.
+     *
+     * @param maxSize
+     *  the maximum number of consumers for which to retain a status; zero disables the cache
+     *
+     * @param jsRunnerProvider
+     *  the provider of the rules, used to determine the version of the rules in effect; may be
+     *  null if the rules are not in use
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize is negative
+     */
+    public ComplianceStatusCache(int maxSize, JsRunnerProvider jsRunnerProvider) {
+        this.jsRunnerProvider = jsRunnerProvider;
+        this.unresolved = new AtomicLong();
+        this.entries = new BoundedCache<String, Entry>("compliance_status", maxSize)
+            .addStatistic("unresolved", this.unresolved::get);
+    }
+
+    public boolean isEnabled() {
+        return this.entries.isEnabled();
+    }
+
+    /**
+     * Generates a hash of the inputs from which the compliance status of the given consumer is
+     * calculated.
+     *
+     * @param consumer
+     *  the consumer for which to hash compliance inputs
+     *
+     * @return
+     *  the input hash for the consumer
+     */
+    public String hashInputs(Consumer consumer) {
+        String rulesVersion = this.jsRunnerProvider != null ? this.jsRunnerProvider.getRulesVersion() : null;
+        return new ComplianceInputHasher(consumer, rulesVersion).hash();
+    }
+
+    /**
+     * Fetches a copy of the status cached for the given consumer, if it was calculated from the
+     * given inputs and remains valid on the given date. The copy is dated with the given date,
+     * and its reasons do not yet have messages. The entitlements of the copy are resolved from
+     * the given entitlements, which should be the consumer's entitlements in the current session.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer for which to fetch a cached status
+     *
+     * @param inputHash
+     *  the hash of the consumer's current compliance inputs
+     *
+     * @param date
+     *  the date for which the status is requested
+     *
+     * @param calculateCompliantUntil
+     *  whether or not the status must include the compliant until date
+     *
+     * @param entitlements
+     *  the consumer's current entitlements, from which the entitlements of the status are resolved
+     *
+     * @return
+     *  a copy of the cached status, or null if no valid status is cached for the consumer
+     */
+    public ComplianceStatus get(String consumerUuid, String inputHash, Date date,
+        boolean calculateCompliantUntil, Collection<Entitlement> entitlements) {
+
+        if (consumerUuid == null) {
+            return null;
+        }
+
+        Map<String, Entitlement> entitlementMap = new HashMap<>();
+        if (entitlements != null) {
+            for (Entitlement entitlement : entitlements) {
+                entitlementMap.put(entitlement.getId(), entitlement);
+            }
+        }
+
+        AtomicBoolean unresolvable = new AtomicBoolean(false);
+        Entry entry = this.entries.get(consumerUuid, candidate -> {
+            if (!candidate.isValid(inputHash, date, calculateCompliantUntil)) {
+                return false;
+            }
+
+            unresolvable.set(!candidate.isResolvable(entitlementMap));
+            return !unresolvable.get();
+        });
+
+        if (unresolvable.get()) {
+            // This shouldn't happen, as the entitlements are part of the input hash, but if the
+            // entitlements can't be resolved we can't use the status
+            log.debug("Unable to resolve cached compliance status for consumer: {}", consumerUuid);
+            this.unresolved.incrementAndGet();
+            this.invalidate(consumerUuid);
+
+            return null;
+        }
+
+        if (entry == null) {
+            return null;
+        }
+
+        ComplianceStatus status = copy(entry.status, date);
+        status.setCompliantProducts(resolve(entry.compliantProducts, entitlementMap));
+        status.setPartiallyCompliantProducts(resolve(entry.partiallyCompliantProducts, entitlementMap));
+        status.setPartialStacks(resolve(entry.partialStacks, entitlementMap));
+
+        log.debug("Using cached compliance status for consumer: {}", consumerUuid);
+        return status;
+    }
+
+    /**
+     * Caches the given status for the given consumer, replacing any status previously cached for
+     * it.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer for which the status was calculated
+     *
+     * @param inputHash
+     *  the hash of the inputs from which the status was calculated
+     *
+     * @param status
+     *  the calculated status
+     *
+     * @param calculateCompliantUntil
+     *  whether or not the compliant until date was calculated
+     *
+     * @param validUntil
+     *  the date at which the set of active entitlements next changes, or null if it never does
+     */
+    public void put(String consumerUuid, String inputHash, ComplianceStatus status,
+        boolean calculateCompliantUntil, Date validUntil) {
+
+        if (!this.isEnabled() || consumerUuid == null) {
+            return;
+        }
+
+        this.entries.put(consumerUuid,
+            new Entry(inputHash, status, calculateCompliantUntil, status.getDate(), validUntil));
+    }
+
+    /**
+     * Removes any status cached for the given consumer.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer for which to remove the cached status
+     */
+    public void invalidate(String consumerUuid) {
+        this.entries.remove(consumerUuid);
+    }
+
+    /**
+     * Removes every cached status.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Fetches the statistics of this cache. Cached statuses which could not be reused as their
+     * entitlements could not be resolved from the consumer's current entitlements are counted as
+     * both misses and unresolved statuses.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public Map<String, Object> getStatistics() {
+        return this.entries.getStatistics();
+    }
+
+    /**
+     * Creates a copy of the given status without its entitlements, such that a cached status is
+     * never shared with callers which may modify it, and never retains entities.
+     */
+    private static ComplianceStatus copy(ComplianceStatus source, Date date) {
+        ComplianceStatus copy = new ComplianceStatus(date);
+
+        copy.setCompliantUntil(source.getCompliantUntil());
+        source.getNonCompliantProducts().forEach(copy::addNonCompliantProduct);
+        source.getProductComplianceDateRanges().forEach(copy::addProductComplianceDateRange);
+
+        Set<ComplianceReason> reasons = new HashSet<>();
+        for (ComplianceReason reason : source.getReasons()) {
+            ComplianceReason reasonCopy = new ComplianceReason();
+            reasonCopy.setKey(reason.getKey());
+            reasonCopy.setMessage(reason.getMessage());
+            reasonCopy.setAttributes(reason.getAttributes() != null ?
+                new HashMap<>(reason.getAttributes()) :
+                null);
+
+            reasons.add(reasonCopy);
+        }
+
+        copy.setReasons(reasons);
+        return copy;
+    }
+
+    private static Map<String, Set<String>> toIds(Map<String, Set<Entitlement>> source) {
+        if (source == null) {
+            return null;
+        }
+
+        Map<String, Set<String>> ids = new HashMap<>();
+        source.forEach((key, entitlements) -> ids.put(key, entitlements.stream()
+            .map(Entitlement::getId)
+            .collect(Collectors.toSet())));
+
+        return ids;
+    }
+
+    private static Map<String, Set<Entitlement>> resolve(Map<String, Set<String>> source,
+        Map<String, Entitlement> entitlements) {
+
+        if (source == null) {
+            return null;
+        }
+
+        Map<String, Set<Entitlement>> resolved = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : source.entrySet()) {
+            Set<Entitlement> set = new HashSet<>();
+
+            for (String id : entry.getValue()) {
+                Entitlement entitlement = entitlements.get(id);
+                if (entitlement == null) {
+                    throw new IllegalStateException("Unable to resolve entitlement: " + id);
+                }
+
+                set.add(entitlement);
+            }
+
+            resolved.put(entry.getKey(), set);
+        }
+
+        return resolved;
+    }
+}
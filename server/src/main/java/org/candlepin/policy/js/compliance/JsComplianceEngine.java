@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.JsonJsContext;
+import org.candlepin.policy.js.RuleExecutionException;
+import org.candlepin.policy.js.RulesObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+
+/**
+ * The JsComplianceEngine determines compliance by invoking the functions of the compliance
+ * namespace of the javascript rules.
+ */
+public class JsComplianceEngine implements ComplianceEngine {
+
+    // The rules log through the ComplianceRules category, as they did before the engines were split out
+    private static Logger log = LoggerFactory.getLogger(ComplianceRules.class);
+
+    private final JsRunner jsRules;
+    private final RulesObjectMapper mapper;
+
+    public JsComplianceEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        this.jsRules = jsRules;
+        this.mapper = mapper;
+
+        jsRules.init("compliance_name_space");
+    }
+
+    @Override
+    public ComplianceStatusDTO getStatus(ComplianceContext context) {
+        JsonJsContext args = new JsonJsContext(mapper);
+        args.put("consumer", context.getConsumer());
+        args.put("entitlements", context.getEntitlements());
+        args.put("ondate", context.getOnDate());
+        args.put("calculateCompliantUntil", context.isCalculateCompliantUntil());
+        args.put("calculateProductComplianceDateRanges", context.isCalculateProductComplianceDateRanges());
+        args.put("log", log, false);
+        args.put("guestIds", context.getGuestIds());
+
+        // Convert the JSON returned into a ComplianceStatusDTO object:
+        String json = jsRules.runJsFunction(String.class, "get_status", args);
+        try {
+            return mapper.toObject(json, ComplianceStatusDTO.class);
+        }
+        catch (Exception e) {
+            throw new RuleExecutionException(e);
+        }
+    }
+
+    @Override
+    public boolean isStackCompliant(ComplianceContext context, String stackId) {
+        JsonJsContext args = new JsonJsContext(mapper);
+        args.put("stack_id", stackId);
+        args.put("consumer", context.getConsumer());
+        args.put("entitlements", context.getEntitlements());
+        args.put("log", log, false);
+        args.put("guestIds", context.getGuestIds());
+
+        return jsRules.runJsFunction(Boolean.class, "is_stack_compliant", args);
+    }
+
+    @Override
+    public boolean isEntitlementCompliant(ComplianceContext context, EntitlementDTO entitlement) {
+        JsonJsContext args = new JsonJsContext(mapper);
+        args.put("consumer", context.getConsumer());
+        args.put("entitlement", entitlement);
+        args.put("entitlements", context.getEntitlements());
+        args.put("log", log, false);
+        args.put("guestIds", context.getGuestIds());
+
+        return jsRules.runJsFunction(Boolean.class, "is_ent_compliant", args);
+    }
+}
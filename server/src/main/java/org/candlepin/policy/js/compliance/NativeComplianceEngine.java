@@ -0,0 +1,489 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.dto.rules.v1.ComplianceReasonDTO;
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.policy.js.coverage.Coverage;
+import org.candlepin.policy.js.coverage.CoverageCalculator;
+import org.candlepin.policy.js.coverage.JsValues;
+import org.candlepin.policy.js.coverage.RulesAttributes;
+import org.candlepin.policy.js.coverage.RulesConsumer;
+import org.candlepin.policy.js.coverage.RulesEntitlement;
+import org.candlepin.util.DateRange;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+/**
+ * The NativeComplianceEngine is a Java implementation of the compliance namespace of the
+ * javascript rules. It operates directly on the rules DTOs, avoiding the cost of serializing the
+ * consumer and its entitlements to JSON and evaluating the rules in Rhino, while arriving at the
+ * same status the javascript rules would produce for the same input.
+ */
+public class NativeComplianceEngine implements ComplianceEngine {
+    private static Logger log = LoggerFactory.getLogger(NativeComplianceEngine.class);
+
+    /** The offset applied to an end date when checking if a consumer remains compliant after it */
+    private static final long COMPLIANT_UNTIL_OFFSET = 1000;
+
+    /**
+     * The compliance status of a consumer on a single date, as calculated by the
+     * getComplianceStatusOnDate function of the rules.
+     */
+    private static final class DateStatus {
+        private final Map<String, List<RulesEntitlement>> partialStacks = new LinkedHashMap<>();
+        private final Map<String, List<RulesEntitlement>> partiallyCompliantProducts = new LinkedHashMap<>();
+        private final Map<String, List<RulesEntitlement>> compliantProducts = new LinkedHashMap<>();
+        private final List<String> nonCompliantProducts = new ArrayList<>();
+        private final List<ComplianceReason> reasons = new ArrayList<>();
+
+        private static void add(Map<String, List<RulesEntitlement>> map, String key, RulesEntitlement ent) {
+            map.computeIfAbsent(key, k -> new ArrayList<>()).add(ent);
+        }
+
+        public boolean isCompliant() {
+            return this.nonCompliantProducts.isEmpty() && this.partiallyCompliantProducts.isEmpty();
+        }
+
+        public boolean isPartiallyCompliant() {
+            return !this.compliantProducts.isEmpty() || !this.partiallyCompliantProducts.isEmpty();
+        }
+
+        public boolean isCompliant(String productId) {
+            return this.compliantProducts.containsKey(productId);
+        }
+
+        public boolean isPartiallyCompliant(String productId) {
+            return this.partiallyCompliantProducts.containsKey(productId);
+        }
+    }
+
+    @Override
+    public ComplianceStatusDTO getStatus(ComplianceContext context) {
+        RulesConsumer consumer = new RulesConsumer(context.getConsumer(), context.getGuestIds());
+        List<RulesEntitlement> entitlements = this.convertEntitlements(context.getEntitlements(), consumer);
+        Date onDate = context.getOnDate();
+
+        DateStatus status = this.getStatusOnDate(consumer, entitlements, onDate);
+        Date compliantUntil = null;
+        Map<String, DateRange> dateRanges = null;
+
+        if (status.isCompliant() && context.isCalculateCompliantUntil() && !entitlements.isEmpty()) {
+            compliantUntil = this.determineCompliantUntilDate(consumer, entitlements, onDate);
+        }
+
+        if (status.isPartiallyCompliant() && context.isCalculateProductComplianceDateRanges() &&
+            !entitlements.isEmpty()) {
+
+            dateRanges = this.getProductComplianceDateRanges(consumer, entitlements, onDate, status);
+        }
+
+        List<ComplianceReasonDTO> reasons = new ArrayList<>();
+        for (ComplianceReason reason : status.reasons) {
+            reasons.add(new ComplianceReasonDTO()
+                .setKey(reason.getKey())
+                .setMessage(reason.getMessage())
+                .setAttributes(reason.getAttributes()));
+        }
+
+        return new ComplianceStatusDTO()
+            .setDate(onDate)
+            .setCompliantUntil(compliantUntil)
+            .setCompliantProducts(this.toEntitlementDTOMap(status.compliantProducts))
+            .setPartiallyCompliantProducts(this.toEntitlementDTOMap(status.partiallyCompliantProducts))
+            .setPartialStacks(this.toEntitlementDTOMap(status.partialStacks))
+            .setNonCompliantProducts(status.nonCompliantProducts)
+            .setProductComplianceDateRanges(dateRanges)
+            .setReasons(reasons);
+    }
+
+    @Override
+    public boolean isStackCompliant(ComplianceContext context, String stackId) {
+        RulesConsumer consumer = new RulesConsumer(context.getConsumer(), context.getGuestIds());
+        List<RulesEntitlement> entitlements = this.convertEntitlements(context.getEntitlements(), consumer);
+
+        return CoverageCalculator.getStackCoverage(consumer, stackId, entitlements).isCovered();
+    }
+
+    @Override
+    public boolean isEntitlementCompliant(ComplianceContext context, EntitlementDTO entitlement) {
+        RulesConsumer consumer = new RulesConsumer(context.getConsumer(), context.getGuestIds());
+        List<RulesEntitlement> entitlements = this.convertEntitlements(context.getEntitlements(), consumer);
+
+        RulesEntitlement target = new RulesEntitlement(entitlement, consumer);
+        return CoverageCalculator.getEntitlementCoverage(consumer, target, entitlements).isCovered();
+    }
+
+    private List<RulesEntitlement> convertEntitlements(Collection<EntitlementDTO> source,
+        RulesConsumer consumer) {
+
+        List<RulesEntitlement> entitlements = new ArrayList<>();
+
+        if (source != null) {
+            for (EntitlementDTO entitlement : source) {
+                entitlements.add(new RulesEntitlement(entitlement, consumer));
+            }
+        }
+
+        return entitlements;
+    }
+
+    private Map<String, Set<EntitlementDTO>> toEntitlementDTOMap(Map<String, List<RulesEntitlement>> source) {
+        Map<String, Set<EntitlementDTO>> output = new HashMap<>();
+
+        for (Map.Entry<String, List<RulesEntitlement>> entry : source.entrySet()) {
+            Set<EntitlementDTO> entitlements = new LinkedHashSet<>();
+            entry.getValue().forEach(ent -> entitlements.add(ent.getSource()));
+
+            output.put(entry.getKey(), entitlements);
+        }
+
+        return output;
+    }
+
+    /**
+     * Fetches the time of the given date as the rules would see it, where a missing date is
+     * treated as the epoch.
+     */
+    private static long timeOf(Date date) {
+        return date != null ? date.getTime() : 0;
+    }
+
+    private List<RulesEntitlement> filterEntitlementsByDate(List<RulesEntitlement> entitlements, Date date) {
+        List<RulesEntitlement> filtered = new ArrayList<>();
+        long time = timeOf(date);
+
+        for (RulesEntitlement entitlement : entitlements) {
+            if (timeOf(entitlement.getStartDate()) <= time && timeOf(entitlement.getEndDate()) >= time) {
+                filtered.add(entitlement);
+            }
+        }
+
+        return filtered;
+    }
+
+    /**
+     * Builds the sorted list of entitlement start and/or end times. As with the rules, duplicate
+     * times are retained.
+     */
+    private long[] getSortedEntitlementTimes(List<RulesEntitlement> entitlements, boolean useStartDates,
+        boolean useEndDates) {
+
+        long[] times = new long[entitlements.size() * ((useStartDates ? 1 : 0) + (useEndDates ? 1 : 0))];
+        int offset = 0;
+
+        for (RulesEntitlement entitlement : entitlements) {
+            if (useStartDates) {
+                times[offset++] = timeOf(entitlement.getStartDate());
+            }
+
+            if (useEndDates) {
+                times[offset++] = timeOf(entitlement.getEndDate());
+            }
+        }
+
+        Arrays.sort(times);
+        return times;
+    }
+
+    private List<String> findRelevantProductIds(RulesEntitlement entitlement, RulesConsumer consumer) {
+        List<String> relevant = new ArrayList<>();
+        List<String> installed = consumer.getInstalledProducts();
+
+        if (installed != null) {
+            for (String productId : installed) {
+                if (entitlement.getPool().provides(productId)) {
+                    relevant.add(productId);
+                }
+            }
+        }
+
+        return relevant;
+    }
+
+    private static ComplianceReason buildReason(String key, String attribute, String value) {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(attribute, value);
+
+        ComplianceReason reason = new ComplianceReason();
+        reason.setKey(key);
+        reason.setMessage(key);
+        reason.setAttributes(attributes);
+
+        return reason;
+    }
+
+    /**
+     * Checks the compliance status of the consumer on the given date.
+     */
+    private DateStatus getStatusOnDate(RulesConsumer consumer, List<RulesEntitlement> entitlements,
+        Date onDate) {
+
+        DateStatus status = new DateStatus();
+
+        // Track the stack IDs we've already checked to save some time:
+        Set<String> compliantStackIds = new HashSet<>();
+        Set<String> nonCompliantStackIds = new HashSet<>();
+
+        log.debug("Checking compliance status for consumer: {} on date: {}",
+            consumer.getSource().getUuid(), onDate);
+
+        List<RulesEntitlement> entitlementsOnDate = this.filterEntitlementsByDate(entitlements, onDate);
+        for (RulesEntitlement entitlement : entitlementsOnDate) {
+            List<String> relevantPids = this.findRelevantProductIds(entitlement, consumer);
+            boolean stacked = entitlement.isStacked();
+            boolean partiallyStacked = false;
+
+            // If the pool is stacked, check that the stack requirements are met:
+            if (stacked) {
+                String stackId = JsValues.toString(
+                    entitlement.getPool().getProductAttribute(RulesAttributes.STACKING_ID));
+
+                if (nonCompliantStackIds.contains(stackId)) {
+                    partiallyStacked = true;
+                    DateStatus.add(status.partialStacks, stackId, entitlement);
+                }
+                else if (!compliantStackIds.contains(stackId)) {
+                    Coverage coverage = CoverageCalculator.getStackCoverage(consumer, stackId,
+                        entitlementsOnDate);
+
+                    if (!coverage.isCovered()) {
+                        log.debug("  stack {} is non-compliant", stackId);
+                        partiallyStacked = true;
+                        DateStatus.add(status.partialStacks, stackId, entitlement);
+                        nonCompliantStackIds.add(stackId);
+                        status.reasons.addAll(coverage.getReasons());
+                    }
+                    else {
+                        compliantStackIds.add(stackId);
+                    }
+                }
+            }
+
+            // If we have no installed products and the entitlement is partially covered, we want
+            // the system to be partial.
+            if (relevantPids.isEmpty() && !stacked) {
+                Coverage coverage = CoverageCalculator.getEntitlementCoverage(consumer, entitlement,
+                    entitlementsOnDate);
+
+                if (!coverage.isCovered()) {
+                    status.reasons.addAll(coverage.getReasons());
+                }
+            }
+
+            // If the consumer has an entitlement from a pool marked unmapped_guests_only it can
+            // only hope to be yellow
+            Object unmapped = entitlement.getPool().getAttribute(RulesAttributes.UNMAPPED_GUESTS_ONLY);
+            if (unmapped != null && JsValues.equalsIgnoreCase("true", JsValues.toString(unmapped))) {
+                status.reasons.add(buildReason(ComplianceReason.ReasonKeys.UNMAPPED_GUEST,
+                    ComplianceReason.Attributes.ENTITLEMENT_ID, entitlement.getId()));
+            }
+
+            for (String pid : relevantPids) {
+                if (partiallyStacked) {
+                    DateStatus.add(status.partiallyCompliantProducts, pid, entitlement);
+                    continue;
+                }
+
+                Coverage coverage = CoverageCalculator.getEntitlementCoverage(consumer, entitlement,
+                    entitlementsOnDate);
+
+                if (!coverage.isCovered() && !stacked) {
+                    DateStatus.add(status.partiallyCompliantProducts, pid, entitlement);
+                    status.reasons.addAll(coverage.getReasons());
+                }
+                else {
+                    DateStatus.add(status.compliantProducts, pid, entitlement);
+                }
+            }
+        }
+
+        // A product which is also provided by a compliant entitlement is not partially
+        // compliant. The stack is left in the partial stacks, as it should still be repaired.
+        status.partiallyCompliantProducts.keySet().removeAll(status.compliantProducts.keySet());
+
+        // Any installed products we didn't find an entitlement for are not compliant
+        List<String> installed = consumer.getInstalledProducts();
+        if (installed != null) {
+            for (String pid : installed) {
+                if (!status.compliantProducts.containsKey(pid) &&
+                    !status.partiallyCompliantProducts.containsKey(pid)) {
+
+                    status.nonCompliantProducts.add(pid);
+                    status.reasons.add(buildReason(ComplianceReason.ReasonKeys.NOT_COVERED,
+                        ComplianceReason.Attributes.PRODUCT_ID, pid));
+                }
+            }
+        }
+
+        return status;
+    }
+
+    /**
+     * Determines the date until which the consumer remains compliant, starting from the given
+     * date; or null if the consumer remains compliant after its entitlements expire.
+     */
+    private Date determineCompliantUntilDate(RulesConsumer consumer, List<RulesEntitlement> entitlements,
+        Date startDate) {
+
+        List<String> installed = consumer.getInstalledProducts();
+        if (installed == null || installed.isEmpty()) {
+            return null;
+        }
+
+        List<RulesEntitlement> providing = new ArrayList<>();
+        for (RulesEntitlement entitlement : entitlements) {
+            for (String pid : installed) {
+                if (entitlement.getPool().provides(pid)) {
+                    providing.add(entitlement);
+                    break;
+                }
+            }
+        }
+
+        // Check if we are still compliant just after each end date, ignoring past dates and
+        // duplicates. As in the rules, the last date checked includes the offset.
+        long lastTime = timeOf(startDate);
+        for (long time : this.getSortedEntitlementTimes(providing, false, true)) {
+            if (time <= lastTime) {
+                continue;
+            }
+
+            lastTime = time + COMPLIANT_UNTIL_OFFSET;
+
+            Date dateToCheck = new Date(lastTime);
+            if (!this.getStatusOnDate(consumer, entitlements, dateToCheck).isCompliant()) {
+                return dateToCheck;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines the range of dates over which each compliant or partially compliant installed
+     * product retains its current compliance.
+     */
+    @SuppressWarnings("checkstyle:methodlength")
+    private Map<String, DateRange> getProductComplianceDateRanges(RulesConsumer consumer,
+        List<RulesEntitlement> entitlements, Date onDate, DateStatus current) {
+
+        Map<String, DateRange> ranges = new HashMap<>();
+
+        List<String> installed = consumer.getInstalledProducts();
+        if (installed == null || installed.isEmpty()) {
+            return ranges;
+        }
+
+        long[] times = this.getSortedEntitlementTimes(entitlements, true, true);
+        long onTime = timeOf(onDate);
+
+        // Find our next date in the future. The rules fail outright if every date is in the
+        // future, which cannot happen for a consumer with any compliance on the given date.
+        int nextDate = -1;
+        for (int i = times.length - 1; i >= 0; --i) {
+            if (times[i] <= onTime) {
+                nextDate = i + 1;
+                break;
+            }
+        }
+
+        List<String> pids = new ArrayList<>();
+        for (String pid : installed) {
+            if (!current.nonCompliantProducts.contains(pid) && !pids.contains(pid)) {
+                pids.add(pid);
+            }
+        }
+
+        if (pids.isEmpty()) {
+            return ranges;
+        }
+
+        Map<String, Date> startDates = new HashMap<>();
+        Map<String, Date> endDates = new HashMap<>();
+
+        // Find start dates by stepping back through the dates. A millisecond is added to each date
+        // to move us just outside the range of an entitlement ending on that date, so we don't
+        // bridge any gaps in coverage.
+        Date lastValidDate = onDate;
+        for (int i = nextDate - 1; i >= 0; --i) {
+            DateStatus status = this.getStatusOnDate(consumer, entitlements, new Date(times[i] + 1));
+
+            for (String pid : pids) {
+                // If the product is non-compliant here or changed between compliant and partially
+                // compliant, we've found the start of the current range
+                if (!startDates.containsKey(pid) && (status.nonCompliantProducts.contains(pid) ||
+                    (current.isCompliant(pid) && !status.isCompliant(pid)) ||
+                    (current.isPartiallyCompliant(pid) && !status.isPartiallyCompliant(pid)))) {
+
+                    startDates.put(pid, lastValidDate);
+                }
+            }
+
+            if (startDates.size() >= pids.size()) {
+                break;
+            }
+
+            lastValidDate = new Date(times[i]);
+        }
+
+        // Find end dates by stepping forward
+        for (int i = Math.max(nextDate, 0); i < times.length; ++i) {
+            DateStatus status = this.getStatusOnDate(consumer, entitlements, new Date(times[i] + 1));
+
+            for (String pid : pids) {
+                // If the product is non-compliant here or became less compliant, we've found the
+                // end of the current range
+                if (!endDates.containsKey(pid) && (status.nonCompliantProducts.contains(pid) ||
+                    (current.isCompliant(pid) && !status.isCompliant(pid)) ||
+                    (current.isPartiallyCompliant(pid) && !status.isPartiallyCompliant(pid) &&
+                    !status.isCompliant(pid)))) {
+
+                    endDates.put(pid, new Date(times[i]));
+                }
+            }
+
+            if (endDates.size() >= pids.size()) {
+                break;
+            }
+        }
+
+        // Any products which were valid all the way to the ends of our date ranges use the extremes
+        for (String pid : pids) {
+            Date start = startDates.containsKey(pid) ? startDates.get(pid) : new Date(times[0]);
+            Date end = endDates.containsKey(pid) ? endDates.get(pid) : new Date(times[times.length - 1]);
+
+            ranges.put(pid, new DateRange(start, end));
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance.hash;
+
+import org.candlepin.model.Consumer;
+
+/**
+ * Creates a hash of the inputs from which a consumer's compliance status is calculated: the
+ * consumer's facts, installed products and guests, the entitlements it holds along with the
+ * periods over which they are active, and the version of the rules used to evaluate them.
+ *
+ * Two calculations for the same consumer with the same input hash, performed at a time for which
+ * the same set of entitlements is active, will produce the same status.
+ */
+public class ComplianceInputHasher extends Hasher {
+
+    public ComplianceInputHasher(Consumer consumer, String rulesVersion) {
+        putObject(rulesVersion, HashableStringGenerators.STRING);
+        putObject(consumer.getTypeId(), HashableStringGenerators.STRING);
+        putObject(consumer, HashableStringGenerators.CONSUMER);
+        putCollection(consumer.getEntitlements(), HashableStringGenerators.ENTITLEMENT_PERIOD);
+        putCollection(consumer.getGuestIds(), HashableStringGenerators.GUEST_ID);
+    }
+
+}
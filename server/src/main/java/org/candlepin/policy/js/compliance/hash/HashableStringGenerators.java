@@ -18,6 +18,7 @@ package org.candlepin.policy.js.compliance.hash;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerInstalledProduct;
 import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
 import org.candlepin.model.Pool;
 import org.candlepin.policy.js.compliance.ComplianceReason;
 
@@ -26,6 +27,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -40,11 +42,13 @@ public class HashableStringGenerators {
     public static final EntitlementSetEntryGenerator ENTITLEMENT_SET_ENTRY =
         new EntitlementSetEntryGenerator();
     public static final EntitlementGenerator ENTITLEMENT = new EntitlementGenerator();
+    public static final EntitlementPeriodGenerator ENTITLEMENT_PERIOD = new EntitlementPeriodGenerator();
     public static final PoolGenerator POOL = new PoolGenerator();
     public static final ComplianceReasonGenerator COMPLIANCE_REASON = new ComplianceReasonGenerator();
     public static final ConsumerGenerator CONSUMER = new ConsumerGenerator();
     public static final ConsumerInstalledProductGenerator INSTALLED_PRODUCT =
         new ConsumerInstalledProductGenerator();
+    public static final GuestIdGenerator GUEST_ID = new GuestIdGenerator();
 
 
     private HashableStringGenerators() {
@@ -146,6 +150,23 @@ public class HashableStringGenerators {
 
     }
 
+    /**
+     * Generates a string from the period over which an {@link Entitlement} is active, intended for
+     * use in a hash.
+     */
+    private static class EntitlementPeriodGenerator implements HashableStringGenerator<Entitlement> {
+
+        @Override
+        public String generate(Entitlement target) {
+            if (target == null) {
+                return null;
+            }
+
+            return target.getId() + getTime(target.getStartDate()) + getTime(target.getEndDate());
+        }
+
+    }
+
     private static class PoolGenerator implements HashableStringGenerator<Pool> {
 
         @Override
@@ -157,16 +178,16 @@ public class HashableStringGenerators {
             return target.getId() + getTime(target.getUpdated());
         }
 
-        /**
-         * Safely get time from a date. If the specified date is null, return null;
-         *
-         * @param date the target date
-         * @return time as long, or null if the specified date is null;
-         */
-        private Long getTime(Date date) {
-            return date == null ? null : date.getTime();
-        }
+    }
 
+    /**
+     * Safely get time from a date. If the specified date is null, return null;
+     *
+     * @param date the target date
+     * @return time as long, or null if the specified date is null;
+     */
+    private static Long getTime(Date date) {
+        return date == null ? null : date.getTime();
     }
 
     /**
@@ -239,4 +260,27 @@ public class HashableStringGenerators {
 
     }
 
+    /**
+     * Generates a string from a {@link GuestId} intended for use in a hash.
+     */
+    private static class GuestIdGenerator implements HashableStringGenerator<GuestId> {
+
+        @Override
+        public String generate(GuestId target) {
+            if (target == null) {
+                return null;
+            }
+
+            Map<String, String> attributes = target.getAttributes();
+
+            String generated = target.getGuestId();
+            if (attributes != null) {
+                generated += generateFromCollection(attributes.entrySet(), STRING_ENTRY);
+            }
+
+            return generated;
+        }
+
+    }
+
 }
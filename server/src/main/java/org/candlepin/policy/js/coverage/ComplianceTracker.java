@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * A ComplianceTracker tracks the accumulated values provided by an entitlement, or a stack of
+ * entitlements, as entitlements are added to it. For instance, a stack of two entitlements which
+ * each provide two sockets accumulates four sockets.
+ */
+public class ComplianceTracker {
+    private static Logger log = LoggerFactory.getLogger(ComplianceTracker.class);
+
+    /** Tracker type for a single entitlement */
+    public static final String TYPE_ENTITLEMENT = "ENTITLEMENT";
+
+    /** Tracker type for a stack of entitlements */
+    public static final String TYPE_STACK = "STACK";
+
+    private final RulesConsumer consumer;
+    private final String type;
+    private final List<String> entitlementIds;
+    private final Map<String, Object> accumulatedValues;
+
+    private String id;
+    private Object hostRestricted;
+    private boolean empty;
+
+    /**
+     * Creates a new tracker for the given consumer. If the ID is null, the tracker is considered
+     * to be tracking a single entitlement; otherwise it tracks the stack with the given ID.
+     *
+     * @param consumer
+     *  the consumer for which to track coverage
+     *
+     * @param id
+     *  the stack ID to track, or null to track a single entitlement
+     */
+    public ComplianceTracker(RulesConsumer consumer, String id) {
+        this.consumer = consumer;
+        this.id = id;
+        this.type = id == null ? TYPE_ENTITLEMENT : TYPE_STACK;
+        this.entitlementIds = new ArrayList<>();
+        this.accumulatedValues = new HashMap<>();
+        this.hostRestricted = null;
+        this.empty = true;
+    }
+
+    /**
+     * Creates a tracker which enforces the attributes set on the given pool, without accumulating
+     * any values from it.
+     *
+     * @param pool
+     *  the pool from which to create the tracker
+     *
+     * @param consumer
+     *  the consumer for which to track coverage
+     *
+     * @return
+     *  a new compliance tracker for the given pool
+     */
+    public static ComplianceTracker fromPool(RulesPool pool, RulesConsumer consumer) {
+        Object stackId = pool.getProductAttribute(RulesAttributes.STACKING_ID);
+
+        ComplianceTracker tracker = new ComplianceTracker(consumer,
+            stackId != null ? JsValues.toString(stackId) : null);
+
+        tracker.updateAccumulatedFromPool(pool, 0);
+        return tracker;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getType() {
+        return this.type;
+    }
+
+    public boolean isEmpty() {
+        return this.empty;
+    }
+
+    public void setAccumulatedValue(String attribute, Object value) {
+        this.accumulatedValues.put(attribute, value);
+    }
+
+    public Object getAccumulatedValue(String attribute) {
+        return this.accumulatedValues.get(attribute);
+    }
+
+    /**
+     * Checks if the given attribute is being enforced by this tracker. An attribute is enforced
+     * if the tracker has accumulated a value for it, unless the consumer is a guest and the
+     * attribute is not checked for host restricted pools.
+     *
+     * @param attribute
+     *  the attribute to check
+     *
+     * @return
+     *  true if the attribute is enforced by this tracker; false otherwise
+     */
+    public boolean enforces(String attribute) {
+        if (this.hostRestricted != null && this.consumer.isGuest() &&
+            RulesAttributes.UNCHECKED_WHEN_HOST_RESTRICTED.contains(attribute)) {
+
+            log.debug("Not enforcing {}: guest / host restricted pool", attribute);
+            return false;
+        }
+
+        return this.accumulatedValues.containsKey(attribute);
+    }
+
+    /**
+     * Updates the accumulated values of this tracker as if the given quantity of entitlements
+     * from the pool had been added to it.
+     *
+     * @param pool
+     *  the pool from which to accumulate values
+     *
+     * @param quantity
+     *  the quantity of entitlements to accumulate
+     */
+    public void updateAccumulatedFromPool(RulesPool pool, double quantity) {
+        if (quantity > 0) {
+            this.empty = false;
+        }
+
+        Object requiresHost = pool.getAttribute(RulesAttributes.REQUIRES_HOST);
+        if (JsValues.isTruthy(requiresHost)) {
+            this.hostRestricted = requiresHost;
+        }
+
+        for (String attribute : this.consumer.getComplianceAttributes()) {
+            Object poolValue = pool.getProductAttribute(attribute);
+
+            if (poolValue != null) {
+                Object stackValue = this.enforces(attribute) ? this.getAccumulatedValue(attribute) : null;
+                this.setAccumulatedValue(attribute, this.accumulate(attribute, stackValue, poolValue, pool,
+                    quantity));
+            }
+        }
+    }
+
+    /**
+     * Updates the accumulated values of this tracker from the given entitlement. An entitlement
+     * can only be added to the tracker once.
+     *
+     * @param entitlement
+     *  the entitlement from which to accumulate values
+     */
+    public void updateAccumulatedFromEnt(RulesEntitlement entitlement) {
+        if (TYPE_ENTITLEMENT.equals(this.type) && this.entitlementIds.isEmpty()) {
+            this.id = entitlement.getId();
+        }
+
+        // Note: the rules test for existing entitlements using the "in" operator, which checks
+        // the array's indexes rather than its elements.
+        if (this.isIndex(entitlement.getId())) {
+            return;
+        }
+
+        this.empty = false;
+        this.entitlementIds.add(entitlement.getId());
+
+        // If quantity is > 1 but the entitlement is not stacked only calculate compliance for
+        // quantity 1
+        double quantity = entitlement.getQuantity();
+        if (!entitlement.isStacked() && quantity > 1) {
+            quantity = 1;
+        }
+
+        this.updateAccumulatedFromPool(entitlement.getPool(), quantity);
+    }
+
+    private boolean isIndex(String value) {
+        if (value == null || !value.matches("0|[1-9]\\d{0,8}")) {
+            return false;
+        }
+
+        return Integer.parseInt(value) < this.entitlementIds.size();
+    }
+
+    private Object accumulate(String attribute, Object stackValue, Object poolValue, RulesPool pool,
+        double quantity) {
+
+        switch (attribute) {
+            case RulesAttributes.ARCH:
+                // Architecture is accumulated by adding each pool value to a list of arch strings
+                @SuppressWarnings("unchecked")
+                List<Object> arches = JsValues.isTruthy(stackValue) ?
+                    (List<Object>) stackValue :
+                    new ArrayList<>();
+
+                arches.add(poolValue);
+                return arches;
+
+            case RulesAttributes.SOCKETS:
+                double increment = JsValues.parseInt(pool.getProductAttribute(
+                    RulesAttributes.INSTANCE_MULTIPLIER));
+
+                if (!JsValues.isTruthy(increment)) {
+                    increment = 1;
+                }
+
+                // use lowest quantity evenly divisible by the instance multiplier
+                double adjusted = quantity - (quantity % increment);
+                return JsValues.toInt32(stackValue) + (JsValues.parseInt(poolValue) * adjusted) / increment;
+
+            case RulesAttributes.GUEST_LIMIT:
+                // Value doesn't matter, just need it to be enforced
+                return -1.0;
+
+            default:
+                return JsValues.toInt32(stackValue) + JsValues.parseInt(poolValue) * quantity;
+        }
+    }
+}
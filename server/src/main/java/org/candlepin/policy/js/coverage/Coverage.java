@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.policy.js.compliance.ComplianceReason;
+
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * The Coverage class represents the extent to which an entitlement, or a stack of entitlements,
+ * covers a consumer.
+ */
+public class Coverage {
+
+    private final double percentage;
+    private final List<ComplianceReason> reasons;
+
+    /**
+     * Creates a new coverage result.
+     *
+     * @param percentage
+     *  the fraction of the consumer's compliance attributes which are covered
+     *
+     * @param reasons
+     *  the reasons the consumer is not covered
+     */
+    public Coverage(double percentage, List<ComplianceReason> reasons) {
+        this.percentage = percentage;
+        this.reasons = reasons != null ? reasons : Collections.emptyList();
+    }
+
+    public boolean isCovered() {
+        return this.percentage == 1;
+    }
+
+    public double getPercentage() {
+        return this.percentage;
+    }
+
+    public List<ComplianceReason> getReasons() {
+        return this.reasons;
+    }
+}
@@ -0,0 +1,394 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.policy.js.compliance.ComplianceReason;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The CoverageCalculator determines the coverage of a consumer provided by a single entitlement
+ * or a stack of entitlements. It is a port of the coverage calculations performed by the rules,
+ * and must produce the same results.
+ */
+public final class CoverageCalculator {
+    private static Logger log = LoggerFactory.getLogger(CoverageCalculator.class);
+
+    /** Stacked attributes which do not affect the quantity needed to make a stack valid */
+    private static final List<String> ATTRIBUTES_NOT_AFFECTING_QUANTITY = Arrays.asList(
+        RulesAttributes.ARCH, RulesAttributes.GUEST_LIMIT);
+
+    private CoverageCalculator() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Determines the coverage provided by the entitlements in the given stack.
+     *
+     * @param consumer
+     *  the consumer for which to determine coverage
+     *
+     * @param stackId
+     *  the ID of the stack
+     *
+     * @param entitlements
+     *  the consumer's entitlements; entitlements which are not part of the stack are only
+     *  considered for global attributes
+     *
+     * @return
+     *  the coverage provided by the stack
+     */
+    public static Coverage getStackCoverage(RulesConsumer consumer, String stackId,
+        Collection<RulesEntitlement> entitlements) {
+
+        ComplianceTracker tracker = new ComplianceTracker(consumer, stackId);
+
+        for (RulesEntitlement entitlement : entitlements) {
+            if (entitlement.isStacked()) {
+                Object currentStackId = entitlement.getPool().getProductAttribute(RulesAttributes.STACKING_ID);
+
+                if (looselyEquals(currentStackId, stackId)) {
+                    tracker.updateAccumulatedFromEnt(entitlement);
+                }
+            }
+        }
+
+        return getStackCoverage(tracker, consumer, entitlements);
+    }
+
+    /**
+     * Determines the coverage provided by a single entitlement.
+     *
+     * @param consumer
+     *  the consumer for which to determine coverage
+     *
+     * @param entitlement
+     *  the entitlement for which to determine coverage
+     *
+     * @param entitlements
+     *  the consumer's entitlements, considered for global attributes
+     *
+     * @return
+     *  the coverage provided by the entitlement
+     */
+    public static Coverage getEntitlementCoverage(RulesConsumer consumer, RulesEntitlement entitlement,
+        Collection<RulesEntitlement> entitlements) {
+
+        ComplianceTracker tracker = new ComplianceTracker(consumer, null);
+        tracker.updateAccumulatedFromEnt(entitlement);
+
+        return getStackCoverage(tracker, consumer, entitlements);
+    }
+
+    /**
+     * Determines the coverage provided by the values accumulated in the given tracker, after
+     * adjusting the values of any global attributes.
+     *
+     * @param tracker
+     *  the compliance tracker holding the accumulated values
+     *
+     * @param consumer
+     *  the consumer for which to determine coverage
+     *
+     * @param entitlements
+     *  the consumer's entitlements, considered for global attributes
+     *
+     * @return
+     *  the coverage provided by the tracker
+     */
+    public static Coverage getStackCoverage(ComplianceTracker tracker, RulesConsumer consumer,
+        Collection<RulesEntitlement> entitlements) {
+
+        for (String attribute : consumer.getComplianceAttributes()) {
+            if (tracker.enforces(attribute) && RulesAttributes.GLOBAL_ATTRIBUTES.contains(attribute)) {
+                tracker.setAccumulatedValue(attribute, getGlobalValue(attribute, entitlements));
+            }
+        }
+
+        return getCoverageForTracker(tracker, consumer);
+    }
+
+    /**
+     * Calculates the value of a global attribute across all of the given entitlements.
+     */
+    private static Object getGlobalValue(String attribute, Collection<RulesEntitlement> entitlements) {
+        if (RulesAttributes.GUEST_LIMIT.equals(attribute)) {
+            Double total = null;
+
+            for (RulesEntitlement entitlement : entitlements) {
+                RulesPool pool = entitlement.getPool();
+
+                if (pool.hasProductAttribute(attribute)) {
+                    if (total == null) {
+                        total = 0.0;
+                    }
+
+                    double poolValue = JsValues.parseInt(pool.getProductAttribute(attribute));
+                    if (poolValue == -1) {
+                        return poolValue;
+                    }
+
+                    if (poolValue > total) {
+                        total = poolValue;
+                    }
+                }
+            }
+
+            return total;
+        }
+
+        double total = 0;
+        for (RulesEntitlement entitlement : entitlements) {
+            RulesPool pool = entitlement.getPool();
+
+            if (pool.hasProductAttribute(attribute)) {
+                double value = JsValues.parseInt(pool.getProductAttribute(attribute));
+                total += JsValues.isTruthy(value) ? value : 0;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Determines the coverage provided by the values accumulated in the given tracker. Attributes
+     * which are not enforced by the tracker are considered to be covered.
+     */
+    private static Coverage getCoverageForTracker(ComplianceTracker tracker, RulesConsumer consumer) {
+        List<String> attributes = consumer.getComplianceAttributes();
+        List<ComplianceReason> reasons = new ArrayList<>();
+        int covered = 0;
+
+        for (String attribute : attributes) {
+            // if the value doesn't exist we do not enforce it.
+            if (!tracker.enforces(attribute)) {
+                ++covered;
+                continue;
+            }
+
+            ComplianceReason reason;
+            switch (attribute) {
+                case RulesAttributes.ARCH:
+                    reason = checkArchitecture(tracker, consumer);
+                    break;
+
+                case RulesAttributes.GUEST_LIMIT:
+                    reason = checkQuantity(tracker, attribute, consumer, true);
+                    break;
+
+                default:
+                    reason = checkQuantity(tracker, attribute, consumer, false);
+            }
+
+            if (reason == null) {
+                ++covered;
+            }
+            else {
+                reasons.add(reason);
+            }
+        }
+
+        return new Coverage((double) covered / attributes.size(), reasons);
+    }
+
+    private static ComplianceReason checkArchitecture(ComplianceTracker tracker, RulesConsumer consumer) {
+        Object supported = tracker.getAccumulatedValue(RulesAttributes.ARCH);
+        String consumerArch = consumer.getFact(RulesAttributes.ARCH_FACT);
+
+        if (supported instanceof List) {
+            for (Object arch : (List<?>) supported) {
+                String archString = arch != null ? JsValues.toString(arch) : null;
+
+                if (!architectureMatches(archString, consumerArch, consumer.getTypeLabel())) {
+                    log.debug("  System architecture not covered by: {}", archString);
+                    return buildReason(RulesAttributes.ARCH, tracker, consumerArch, archString);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Performs a simple integer comparison ensuring the accumulated value is at least the
+     * consumer's calculated value. If unlimited is set, an accumulated value of -1 is considered
+     * to cover any value.
+     */
+    private static ComplianceReason checkQuantity(ComplianceTracker tracker, String attribute,
+        RulesConsumer consumer, boolean unlimited) {
+
+        Object consumerQuantity = FactValueCalculator.getFact(attribute, consumer);
+        Object sourceValue = tracker.getAccumulatedValue(attribute);
+
+        boolean covered = (unlimited && sourceValue instanceof Number &&
+            ((Number) sourceValue).doubleValue() == -1) ||
+            JsValues.parseInt(sourceValue) >= JsValues.toNumber(consumerQuantity);
+
+        return covered ? null :
+            buildReason(attribute, tracker, JsValues.toJsonString(consumerQuantity),
+            JsValues.toJsonString(sourceValue));
+    }
+
+    private static ComplianceReason buildReason(String attribute, ComplianceTracker tracker, String has,
+        String covered) {
+
+        String key = attribute.toUpperCase();
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(ComplianceReason.Attributes.PRESENT, has);
+        attributes.put(ComplianceReason.Attributes.COVERED, covered);
+
+        if (ComplianceTracker.TYPE_STACK.equals(tracker.getType())) {
+            attributes.put(ComplianceReason.Attributes.STACKING_ID, tracker.getId());
+        }
+        else {
+            attributes.put(ComplianceReason.Attributes.ENTITLEMENT_ID, tracker.getId());
+        }
+
+        ComplianceReason reason = new ComplianceReason();
+        reason.setKey(key);
+        reason.setMessage(key);
+        reason.setAttributes(attributes);
+
+        return reason;
+    }
+
+    /**
+     * Determines the quantity of entitlements needed from the given pool for the stack tracked by
+     * the given tracker to cover the consumer.
+     *
+     * @param tracker
+     *  the tracker for the stack to cover
+     *
+     * @param pool
+     *  the pool from which entitlements would be taken
+     *
+     * @param consumer
+     *  the consumer to cover
+     *
+     * @param entitlements
+     *  the consumer's entitlements, considered for global attributes
+     *
+     * @return
+     *  the quantity of entitlements required from the pool
+     */
+    public static double getQuantityToCoverStack(ComplianceTracker tracker, RulesPool pool,
+        RulesConsumer consumer, Collection<RulesEntitlement> entitlements) {
+
+        List<String> attributesToUse = new ArrayList<>();
+        for (String attribute : consumer.getComplianceAttributes()) {
+            if (!ATTRIBUTES_NOT_AFFECTING_QUANTITY.contains(attribute) && pool.hasProductAttribute(attribute)) {
+                attributesToUse.add(attribute);
+            }
+        }
+
+        double increment = pool.hasProductAttribute(RulesAttributes.INSTANCE_MULTIPLIER) && !consumer.isGuest() ?
+            JsValues.parseInt(pool.getProductAttribute(RulesAttributes.INSTANCE_MULTIPLIER)) :
+            1;
+
+        boolean covered;
+        double quantity = 0;
+        boolean startedEmpty = tracker.isEmpty();
+
+        do {
+            if (startedEmpty || quantity != 0) {
+                // If the stack is empty, we can assume at least one is needed. This is to work around
+                // situations where the coverage comes back as 100% because no attributes are being
+                // enforced.
+                tracker.updateAccumulatedFromPool(pool, increment);
+                quantity += increment;
+            }
+
+            startedEmpty = true;
+            Coverage coverage = getStackCoverage(tracker, consumer, entitlements);
+
+            covered = true;
+            for (ComplianceReason reason : coverage.getReasons()) {
+                if (attributesToUse.contains(reason.getKey().toLowerCase())) {
+                    covered = false;
+                }
+            }
+        }
+        while (!covered && (quantity + increment <= pool.getAvailable() || pool.isUnlimited()));
+
+        log.debug("Quantity required to cover consumer: {}", quantity);
+        return quantity;
+    }
+
+    /**
+     * Checks if the consumer's architecture is supported by the given comma-separated list of
+     * product architectures.
+     *
+     * @param productArch
+     *  the architectures supported by the product
+     *
+     * @param consumerArch
+     *  the consumer's architecture
+     *
+     * @param consumerType
+     *  the label of the consumer's type, or null if the type should not be considered
+     *
+     * @return
+     *  true if the consumer's architecture is supported; false otherwise
+     */
+    public static boolean architectureMatches(String productArch, String consumerArch, String consumerType) {
+        // Non-system consumers without an architecture fact can pass this rule regardless what arch
+        // the product requires.
+        if (!JsValues.isTruthy(consumerArch) && !"system".equals(consumerType)) {
+            return true;
+        }
+
+        if (productArch != null) {
+            List<String> supported = new ArrayList<>(Arrays.asList(
+                productArch.toUpperCase().split(RulesAttributes.PROD_ARCHITECTURE_SEPARATOR, -1)));
+
+            // If X86 is supported, add all variants to this list:
+            if (supported.contains("X86")) {
+                supported.add("I386");
+                supported.add("I586");
+                supported.add("I686");
+            }
+
+            if (!supported.contains("ALL") && (!JsValues.isTruthy(consumerArch) ||
+                !supported.contains(consumerArch.toUpperCase()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Compares two values using javascript's loose equality, as the rules do when comparing stack
+     * IDs.
+     */
+    private static boolean looselyEquals(Object value1, Object value2) {
+        if (value1 == null || value2 == null) {
+            return value1 == value2;
+        }
+
+        return JsValues.toString(value1).equals(JsValues.toString(value2));
+    }
+}
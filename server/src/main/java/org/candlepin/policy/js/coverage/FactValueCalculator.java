@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+
+
+/**
+ * The FactValueCalculator determines the consumer value a product attribute should be compared
+ * against when determining coverage.
+ * <p></p>
+ * Values returned by the calculator are either the raw fact string or a number, depending on the
+ * attribute, matching the values calculated by the rules.
+ */
+public final class FactValueCalculator {
+
+    private FactValueCalculator() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Calculates the consumer value to use for the given product attribute.
+     *
+     * @param attribute
+     *  the product attribute for which to calculate the consumer's value
+     *
+     * @param consumer
+     *  the consumer for which to calculate the value
+     *
+     * @return
+     *  the calculated value; either a string or a double
+     */
+    public static Object getFact(String attribute, RulesConsumer consumer) {
+        switch (attribute) {
+            case RulesAttributes.RAM:
+                Object ram = getDefault(attribute, consumer);
+                return jsRound(JsValues.parseInt(ram) / 1024 / 1024);
+
+            case RulesAttributes.CORES:
+                // The consumer provides the cores per socket, so we need to multiply that by the number
+                // of sockets to get the total number of cores.
+                Object sockets = getFact(RulesAttributes.SOCKETS, consumer);
+                Object coresPerSocket = getDefault(attribute, consumer);
+                return JsValues.toNumber(coresPerSocket) * JsValues.toNumber(sockets);
+
+            case RulesAttributes.VCPU:
+                return getFact(RulesAttributes.CORES, consumer);
+
+            case RulesAttributes.GUEST_LIMIT:
+                return (double) consumer.getActiveGuestCount();
+
+            default:
+                return getDefault(attribute, consumer);
+        }
+    }
+
+    /**
+     * Returns the raw consumer fact mapped to the given attribute, or 1 if the fact is not set.
+     */
+    private static Object getDefault(String attribute, RulesConsumer consumer) {
+        String fact = consumer.getFact(RulesAttributes.ATTRIBUTES_TO_CONSUMER_FACTS.get(attribute));
+        return JsValues.isTruthy(fact) ? fact : (Object) 1.0;
+    }
+
+    /**
+     * Rounds the given value the way Math.round does in javascript, preserving NaN.
+     */
+    private static double jsRound(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? value : Math.floor(value + 0.5);
+    }
+}
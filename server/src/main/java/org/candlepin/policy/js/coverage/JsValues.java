@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+
+/**
+ * The JsValues class provides the small set of JavaScript value coercions and array utilities the
+ * rules rely on when operating on attribute and fact values. The native rules implementations use these to ensure
+ * they arrive at the same results as the javascript rules for unusual or malformed values.
+ */
+public final class JsValues {
+
+    private static final Pattern INT_PATTERN = Pattern.compile("^\\s*([+-]?)(0[xX][0-9a-fA-F]+|\\d+)");
+    private static final Pattern NUMBER_PATTERN =
+        Pattern.compile("^[+-]?(?:Infinity|(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][+-]?\\d+)?)$");
+    private static final Pattern HEX_PATTERN = Pattern.compile("^0[xX][0-9a-fA-F]+$");
+
+    private JsValues() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Implements the javascript parseInt function with an implicit radix.
+     *
+     * @param value
+     *  the value to parse
+     *
+     * @return
+     *  the parsed integer value, or NaN if the value could not be parsed
+     */
+    public static double parseInt(Object value) {
+        if (value instanceof Number) {
+            double dval = ((Number) value).doubleValue();
+
+            if (Double.isNaN(dval) || Double.isInfinite(dval)) {
+                return Double.NaN;
+            }
+
+            return dval < 0 ? Math.ceil(dval) : Math.floor(dval);
+        }
+
+        Matcher matcher = INT_PATTERN.matcher(toString(value));
+        if (!matcher.find()) {
+            return Double.NaN;
+        }
+
+        String digits = matcher.group(2);
+        double result = digits.length() > 2 && (digits.charAt(1) == 'x' || digits.charAt(1) == 'X') ?
+            new BigInteger(digits.substring(2), 16).doubleValue() :
+            new BigInteger(digits).doubleValue();
+
+        return "-".equals(matcher.group(1)) ? -result : result;
+    }
+
+    /**
+     * Implements the javascript ToNumber conversion.
+     *
+     * @param value
+     *  the value to convert
+     *
+     * @return
+     *  the numeric value of the given value, or NaN if the value is not numeric
+     */
+    public static double toNumber(Object value) {
+        if (value == null) {
+            return 0;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1 : 0;
+        }
+
+        String str = value.toString().trim();
+        if (str.isEmpty()) {
+            return 0;
+        }
+
+        if (HEX_PATTERN.matcher(str).matches()) {
+            return new BigInteger(str.substring(2), 16).doubleValue();
+        }
+
+        if (NUMBER_PATTERN.matcher(str).matches()) {
+            return str.endsWith("Infinity") ?
+                (str.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY) :
+                Double.parseDouble(str);
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Implements the javascript ToInt32 conversion, as performed by the "value | 0" idiom.
+     *
+     * @param value
+     *  the value to convert
+     *
+     * @return
+     *  the 32-bit integer value of the given value
+     */
+    public static int toInt32(Object value) {
+        double dval = toNumber(value);
+
+        if (Double.isNaN(dval) || Double.isInfinite(dval)) {
+            return 0;
+        }
+
+        return (int) (long) dval;
+    }
+
+    /**
+     * Implements javascript truthiness for the values the rules operate on.
+     *
+     * @param value
+     *  the value to test
+     *
+     * @return
+     *  true if the value would be considered true by javascript; false otherwise
+     */
+    public static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+
+        if (value instanceof Number) {
+            double dval = ((Number) value).doubleValue();
+            return dval != 0 && !Double.isNaN(dval);
+        }
+
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+
+        return true;
+    }
+
+    /**
+     * Implements the javascript ToString conversion for the values the rules operate on.
+     *
+     * @param value
+     *  the value to convert
+     *
+     * @return
+     *  the string representation of the value as javascript would produce it
+     */
+    public static String toString(Object value) {
+        if (value == null) {
+            return "null";
+        }
+
+        if (value instanceof Double || value instanceof Float) {
+            double dval = ((Number) value).doubleValue();
+
+            if (Double.isNaN(dval)) {
+                return "NaN";
+            }
+
+            if (Double.isInfinite(dval)) {
+                return dval > 0 ? "Infinity" : "-Infinity";
+            }
+
+            if (dval == Math.rint(dval) && Math.abs(dval) < 1e21) {
+                return Long.toString((long) dval);
+            }
+
+            return Double.toString(dval);
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * Converts the given value to the string that would be received by the server after the
+     * value is serialized to JSON by the rules and read back into a string-valued map. Non-finite
+     * numbers are serialized as null.
+     *
+     * @param value
+     *  the value to convert
+     *
+     * @return
+     *  the string representation of the value, or null if the value would be serialized as null
+     */
+    public static String toJsonString(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Number) {
+            double dval = ((Number) value).doubleValue();
+
+            if (Double.isNaN(dval) || Double.isInfinite(dval)) {
+                return null;
+            }
+
+            if (dval == Math.rint(dval) && Math.abs(dval) < 1e15) {
+                return Long.toString((long) dval);
+            }
+
+            return Double.toString(dval);
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * Determines if two strings are equal, ignoring case, following the rules' semantics where
+     * null and empty values are not lowercased and null does not equal an empty string.
+     *
+     * @param str1
+     *  the first string to compare
+     *
+     * @param str2
+     *  the second string to compare
+     *
+     * @return
+     *  true if the strings are equal, ignoring case; false otherwise
+     */
+    public static boolean equalsIgnoreCase(String str1, String str2) {
+        if (str1 == null || str2 == null) {
+            return str1 == str2;
+        }
+
+        return str1.toLowerCase().equals(str2.toLowerCase());
+    }
+
+    /**
+     * Returns a list of the elements in the first list which are not in the second list. As with
+     * the rules, only one occurrence of an element is removed per occurrence in the second list.
+     *
+     * @param list1
+     *  the list from which to remove elements
+     *
+     * @param list2
+     *  the list of elements to remove
+     *
+     * @return
+     *  a new list containing the difference of the two lists
+     */
+    public static <T> List<T> difference(List<T> list1, List<T> list2) {
+        List<T> result = new ArrayList<>(list1);
+
+        for (T elem : list2) {
+            result.remove(elem);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a list of the elements in the first list which are also in the second list.
+     *
+     * @param list1
+     *  the list from which to select elements
+     *
+     * @param list2
+     *  the list of elements to retain
+     *
+     * @return
+     *  a new list containing the intersection of the two lists
+     */
+    public static <T> List<T> intersection(List<T> list1, List<T> list2) {
+        List<T> result = new ArrayList<>();
+
+        for (T elem : list1) {
+            if (list2.contains(elem)) {
+                result.add(elem);
+            }
+        }
+
+        return result;
+    }
+}
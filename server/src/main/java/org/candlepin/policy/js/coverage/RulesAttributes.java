@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * Attribute and fact names, and the attribute groupings, used by the rules when determining
+ * coverage. These mirror the definitions at the top of rules.js and must be kept in sync with
+ * them.
+ */
+public final class RulesAttributes {
+
+    public static final String SOCKET_FACT = "cpu.cpu_socket(s)";
+    public static final String RAM_FACT = "memory.memtotal";
+    public static final String CORES_FACT = "cpu.core(s)_per_socket";
+    public static final String ARCH_FACT = "uname.machine";
+    public static final String IS_VIRT_GUEST_FACT = "virt.is_guest";
+    public static final String STORAGE_BAND_USAGE = "band.storage.usage";
+
+    public static final String SOCKETS = "sockets";
+    public static final String CORES = "cores";
+    public static final String ARCH = "arch";
+    public static final String RAM = "ram";
+    public static final String INSTANCE_MULTIPLIER = "instance_multiplier";
+    public static final String REQUIRES_HOST = "requires_host";
+    public static final String VIRT_ONLY = "virt_only";
+    public static final String UNMAPPED_GUESTS_ONLY = "unmapped_guests_only";
+    public static final String GUEST_LIMIT = "guest_limit";
+    public static final String VCPU = "vcpu";
+    public static final String MULTI_ENTITLEMENT = "multi-entitlement";
+    public static final String STACKING_ID = "stacking_id";
+    public static final String STORAGE_BAND = "storage_band";
+
+    public static final String PROD_ARCHITECTURE_SEPARATOR = ",";
+
+    /** Maps product attributes to the consumer facts they are compared against */
+    public static final Map<String, String> ATTRIBUTES_TO_CONSUMER_FACTS;
+
+    /** Attributes considered when determining coverage of a physical system */
+    public static final List<String> PHYSICAL_ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+        SOCKETS, CORES, RAM, ARCH, GUEST_LIMIT, STORAGE_BAND));
+
+    /** Attributes considered when determining coverage of a virtual guest */
+    public static final List<String> VIRT_ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+        VCPU, RAM, ARCH, GUEST_LIMIT, STORAGE_BAND));
+
+    /** Attributes which are not considered on pools that are host restricted */
+    public static final List<String> UNCHECKED_WHEN_HOST_RESTRICTED = Collections.unmodifiableList(
+        Arrays.asList(RAM, VCPU));
+
+    /** Attributes which are considered by grouping them across all entitlements on the system */
+    public static final List<String> GLOBAL_ATTRIBUTES = Collections.singletonList(GUEST_LIMIT);
+
+    static {
+        Map<String, String> mapping = new HashMap<>();
+        mapping.put(SOCKETS, SOCKET_FACT);
+        mapping.put(CORES, CORES_FACT);
+        mapping.put(ARCH, ARCH_FACT);
+        mapping.put(RAM, RAM_FACT);
+        mapping.put(VCPU, CORES_FACT);
+        mapping.put(STORAGE_BAND, STORAGE_BAND_USAGE);
+
+        ATTRIBUTES_TO_CONSUMER_FACTS = Collections.unmodifiableMap(mapping);
+    }
+
+    private RulesAttributes() {
+        // Intentionally left empty
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The RulesCompliance class holds the entitlement maps of a compliance status as seen by the
+ * rules, with each entitlement's pool converted for the consumer being evaluated.
+ */
+public class RulesCompliance {
+
+    private final Map<String, List<RulesEntitlement>> compliantProducts;
+    private final Map<String, List<RulesEntitlement>> partiallyCompliantProducts;
+    private final Map<String, List<RulesEntitlement>> partialStacks;
+
+    /**
+     * Creates a new, empty compliance status.
+     */
+    public RulesCompliance() {
+        this.compliantProducts = new LinkedHashMap<>();
+        this.partiallyCompliantProducts = new LinkedHashMap<>();
+        this.partialStacks = new LinkedHashMap<>();
+    }
+
+    /**
+     * Creates a new compliance status from the given compliance status DTO.
+     *
+     * @param source
+     *  the compliance status DTO to convert
+     *
+     * @param consumer
+     *  the consumer to which the compliance status applies
+     */
+    public RulesCompliance(ComplianceStatusDTO source, RulesConsumer consumer) {
+        this();
+
+        if (source != null) {
+            convert(source.getCompliantProducts(), this.compliantProducts, consumer);
+            convert(source.getPartiallyCompliantProducts(), this.partiallyCompliantProducts, consumer);
+            convert(source.getPartialStacks(), this.partialStacks, consumer);
+        }
+    }
+
+    private static void convert(Map<String, ? extends Collection<EntitlementDTO>> source,
+        Map<String, List<RulesEntitlement>> dest, RulesConsumer consumer) {
+
+        if (source == null) {
+            return;
+        }
+
+        for (Map.Entry<String, ? extends Collection<EntitlementDTO>> entry : source.entrySet()) {
+            List<RulesEntitlement> entitlements = new ArrayList<>();
+
+            if (entry.getValue() != null) {
+                for (EntitlementDTO entitlement : entry.getValue()) {
+                    entitlements.add(new RulesEntitlement(entitlement, consumer));
+                }
+            }
+
+            dest.put(entry.getKey(), entitlements);
+        }
+    }
+
+    public Map<String, List<RulesEntitlement>> getCompliantProducts() {
+        return this.compliantProducts;
+    }
+
+    public Map<String, List<RulesEntitlement>> getPartiallyCompliantProducts() {
+        return this.partiallyCompliantProducts;
+    }
+
+    public Map<String, List<RulesEntitlement>> getPartialStacks() {
+        return this.partialStacks;
+    }
+}
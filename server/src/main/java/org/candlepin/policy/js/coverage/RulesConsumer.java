@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.GuestIdDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The RulesConsumer class is the native counterpart to the consumer objects built by the
+ * createConsumer function in the rules. It wraps a rules ConsumerDTO and provides access to the
+ * consumer's facts and system purpose values as the rules see them.
+ */
+public class RulesConsumer {
+
+    private final ConsumerDTO source;
+    private final Map<String, String> facts;
+    private final List<String> installedProducts;
+    private final List<String> addOns;
+    private final String role;
+    private final String usage;
+    private final List<GuestIdDTO> guestIds;
+
+    private RulesCompliance compliance;
+
+    /**
+     * Creates a new RulesConsumer from the given rules consumer DTO.
+     *
+     * @param source
+     *  the consumer DTO to wrap
+     *
+     * @param guestIds
+     *  the guests of the consumer, or null if the guests are not known
+     *
+     * @throws IllegalArgumentException
+     *  if source is null
+     */
+    public RulesConsumer(ConsumerDTO source, List<GuestIdDTO> guestIds) {
+        if (source == null) {
+            throw new IllegalArgumentException("source is null");
+        }
+
+        this.source = source;
+        this.facts = source.getFacts() != null ? source.getFacts() : Collections.emptyMap();
+        this.installedProducts = source.getInstalledProducts() != null ?
+            new ArrayList<>(source.getInstalledProducts()) :
+            null;
+
+        this.addOns = source.getAddOns() != null ? new ArrayList<>(source.getAddOns()) : new ArrayList<>();
+        this.role = JsValues.isTruthy(source.getRole()) ? source.getRole() : null;
+        this.usage = JsValues.isTruthy(source.getUsage()) ? source.getUsage() : null;
+        this.guestIds = guestIds;
+        this.compliance = new RulesCompliance();
+    }
+
+    public ConsumerDTO getSource() {
+        return this.source;
+    }
+
+    public String getFact(String name) {
+        return this.facts.get(name);
+    }
+
+    public boolean hasFact(String name) {
+        return this.facts.containsKey(name);
+    }
+
+    public String getTypeLabel() {
+        return this.source.getType() != null ? this.source.getType().getLabel() : null;
+    }
+
+    public boolean isManifest() {
+        return this.source.getType() != null && Boolean.TRUE.equals(this.source.getType().isManifest());
+    }
+
+    /**
+     * Fetches the IDs of the consumer's installed products, in the order they were provided to
+     * the rules.
+     *
+     * @return
+     *  the list of installed product IDs, or null if the consumer's installed products are not
+     *  known
+     */
+    public List<String> getInstalledProducts() {
+        return this.installedProducts != null ? Collections.unmodifiableList(this.installedProducts) : null;
+    }
+
+    /**
+     * Fetches the consumer's add-ons. The list returned is the list backing this consumer, and
+     * may be modified by the rules as they operate on it.
+     *
+     * @return
+     *  the list of add-ons for this consumer
+     */
+    public List<String> getAddOns() {
+        return this.addOns;
+    }
+
+    public String getRole() {
+        return this.role;
+    }
+
+    public String getUsage() {
+        return this.usage;
+    }
+
+    public String getServiceLevel() {
+        return this.source.getServiceLevel();
+    }
+
+    public List<GuestIdDTO> getGuestIds() {
+        return this.guestIds;
+    }
+
+    public RulesCompliance getCompliance() {
+        return this.compliance;
+    }
+
+    public void setCompliance(RulesCompliance compliance) {
+        this.compliance = compliance != null ? compliance : new RulesCompliance();
+    }
+
+    /**
+     * Checks if this consumer is a virtual guest, as reported by its facts.
+     *
+     * @return
+     *  true if this consumer is a guest; false otherwise
+     */
+    public boolean isGuest() {
+        String fact = this.getFact(RulesAttributes.IS_VIRT_GUEST_FACT);
+        return JsValues.isTruthy(fact) && JsValues.equalsIgnoreCase("true", fact);
+    }
+
+    /**
+     * Fetches the attributes which affect the compliance of this consumer.
+     *
+     * @return
+     *  the list of compliance attributes for this consumer
+     */
+    public List<String> getComplianceAttributes() {
+        return this.isGuest() ? RulesAttributes.VIRT_ATTRIBUTES : RulesAttributes.PHYSICAL_ATTRIBUTES;
+    }
+
+    /**
+     * Fetches the values the consumer has specified for the given system purpose attribute, or the
+     * consumer's installed products if the attribute is "products". As with the rules, add-ons are
+     * lowercased in place.
+     *
+     * @param attribute
+     *  the attribute for which to fetch the specified values
+     *
+     * @return
+     *  the list of values specified by the consumer
+     */
+    public List<String> retrieveSpecifiedAttributeValues(String attribute) {
+        List<String> specified;
+
+        switch (attribute) {
+            case "products":
+                return this.installedProducts != null ? new ArrayList<>(this.installedProducts) :
+                    new ArrayList<>();
+
+            case "addons":
+                specified = this.addOns;
+                break;
+
+            case "roles":
+                specified = this.role != null ? this.singleton(this.role) : new ArrayList<>();
+                break;
+
+            case "usage":
+                specified = this.usage != null ? this.singleton(this.usage) : new ArrayList<>();
+                break;
+
+            case "support_level":
+                specified = JsValues.isTruthy(this.getServiceLevel()) ?
+                    this.singleton(this.getServiceLevel()) :
+                    new ArrayList<>();
+                break;
+
+            default:
+                specified = new ArrayList<>();
+        }
+
+        for (int i = 0; i < specified.size(); ++i) {
+            specified.set(i, specified.get(i).toLowerCase());
+        }
+
+        return specified;
+    }
+
+    private List<String> singleton(String value) {
+        List<String> list = new ArrayList<>();
+        list.add(value);
+
+        return list;
+    }
+
+    /**
+     * Fetches the values of the given system purpose attribute which are already satisfied by the
+     * consumer's existing entitlements, or the compliant products if the attribute is "products".
+     *
+     * @param attribute
+     *  the attribute for which to fetch the satisfied values
+     *
+     * @return
+     *  the list of values satisfied by the consumer's entitlements
+     */
+    public List<String> retrieveSatisfiedAttributeValues(String attribute) {
+        if ("products".equals(attribute)) {
+            return new ArrayList<>(this.compliance.getCompliantProducts().keySet());
+        }
+
+        List<Map<String, List<RulesEntitlement>>> productMaps = new ArrayList<>();
+        productMaps.add(this.compliance.getCompliantProducts());
+        productMaps.add(this.compliance.getPartiallyCompliantProducts());
+        productMaps.add(this.compliance.getPartialStacks());
+
+        List<String> values = new ArrayList<>();
+        for (Map<String, List<RulesEntitlement>> productMap : productMaps) {
+            for (List<RulesEntitlement> entitlements : productMap.values()) {
+                for (RulesEntitlement entitlement : entitlements) {
+                    Object value = entitlement.getPool().getProductAttribute(attribute);
+                    String strval = value != null ? JsValues.toString(value) : null;
+
+                    boolean exists = false;
+                    for (String existing : values) {
+                        if (JsValues.equalsIgnoreCase(existing, strval)) {
+                            exists = true;
+                            break;
+                        }
+                    }
+
+                    if (!exists && JsValues.isTruthy(strval)) {
+                        values.add(strval);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < values.size(); ++i) {
+            values.set(i, values.get(i).toLowerCase());
+        }
+
+        return values;
+    }
+
+    /**
+     * Fetches the values of the given system purpose attribute which the consumer has specified,
+     * but are not yet satisfied by its existing entitlements.
+     *
+     * @param attribute
+     *  the attribute for which to fetch the unsatisfied values
+     *
+     * @return
+     *  the list of unsatisfied values for the given attribute
+     */
+    public List<String> retrieveUnsatisfiedAttributeValues(String attribute) {
+        List<String> satisfied = this.retrieveSatisfiedAttributeValues(attribute);
+        List<String> specified = this.retrieveSpecifiedAttributeValues(attribute);
+
+        return JsValues.difference(specified, satisfied);
+    }
+
+    /**
+     * Counts the number of active guests of this consumer, as considered for the guest_limit
+     * attribute.
+     *
+     * @return
+     *  the number of active guests
+     */
+    public int getActiveGuestCount() {
+        int count = 0;
+
+        if (this.guestIds != null) {
+            for (GuestIdDTO guest : this.guestIds) {
+                Map<String, String> attributes = guest != null ? guest.getAttributes() : null;
+
+                if (attributes != null && "libvirt".equals(attributes.get("virtWhoType")) &&
+                    "1".equals(attributes.get("active"))) {
+                    ++count;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RulesConsumer [uuid: %s]", this.source.getUuid());
+    }
+}
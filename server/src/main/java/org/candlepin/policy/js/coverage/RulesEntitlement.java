@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+
+import java.util.Date;
+
+
+
+/**
+ * The RulesEntitlement class represents an entitlement, or a prospective entitlement, as seen
+ * by the rules. Unlike the EntitlementDTO, the quantity of a RulesEntitlement may be adjusted
+ * while the rules determine the quantity needed to cover a consumer.
+ */
+public class RulesEntitlement {
+
+    private final EntitlementDTO source;
+    private final String id;
+    private final RulesPool pool;
+    private final Date startDate;
+    private final Date endDate;
+    private double quantity;
+
+    /**
+     * Creates a new entitlement from the given pool, with the specified quantity.
+     *
+     * @param id
+     *  the ID of the entitlement; may be null for prospective entitlements
+     *
+     * @param pool
+     *  the pool from which the entitlement was, or would be, created
+     *
+     * @param quantity
+     *  the quantity of the entitlement
+     *
+     * @param startDate
+     *  the start date of the entitlement
+     *
+     * @param endDate
+     *  the end date of the entitlement
+     */
+    public RulesEntitlement(String id, RulesPool pool, double quantity, Date startDate, Date endDate) {
+        this(null, id, pool, quantity, startDate, endDate);
+    }
+
+    /**
+     * Creates a new entitlement from the given entitlement DTO.
+     *
+     * @param source
+     *  the entitlement DTO to convert
+     *
+     * @param consumer
+     *  the consumer which owns the entitlement
+     */
+    public RulesEntitlement(EntitlementDTO source, RulesConsumer consumer) {
+        this(source, source.getId(), new RulesPool(source.getPool(), consumer),
+            JsValues.toNumber(source.getQuantity()), source.getStartDate(), source.getEndDate());
+    }
+
+    private RulesEntitlement(EntitlementDTO source, String id, RulesPool pool, double quantity,
+        Date startDate, Date endDate) {
+
+        if (pool == null) {
+            throw new IllegalArgumentException("pool is null");
+        }
+
+        this.source = source;
+        this.id = id;
+        this.pool = pool;
+        this.quantity = quantity;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Creates a prospective entitlement for the currently available quantity of the given pool.
+     *
+     * @param pool
+     *  the pool from which to create the entitlement
+     *
+     * @return
+     *  a new entitlement for the given pool
+     */
+    public static RulesEntitlement forPool(RulesPool pool) {
+        return new RulesEntitlement(null, pool, pool.getCurrentlyAvailable(), pool.getStartDate(),
+            pool.getEndDate());
+    }
+
+    /**
+     * Fetches the entitlement DTO from which this entitlement was created.
+     *
+     * @return
+     *  the source entitlement DTO, or null if this is a prospective entitlement
+     */
+    public EntitlementDTO getSource() {
+        return this.source;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public RulesPool getPool() {
+        return this.pool;
+    }
+
+    public double getQuantity() {
+        return this.quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+
+    public Date getStartDate() {
+        return this.startDate;
+    }
+
+    public Date getEndDate() {
+        return this.endDate;
+    }
+
+    public boolean isStacked() {
+        return this.pool.isStacked();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RulesEntitlement [id: %s, pool: %s, quantity: %s]", this.id, this.pool,
+            JsValues.toString(this.quantity));
+    }
+}
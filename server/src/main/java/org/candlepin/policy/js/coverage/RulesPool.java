@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import org.candlepin.dto.rules.v1.PoolDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * The RulesPool class is the native counterpart to the pool objects built by the createPool
+ * function in the rules. It wraps a rules PoolDTO and provides the attribute lookups and
+ * derived values the rules use when determining coverage and selecting pools.
+ * <p></p>
+ * Attribute values are held as objects rather than strings, as the rules may inject numeric
+ * attributes (such as vcpu) into a pool when operating on behalf of a guest.
+ */
+public class RulesPool {
+
+    private final PoolDTO source;
+    private final Map<String, Object> attributes;
+    private final Map<String, Object> productAttributes;
+    private final List<String> products;
+    private final List<String> derivedProducts;
+
+    private double currentlyAvailable;
+
+    /**
+     * Creates a new RulesPool from the given rules pool DTO.
+     *
+     * @param source
+     *  the pool DTO to wrap
+     *
+     * @param consumer
+     *  the consumer the pool is being evaluated for, or null if the pool is being evaluated
+     *  without a consumer
+     *
+     * @throws IllegalArgumentException
+     *  if source is null
+     */
+    public RulesPool(PoolDTO source, RulesConsumer consumer) {
+        if (source == null) {
+            throw new IllegalArgumentException("source is null");
+        }
+
+        this.source = source;
+        this.attributes = source.getAttributes() != null ?
+            new LinkedHashMap<>(source.getAttributes()) :
+            new LinkedHashMap<>();
+
+        this.productAttributes = source.getProductAttributes() != null ?
+            new LinkedHashMap<>(source.getProductAttributes()) :
+            new LinkedHashMap<>();
+
+        this.products = new ArrayList<>();
+        this.products.add(source.getProductId());
+        this.addProductIds(this.products, source.getProvidedProducts());
+
+        this.derivedProducts = new ArrayList<>();
+        if (this.hasDerived()) {
+            this.derivedProducts.add(source.getDerivedProductId());
+            this.addProductIds(this.derivedProducts, source.getDerivedProvidedProducts());
+        }
+
+        // When pool is missing vcpu and consumer is virtual, pool should use cores instead
+        if (consumer != null && consumer.isGuest() && !this.hasAttribute(RulesAttributes.VCPU) &&
+            this.hasAttribute(RulesAttributes.CORES)) {
+
+            this.attributes.put(RulesAttributes.VCPU,
+                JsValues.parseInt(this.getAttribute(RulesAttributes.CORES)));
+        }
+    }
+
+    private void addProductIds(List<String> dest, Collection<PoolDTO.ProvidedProductDTO> provided) {
+        if (provided != null) {
+            for (PoolDTO.ProvidedProductDTO product : provided) {
+                dest.add(product.getProductId());
+            }
+        }
+    }
+
+    public PoolDTO getSource() {
+        return this.source;
+    }
+
+    public String getId() {
+        return this.source.getId();
+    }
+
+    public String getProductId() {
+        return this.source.getProductId();
+    }
+
+    public Date getStartDate() {
+        return this.source.getStartDate();
+    }
+
+    public Date getEndDate() {
+        return this.source.getEndDate();
+    }
+
+    public double getQuantity() {
+        return JsValues.toNumber(this.source.getQuantity());
+    }
+
+    public double getConsumed() {
+        return JsValues.toNumber(this.source.getConsumed());
+    }
+
+    public double getCurrentlyAvailable() {
+        return this.currentlyAvailable;
+    }
+
+    public void setCurrentlyAvailable(double currentlyAvailable) {
+        this.currentlyAvailable = currentlyAvailable;
+    }
+
+    /**
+     * Looks up an attribute in the given collection of attributes. An attribute with a value of
+     * zero is considered to be unset.
+     */
+    private Object findAttributeIn(String name, Map<String, Object> attributes) {
+        Object value = attributes.get(name);
+
+        if ("0".equals(value) || (value instanceof Number && ((Number) value).doubleValue() == 0)) {
+            return null;
+        }
+
+        return value;
+    }
+
+    /**
+     * Fetches the value of the given attribute, checking the pool attributes before falling back
+     * to the product attributes.
+     *
+     * @param name
+     *  the name of the attribute to fetch
+     *
+     * @return
+     *  the value of the attribute, or null if the attribute is not set
+     */
+    public Object getAttribute(String name) {
+        Object value = this.findAttributeIn(name, this.attributes);
+        return value != null ? value : this.findAttributeIn(name, this.productAttributes);
+    }
+
+    public boolean hasAttribute(String name) {
+        return this.getAttribute(name) != null;
+    }
+
+    /**
+     * Fetches the value of the given attribute, checking the product attributes before falling
+     * back to the pool attributes.
+     *
+     * @param name
+     *  the name of the attribute to fetch
+     *
+     * @return
+     *  the value of the attribute, or null if the attribute is not set
+     */
+    public Object getProductAttribute(String name) {
+        Object value = this.findAttributeIn(name, this.productAttributes);
+        return value != null ? value : this.findAttributeIn(name, this.attributes);
+    }
+
+    public boolean hasProductAttribute(String name) {
+        return this.getProductAttribute(name) != null;
+    }
+
+    /**
+     * Checks if the pool defines a stacking ID. Unlike the other attribute checks, a stacking ID
+     * with a value of zero is still considered to be set.
+     *
+     * @return
+     *  true if the pool is stackable; false otherwise
+     */
+    public boolean isStacked() {
+        return this.productAttributes.containsKey(RulesAttributes.STACKING_ID);
+    }
+
+    public boolean isMultiEnt() {
+        Object value = this.getProductAttribute(RulesAttributes.MULTI_ENTITLEMENT);
+        return JsValues.equalsIgnoreCase(value != null ? value.toString() : null, "yes");
+    }
+
+    public boolean provides(String productId) {
+        return this.products.contains(productId);
+    }
+
+    /**
+     * Fetches the IDs of the products provided by this pool, including the pool's own product.
+     *
+     * @return
+     *  an unmodifiable list of product IDs provided by this pool
+     */
+    public List<String> getProducts() {
+        return Collections.unmodifiableList(this.products);
+    }
+
+    public boolean hasDerived() {
+        return this.source.getDerivedProductId() != null;
+    }
+
+    /**
+     * Fetches the IDs of the derived products provided by this pool, including the pool's derived
+     * product. If the pool does not have a derived product, this method returns an empty list.
+     *
+     * @return
+     *  an unmodifiable list of derived product IDs provided by this pool
+     */
+    public List<String> getDerivedProducts() {
+        return Collections.unmodifiableList(this.derivedProducts);
+    }
+
+    public boolean isUnlimited() {
+        return this.getQuantity() < 0;
+    }
+
+    public double getAvailable() {
+        return this.getQuantity() - this.getConsumed();
+    }
+
+    public double getInstanceMulti() {
+        double multi = JsValues.parseInt(this.getAttribute(RulesAttributes.INSTANCE_MULTIPLIER));
+        return JsValues.isTruthy(multi) ? multi : 1;
+    }
+
+    /**
+     * Fetches the values the pool provides for the given system purpose attribute, or the
+     * products provided by the pool if the attribute is "products".
+     *
+     * @param attribute
+     *  the name of the attribute for which to fetch values
+     *
+     * @return
+     *  a list of lowercase values provided by the pool for the given attribute
+     */
+    public List<String> retrievePoolAttributeValues(String attribute) {
+        List<String> values = new ArrayList<>();
+
+        if ("products".equals(attribute)) {
+            for (String pid : this.hasDerived() ? this.derivedProducts : this.products) {
+                if (pid != null) {
+                    values.add(pid);
+                }
+            }
+
+            return values;
+        }
+
+        Object value = this.getProductAttribute(attribute);
+        if (!JsValues.isTruthy(value)) {
+            return values;
+        }
+
+        if ("addons".equals(attribute) || "roles".equals(attribute)) {
+            Collections.addAll(values, JsValues.toString(value).split(",", -1));
+        }
+        else if ("support_level".equals(attribute) || "usage".equals(attribute)) {
+            values.add(JsValues.toString(value));
+        }
+
+        for (int i = 0; i < values.size(); ++i) {
+            values.set(i, values.get(i).toLowerCase().trim());
+        }
+
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RulesPool [id: %s, product id: %s]", this.getId(), this.getProductId());
+    }
+}
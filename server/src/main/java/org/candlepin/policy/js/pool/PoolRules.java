@@ -214,6 +214,21 @@ public class PoolRules {
         return null;
     }
 
+    /**
+     * Checks whether a bonus pool is created alongside the master pool of a subscription for the
+     * given product, as determined by the product's virt_limit attribute.
+     *
+     * @param product
+     *  the product of the subscription
+     *
+     * @return
+     *  true if the subscription's pools include a bonus pool; false otherwise
+     */
+    public boolean requiresBonusPool(Product product) {
+        String virtLimit = product != null ? product.getAttributeValue(Product.Attributes.VIRT_LIMIT) : null;
+        return virtLimit != null && this.getVirtQuantity(virtLimit, 1) != null;
+    }
+
     private boolean hasMasterPool(List<Pool> pools) {
         if (pools != null) {
             for (Pool pool : pools) {
@@ -18,11 +18,13 @@ import org.candlepin.audit.EventSink;
 import org.candlepin.audit.QueueStatus;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.SystemPrincipal;
+import org.candlepin.cache.BoundedCache;
 import org.candlepin.cache.CandlepinCache;
 import org.candlepin.common.auth.SecurityHole;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.model.User;
 import org.candlepin.model.UserCurator;
+import org.candlepin.pki.KeyPairPool;
 import org.candlepin.service.UserServiceAdapter;
 import org.candlepin.service.impl.DefaultUserServiceAdapter;
 
@@ -35,7 +37,9 @@ import org.jboss.resteasy.core.ResteasyContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -56,15 +60,18 @@ public class AdminResource {
     private EventSink sink;
     private Configuration config;
     private CandlepinCache candlepinCache;
+    private KeyPairPool keyPairPool;
 
     @Inject
     public AdminResource(UserServiceAdapter userService, UserCurator userCurator,
-        EventSink dispatcher, Configuration config, CandlepinCache candlepinCache) {
+        EventSink dispatcher, Configuration config, CandlepinCache candlepinCache,
+        KeyPairPool keyPairPool) {
         this.userService = userService;
         this.userCurator = userCurator;
         this.sink = dispatcher;
         this.config = config;
         this.candlepinCache = candlepinCache;
+        this.keyPairPool = keyPairPool;
     }
 
     @GET
@@ -110,4 +117,35 @@ public class AdminResource {
     public List<QueueStatus> getQueueStats() {
         return sink.getQueueInfo();
     }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON})
+    @Path("keypairs")
+    @ApiOperation(
+        notes = "Basic information on the pool of pre-generated consumer key pairs on this node.",
+        value = "Get Key Pair Pool Stats")
+    public Map<String, Object> getKeyPairPoolStats() {
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("depth", keyPairPool.getDepth());
+        output.put("taken", keyPairPool.getTakenCount());
+        output.put("starved", keyPairPool.getStarvedCount());
+
+        return output;
+    }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON})
+    @Path("caches")
+    @ApiOperation(
+        notes = "Basic information on the size, hits and misses of each node-local cache on this node.",
+        value = "Get Local Cache Stats")
+    public Map<String, Object> getLocalCacheStats() {
+        Map<String, Object> output = new LinkedHashMap<>();
+
+        for (BoundedCache<?, ?> cache : candlepinCache.getLocalCaches()) {
+            output.put(cache.getName(), cache.getStatistics());
+        }
+
+        return output;
+    }
 }
@@ -64,6 +64,7 @@ import org.candlepin.dto.api.v1.HypervisorIdDTO;
 import org.candlepin.dto.api.v1.OwnerDTO;
 import org.candlepin.dto.api.v1.PoolQuantityDTO;
 import org.candlepin.dto.api.v1.SystemPurposeComplianceStatusDTO;
+import org.candlepin.model.AppendedCandlepinQuery;
 import org.candlepin.model.AsyncJobStatus;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CdnCurator;
@@ -178,6 +179,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -1793,7 +1795,7 @@ public class ConsumerResource {
     @Path("{consumer_uuid}/certificates")
     @Produces(MediaType.APPLICATION_JSON)
     @UpdateConsumerCheckIn
-    public List<CertificateDTO> getEntitlementCertificates(
+    public CandlepinQuery<CertificateDTO> getEntitlementCertificates(
         @PathParam("consumer_uuid") @Verify(Consumer.class) String consumerUuid,
         @QueryParam("serials") String serials) {
 
@@ -1806,20 +1808,12 @@ public class ConsumerResource {
 
         Set<Long> serialSet = this.extractSerials(serials);
 
-        List<CertificateDTO> returnCerts = new LinkedList<>();
-        List<EntitlementCertificate> allCerts = entCertService.listForConsumer(consumer);
-
-        for (EntitlementCertificate cert : allCerts) {
-            if (serialSet.isEmpty() || serialSet.contains(cert.getSerial().getId())) {
-                returnCerts.add(translator.translate(cert, CertificateDTO.class));
-            }
-        }
-
-        // we want to insert the content access cert to this list if appropriate
+        // we want to append the content access cert to the streamed certs if appropriate
+        List<CertificateDTO> extraCerts = new LinkedList<>();
         try {
             Certificate cert = this.contentAccessManager.getCertificate(consumer);
             if (cert != null) {
-                returnCerts.add(translator.translate(cert, CertificateDTO.class));
+                extraCerts.add(translator.translate(cert, CertificateDTO.class));
             }
         }
         catch (IOException ioe) {
@@ -1829,7 +1823,9 @@ public class ConsumerResource {
             throw new BadRequestException(i18n.tr("Cannot retrieve content access certificate"), gse);
         }
 
-        return returnCerts;
+        CandlepinQuery<EntitlementCertificate> query = entCertService.findForConsumer(consumer, serialSet);
+        return new AppendedCandlepinQuery<>(this.translator.translateQuery(query, CertificateDTO.class),
+            extraCerts);
     }
 
     @ApiOperation(notes = "Retrieves the body of the Content Access Certificate for the Consumer",
@@ -1841,17 +1837,31 @@ public class ConsumerResource {
     public Response getContentAccessBody(
         @PathParam("consumer_uuid") @Verify(Consumer.class) String consumerUuid,
         @HeaderParam("If-Modified-Since") @DefaultValue("Thu, 01 Jan 1970 00:00:00 GMT")
-        @DateFormat({"EEE, dd MMM yyyy HH:mm:ss z"}) Date since) {
+        @DateFormat({"EEE, dd MMM yyyy HH:mm:ss z"}) Date since,
+        @HeaderParam("If-None-Match") String ifNoneMatch) {
 
         log.debug("Getting content access certificate for consumer: {}", consumerUuid);
         Consumer consumer = consumerCurator.verifyAndLookupConsumer(consumerUuid);
-        ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
 
+        // The cached payloads backing the tag below are only invalidated on this node, so the
+        // owner's content access mode must be checked before honoring the tag
         Owner owner = ownerCurator.findOwnerById(consumer.getOwnerId());
         if (!owner.isContentAccessEnabled()) {
             throw new BadRequestException(i18n.tr("Content access mode does not allow this request."));
         }
 
+        // If the client already has the current certificate and payload, we can avoid looking up
+        // anything further
+        String etag = this.contentAccessManager.getContentAccessETag(consumer);
+        if (etag != null && this.matchesETag(ifNoneMatch, etag)) {
+            return Response.status(Response.Status.NOT_MODIFIED)
+                .header(HttpHeaders.ETAG, etag)
+                .entity("Not modified since date supplied.")
+                .build();
+        }
+
+        ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+
         if (!this.contentAccessManager.hasCertChangedSince(consumer, since)) {
             return Response.status(Response.Status.NOT_MODIFIED)
                 .entity("Not modified since date supplied.")
@@ -1882,7 +1892,37 @@ public class ConsumerResource {
             throw new BadRequestException(i18n.tr("Cannot retrieve content access certificate", gse));
         }
 
-        return Response.ok(result, MediaType.APPLICATION_JSON).build();
+        Response.ResponseBuilder builder = Response.ok(result, MediaType.APPLICATION_JSON);
+
+        etag = this.contentAccessManager.getContentAccessETag(consumer);
+        if (etag != null) {
+            builder.header(HttpHeaders.ETAG, etag);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Checks whether the given If-None-Match header matches the provided entity tag.
+     */
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+
+            if ("*".equals(candidate) || etag.equals(candidate)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     @ApiOperation(notes = "Retrieves a Compressed File of Entitlement Certificates",
@@ -1956,7 +1996,7 @@ public class ConsumerResource {
     @Produces(MediaType.APPLICATION_JSON)
     @Wrapped(element = "serials")
     @UpdateConsumerCheckIn
-    public List<CertificateSerialDTO> getEntitlementCertificateSerials(
+    public CandlepinQuery<CertificateSerialDTO> getEntitlementCertificateSerials(
         @PathParam("consumer_uuid") @Verify(Consumer.class) String consumerUuid) {
 
         log.debug("Getting client certificate serials for consumer: {}", consumerUuid);
@@ -1966,16 +2006,12 @@ public class ConsumerResource {
         revokeOnGuestMigration(consumer);
         poolManager.regenerateDirtyEntitlements(consumer);
 
-        List<CertificateSerialDTO> allCerts = new LinkedList<>();
-        for (Long id : entCertService.listEntitlementSerialIds(consumer)) {
-            allCerts.add(new CertificateSerialDTO().setSerial(BigInteger.valueOf(id)));
-        }
-
         // add content access cert if needed
+        List<CertificateSerialDTO> extraSerials = new LinkedList<>();
         try {
             ContentAccessCertificate cac = this.contentAccessManager.getCertificate(consumer);
             if (cac != null) {
-                allCerts.add(new CertificateSerialDTO().setSerial(
+                extraSerials.add(new CertificateSerialDTO().setSerial(
                     BigInteger.valueOf(cac.getSerial().getId())));
             }
         }
@@ -1986,7 +2022,10 @@ public class ConsumerResource {
             throw new BadRequestException(i18n.tr("Cannot retrieve content access certificate", gse));
         }
 
-        return allCerts;
+        CandlepinQuery<CertificateSerialDTO> query = entCertService.findEntitlementSerialIds(consumer)
+            .transform(id -> new CertificateSerialDTO().setSerial(BigInteger.valueOf(id)));
+
+        return new AppendedCandlepinQuery<>(query, extraSerials);
     }
 
     private void validateBindArguments(String poolIdString, Integer quantity,
@@ -2429,7 +2468,6 @@ public class ConsumerResource {
      * @param cdnLabel
      * @param webAppPrefix
      * @param apiUrl
-     * @return the generated file archive.
      */
     @Deprecated
     @ApiOperation(
@@ -2441,7 +2479,7 @@ public class ConsumerResource {
     @Produces("application/zip")
     @GET
     @Path("{consumer_uuid}/export")
-    public File exportData(
+    public void exportData(
         @Context HttpServletResponse response,
         @PathParam("consumer_uuid") @Verify(Consumer.class) String consumerUuid,
         @QueryParam("cdn_label") String cdnLabel,
@@ -2456,10 +2494,8 @@ public class ConsumerResource {
         ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
 
         try {
-            File archive = manifestManager.generateManifest(consumerUuid, cdnLabel, webAppPrefix, apiUrl,
-                getExtensionParamMap(extensionArgs));
-            response.addHeader("Content-Disposition", "attachment; filename=" + archive.getName());
-            return archive;
+            manifestManager.writeManifestToResponse(consumerUuid, cdnLabel, webAppPrefix, apiUrl,
+                getExtensionParamMap(extensionArgs), response);
         }
         catch (ExportCreationException e) {
             throw new IseException(i18n.tr("Unable to create export archive"), e);
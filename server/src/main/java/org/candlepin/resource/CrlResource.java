@@ -17,6 +17,7 @@ package org.candlepin.resource;
 import org.candlepin.auth.Principal;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.IseException;
+import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
@@ -27,6 +28,8 @@ import com.google.inject.Inject;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 
 import java.io.File;
@@ -35,6 +38,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.security.cert.CRLException;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -89,7 +93,38 @@ public class CrlResource {
                 );
             }
 
-            return Response.ok().entity(new FileInputStream(crlFile)).build();
+            return Response.ok()
+                .entity(new FileInputStream(crlFile))
+                .lastModified(new Date(crlFile.lastModified()))
+                .build();
+        }
+        catch (IOException e) {
+            throw new IseException(e.getMessage(), e);
+        }
+    }
+
+    @ApiOperation(notes = "Retrieves the delta Certificate Revocation List, listing the certificates " +
+        "revoked since the Certificate Revocation List was last rebuilt", value = "getDeltaCrl",
+        response = String.class)
+    @ApiResponses({ @ApiResponse(code = 404, message = "") })
+    @GET
+    @Path("delta")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response getDeltaCrl(@Context Principal principal) throws CRLException {
+        if (!this.crlFileUtil.isDeltaCRLEnabled()) {
+            throw new NotFoundException("Delta CRLs are not enabled");
+        }
+
+        File crlFile = new File(getCrlFilePath());
+
+        try {
+            this.crlFileUtil.syncCRLWithDB(crlFile);
+
+            File deltaFile = this.crlFileUtil.getDeltaCRLFile();
+            return Response.ok()
+                .entity(new FileInputStream(deltaFile))
+                .lastModified(new Date(deltaFile.lastModified()))
+                .build();
         }
         catch (IOException e) {
             throw new IseException(e.getMessage(), e);
@@ -24,6 +24,7 @@ import org.candlepin.common.auth.SecurityHole;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.ConflictException;
 import org.candlepin.common.exceptions.NotFoundException;
+import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.PoolManager;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.api.v1.AsyncJobStatusDTO;
@@ -39,7 +40,6 @@ import org.candlepin.model.EnvironmentContent;
 import org.candlepin.model.EnvironmentContentCurator;
 import org.candlepin.model.EnvironmentCurator;
 import org.candlepin.model.OwnerContentCurator;
-import org.candlepin.model.OwnerEnvContentAccessCurator;
 import org.candlepin.util.RdbmsExceptionTranslator;
 
 import com.google.inject.Inject;
@@ -93,7 +93,7 @@ public class EnvironmentResource {
     private PoolManager poolManager;
     private ConsumerCurator consumerCurator;
     private OwnerContentCurator ownerContentCurator;
-    private OwnerEnvContentAccessCurator ownerEnvContentAccessCurator;
+    private ContentAccessManager contentAccessManager;
     private RdbmsExceptionTranslator rdbmsExceptionTranslator;
     private ModelTranslator translator;
     private JobManager jobManager;
@@ -103,7 +103,7 @@ public class EnvironmentResource {
         EnvironmentContentCurator envContentCurator, ConsumerResource consumerResource,
         PoolManager poolManager, ConsumerCurator consumerCurator, OwnerContentCurator ownerContentCurator,
         RdbmsExceptionTranslator rdbmsExceptionTranslator,
-        OwnerEnvContentAccessCurator ownerEnvContentAccessCurator, ModelTranslator translator,
+        ContentAccessManager contentAccessManager, ModelTranslator translator,
         JobManager jobManager) {
 
         this.envCurator = envCurator;
@@ -114,7 +114,7 @@ public class EnvironmentResource {
         this.consumerCurator = consumerCurator;
         this.ownerContentCurator = ownerContentCurator;
         this.rdbmsExceptionTranslator = rdbmsExceptionTranslator;
-        this.ownerEnvContentAccessCurator = ownerEnvContentAccessCurator;
+        this.contentAccessManager = contentAccessManager;
         this.translator = translator;
         this.jobManager = jobManager;
     }
@@ -371,7 +371,7 @@ public class EnvironmentResource {
 
     @Transactional
     private void clearContentAccessCerts(Environment env) {
-        ownerEnvContentAccessCurator.removeAllForEnvironment(env.getId());
+        this.contentAccessManager.refreshEnvironmentForContentAccess(env);
     }
 
     private Environment lookupEnvironment(String envId) {
@@ -45,6 +45,7 @@ import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.VirtConsumerMap;
 import org.candlepin.resource.util.GuestMigration;
+import org.candlepin.util.HypervisorReportCache;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -107,13 +108,15 @@ public class HypervisorResource {
     private ConsumerType hypervisorType;
     private JobManager jobManager;
     private ObjectMapper mapper;
+    private HypervisorReportCache reportCache;
 
     @Inject
     public HypervisorResource(ConsumerResource consumerResource, ConsumerCurator consumerCurator,
         ConsumerTypeCurator consumerTypeCurator, I18n i18n, OwnerCurator ownerCurator,
         Provider<GuestMigration> migrationProvider, ModelTranslator translator,
         GuestIdResource guestIdResource, JobManager jobManager,
-        @Named("HypervisorUpdateJobObjectMapper") final ObjectMapper mapper) {
+        @Named("HypervisorUpdateJobObjectMapper") final ObjectMapper mapper,
+        HypervisorReportCache reportCache) {
         this.consumerResource = consumerResource;
         this.consumerCurator = consumerCurator;
         this.consumerTypeCurator = consumerTypeCurator;
@@ -124,6 +127,7 @@ public class HypervisorResource {
         this.guestIdResource = guestIdResource;
         this.jobManager = jobManager;
         this.mapper = mapper;
+        this.reportCache = reportCache;
 
         this.hypervisorType = consumerTypeCurator.getByLabel(ConsumerTypeEnum.HYPERVISOR.getLabel(), true);
     }
@@ -291,17 +295,36 @@ public class HypervisorResource {
         @QueryParam("create_missing") @DefaultValue("true") boolean createMissing,
         @QueryParam("reporter_id") String reporterId) throws JobException {
 
-        validateHypervisorJson(hypervisorJson);
+        HypervisorList hypervisors = validateHypervisorJson(hypervisorJson);
 
         log.info("Hypervisor update by principal: {}", principal);
         Owner owner = this.getOwner(ownerKey);
 
+        // Reports carrying the same mapping as the last report reconciled for the reporter only
+        // need to be recorded as a heartbeat
+        String fingerprint = HypervisorReportCache.fingerprint(hypervisors.getHypervisors(), createMissing);
+        if (reporterId != null && !reporterId.isEmpty() &&
+            this.reportCache.checkUnchanged(owner.getKey(), reporterId, fingerprint)) {
+
+            log.info("Hypervisor report from reporter {} for org {} is unchanged; updating check-in " +
+                "only (skipped: {}, processed: {})", reporterId, owner.getKey(),
+                this.reportCache.getSkippedCount(), this.reportCache.getProcessedCount());
+
+            JobConfig config = HypervisorHeartbeatUpdateJob.createJobConfig()
+                .setOwner(owner)
+                .setReporterId(reporterId);
+
+            AsyncJobStatus status = jobManager.queueJob(config);
+            return translator.translate(status, AsyncJobStatusDTO.class);
+        }
+
         JobConfig config = HypervisorUpdateJob.createJobConfig()
             .setOwner(owner)
             .setData(hypervisorJson)
             .setCreateMissing(createMissing)
             .setPrincipal(principal)
-            .setReporter(reporterId);
+            .setReporter(reporterId)
+            .setFingerprint(fingerprint);
 
         AsyncJobStatus status = jobManager.queueJob(config);
         return translator.translate(status, AsyncJobStatusDTO.class);
@@ -401,7 +424,7 @@ public class HypervisorResource {
             false);
     }
 
-    private void validateHypervisorJson(String hypervisorJson) {
+    private HypervisorList validateHypervisorJson(String hypervisorJson) {
         if (hypervisorJson == null || hypervisorJson.isEmpty()) {
             log.debug("Host/Guest mapping provided during hypervisor update was null.");
             throw new BadRequestException(
@@ -415,13 +438,14 @@ public class HypervisorResource {
                 throw new BadRequestException(
                     i18n.tr("Invalid host to guest mapping was provided for hypervisor update."));
             }
+
+            return hypervisors;
         }
         catch (JsonProcessingException e) {
             log.error("Failed to parse Host/Guest mapping provided during hypervisor update.", e);
             throw new BadRequestException(
                 i18n.tr("Invalid host to guest mapping was provided for hypervisor update."));
         }
-
     }
 
 }
@@ -17,6 +17,7 @@ package org.candlepin.resource;
 import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
+import org.candlepin.async.JobMetrics;
 import org.candlepin.async.StateManagementException;
 import org.candlepin.auth.Verify;
 import org.candlepin.common.config.Configuration;
@@ -60,6 +61,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -172,6 +174,45 @@ public class JobResource {
         return this.getSchedulerStatus();
     }
 
+    @ApiOperation(
+        value = "fetches the number of jobs in the given states for each owner and job key",
+        response = Map.class)
+    @ApiResponses({
+        @ApiResponse(code = 400, message = ""),
+        @ApiResponse(code = 404, message = "")
+    })
+    @GET
+    @Path("/lanes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Transactional
+    public Map<String, Map<String, Long>> getJobCountsByLane(@QueryParam("state") Set<String> states) {
+        Set<JobState> jobStates = this.translateJobStateNames(states);
+        Map<String, Map<String, Long>> lanes = new HashMap<>();
+
+        // Jobs without a context owner are reported under the null owner key
+        this.jobManager.getJobCountsByLane(jobStates)
+            .forEach((ownerKey, counts) -> lanes.put(ownerKey != null ? ownerKey : NULL_OWNER_KEY, counts));
+
+        return lanes;
+    }
+
+    @ApiOperation(
+        value = "fetches the queue wait, execution and throughput metrics collected for jobs on this node",
+        response = Map.class)
+    @GET
+    @Path("/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getJobMetrics() {
+        JobMetrics metrics = this.jobManager.getJobMetrics();
+        Map<String, Object> output = new LinkedHashMap<>();
+
+        output.put("executor", metrics.getExecutor());
+        output.put("inFlight", metrics.getInFlight());
+        output.put("jobs", metrics.getJobKeyMetrics());
+
+        return output;
+    }
+
     // Job status
     @ApiOperation(
         value = "fetches a set of job statuses matching the given filter options",
@@ -254,6 +295,47 @@ public class JobResource {
         }
     }
 
+    @ApiOperation(
+        value = "fetches the job statuses associated with the specified job IDs, optionally waiting " +
+            "for the jobs to reach a terminal state",
+        response = AsyncJobStatusDTO.class, responseContainer = "set")
+    @ApiResponses({
+        @ApiResponse(code = 400, message = ""),
+        @ApiResponse(code = 404, message = "")
+    })
+    @GET
+    @Path("/statuses")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Stream<AsyncJobStatusDTO> getJobStatuses(
+        @QueryParam("id") @Verify(AsyncJobStatus.class) Set<String> jobIds,
+        @QueryParam("wait") @DefaultValue("0") int wait) {
+
+        // Impl note: This endpoint is deliberately not transactional, as we do not want to hold a
+        // transaction (and its connection) open for the duration of the wait.
+
+        if (jobIds == null || jobIds.isEmpty()) {
+            String errmsg = this.i18n.tr("No job IDs specified");
+            throw new BadRequestException(errmsg);
+        }
+
+        if (jobIds.size() > MAX_JOB_RESULTS) {
+            String errmsg = this.i18n.tr("This endpoint does not support fetching more than {0} " +
+                "jobs at a time", MAX_JOB_RESULTS);
+            throw new BadRequestException(errmsg);
+        }
+
+        if (wait < 0) {
+            String errmsg = this.i18n.tr("Wait time cannot be negative: {0}", wait);
+            throw new BadRequestException(errmsg);
+        }
+
+        int maxWait = this.config.getInt(ConfigProperties.ASYNC_JOBS_STATUS_WAIT_MAX);
+        long timeout = Math.min(wait, maxWait) * 1000L;
+
+        return this.jobManager.waitForJobs(jobIds, timeout).stream()
+            .map(this.translator.getStreamMapper(AsyncJobStatus.class, AsyncJobStatusDTO.class));
+    }
+
     @ApiOperation(
         value = "fetches the job status associated with the specified job ID",
         response = AsyncJobStatusDTO.class)
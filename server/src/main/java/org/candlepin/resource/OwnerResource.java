@@ -1702,7 +1702,8 @@ public class OwnerResource {
         "as the updated data is not supplied as an argument. " +
         "This API call is only relevant in a top level hosted deployment where " +
         "subscriptions and products are sourced from adapters. Calling this in " +
-        "an on-site deployment is just a no-op.", value = "Update Subscription")
+        "an on-site deployment is just a no-op. Subscriptions which have not changed since " +
+        "the last refresh are skipped, unless lazy_regen is false.", value = "Update Subscription")
     @ApiResponses({ @ApiResponse(code = 404, message = "Owner not found"),
         @ApiResponse(code = 202, message = "") })
     public AsyncJobStatusDTO refreshPools(
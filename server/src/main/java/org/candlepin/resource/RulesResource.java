@@ -20,6 +20,7 @@ import org.candlepin.common.exceptions.ServiceUnavailableException;
 import org.candlepin.model.CuratorException;
 import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunnerPool;
 import org.candlepin.policy.js.JsRunnerProvider;
 
 import com.google.inject.Inject;
@@ -35,6 +36,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xnap.commons.i18n.I18n;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -121,6 +125,32 @@ public class RulesResource {
         }
     }
 
+    @ApiOperation(notes = "Retrieves the rules runner pool metrics collected on this node",
+        value = "getMetrics", response = Map.class)
+    @GET
+    @Path("/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("rulesVersion", jsProvider.getRulesVersion());
+
+        JsRunnerPool pool = jsProvider.getPool();
+        if (pool != null) {
+            Map<String, Object> poolMetrics = new LinkedHashMap<>();
+            poolMetrics.put("size", pool.getSize());
+            poolMetrics.put("idle", pool.getIdleCount());
+            poolMetrics.put("hits", pool.getHits());
+            poolMetrics.put("misses", pool.getMisses());
+            poolMetrics.put("waits", pool.getWaits());
+            poolMetrics.put("waitTime", pool.getWaitTime());
+            poolMetrics.put("invalidations", pool.getInvalidations());
+
+            output.put("runnerPool", poolMetrics);
+        }
+
+        return output;
+    }
+
     @ApiOperation(notes = "Removes the Rules  Deletes any uploaded rules, uses bundled rules instead",
         value = "delete")
     @DELETE
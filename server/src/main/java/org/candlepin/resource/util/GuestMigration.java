@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -66,9 +67,24 @@ public class GuestMigration {
             return;
         }
 
+        consumerCurator.bulkUpdate(apply(), flush);
+    }
+
+    /**
+     * Applies the pending migration to the consumers in the manifest without updating them through
+     * the curator, for callers which persist the affected consumers themselves.
+     *
+     * @return the consumers modified by the migration, or an empty set if no migration is pending
+     */
+    public Set<Consumer> apply() {
+        if (!migrationPending) {
+            return Collections.emptySet();
+        }
+
         manifest.writeMigrationChanges();
-        consumerCurator.bulkUpdate(manifest.asSet(), flush);
         migrationPending = false;
+
+        return manifest.asSet();
     }
 
     /**
@@ -14,6 +14,7 @@
  */
 package org.candlepin.resteasy.filter;
 
+import org.candlepin.common.paging.KeysetCursor;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.model.AbstractHibernateObject;
@@ -27,10 +28,16 @@ import com.google.inject.Inject;
 import com.google.inject.Provider;
 
 import org.hibernate.Session;
+import org.hibernate.NullPrecedence;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
 import org.jboss.resteasy.core.ResteasyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
 
 import javax.persistence.EntityManager;
@@ -48,6 +55,10 @@ import javax.ws.rs.core.StreamingOutput;
  */
 @javax.ws.rs.ext.Provider
 public class CandlepinQueryInterceptor implements ContainerResponseFilter {
+    private static Logger log = LoggerFactory.getLogger(CandlepinQueryInterceptor.class);
+
+    /** The property used to break ties between rows with the same sort value when paging by keyset */
+    private static final String KEYSET_ID_FIELD = "id";
 
     protected final JsonProvider jsonProvider;
     protected final Provider<EntityManager> emProvider;
@@ -119,6 +130,11 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
             pageRequest.getOrder() :
             PageRequest.DEFAULT_ORDER;
 
+        if (pageRequest.isKeyset()) {
+            this.applyKeysetPaging(pageRequest, query, sortField, order);
+            return;
+        }
+
         query.addOrder(order == PageRequest.Order.DESCENDING ?
             Order.desc(sortField) :
             Order.asc(sortField)
@@ -130,7 +146,9 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
 
             // Create a page object for the link header response
             Page page = new Page();
-            page.setMaxRecords(query.getRowCount()); // This is expensive :(
+            if (pageRequest.isCounting()) {
+                page.setMaxRecords(query.getRowCount()); // This is expensive :(
+            }
             page.setPageRequest(pageRequest);
             // Note: we don't need to store the page data in the page
 
@@ -138,6 +156,79 @@ public class CandlepinQueryInterceptor implements ContainerResponseFilter {
         }
     }
 
+    /**
+     * Applies keyset paging to the given query. Rather than skipping over the rows of the previous
+     * pages, the query is restricted to the rows following the (sort value, id) pair of the
+     * request's cursor, which the database can resolve with an index seek regardless of how deep
+     * into the result set the client has paged.
+     * <p></p>
+     * Since the headers are sent before the results are streamed, the keys of the page are fetched
+     * up front with a lightweight projection of one row past the page to determine whether or not
+     * there is a next page and, if so, the cursor from which to fetch it. Rows with a null sort
+     * value are explicitly ordered after all other rows, regardless of the database's default null
+     * ordering, so they can be sought past by ID.
+     */
+    private void applyKeysetPaging(PageRequest pageRequest, CandlepinQuery query, String sortField,
+        PageRequest.Order order) {
+
+        boolean descending = order == PageRequest.Order.DESCENDING;
+        int perPage = pageRequest.getPerPage();
+
+        Page page = new Page();
+        page.setPageRequest(pageRequest);
+
+        if (pageRequest.isCounting()) {
+            // Count before the seek restriction is applied, so we get the total for the keyset
+            page.setMaxRecords(query.getRowCount());
+        }
+
+        KeysetCursor cursor = pageRequest.getCursor();
+        if (cursor != null) {
+            query.addCriterion(this.buildSeekCriterion(sortField, descending, cursor));
+        }
+
+        query.addOrder((descending ? Order.desc(sortField) : Order.asc(sortField))
+            .nulls(NullPrecedence.LAST));
+        query.addOrder(descending ? Order.desc(KEYSET_ID_FIELD) : Order.asc(KEYSET_ID_FIELD));
+
+        query.setMaxResults(perPage + 1);
+        List<Object[]> keys = query.listProperties(sortField, KEYSET_ID_FIELD);
+
+        if (keys.size() > perPage) {
+            Object[] last = keys.get(perPage - 1);
+
+            try {
+                page.setNextCursor(new KeysetCursor(pageRequest.getSortBy(), pageRequest.getOrder(),
+                    last[0], last[1]));
+            }
+            catch (IllegalArgumentException e) {
+                log.warn("Unable to build keyset cursor for sort field \"{}\"", sortField, e);
+            }
+        }
+
+        query.setMaxResults(perPage);
+        ResteasyContext.pushContext(Page.class, page);
+    }
+
+    private Criterion buildSeekCriterion(String sortField, boolean descending, KeysetCursor cursor) {
+        Object value = cursor.getSortValue();
+        Object id = cursor.getId();
+
+        Criterion idSeek = descending ?
+            Restrictions.lt(KEYSET_ID_FIELD, id) :
+            Restrictions.gt(KEYSET_ID_FIELD, id);
+
+        if (value == null) {
+            // Null sort values are ordered last, so only the remaining null rows follow the cursor
+            return Restrictions.and(Restrictions.isNull(sortField), idSeek);
+        }
+
+        return Restrictions.or(
+            descending ? Restrictions.lt(sortField, value) : Restrictions.gt(sortField, value),
+            Restrictions.and(Restrictions.eq(sortField, value), idSeek),
+            Restrictions.isNull(sortField));
+    }
+
     private StreamingOutput buildOutputStreamer(Session session, CandlepinQuery query) {
         ObjectMapper mapper = this.jsonProvider
             .locateMapper(Object.class, MediaType.APPLICATION_JSON_TYPE);
@@ -17,7 +17,7 @@ package org.candlepin.resteasy.filter;
 import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.UpdateConsumerCheckIn;
-import org.candlepin.model.ConsumerCurator;
+import org.candlepin.controller.ConsumerCheckInBuffer;
 import org.candlepin.resteasy.AnnotationLocator;
 
 import org.jboss.resteasy.core.ResteasyContext;
@@ -37,17 +37,18 @@ import javax.ws.rs.ext.Provider;
 
 /** This filter is applied to resource methods annotated with @UpdateConsumerCheckIn.  It
  * will inspect the principal and if the principal is a ConsumerPrincipal, it will update
- * the consumer's check-in time.
+ * the consumer's check-in time. Check-ins are recorded through the ConsumerCheckInBuffer,
+ * which may write them to the database some time later.
  */
 @Priority(Priorities.USER)
 @Provider
 public class ConsumerCheckInFilter implements ContainerRequestFilter {
-    private final ConsumerCurator consumerCurator;
+    private final ConsumerCheckInBuffer checkInBuffer;
     private final AnnotationLocator annotationLocator;
 
     @Inject
-    public ConsumerCheckInFilter(ConsumerCurator consumerCurator, AnnotationLocator annotationLocator) {
-        this.consumerCurator = consumerCurator;
+    public ConsumerCheckInFilter(ConsumerCheckInBuffer checkInBuffer, AnnotationLocator annotationLocator) {
+        this.checkInBuffer = checkInBuffer;
         this.annotationLocator = annotationLocator;
     }
 
@@ -60,7 +61,7 @@ public class ConsumerCheckInFilter implements ContainerRequestFilter {
         if (principal instanceof ConsumerPrincipal &&
             annotationLocator.getAnnotation(method, UpdateConsumerCheckIn.class) != null) {
             ConsumerPrincipal p = (ConsumerPrincipal) principal;
-            consumerCurator.updateLastCheckin(p.getConsumer());
+            checkInBuffer.checkIn(p.getConsumer());
         }
     }
 }
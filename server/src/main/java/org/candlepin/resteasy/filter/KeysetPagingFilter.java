@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import org.candlepin.common.exceptions.BadRequestException;
+import org.candlepin.common.paging.PageRequest;
+import org.candlepin.model.CandlepinQuery;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.xnap.commons.i18n.I18n;
+
+import java.lang.reflect.Method;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.ext.Provider;
+
+
+
+/**
+ * The KeysetPagingFilter rejects keyset paging requests made against resource methods which do not
+ * return a CandlepinQuery. Only the CandlepinQueryInterceptor can page by keyset; other endpoints
+ * page by offset and would silently return only the first page for a cursor.
+ * <p></p>
+ * This filter must run after the PageRequestFilter has parsed the page request.
+ */
+@Priority(Priorities.USER + 1)
+@Provider
+public class KeysetPagingFilter implements ContainerRequestFilter {
+    private final javax.inject.Provider<I18n> i18nProvider;
+
+    @Inject
+    public KeysetPagingFilter(javax.inject.Provider<I18n> i18nProvider) {
+        this.i18nProvider = i18nProvider;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        PageRequest pageRequest = ResteasyContext.getContextData(PageRequest.class);
+        if (pageRequest == null || !pageRequest.isKeyset()) {
+            return;
+        }
+
+        ResourceInfo resourceInfo = ResteasyContext.getContextData(ResourceInfo.class);
+        Method method = resourceInfo != null ? resourceInfo.getResourceMethod() : null;
+
+        if (method == null || !CandlepinQuery.class.isAssignableFrom(method.getReturnType())) {
+            I18n i18n = this.i18nProvider.get();
+            throw new BadRequestException(i18n.tr("the cursor parameter is not supported by this " +
+                "resource; use the page parameter instead"));
+        }
+    }
+}
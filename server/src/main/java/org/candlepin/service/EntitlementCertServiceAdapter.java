@@ -14,7 +14,10 @@
  */
 package org.candlepin.service;
 
+import org.candlepin.model.AppendedCandlepinQuery;
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Consumer;
+import org.candlepin.model.EmptyCandlepinQuery;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCertificate;
 import org.candlepin.model.PoolQuantity;
@@ -22,8 +25,12 @@ import org.candlepin.model.Product;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Interface to the Certificate Service.
@@ -65,6 +72,33 @@ public interface EntitlementCertServiceAdapter {
         Map<String, Product> products, boolean save)
         throws GeneralSecurityException, IOException;
 
+    /**
+     * Generate entitlement certificates as generateEntitlementCerts does without saving them,
+     * using the given executor to sign the certificates. Any work requiring the database is
+     * performed on the calling thread before this method returns, allowing the certificates of
+     * many consumers to be signed concurrently while the caller retains sole use of its session.
+     * <p></p>
+     * Implementations which cannot separate signing from the rest of the certificate generation
+     * may generate the certificates on the calling thread and return a completed future.
+     *
+     * @param consumer
+     * @param poolQuantityMap the pools associated with the certs.
+     * @param entitlements entitlements which granted the certs.
+     * @param products The Products being consumed.
+     * @param executor the executor on which to sign the certs.
+     * @return A future providing the client entitlement certificates once they've been signed.
+     * @throws IOException thrown if there's a problem reading the cert.
+     * @throws GeneralSecurityException thrown security problem
+     */
+    default CompletableFuture<Map<String, EntitlementCertificate>> generateEntitlementCertsAsync(
+        Consumer consumer, Map<String, PoolQuantity> poolQuantityMap, Map<String, Entitlement> entitlements,
+        Map<String, Product> products, Executor executor)
+        throws GeneralSecurityException, IOException {
+
+        return CompletableFuture.completedFuture(
+            this.generateEntitlementCerts(consumer, poolQuantityMap, entitlements, products, false));
+    }
+
     /**
      * Return a list of all entitlement certificates for a given consumer.
      *
@@ -73,6 +107,31 @@ public interface EntitlementCertServiceAdapter {
      */
     List<EntitlementCertificate> listForConsumer(Consumer consumer);
 
+    /**
+     * Fetch the entitlement certificates for a given consumer, optionally limited to the
+     * certificates with the given serials.
+     * <p></p>
+     * The default implementation filters the certificates returned by listForConsumer, and does
+     * not support paging or ordering. Adapters backed by the database should override it to
+     * return a query which does.
+     *
+     * @param consumer
+     * @param serials optional serials by which to filter the certs.
+     * @return A query to stream the entitlement certs for this consumer.
+     */
+    default CandlepinQuery<EntitlementCertificate> findForConsumer(Consumer consumer,
+        Collection<Long> serials) {
+
+        List<EntitlementCertificate> certs = this.listForConsumer(consumer);
+        if (serials != null && !serials.isEmpty()) {
+            certs = certs.stream()
+                .filter(cert -> cert.getSerial() != null && serials.contains(cert.getSerial().getId()))
+                .collect(Collectors.toList());
+        }
+
+        return new AppendedCandlepinQuery<>(new EmptyCandlepinQuery<>(), certs);
+    }
+
     /**
      * Return a list of all entitlement certificate serial ids for a given consumer.
      *
@@ -80,4 +139,19 @@ public interface EntitlementCertServiceAdapter {
      * @return All entitlement cert serial ids for this consumer.
      */
     List<Long> listEntitlementSerialIds(Consumer consumer);
+
+    /**
+     * Fetch the entitlement certificate serial ids for a given consumer.
+     * <p></p>
+     * The default implementation wraps the serial ids returned by listEntitlementSerialIds, and
+     * does not support paging or ordering. Adapters backed by the database should override it to
+     * return a query which does.
+     *
+     * @param consumer
+     * @return A query to stream the entitlement cert serial ids for this consumer.
+     */
+    default CandlepinQuery<Long> findEntitlementSerialIds(Consumer consumer) {
+        List<Long> serials = this.listEntitlementSerialIds(consumer);
+        return new AppendedCandlepinQuery<>(new EmptyCandlepinQuery<>(), serials);
+    }
 }
@@ -14,11 +14,13 @@
  */
 package org.candlepin.service.impl;
 
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.EntitlementCertificate;
 import org.candlepin.model.EntitlementCertificateCurator;
 import org.candlepin.service.EntitlementCertServiceAdapter;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -38,4 +40,11 @@ public abstract class BaseEntitlementCertServiceAdapter implements EntitlementCe
         return entCertCurator.listForConsumer(consumer);
     }
 
+    @Override
+    public CandlepinQuery<EntitlementCertificate> findForConsumer(Consumer consumer,
+        Collection<Long> serials) {
+
+        return entCertCurator.findForConsumer(consumer, serials);
+    }
+
 }
@@ -16,6 +16,7 @@ package org.candlepin.service.impl;
 
 import org.candlepin.common.config.Configuration;
 import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
@@ -72,6 +73,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * DefaultEntitlementCertServiceAdapter
@@ -79,6 +83,51 @@ import java.util.Set;
 public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertServiceAdapter {
     private static Logger log = LoggerFactory.getLogger(DefaultEntitlementCertServiceAdapter.class);
 
+    /**
+     * Everything needed to sign a single entitlement certificate without further use of the
+     * database
+     */
+    private static class CertificateRequest {
+        private final String dn;
+        private final Set<X509ExtensionWrapper> extensions;
+        private final Set<X509ByteExtensionWrapper> byteExtensions;
+        private final Date startDate;
+        private final Date endDate;
+        private final KeyPair keyPair;
+        private final BigInteger serialNumber;
+        private byte[] payload;
+
+        public CertificateRequest(String dn, Set<X509ExtensionWrapper> extensions,
+            Set<X509ByteExtensionWrapper> byteExtensions, Date startDate, Date endDate, KeyPair keyPair,
+            BigInteger serialNumber) {
+
+            this.dn = dn;
+            this.extensions = extensions;
+            this.byteExtensions = byteExtensions;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.keyPair = keyPair;
+            this.serialNumber = serialNumber;
+        }
+    }
+
+    /**
+     * The certificate requests for a single consumer, and the state shared between them
+     */
+    private static class PreparedCertificates {
+        private final byte[] pemEncodedKeyPair;
+        private final Map<String, CertificateSerial> serials;
+        private final Map<String, CertificateRequest> requests;
+
+        public PreparedCertificates(byte[] pemEncodedKeyPair, Map<String, CertificateSerial> serials,
+            Map<String, CertificateRequest> requests) {
+
+            this.pemEncodedKeyPair = pemEncodedKeyPair;
+            this.serials = serials;
+            this.requests = requests;
+        }
+    }
+
     private PKIUtility pki;
     private X509ExtensionUtil extensionUtil;
     private X509V3ExtensionUtil v3extensionUtil;
@@ -170,6 +219,20 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         KeyPair keyPair, boolean useContentPrefix)
         throws GeneralSecurityException, IOException {
 
+        return this.signX509Certificate(this.buildCertificateRequest(consumer, owner, pool, ent, product,
+            products, productModels, serialNumber, keyPair, useContentPrefix));
+    }
+
+    /**
+     * Builds everything needed to sign the X509 certificate for the given entitlement. As this may
+     * require the database, it must be done on the thread owning the current session.
+     */
+    private CertificateRequest buildCertificateRequest(Consumer consumer, Owner owner, Pool pool,
+        Entitlement ent, Product product, Set<Product> products,
+        List<org.candlepin.model.dto.Product> productModels, BigInteger serialNumber,
+        KeyPair keyPair, boolean useContentPrefix)
+        throws GeneralSecurityException, IOException {
+
         // oidutil is busted at the moment, so do this manually
         Set<X509ExtensionWrapper> extensions;
         Set<X509ByteExtensionWrapper> byteExtensions = new LinkedHashSet<>();
@@ -198,9 +261,20 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
             startDate = calMinusHour.getTime();
         }
 
-        X509Certificate x509Cert =  this.pki.createX509Certificate(
-            createDN(ent, owner), extensions, byteExtensions, startDate,
-            endDate, keyPair, serialNumber, null);
+        return new CertificateRequest(createDN(ent, owner), extensions, byteExtensions, startDate,
+            endDate, keyPair, serialNumber);
+    }
+
+    /**
+     * Signs the X509 certificate described by the given request. This is CPU-bound and does not
+     * require the database, and may be called from any thread.
+     */
+    private X509Certificate signX509Certificate(CertificateRequest request)
+        throws GeneralSecurityException, IOException {
+
+        X509Certificate x509Cert = this.pki.createX509Certificate(
+            request.dn, request.extensions, request.byteExtensions, request.startDate,
+            request.endDate, request.keyPair, request.serialNumber, null);
 
         return x509Cert;
     }
@@ -434,6 +508,71 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         boolean save)
         throws GeneralSecurityException, IOException {
 
+        PreparedCertificates prepared = this.prepareEntitlementCerts(consumer, productMap,
+            poolQuantities, entitlements);
+
+        Map<String, String> pems = new HashMap<>();
+        for (Entry<String, CertificateRequest> entry : prepared.requests.entrySet()) {
+            pems.put(entry.getKey(), this.signEntitlementCert(entry.getValue()));
+        }
+
+        Map<String, EntitlementCertificate> entitlementCerts = this.buildEntitlementCerts(prepared, pems,
+            entitlements, save);
+
+        if (save) {
+            log.info("Persisting certs.");
+            entCertCurator.saveOrUpdateAll(entitlementCerts.values(), false, false);
+        }
+
+        return entitlementCerts;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, EntitlementCertificate>> generateEntitlementCertsAsync(
+        Consumer consumer, Map<String, PoolQuantity> poolQuantities, Map<String, Entitlement> entitlements,
+        Map<String, Product> products, Executor executor)
+        throws GeneralSecurityException, IOException {
+
+        PreparedCertificates prepared = this.prepareEntitlementCerts(consumer, products,
+            poolQuantities, entitlements);
+
+        Map<String, CompletableFuture<String>> signed = new HashMap<>();
+        for (Entry<String, CertificateRequest> entry : prepared.requests.entrySet()) {
+            CertificateRequest request = entry.getValue();
+
+            signed.put(entry.getKey(), CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.signEntitlementCert(request);
+                }
+                catch (GeneralSecurityException | IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(signed.values().toArray(new CompletableFuture[signed.size()]))
+            .thenApply(v -> {
+                Map<String, String> pems = new HashMap<>();
+                for (Entry<String, CompletableFuture<String>> entry : signed.entrySet()) {
+                    pems.put(entry.getKey(), entry.getValue().join());
+                }
+
+                // Impl note: certs which are not saved do not touch the session, so this is safe to
+                // perform on the signing thread
+                return this.buildEntitlementCerts(prepared, pems, entitlements, false);
+            });
+    }
+
+    /**
+     * Performs the portion of certificate generation requiring the database: persisting the new
+     * serials, and gathering the products, content and extensions for each certificate.
+     */
+    private PreparedCertificates prepareEntitlementCerts(Consumer consumer,
+        Map<String, Product> productMap,
+        Map<String, PoolQuantity> poolQuantities,
+        Map<String, Entitlement> entitlements)
+        throws GeneralSecurityException, IOException {
+
         Owner owner = ownerCurator.findOwnerById(consumer.getOwnerId());
 
         log.debug("Generating entitlement cert for entitlements");
@@ -449,7 +588,7 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
         log.debug("Persisting new certificate serials");
         serialCurator.saveOrUpdateAll(serialMap.values(), false, false);
 
-        Map<String, EntitlementCertificate> entitlementCerts = new HashMap<>();
+        Map<String, CertificateRequest> requests = new HashMap<>();
         for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
             Pool pool = entry.getValue().getPool();
             Entitlement ent = entitlements.get(entry.getKey());
@@ -477,41 +616,72 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
             List<org.candlepin.model.dto.Product> productModels = v3extensionUtil.createProducts(product,
                 products, contentPrefix, promotedContent, consumer, pool);
 
-            X509Certificate x509Cert = createX509Certificate(consumer, owner, pool, ent,
-                product, products, productModels,
-                BigInteger.valueOf(serial.getId()), keyPair, true);
-
-            log.debug("Getting PEM encoded cert.");
-            String pem = new String(this.pki.getPemEncoded(x509Cert));
+            CertificateRequest request = this.buildCertificateRequest(consumer, owner, pool, ent,
+                product, products, productModels, BigInteger.valueOf(serial.getId()), keyPair, true);
 
             if (shouldGenerateV3(consumer)) {
                 log.debug("Generating v3 entitlement data");
 
-                byte[] payloadBytes = v3extensionUtil.createEntitlementDataPayload(productModels,
+                request.payload = v3extensionUtil.createEntitlementDataPayload(productModels,
                         consumer, pool, ent.getQuantity());
+            }
 
-                String payload = "-----BEGIN ENTITLEMENT DATA-----\n";
-                payload += Util.toBase64(payloadBytes);
-                payload += "-----END ENTITLEMENT DATA-----\n";
+            requests.put(entry.getKey(), request);
+        }
 
-                byte[] bytes = pki.getSHA256WithRSAHash(new ByteArrayInputStream(payloadBytes));
-                String signature = "-----BEGIN RSA SIGNATURE-----\n";
-                signature += Util.toBase64(bytes);
-                signature += "-----END RSA SIGNATURE-----\n";
+        return new PreparedCertificates(pemEncodedKeyPair, serialMap, requests);
+    }
 
-                pem += payload + signature;
-            }
+    /**
+     * Signs and PEM-encodes the certificate described by the given request, along with its
+     * entitlement data, if any. This does not require the database, and may be called from any
+     * thread.
+     */
+    private String signEntitlementCert(CertificateRequest request)
+        throws GeneralSecurityException, IOException {
+
+        X509Certificate x509Cert = this.signX509Certificate(request);
+
+        log.debug("Getting PEM encoded cert.");
+        String pem = new String(this.pki.getPemEncoded(x509Cert));
+
+        if (request.payload != null) {
+            String payload = "-----BEGIN ENTITLEMENT DATA-----\n";
+            payload += Util.toBase64(request.payload);
+            payload += "-----END ENTITLEMENT DATA-----\n";
+
+            byte[] bytes = pki.getSHA256WithRSAHash(new ByteArrayInputStream(request.payload));
+            String signature = "-----BEGIN RSA SIGNATURE-----\n";
+            signature += Util.toBase64(bytes);
+            signature += "-----END RSA SIGNATURE-----\n";
+
+            pem += payload + signature;
+        }
+
+        return pem;
+    }
+
+    /**
+     * Builds the entitlement certificates from the signed PEM-encoded certificates, applying
+     * them to their entitlements if they are to be saved.
+     */
+    private Map<String, EntitlementCertificate> buildEntitlementCerts(PreparedCertificates prepared,
+        Map<String, String> pems, Map<String, Entitlement> entitlements, boolean save) {
+
+        Map<String, EntitlementCertificate> entitlementCerts = new HashMap<>();
+        for (Entry<String, String> entry : pems.entrySet()) {
+            Entitlement ent = entitlements.get(entry.getKey());
 
             // Build a skeleton cert as part of the entitlement processing.
             EntitlementCertificate cert = new EntitlementCertificate();
-            cert.setKeyAsBytes(pemEncodedKeyPair);
-            cert.setCert(pem);
+            cert.setKeyAsBytes(prepared.pemEncodedKeyPair);
+            cert.setCert(entry.getValue());
             if (save) {
                 cert.setEntitlement(ent);
             }
 
             if (log.isDebugEnabled()) {
-                log.debug("Generated cert serial number: {}", serial.getId());
+                log.debug("Generated cert serial number: {}", prepared.serials.get(entry.getKey()).getId());
                 log.debug("Key: {}", cert.getKey());
                 log.debug("Cert: {}", cert.getCert());
             }
@@ -521,15 +691,15 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
 
         // Now that the serials have been saved, update the newly created
         // certs with their serials and add them to the entitlements.
-        for (Entry<String, PoolQuantity> entry : poolQuantities.entrySet()) {
-            CertificateSerial nextSerial = serialMap.get(entry.getKey());
+        for (String key : prepared.requests.keySet()) {
+            CertificateSerial nextSerial = prepared.serials.get(key);
             if (nextSerial == null) {
                 // This should never happen, but checking to be safe.
                 throw new RuntimeException(
                     "Certificate serial not found for entitlement during cert generation.");
             }
 
-            EntitlementCertificate nextCert = entitlementCerts.get(entry.getKey());
+            EntitlementCertificate nextCert = entitlementCerts.get(key);
             if (nextCert == null) {
                 // This should never happen, but checking to be safe.
                 throw new RuntimeException(
@@ -538,16 +708,11 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
 
             nextCert.setSerial(nextSerial);
             if (save) {
-                Entitlement ent = entitlements.get(entry.getKey());
+                Entitlement ent = entitlements.get(key);
                 ent.addCertificate(nextCert);
             }
         }
 
-        if (save) {
-            log.info("Persisting certs.");
-            entCertCurator.saveOrUpdateAll(entitlementCerts.values(), false, false);
-        }
-
         return entitlementCerts;
     }
 
@@ -562,4 +727,8 @@ public class DefaultEntitlementCertServiceAdapter extends BaseEntitlementCertSer
     public List<Long> listEntitlementSerialIds(Consumer consumer) {
         return serialCurator.listEntitlementSerialIds(consumer);
     }
+
+    public CandlepinQuery<Long> findEntitlementSerialIds(Consumer consumer) {
+        return serialCurator.findEntitlementSerialIds(consumer);
+    }
 }
@@ -36,6 +36,7 @@ import org.candlepin.resource.util.GuestMigration;
 import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.util.Transactional;
 
+import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
 
 import org.apache.commons.lang.StringUtils;
@@ -43,10 +44,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -107,6 +112,25 @@ public class HypervisorUpdateAction {
         parseHypervisorList(hypervisors, hosts, guests, incomingHosts);
         VirtConsumerMap hypervisorConsumersMap = new VirtConsumerMap();
 
+        if (this.config.getBoolean(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION, false)) {
+            this.reconcileHostsInBulk(owner, hosts, incomingHosts, result, hypervisorConsumersMap, create,
+                principal, jobReporterId);
+        }
+        else {
+            this.reconcileHosts(owner, hosts, incomingHosts, result, hypervisorConsumersMap, create,
+                principal, jobReporterId);
+        }
+
+        return new Result(result, hypervisorConsumersMap);
+    }
+
+    /*
+     * Reconciles each of the given hosts in its own transaction
+     */
+    private void reconcileHosts(Owner owner, Collection<String> hosts, Map<String, Consumer> incomingHosts,
+        HypervisorUpdateResultDTO result, VirtConsumerMap hypervisorConsumersMap, Boolean create,
+        String principal, String jobReporterId) {
+
         HypervisorUpdateAction act = this;
         Transactional<Consumer> transaction = this.consumerCurator.transactional(args ->
             act.reconcileHost((Owner) args[0], (Consumer) args[1], (HypervisorUpdateResultDTO) args[2],
@@ -130,8 +154,219 @@ public class HypervisorUpdateAction {
                     hypervisorId, e);
             }
         }
+    }
 
-        return new Result(result, hypervisorConsumersMap);
+    /*
+     * Reconciles the given hosts in batches, each batch in a single transaction. Should a batch
+     * fail, its hosts are reconciled again individually so failures are still reported per host.
+     */
+    @SuppressWarnings("unchecked")
+    private void reconcileHostsInBulk(Owner owner, Collection<String> hosts,
+        Map<String, Consumer> incomingHosts, HypervisorUpdateResultDTO result,
+        VirtConsumerMap hypervisorConsumersMap, Boolean create, String principal, String jobReporterId) {
+
+        int batchSize = Math.max(1,
+            this.config.getInt(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE, 500));
+
+        HypervisorUpdateAction act = this;
+        Transactional<BatchResult> transaction = this.consumerCurator.transactional(args ->
+            act.reconcileHostBatch((Owner) args[0], (List<String>) args[1], (Map<String, Consumer>) args[2],
+            (Boolean) args[3], (String) args[4], (String) args[5]))
+            .onCommit(status -> sink.sendEvents())
+            .onRollback(status -> sink.rollback());
+
+        for (List<String> batch : Iterables.partition(hosts, batchSize)) {
+            List<String> remaining;
+
+            try {
+                BatchResult batchResult = transaction.execute(owner, batch, incomingHosts, create,
+                    principal, jobReporterId);
+
+                batchResult.failed.forEach(result::addFailed);
+                batchResult.created.forEach(result::addCreated);
+                batchResult.updated.forEach(result::addUpdated);
+                batchResult.unchanged.forEach(result::addUnchanged);
+
+                for (Consumer knownHost : batchResult.knownHosts) {
+                    hypervisorConsumersMap.add(knownHost.getHypervisorId().getHypervisorId(), knownHost);
+                }
+
+                remaining = batchResult.deferred;
+            }
+            catch (Exception e) {
+                log.warn("Unable to reconcile batch of {} hypervisors for org {}; reconciling them " +
+                    "individually", batch.size(), owner.getKey(), e);
+
+                // Discard any stale state left behind by the rolled back batch
+                this.consumerCurator.clear();
+                remaining = batch;
+            }
+
+            this.reconcileHosts(owner, remaining, incomingHosts, result, hypervisorConsumersMap, create,
+                principal, jobReporterId);
+        }
+    }
+
+    /**
+     * Reconciles a batch of reported hosts against the existing host consumers and guest IDs of the
+     * owner. The existing hosts for the batch are fetched and locked up front, the changes are
+     * applied in memory, and the resulting inserts and updates are written in a single flush. As
+     * with hosts reconciled individually, only the reported hosts are modified.
+     *
+     * @return
+     *  the result of the batch, including any hosts which could not be reconciled in bulk and must
+     *  be reconciled individually
+     */
+    private BatchResult reconcileHostBatch(Owner owner, List<String> batch,
+        Map<String, Consumer> incomingHosts, boolean create, String principal, String jobReporterId) {
+
+        BatchResult batchResult = new BatchResult();
+
+        VirtConsumerMap existingHosts = this.consumerCurator.getHostConsumersMap(owner, batch);
+        Map<String, Consumer> existingHostsByUuid = this.getHostsBySystemUuid(owner, batch, incomingHosts,
+            existingHosts);
+
+        // Lock every existing host we may update, as is done when reconciling hosts individually
+        Set<Consumer> lockable = Collections.newSetFromMap(new IdentityHashMap<>());
+        lockable.addAll(existingHosts.getConsumers());
+        lockable.addAll(existingHostsByUuid.values());
+        this.consumerCurator.lock(lockable);
+
+        Set<Consumer> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Consumer> created = new ArrayList<>();
+        List<Consumer> updated = new ArrayList<>();
+        List<Consumer> unchanged = new ArrayList<>();
+
+        for (String hypervisorId : batch) {
+            Consumer incomingHost = incomingHosts.get(hypervisorId);
+            Consumer resultHost = existingHosts.get(hypervisorId);
+
+            if (resultHost == null) {
+                String systemUuid = incomingHost.getFact(Consumer.Facts.SYSTEM_UUID);
+                resultHost = systemUuid != null ? existingHostsByUuid.get(systemUuid.toLowerCase()) : null;
+            }
+
+            if (resultHost == null) {
+                if (!create) {
+                    batchResult.failed.put(hypervisorId,
+                        "Unable to find hypervisor with id " + hypervisorId + " in org " + owner.getKey());
+                    continue;
+                }
+
+                log.debug("Registering new host consumer for hypervisor ID: {}", hypervisorId);
+                resultHost = createConsumerForHypervisorId(hypervisorId, jobReporterId, owner, principal,
+                    incomingHost);
+
+                this.buildBatchGuestMigration(incomingHost, resultHost).apply();
+                created.add(resultHost);
+            }
+            else if (!claimed.add(resultHost)) {
+                // Another reported host resolved to the same consumer; leave this one to be applied
+                // on its own once the batch has been written
+                batchResult.deferred.add(hypervisorId);
+                continue;
+            }
+            else {
+                GuestMigration guestMigration = this.buildBatchGuestMigration(incomingHost, resultHost);
+                boolean hostUpdated = this.updateHost(owner, incomingHost, resultHost, hypervisorId,
+                    jobReporterId, guestMigration.isMigrationPending());
+
+                guestMigration.apply();
+                if (hostUpdated) {
+                    updated.add(resultHost);
+                }
+                else {
+                    unchanged.add(resultHost);
+                }
+
+                this.updateReporterId(resultHost, jobReporterId);
+            }
+
+            batchResult.knownHosts.add(resultHost);
+        }
+
+        // The existing hosts were loaded by this session, so their changes are written along with
+        // the new hosts by the flush below
+        for (Consumer host : created) {
+            this.consumerCurator.create(host, false);
+        }
+
+        this.consumerCurator.flush();
+
+        for (Consumer host : created) {
+            batchResult.created.add(this.translator.translate(host, HypervisorConsumerDTO.class));
+            this.sink.queueEvent(this.evtFactory.consumerCreated(host));
+        }
+
+        for (Consumer host : updated) {
+            batchResult.updated.add(this.translator.translate(host, HypervisorConsumerDTO.class));
+        }
+
+        for (Consumer host : unchanged) {
+            batchResult.unchanged.add(this.translator.translate(host, HypervisorConsumerDTO.class));
+        }
+
+        return batchResult;
+    }
+
+    /*
+     * Fetches the existing hosts matching the system UUID of the reported hosts which could not be
+     * matched by hypervisor ID, keyed by their lower-cased system UUID
+     */
+    private Map<String, Consumer> getHostsBySystemUuid(Owner owner, List<String> batch,
+        Map<String, Consumer> incomingHosts, VirtConsumerMap existingHosts) {
+
+        Map<String, Consumer> hostsByUuid = new HashMap<>();
+
+        if (!this.config.getBoolean(ConfigProperties.USE_SYSTEM_UUID_FOR_MATCHING)) {
+            return hostsByUuid;
+        }
+
+        List<Consumer> unmatched = new ArrayList<>();
+        for (String hypervisorId : batch) {
+            Consumer incomingHost = incomingHosts.get(hypervisorId);
+
+            if (existingHosts.get(hypervisorId) == null && incomingHost.hasFact(Consumer.Facts.SYSTEM_UUID)) {
+                unmatched.add(incomingHost);
+            }
+        }
+
+        if (!unmatched.isEmpty()) {
+            VirtConsumerMap matched = this.consumerCurator.getHostConsumersMap(owner, unmatched);
+
+            for (Consumer consumer : matched.getConsumers()) {
+                String systemUuid = consumer.getFact(Consumer.Facts.SYSTEM_UUID);
+
+                if (systemUuid != null && !hostsByUuid.containsKey(systemUuid.toLowerCase())) {
+                    hostsByUuid.put(systemUuid.toLowerCase(), consumer);
+                }
+            }
+        }
+
+        return hostsByUuid;
+    }
+
+    /*
+     * Builds the guest migration for a host from copies of its reported guest IDs, so a batch which
+     * is rolled back does not leave persisted state on the reported guest IDs when they are retried
+     */
+    private GuestMigration buildBatchGuestMigration(Consumer incomingHost, Consumer resultHost) {
+        Consumer reported = new Consumer();
+
+        if (incomingHost.getGuestIds() != null) {
+            List<GuestId> guestIds = new ArrayList<>(incomingHost.getGuestIds().size());
+
+            for (GuestId guestId : incomingHost.getGuestIds()) {
+                guestIds.add(new GuestId(guestId.getGuestId(), resultHost, guestId.getAttributes()));
+            }
+
+            reported.setGuestIds(guestIds);
+        }
+        else {
+            reported.setGuestIds(null);
+        }
+
+        return new GuestMigration(consumerCurator).buildMigrationManifest(reported, resultHost);
     }
 
     public Consumer reconcileHost(Owner owner, Consumer incomingHost, HypervisorUpdateResultDTO result,
@@ -180,40 +415,13 @@ public class HypervisorUpdateAction {
         }
         else {
             consumerCurator.lock(resultHost);
-            boolean hypervisorIdUpdated = updateHypervisorId(resultHost, owner, jobReporterId,
-                hypervisorId);
-
-            boolean nameUpdated = incomingHost.getName() != null &&
-                (resultHost.getName() == null ||
-                !resultHost.getName().equals(incomingHost.getName()));
-            if (nameUpdated) {
-                resultHost.setName(incomingHost.getName());
-            }
-
-            if (jobReporterId != null && resultHost.getHypervisorId() != null &&
-                hypervisorId.equalsIgnoreCase(resultHost.getHypervisorId().getHypervisorId()) &&
-                resultHost.getHypervisorId().getReporterId() != null &&
-                !jobReporterId.equalsIgnoreCase(resultHost.getHypervisorId().getReporterId())) {
-                log.debug("Reporter changed for Hypervisor {} of Owner {} from {} to {}",
-                    hypervisorId, owner.getKey(), resultHost.getHypervisorId().getReporterId(),
-                    jobReporterId);
-            }
-
-            boolean typeUpdated = false;
-            if (!hypervisorType.getId().equals(resultHost.getTypeId())) {
-                typeUpdated = true;
-                resultHost.setType(hypervisorType);
-            }
 
             final GuestMigration guestMigration = new GuestMigration(consumerCurator)
                 .buildMigrationManifest(incomingHost, resultHost);
 
-            final boolean factsUpdated = consumerResource.checkForFactsUpdate(resultHost, incomingHost);
+            if (updateHost(owner, incomingHost, resultHost, hypervisorId, jobReporterId,
+                guestMigration.isMigrationPending())) {
 
-            if (factsUpdated || guestMigration.isMigrationPending() || typeUpdated ||
-                hypervisorIdUpdated || nameUpdated) {
-
-                resultHost.setLastCheckin(new Date());
                 guestMigration.migrate(false);
                 result.addUpdated(this.translator.translate(resultHost, HypervisorConsumerDTO.class));
             }
@@ -222,14 +430,7 @@ public class HypervisorUpdateAction {
                     this.translator.translate(resultHost, HypervisorConsumerDTO.class));
             }
 
-            // update reporter id if it changed
-            if (jobReporterId != null && resultHost != null &&
-                resultHost.getHypervisorId() != null &&
-                (resultHost.getHypervisorId().getReporterId() == null ||
-                !jobReporterId.contentEquals(resultHost.getHypervisorId().getReporterId()))) {
-
-                resultHost.getHypervisorId().setReporterId(jobReporterId);
-            }
+            updateReporterId(resultHost, jobReporterId);
 
             try {
                 consumerCurator.update(resultHost);
@@ -244,6 +445,61 @@ public class HypervisorUpdateAction {
         return resultHost;
     }
 
+    /*
+     * Applies the reported state of a host to its existing consumer, returning whether or not the
+     * consumer was changed
+     */
+    private boolean updateHost(Owner owner, Consumer incomingHost, Consumer resultHost, String hypervisorId,
+        String jobReporterId, boolean guestsUpdated) {
+
+        boolean hypervisorIdUpdated = updateHypervisorId(resultHost, owner, jobReporterId,
+            hypervisorId);
+
+        boolean nameUpdated = incomingHost.getName() != null &&
+            (resultHost.getName() == null ||
+            !resultHost.getName().equals(incomingHost.getName()));
+        if (nameUpdated) {
+            resultHost.setName(incomingHost.getName());
+        }
+
+        if (jobReporterId != null && resultHost.getHypervisorId() != null &&
+            hypervisorId.equalsIgnoreCase(resultHost.getHypervisorId().getHypervisorId()) &&
+            resultHost.getHypervisorId().getReporterId() != null &&
+            !jobReporterId.equalsIgnoreCase(resultHost.getHypervisorId().getReporterId())) {
+            log.debug("Reporter changed for Hypervisor {} of Owner {} from {} to {}",
+                hypervisorId, owner.getKey(), resultHost.getHypervisorId().getReporterId(),
+                jobReporterId);
+        }
+
+        boolean typeUpdated = false;
+        if (!hypervisorType.getId().equals(resultHost.getTypeId())) {
+            typeUpdated = true;
+            resultHost.setType(hypervisorType);
+        }
+
+        final boolean factsUpdated = consumerResource.checkForFactsUpdate(resultHost, incomingHost);
+
+        if (factsUpdated || guestsUpdated || typeUpdated || hypervisorIdUpdated || nameUpdated) {
+            resultHost.setLastCheckin(new Date());
+            return true;
+        }
+
+        return false;
+    }
+
+    /*
+     * Updates the reporter ID of the host if it changed
+     */
+    private void updateReporterId(Consumer resultHost, String jobReporterId) {
+        if (jobReporterId != null && resultHost != null &&
+            resultHost.getHypervisorId() != null &&
+            (resultHost.getHypervisorId().getReporterId() == null ||
+            !jobReporterId.contentEquals(resultHost.getHypervisorId().getReporterId()))) {
+
+            resultHost.getHypervisorId().setReporterId(jobReporterId);
+        }
+    }
+
     private boolean updateHypervisorId(Consumer consumer, Owner owner, String reporterId,
         String hypervisorId) {
 
@@ -384,6 +640,19 @@ public class HypervisorUpdateAction {
         return incHypervisorId;
     }
 
+    /**
+     * Result of reconciling a single batch of hosts, merged into the overall result once the batch
+     * has been committed
+     */
+    private static class BatchResult {
+        private final Map<String, String> failed = new LinkedHashMap<>();
+        private final List<HypervisorConsumerDTO> created = new ArrayList<>();
+        private final List<HypervisorConsumerDTO> updated = new ArrayList<>();
+        private final List<HypervisorConsumerDTO> unchanged = new ArrayList<>();
+        private final List<Consumer> knownHosts = new ArrayList<>();
+        private final List<String> deferred = new ArrayList<>();
+    }
+
     /**
      * Result of hypervisor update operation
      */
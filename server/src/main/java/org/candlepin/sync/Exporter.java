@@ -48,17 +48,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.security.SignatureException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -72,6 +79,9 @@ import java.util.zip.ZipOutputStream;
  */
 public class Exporter {
     private static final String EXTENSIONS_BASE_DIR = "extensions";
+    private static final String EXPORT_DIR = "export";
+    private static final String ARCHIVE_ENTRY = "consumer_export.zip";
+    private static final String SIGNATURE_ENTRY = "signature";
 
     private static Logger log = LoggerFactory.getLogger(Exporter.class);
 
@@ -163,23 +173,41 @@ public class Exporter {
      */
     public File getFullExport(Consumer consumer, String cdnLabel, String webUrl,
         String apiUrl, Map<String, String> extensionData) throws ExportCreationException {
+
+        return this.writeArchiveFile(consumer,
+            out -> this.writeFullExport(consumer, cdnLabel, webUrl, apiUrl, extensionData, out));
+    }
+
+    /**
+     * Writes a manifest archive for the target {@link Consumer} to the given output stream. The
+     * archive is signed as it is written, so it is produced in a single pass without staging any
+     * files on disk. The output stream is not closed by this method.
+     *
+     * @param consumer the target consumer to export.
+     * @param cdnLabel the CDN label to store in the meta file.
+     * @param webUrl the URL pointing to the manifest's originating web application.
+     * @param apiUrl the API URL pointing to the manifest's originating candlepin API.
+     * @param extensionData the data to pass to the {@link ExportExtensionAdapter}
+     * @param out the output stream to which the manifest archive should be written.
+     * @throws ExportCreationException when an error occurs while creating the manifest archive.
+     */
+    public void writeFullExport(Consumer consumer, String cdnLabel, String webUrl, String apiUrl,
+        Map<String, String> extensionData, OutputStream out) throws ExportCreationException {
+
         try {
-            File tmpDir = syncUtils.makeTempDir("export");
-            File baseDir = new File(tmpDir.getAbsolutePath(), "export");
-            baseDir.mkdir();
-
-            exportMeta(baseDir, cdnLabel);
-            exportConsumer(baseDir, consumer, webUrl, apiUrl);
-            exportIdentityCertificate(baseDir, consumer);
-            exportEntitlements(baseDir, consumer);
-            exportEntitlementsCerts(baseDir, consumer, null, true);
-            exportProducts(baseDir, consumer);
-            exportConsumerTypes(baseDir);
-            exportRules(baseDir);
-            exportDistributorVersions(baseDir);
-            exportContentDeliveryNetworks(baseDir);
-            exportExtensionData(baseDir, consumer, extensionData);
-            return makeArchive(consumer, tmpDir, baseDir);
+            this.writeSignedArchive(consumer, out, archive -> {
+                exportMeta(archive, cdnLabel);
+                exportConsumer(archive, consumer, webUrl, apiUrl);
+                exportIdentityCertificate(archive, consumer);
+                exportEntitlements(archive, consumer);
+                exportEntitlementsCerts(archive, consumer, null, true);
+                exportProducts(archive, consumer);
+                exportConsumerTypes(archive);
+                exportRules(archive);
+                exportDistributorVersions(archive);
+                exportContentDeliveryNetworks(archive);
+                exportExtensionData(archive, consumer, extensionData);
+            });
         }
         catch (IOException e) {
             log.error("Error generating entitlement export", e);
@@ -190,14 +218,28 @@ public class Exporter {
     public File getEntitlementExport(Consumer consumer, Set<Long> serials) throws ExportCreationException {
         // TODO: need to delete tmpDir (which contains the archive,
         // which we need to return...)
-        try {
-            File tmpDir = syncUtils.makeTempDir("export");
-            File baseDir = new File(tmpDir.getAbsolutePath(), "export");
-            baseDir.mkdir();
+        return this.writeArchiveFile(consumer,
+            out -> this.writeEntitlementExport(consumer, serials, out));
+    }
 
-            exportMeta(baseDir, null);
-            exportEntitlementsCerts(baseDir, consumer, serials, false);
-            return makeArchive(consumer, tmpDir, baseDir);
+    /**
+     * Writes an archive of the target {@link Consumer}'s entitlement certificates to the given
+     * output stream. The output stream is not closed by this method.
+     *
+     * @param consumer the target consumer to export.
+     * @param serials the serials of the entitlement certificates to export, or null to export all
+     *                of the consumer's entitlement certificates.
+     * @param out the output stream to which the archive should be written.
+     * @throws ExportCreationException when an error occurs while creating the archive.
+     */
+    public void writeEntitlementExport(Consumer consumer, Set<Long> serials, OutputStream out)
+        throws ExportCreationException {
+
+        try {
+            this.writeSignedArchive(consumer, out, archive -> {
+                exportMeta(archive, null);
+                exportEntitlementsCerts(archive, consumer, serials, false);
+            });
         }
         catch (IOException e) {
             log.error("Error generating entitlement export", e);
@@ -206,143 +248,139 @@ public class Exporter {
     }
 
     /**
-     * Create a tar.gz archive of the exported directory.
+     * Receives the output stream to which an export archive should be written
+     */
+    private interface ExportWriter {
+        void write(OutputStream out) throws ExportCreationException;
+    }
+
+    /**
+     * Adds the exported data to the inner, unsigned export archive
+     */
+    private interface ArchiveWriter {
+        void write(ZipOutputStream archive) throws IOException, ExportCreationException;
+    }
+
+    /**
+     * Writes the content of a single archive entry
+     */
+    private interface EntryWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Writes an export archive to a new file in a temporary directory.
      *
-     * @param exportDir Directory where Candlepin data was exported.
      * @return File reference to the new archive zip.
      */
-    private File makeArchive(Consumer consumer, File tempDir, File exportDir)
-        throws IOException {
-        String exportFileName = String.format("%s-%s.zip", consumer.getUuid(), exportDir.getName());
-        log.info("Creating archive of " + exportDir.getAbsolutePath() + " in: " +
-            exportFileName);
+    private File writeArchiveFile(Consumer consumer, ExportWriter writer) throws ExportCreationException {
+        try {
+            File tmpDir = syncUtils.makeTempDir("export");
+            File archive = new File(tmpDir, String.format("%s-%s.zip", consumer.getUuid(), EXPORT_DIR));
+            log.info("Creating archive in: {}", archive.getAbsolutePath());
 
-        File archive = createZipArchiveWithDir(tempDir, exportDir, "consumer_export.zip",
-            "Candlepin export for " + consumer.getUuid());
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(archive))) {
+                writer.write(out);
+            }
 
-        InputStream archiveInputStream = null;
-        try {
-            archiveInputStream = new FileInputStream(archive);
-            File signedArchive = createSignedZipArchive(
-                tempDir, archive, exportFileName,
-                pki.getSHA256WithRSAHash(archiveInputStream),
-                "signed Candlepin export for " + consumer.getUuid());
-
-            log.debug("Returning file: " + archive.getAbsolutePath());
-            return signedArchive;
+            log.debug("Returning file: {}", archive.getAbsolutePath());
+            return archive;
         }
-        finally {
-            if (archiveInputStream != null) {
-                try {
-                    archiveInputStream.close();
-                }
-                catch (Exception e) {
-                    // nothing to do
-                }
-            }
+        catch (IOException e) {
+            log.error("Error generating entitlement export", e);
+            throw new ExportCreationException("Unable to create export archive", e);
         }
     }
 
-    private File createZipArchiveWithDir(File tempDir, File exportDir,
-        String exportFileName, String comment)
-        throws FileNotFoundException, IOException {
+    /**
+     * Writes a signed export archive to the given output stream. The inner archive is written
+     * directly into the first entry of the signed archive, updating the signature as it goes, and
+     * is followed by the signature entry once complete.
+     */
+    private void writeSignedArchive(Consumer consumer, OutputStream out, ArchiveWriter writer)
+        throws IOException, ExportCreationException {
+
+        Signature signature = pki.getSHA256WithRSASigner();
+
+        // Neither archive may close the stream it is writing to; the inner archive must leave the
+        // signed archive open for the signature, and the signed archive belongs to the caller.
+        ZipOutputStream signed = new ZipOutputStream(new CloseShieldOutputStream(out));
+        signed.setComment("signed Candlepin export for " + consumer.getUuid());
+        signed.putNextEntry(new ZipEntry(ARCHIVE_ENTRY));
+
+        ZipOutputStream archive = new ZipOutputStream(
+            new SignatureOutputStream(new CloseShieldOutputStream(signed), signature));
+        archive.setComment("Candlepin export for " + consumer.getUuid());
+
+        writer.write(archive);
+        archive.close();
+        signed.closeEntry();
 
-        File archive = new File(tempDir, exportFileName);
-        ZipOutputStream out = null;
         try {
-            out = new ZipOutputStream(new FileOutputStream(archive));
-            out.setComment(comment);
-            addFilesToArchive(out, exportDir.getParent().length() + 1, exportDir);
+            log.debug("Adding signature to archive.");
+            signed.putNextEntry(new ZipEntry(SIGNATURE_ENTRY));
+            signed.write(signature.sign());
+            signed.closeEntry();
         }
-        finally {
-            if (out != null) {
-                out.close();
-            }
+        catch (SignatureException e) {
+            throw new IOException("Unable to sign export archive", e);
         }
-        return archive;
+
+        signed.close();
     }
 
-    private File createSignedZipArchive(File tempDir, File toAdd,
-        String exportFileName, byte[] signature, String comment)
-        throws FileNotFoundException, IOException {
+    private void addEntry(ZipOutputStream archive, String path, EntryWriter writer) throws IOException {
+        log.debug("Adding file to archive: {}/{}", EXPORT_DIR, path);
+        archive.putNextEntry(new ZipEntry(EXPORT_DIR + "/" + path));
+
+        // The exporters close the writers they're given, which must not close the archive
+        Writer entryWriter = new OutputStreamWriter(new CloseShieldOutputStream(archive),
+            StandardCharsets.UTF_8);
 
-        File archive = new File(tempDir, exportFileName);
-        ZipOutputStream out = null;
         try {
-            out = new ZipOutputStream(new FileOutputStream(archive));
-            out.setComment(comment);
-            addFileToArchive(out, toAdd.getParent().length() + 1, toAdd);
-            addSignatureToArchive(out, signature);
+            writer.write(entryWriter);
         }
         finally {
-            if (out != null) {
-                out.close();
-            }
+            entryWriter.close();
         }
-        return archive;
+
+        archive.closeEntry();
     }
 
-    private void addFilesToArchive(ZipOutputStream out, int charsToDropFromName,
-        File directory) throws IOException {
-        for (File file : directory.listFiles()) {
+    private void addFilesToArchive(ZipOutputStream archive, String path, File directory)
+        throws IOException {
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            String filePath = path + "/" + file.getName();
+
             if (file.isDirectory()) {
-                addFilesToArchive(out, charsToDropFromName, file);
+                addFilesToArchive(archive, filePath, file);
             }
             else {
-                addFileToArchive(out, charsToDropFromName, file);
-            }
-        }
-    }
+                log.debug("Adding file to archive: {}/{}", EXPORT_DIR, filePath);
+                archive.putNextEntry(new ZipEntry(EXPORT_DIR + "/" + filePath));
 
-    private void addFileToArchive(ZipOutputStream out, int charsToDropFromName,
-        File file) throws IOException, FileNotFoundException {
-        log.debug("Adding file to archive: " +
-            file.getAbsolutePath().substring(charsToDropFromName));
-        out.putNextEntry(new ZipEntry(
-            file.getAbsolutePath().substring(charsToDropFromName)));
-        FileInputStream in = null;
-        try {
-            in = new FileInputStream(file);
+                try (InputStream in = new FileInputStream(file)) {
+                    IOUtils.copy(in, archive);
+                }
 
-            byte [] buf = new byte[1024];
-            int len;
-            while ((len = in.read(buf)) > 0) {
-                out.write(buf, 0, len);
-            }
-            out.closeEntry();
-        }
-        finally {
-            if (in != null) {
-                in.close();
+                archive.closeEntry();
             }
         }
     }
 
-    private void addSignatureToArchive(ZipOutputStream out, byte[] signature)
-        throws IOException, FileNotFoundException {
-
-        log.debug("Adding signature to archive.");
-        out.putNextEntry(new ZipEntry("signature"));
-        out.write(signature, 0, signature.length);
-        out.closeEntry();
-    }
-
-    private void exportMeta(File baseDir, String cdnKey)
+    private void exportMeta(ZipOutputStream archive, String cdnKey)
         throws IOException {
-        File file = new File(baseDir.getCanonicalPath(), "meta.json");
-        FileWriter writer = null;
-        try {
-            writer = new FileWriter(file);
-            Meta m = new Meta(getVersion(), new Date(),
-                principalProvider.get().getName(),
-                null, cdnKey);
-            meta.export(mapper, writer, m);
-        }
-        finally {
-            if (writer != null) {
-                writer.close();
-            }
-        }
+        Meta m = new Meta(getVersion(), new Date(),
+            principalProvider.get().getName(),
+            null, cdnKey);
+
+        this.addEntry(archive, "meta.json", writer -> meta.export(mapper, writer, m));
     }
 
     private String getPrefixWebUrl(String override) {
@@ -372,30 +410,17 @@ public class Exporter {
         return map.get("version") + "-" + map.get("release");
     }
 
-    private void exportConsumer(File baseDir, Consumer consumer, String webAppPrefix,
+    private void exportConsumer(ZipOutputStream archive, Consumer consumer, String webAppPrefix,
         String apiUrl)
         throws IOException {
-        File file = new File(baseDir.getCanonicalPath(), "consumer.json");
-        FileWriter writer = null;
-        try {
-            writer = new FileWriter(file);
-            this.consumerExporter.export(mapper, writer, consumer,
-                getPrefixWebUrl(webAppPrefix), getPrefixApiUrl(apiUrl));
-        }
-        finally {
-            if (writer != null) {
-                writer.close();
-            }
-        }
+        this.addEntry(archive, "consumer.json", writer -> this.consumerExporter.export(mapper, writer,
+            consumer, getPrefixWebUrl(webAppPrefix), getPrefixApiUrl(apiUrl)));
     }
 
-    private void exportEntitlementsCerts(File baseDir, Consumer consumer,
+    private void exportEntitlementsCerts(ZipOutputStream archive, Consumer consumer,
         Set<Long> serials, boolean manifest)
         throws IOException {
 
-        File entCertDir = new File(baseDir.getCanonicalPath(), "entitlement_certificates");
-        entCertDir.mkdir();
-
         for (EntitlementCertificate cert : entCertAdapter.listForConsumer(consumer)) {
             if (manifest && !this.exportRules.canExport(cert.getEntitlement())) {
                 if (log.isDebugEnabled()) {
@@ -407,42 +432,25 @@ public class Exporter {
 
             if ((serials == null) || (serials.contains(cert.getSerial().getId()))) {
                 log.debug("Exporting entitlement certificate: " + cert.getSerial());
-                File file = new File(entCertDir.getCanonicalPath(),
-                    cert.getSerial().getId() + ".pem");
-                FileWriter writer = null;
-                try {
-                    writer = new FileWriter(file);
-                    entCert.export(writer, cert);
-                }
-                finally {
-                    if (writer != null) {
-                        writer.close();
-                    }
-                }
+                String path = "entitlement_certificates/" + cert.getSerial().getId() + ".pem";
+                this.addEntry(archive, path, writer -> entCert.export(writer, cert));
             }
         }
     }
 
-    private void exportIdentityCertificate(File baseDir, Consumer consumer)
+    private void exportIdentityCertificate(ZipOutputStream archive, Consumer consumer)
         throws IOException {
 
-        File idcertdir = new File(baseDir.getCanonicalPath(), "upstream_consumer");
-        idcertdir.mkdir();
-
         IdentityCertificate cert = consumer.getIdCert();
-        File file = new File(idcertdir.getCanonicalPath(),
-            cert.getSerial().getId() + ".json");
+        String path = "upstream_consumer/" + cert.getSerial().getId() + ".json";
 
         // paradigm dictates this should go in an exporter.export method
-        try (FileWriter writer = new FileWriter(file)) {
-            mapper.writeValue(writer, this.translator.translate(cert, CertificateDTO.class));
-        }
+        this.addEntry(archive, path,
+            writer -> mapper.writeValue(writer, this.translator.translate(cert, CertificateDTO.class)));
     }
 
-    private void exportEntitlements(File baseDir, Consumer consumer)
+    private void exportEntitlements(ZipOutputStream archive, Consumer consumer)
         throws IOException, ExportCreationException {
-        File entCertDir = new File(baseDir.getCanonicalPath(), "entitlements");
-        entCertDir.mkdir();
 
         for (Entitlement ent : entitlementCurator.listByConsumer(consumer)) {
             if (ent.isDirty()) {
@@ -462,24 +470,13 @@ public class Exporter {
             if (log.isDebugEnabled()) {
                 log.debug("Exporting entitlement for product" + ent.getPool().getProductId());
             }
-            FileWriter writer = null;
-            try {
-                File file = new File(entCertDir.getCanonicalPath(), ent.getId() + ".json");
-                writer = new FileWriter(file);
-                entExporter.export(mapper, writer, ent);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+
+            this.addEntry(archive, "entitlements/" + ent.getId() + ".json",
+                writer -> entExporter.export(mapper, writer, ent));
         }
     }
 
-    private void exportProducts(File baseDir, Consumer consumer) throws IOException {
-        File productDir = new File(baseDir.getCanonicalPath(), "products");
-        productDir.mkdir();
-
+    private void exportProducts(ZipOutputStream archive, Consumer consumer) throws IOException {
         Map<String, Product> products = new HashMap<>();
         for (Entitlement entitlement : consumer.getEntitlements()) {
             Pool pool = entitlement.getPool();
@@ -509,19 +506,9 @@ public class Exporter {
             // product.setUuid(null);
             // product.setOwner(null);
 
-            String path = productDir.getCanonicalPath();
             String productId = product.getId();
-            File file = new File(path, productId + ".json");
-            FileWriter writer = null;
-            try {
-                writer = new FileWriter(file);
-                productExporter.export(mapper, writer, product);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+            this.addEntry(archive, "products/" + productId + ".json",
+                writer -> productExporter.export(mapper, writer, product));
 
             // Real products have a numeric id.
             if (StringUtils.isNumeric(product.getId())) {
@@ -533,120 +520,71 @@ public class Exporter {
                 // so just skip over this if we get null back
                 // XXX: need to decide if the cert should always be in the export, or never.
                 if (cert != null) {
-                    file = new File(productDir.getCanonicalPath(), product.getId() + ".pem");
-                    writer = new FileWriter(file);
-                    productCertExporter.export(writer, cert);
-                    writer.close();
+                    this.addEntry(archive, "products/" + productId + ".pem",
+                        writer -> productCertExporter.export(writer, cert));
                 }
             }
         }
     }
 
-    private void exportConsumerTypes(File baseDir) throws IOException {
-        File typeDir = new File(baseDir.getCanonicalPath(), "consumer_types");
-        typeDir.mkdir();
-
+    private void exportConsumerTypes(ZipOutputStream archive) throws IOException {
         for (ConsumerType type : consumerTypeCurator.listAll()) {
-            File file = new File(typeDir.getCanonicalPath(), type.getLabel() + ".json");
-            FileWriter writer = null;
-            try {
-                writer = new FileWriter(file);
-                consumerType.export(mapper, writer, type);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+            this.addEntry(archive, "consumer_types/" + type.getLabel() + ".json",
+                writer -> consumerType.export(mapper, writer, type));
         }
     }
 
-    private void exportRules(File baseDir) throws IOException {
+    private void exportRules(ZipOutputStream archive) throws IOException {
         // Because old candlepin servers assume to import a file in rules dir, we had to
         // move to a new directory for versioned rules file:
-        File newRulesDir = new File(baseDir.getCanonicalPath(), "rules2");
-        newRulesDir.mkdir();
-        File newRulesFile = new File(newRulesDir.getCanonicalPath(), "rules.js");
-        FileWriter writer = null;
-        try {
-            writer = new FileWriter(newRulesFile);
-            rules.export(writer);
-        }
-        finally {
-            if (writer != null) {
-                writer.close();
-            }
-        }
+        this.addEntry(archive, "rules2/rules.js", writer -> rules.export(writer));
 
-        exportLegacyRules(baseDir);
+        exportLegacyRules(archive);
     }
 
     /*
      * We still need to export a copy of the deprecated default-rules.js so new manifests
      * can still be imported by old candlepin servers.
      */
-    private void exportLegacyRules(File baseDir) throws IOException {
-        File oldRulesDir = new File(baseDir.getCanonicalPath(), "rules");
-        oldRulesDir.mkdir();
-        File oldRulesFile = new File(oldRulesDir.getCanonicalPath(), "default-rules.js");
-
+    private void exportLegacyRules(ZipOutputStream archive) throws IOException {
         // TODO: does this need a "exporter" object as well?
-        FileUtils.copyFile(new File(
-            this.getClass().getResource(LEGACY_RULES_FILE).getPath()),
-            oldRulesFile);
+        String path = "rules/default-rules.js";
+        log.debug("Adding file to archive: {}/{}", EXPORT_DIR, path);
+        archive.putNextEntry(new ZipEntry(EXPORT_DIR + "/" + path));
+
+        try (InputStream in = this.getClass().getResourceAsStream(LEGACY_RULES_FILE)) {
+            IOUtils.copy(in, archive);
+        }
+
+        archive.closeEntry();
     }
 
-    private void exportDistributorVersions(File baseDir) throws IOException {
+    private void exportDistributorVersions(ZipOutputStream archive) throws IOException {
         List<DistributorVersion> versions = distVerCurator.findAll();
         if (versions == null || versions.isEmpty()) {
             return;
         }
 
-        File distVerDir = new File(baseDir.getCanonicalPath(), "distributor_version");
-        distVerDir.mkdir();
-
-        FileWriter writer = null;
         for (DistributorVersion dv : versions) {
             if (log.isDebugEnabled()) {
                 log.debug("Exporting Distributor Version" + dv.getName());
             }
-            try {
-                File file = new File(distVerDir.getCanonicalPath(), dv.getName() + ".json");
-                writer = new FileWriter(file);
-                distVerExporter.export(mapper, writer, dv);
-            }
-            finally {
-                if (writer != null) {
-                    writer.close();
-                }
-            }
+
+            this.addEntry(archive, "distributor_version/" + dv.getName() + ".json",
+                writer -> distVerExporter.export(mapper, writer, dv));
         }
     }
 
-    private void exportContentDeliveryNetworks(File baseDir) throws IOException {
+    private void exportContentDeliveryNetworks(ZipOutputStream archive) throws IOException {
         ResultIterator<Cdn> iterator = this.cdnCurator.listAll().iterate();
 
         try {
-            if (iterator.hasNext()) {
-                File cdnDir = new File(baseDir.getCanonicalPath(), "content_delivery_network");
-                cdnDir.mkdir();
-
-                while (iterator.hasNext()) {
-                    Cdn cdn = iterator.next();
-                    log.debug("Exporting CDN: {}", cdn.getName());
-
-                    FileWriter writer = null;
-                    try {
-                        File file = new File(cdnDir.getCanonicalPath(), cdn.getLabel() + ".json");
-                        writer = new FileWriter(file);
-                        cdnExporter.export(mapper, writer, cdn);
-                    }
-                    finally {
-                        if (writer != null) {
-                            writer.close();
-                        }
-                    }
-                }
+            while (iterator.hasNext()) {
+                Cdn cdn = iterator.next();
+                log.debug("Exporting CDN: {}", cdn.getName());
+
+                this.addEntry(archive, "content_delivery_network/" + cdn.getLabel() + ".json",
+                    writer -> cdnExporter.export(mapper, writer, cdn));
             }
         }
         finally {
@@ -654,11 +592,20 @@ public class Exporter {
         }
     }
 
-    private void exportExtensionData(File baseDir, Consumer targetConsumer, Map<String, String> extensionData)
-        throws IOException {
-        File extensionDir = new File(baseDir.getCanonicalPath(), EXTENSIONS_BASE_DIR);
-        extensionDir.mkdir();
-        exportExtensionAdapter.extendManifest(extensionDir, targetConsumer, extensionData);
+    private void exportExtensionData(ZipOutputStream archive, Consumer targetConsumer,
+        Map<String, String> extensionData) throws IOException {
+
+        // The extension adapter writes its files to a directory, so extensions are the only part of
+        // the export staged on disk before being added to the archive.
+        File extensionDir = syncUtils.makeTempDir(EXTENSIONS_BASE_DIR);
+
+        try {
+            exportExtensionAdapter.extendManifest(extensionDir, targetConsumer, extensionData);
+            addFilesToArchive(archive, EXTENSIONS_BASE_DIR, extensionDir);
+        }
+        finally {
+            FileUtils.deleteDirectory(extensionDir);
+        }
     }
 
 }
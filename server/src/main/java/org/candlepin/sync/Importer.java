@@ -16,6 +16,7 @@ package org.candlepin.sync;
 
 import org.candlepin.audit.EventSink;
 import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.ContentAccessManager;
 import org.candlepin.controller.ContentAccessManager.ContentAccessMode;
 import org.candlepin.controller.PoolManager;
@@ -26,6 +27,7 @@ import org.candlepin.dto.manifest.v1.CertificateDTO;
 import org.candlepin.dto.manifest.v1.ConsumerDTO;
 import org.candlepin.dto.manifest.v1.ConsumerTypeDTO;
 import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
+import org.candlepin.dto.manifest.v1.EntitlementDTO;
 import org.candlepin.dto.manifest.v1.ProductDTO;
 import org.candlepin.dto.manifest.v1.SubscriptionDTO;
 import org.candlepin.model.CdnCurator;
@@ -57,6 +59,9 @@ import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
@@ -70,9 +75,15 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.security.SignatureException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -92,6 +103,10 @@ import javax.persistence.PersistenceException;
 public class Importer {
     private static Logger log = LoggerFactory.getLogger(Importer.class);
 
+    private static final String EXPORT_DIR = "export";
+    private static final String CONSUMER_EXPORT_FILE = "consumer_export.zip";
+    private static final String SIGNATURE_FILE = "signature";
+
     /**
      * files we use to perform import
      */
@@ -185,14 +200,24 @@ public class Importer {
 
     public ImportRecord loadExport(Owner owner, File archive, ConflictOverrides overrides,
         String uploadedFileName) throws ImporterException {
+
+        InputStream istream;
         try {
-            return doExport(owner, unpackExportFile(archive.getName(), new FileInputStream(archive)),
-                overrides, uploadedFileName);
+            istream = new FileInputStream(archive);
         }
         catch (FileNotFoundException e) {
             log.error(String.format("Could not find import archive: %s", archive.getAbsolutePath()));
             throw new ImporterException(i18n.tr("Uploaded manifest file does not exist."), e);
         }
+
+        if (this.isStreamingImportEnabled()) {
+            ManifestContents contents = this.readManifestArchive(owner, archive.getName(), istream,
+                overrides);
+
+            return this.doImport(owner, contents, overrides, uploadedFileName);
+        }
+
+        return doExport(owner, unpackExportFile(archive.getName(), istream), overrides, uploadedFileName);
     }
 
     /**
@@ -208,6 +233,11 @@ public class Importer {
     public ImportRecord loadStoredExport(ManifestFile export, Owner owner, ConflictOverrides overrides,
         String uploadedFileName) throws ImporterException {
         try {
+            if (this.isStreamingImportEnabled()) {
+                ManifestContents contents = this.readFromService(export, owner, overrides);
+                return this.doImport(owner, contents, overrides, uploadedFileName);
+            }
+
             ImportRecord result = doExport(owner, extractFromService(export), overrides, uploadedFileName);
             return result;
         }
@@ -307,6 +337,27 @@ public class Importer {
         return unpackExportFile(export.getId(), export.getInputStream());
     }
 
+    /**
+     * Pulls the manifest from the {@link ManifestFileService} and reads its contents directly from
+     * the stored archive, verifying its signature in the same pass.
+     *
+     * @param export the exported manifest file to read.
+     * @param owner the {@link Owner} the manifest will be imported into.
+     * @param overrides the conflicts that are to be overridden.
+     * @return the {@link ManifestContents} read from the manifest.
+     * @throws ManifestFileServiceException
+     * @throws ImporterException
+     */
+    @Transactional
+    protected ManifestContents readFromService(ManifestFile export, Owner owner, ConflictOverrides overrides)
+        throws ManifestFileServiceException, ImporterException {
+        return this.readManifestArchive(owner, export.getId(), export.getInputStream(), overrides);
+    }
+
+    private boolean isStreamingImportEnabled() {
+        return this.config.getBoolean(ConfigProperties.SYNC_STREAMING_IMPORT);
+    }
+
     /**
      * Check to make sure the meta data is newer than the imported data.
      * @param type ExporterMetadata.TYPE_PER_USER or TYPE_SYSTEM
@@ -319,7 +370,20 @@ public class Importer {
     protected void validateMetadata(String type, Owner owner, File meta, ConflictOverrides forcedConflicts)
         throws IOException, ImporterException {
 
-        Meta m = mapper.readValue(meta, Meta.class);
+        this.validateMetadata(type, owner, mapper.readValue(meta, Meta.class), forcedConflicts);
+    }
+
+    /**
+     * Check to make sure the meta data is newer than the imported data.
+     * @param type ExporterMetadata.TYPE_PER_USER or TYPE_SYSTEM
+     * @param owner Owner in the case of PER_USER
+     * @param m the manifest metadata
+     * @param forcedConflicts Conflicts we will override if encountered
+     * @throws ImporterException thrown if the metadata is invalid.
+     */
+    protected void validateMetadata(String type, Owner owner, Meta m, ConflictOverrides forcedConflicts)
+        throws ImporterException {
+
         if (type == null) {
             throw new ImporterException(i18n.tr("Wrong metadata type"));
         }
@@ -469,6 +533,228 @@ public class Importer {
         }
     }
 
+    private ImportRecord doImport(Owner owner, ManifestContents contents, ConflictOverrides overrides,
+        String uploadedFileName) throws ImporterException {
+
+        Map<String, Object> result = new HashMap<>();
+        try {
+            List<SubscriptionDTO> importSubs = importObjects(owner, contents, overrides);
+
+            result.put("subscriptions", importSubs);
+            result.put("meta", contents.getMeta());
+
+            sink.emitImportCreated(owner);
+            return recordImportSuccess(owner, result, overrides, uploadedFileName);
+        }
+        catch (ConstraintViolationException cve) {
+            log.error("Failed to import archive", cve);
+            throw new ImporterException(i18n.tr("Failed to import archive"), cve, result);
+        }
+        catch (PersistenceException pe) {
+            log.error("Failed to import archive", pe);
+            throw new ImporterException(i18n.tr("Failed to import archive"), pe, result);
+        }
+        catch (IOException e) {
+            log.error("Exception caught importing archive", e);
+            throw new ImportExtractionException(i18n.tr("Unable to extract export archive"), e, result);
+        }
+    }
+
+    /**
+     * Reads the contents of a manifest directly from its archive, without extracting it to disk.
+     * The signature of the nested consumer export archive is verified as the archive is read, and
+     * the manifest data is parsed from the nested archive's entries as they are encountered. As
+     * the signature can only be checked once the nested archive has been read in full, nothing
+     * read from the manifest is persisted here; the parsed contents are returned to be imported
+     * after the signature has been verified.
+     *
+     * @param owner the {@link Owner} the manifest will be imported into.
+     * @param fileName the name of the manifest archive, used for error reporting.
+     * @param istream an input stream providing the manifest archive; closed once read.
+     * @param overrides the conflicts that are to be overridden.
+     * @return the {@link ManifestContents} read from the manifest.
+     * @throws ImporterException if the archive cannot be read or fails the signature check.
+     */
+    private ManifestContents readManifestArchive(Owner owner, String fileName, InputStream istream,
+        ConflictOverrides overrides) throws ImporterException {
+
+        try {
+            List<Signature> verifiers = pki.getSHA256WithRSAVerifiers();
+            ManifestContents contents = null;
+            byte[] signature = null;
+            boolean empty = true;
+
+            ZipInputStream archive = new ZipInputStream(istream);
+            for (ZipEntry entry = archive.getNextEntry(); entry != null; entry = archive.getNextEntry()) {
+                log.debug("entryname {}", entry.getName());
+                empty = false;
+
+                if (SIGNATURE_FILE.equals(entry.getName())) {
+                    signature = IOUtils.toByteArray(archive);
+                }
+                else if (CONSUMER_EXPORT_FILE.equals(entry.getName())) {
+                    contents = this.readConsumerExport(owner, new SignatureInputStream(archive, verifiers));
+                }
+
+                archive.closeEntry();
+            }
+
+            if (empty) {
+                throw new ImportExtractionException(i18n.tr(
+                    "The archive {0} is not a properly compressed file or is empty", fileName));
+            }
+
+            if (signature == null || signature.length == 0) {
+                throw new ImportExtractionException(
+                    i18n.tr("The archive does not contain the required signature file"));
+            }
+
+            if (contents == null) {
+                log.error("Archive file does not contain consumer_export.zip");
+                throw new ImportExtractionException(i18n.tr("The archive does not contain " +
+                    "the required consumer_export.zip file"));
+            }
+
+            boolean verifiedSignature = false;
+            for (Signature verifier : verifiers) {
+                try {
+                    if (verifier.verify(signature)) {
+                        verifiedSignature = true;
+                        break;
+                    }
+                }
+                catch (SignatureException e) {
+                    log.debug("Unable to verify archive signature", e);
+                }
+            }
+
+            if (!verifiedSignature) {
+                log.warn("Archive signature check failed.");
+
+                if (!overrides.isForced(Conflict.SIGNATURE_CONFLICT)) {
+                    // As with extracted archives, a bad signature is reported immediately rather
+                    // than being collected with the other conflicts
+                    throw new ImportConflictException(i18n.tr("Archive failed signature check"),
+                        Conflict.SIGNATURE_CONFLICT);
+                }
+                else {
+                    log.warn("Ignoring signature check failure.");
+                }
+            }
+
+            return contents;
+        }
+        catch (IOException e) {
+            log.error("Exception caught importing archive", e);
+            throw new ImportExtractionException(i18n.tr("Unable to extract export archive"), e);
+        }
+        catch (CertificateException e) {
+            log.error("Certificate exception checking archive signature", e);
+            throw new ImportExtractionException(
+                i18n.tr("Certificate exception checking archive signature"), e);
+        }
+        finally {
+            IOUtils.closeQuietly(istream);
+        }
+    }
+
+    private ManifestContents readConsumerExport(Owner owner, InputStream istream)
+        throws IOException, ImporterException {
+
+        ManifestContents contents = new ManifestContents();
+        String prefix = EXPORT_DIR + "/";
+        boolean found = false;
+
+        ZipInputStream archive = new ZipInputStream(istream);
+        ZipEntry entry = archive.getNextEntry();
+
+        if (entry == null) {
+            throw new ImportExtractionException(i18n.tr(
+                "The archive {0} is not a properly compressed file or is empty", CONSUMER_EXPORT_FILE));
+        }
+
+        for (; entry != null; entry = archive.getNextEntry()) {
+            String entryName = entry.getName();
+
+            if (!entry.isDirectory() && entryName.startsWith(prefix)) {
+                log.debug("Reading manifest entry: {}", entryName);
+                found = true;
+
+                // The mapper closes its reader once done, which must not close the archive
+                Reader reader = new InputStreamReader(new CloseShieldInputStream(archive),
+                    StandardCharsets.UTF_8);
+
+                this.readManifestEntry(contents, owner, entryName.substring(prefix.length()), reader);
+            }
+
+            archive.closeEntry();
+        }
+
+        if (!found) {
+            throw new ImportExtractionException(i18n.tr("The consumer_export archive has no contents"));
+        }
+
+        // Consume the remainder of the archive, so the signature covers the entire file
+        IOUtils.copy(istream, new NullOutputStream());
+
+        return contents;
+    }
+
+    private void readManifestEntry(ManifestContents contents, Owner owner, String path, Reader reader)
+        throws IOException {
+
+        int index = path.indexOf('/');
+        String directory = index != -1 ? path.substring(0, index) : null;
+        String name = path.substring(index + 1);
+
+        if (ImportFile.META.fileName().equals(path)) {
+            contents.setMeta(mapper.readValue(reader, Meta.class));
+        }
+        else if (ImportFile.CONSUMER.fileName().equals(path)) {
+            contents.setConsumer(mapper.readValue(reader, ConsumerDTO.class));
+        }
+        else if (ImportFile.RULES_FILE.fileName().equals(path)) {
+            contents.setRules(StringFromReader.asString(reader));
+        }
+        else if (ImportFile.CONSUMER_TYPE.fileName().equals(directory)) {
+            ConsumerTypeImporter importer = new ConsumerTypeImporter(consumerTypeCurator);
+            contents.addConsumerType(importer.createObject(mapper, reader));
+        }
+        else if (ImportFile.UPSTREAM_CONSUMER.fileName().equals(directory)) {
+            if (name.endsWith(".json")) {
+                log.debug("Import upstream consumeridentity certificate: {}", name);
+                contents.setIdentityCertificate(mapper.readValue(reader, CertificateDTO.class));
+            }
+            else {
+                log.warn("Extra file found in upstream_consumer directory: {}", name);
+            }
+        }
+        else if (ImportFile.DISTRIBUTOR_VERSIONS.fileName().equals(directory)) {
+            DistributorVersionImporter importer = new DistributorVersionImporter(distVerCurator);
+            contents.addDistributorVersion(importer.createObject(mapper, reader));
+        }
+        else if (ImportFile.CONTENT_DELIVERY_NETWORKS.fileName().equals(directory)) {
+            contents.addCdn(new CdnImporter(cdnCurator).createObject(mapper, reader));
+        }
+        else if (ImportFile.PRODUCTS.fileName().equals(directory)) {
+            // Skip product.pem's, we just need the json to import:
+            if (name.endsWith(".json")) {
+                log.debug("Importing product {} for owner {}", name, owner.getKey());
+                contents.addProduct(new ProductImporter().createObject(mapper, reader, owner));
+            }
+            else {
+                contents.addProduct(null);
+            }
+        }
+        else if (ImportFile.ENTITLEMENTS.fileName().equals(directory)) {
+            log.debug("Import entitlement: {}", name);
+            contents.addEntitlement(mapper.readValue(reader, EntitlementDTO.class));
+        }
+        else {
+            log.debug("Skipping manifest entry: {}", path);
+        }
+    }
+
     @SuppressWarnings("checkstyle:methodlength")
     @Transactional(rollbackOn = {IOException.class, ImporterException.class,
         RuntimeException.class, ImportConflictException.class})
@@ -585,6 +871,103 @@ public class Importer {
             importSubs = importEntitlements(owner, new HashSet<>(), new File[]{}, consumer.getUuid(), meta);
         }
 
+        this.refreshImportedPools(owner, consumer, importSubs);
+
+        return importSubs;
+    }
+
+    @Transactional(rollbackOn = {IOException.class, ImporterException.class,
+        RuntimeException.class, ImportConflictException.class})
+    // WARNING: Keep this method public, otherwise @Transactional is ignored:
+    public List<SubscriptionDTO> importObjects(Owner owner, ManifestContents contents,
+        ConflictOverrides overrides) throws IOException, ImporterException {
+        ownerCurator.lock(owner);
+
+        log.debug("Importing manifest contents for owner: {}", owner);
+
+        Meta meta = contents.getMeta();
+        if (meta == null) {
+            throw new ImporterException(i18n.tr("The archive does not contain the required meta.json file"));
+        }
+        if (contents.getConsumerTypes() == null) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required consumer_types directory"));
+        }
+        if (contents.getConsumer() == null) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required consumer.json file"));
+        }
+        if (contents.getProducts() != null && contents.getEntitlements() == null) {
+            throw new ImporterException(
+                i18n.tr("The archive does not contain the required entitlements directory"));
+        }
+
+        // If any calls find conflicts we'll assemble them into one exception detailing all
+        // the conflicts which occurred, so the caller can override them all at once
+        // if desired:
+        List<ImportConflictException> conflictExceptions = new LinkedList<>();
+
+        importRules(contents.getRules());
+        importConsumerTypes(contents.getConsumerTypes());
+
+        if (contents.getDistributorVersions() != null) {
+            importDistributorVersions(contents.getDistributorVersions());
+        }
+
+        if (contents.getCdns() != null) {
+            importContentDeliveryNetworks(contents.getCdns());
+        }
+
+        // per user elements
+        try {
+            validateMetadata(ExporterMetadata.TYPE_PER_USER, owner, meta, overrides);
+        }
+        catch (ImportConflictException e) {
+            conflictExceptions.add(e);
+        }
+
+        ConsumerDTO consumer = null;
+        try {
+            consumer = importConsumer(owner, contents.getConsumer(), contents.getIdentityCertificate(),
+                overrides, meta);
+        }
+        catch (ImportConflictException e) {
+            conflictExceptions.add(e);
+        }
+
+        // At this point we're done checking for any potential conflicts:
+        if (!conflictExceptions.isEmpty()) {
+            log.error("Conflicts occurred during import that were not overridden:");
+            for (ImportConflictException e : conflictExceptions) {
+                log.error("{}", e.message().getConflicts());
+            }
+
+            throw new ImportConflictException(conflictExceptions);
+        }
+
+        if (consumer == null) {
+            throw new IllegalStateException("No consumer found during import");
+        }
+
+        // If the consumer has no entitlements, there will be no products or entitlements to import.
+        List<SubscriptionDTO> importSubs;
+        if (contents.getProducts() != null) {
+            importSubs = importEntitlements(owner, contents.getProducts(), contents.getEntitlements(),
+                consumer.getUuid(), meta);
+        }
+        else {
+            log.warn("No products found to import, skipping product import.");
+            log.warn("No entitlements in manifest, removing all subscriptions for owner.");
+            importSubs = importEntitlements(owner, new HashSet<>(), new ArrayList<>(), consumer.getUuid(),
+                meta);
+        }
+
+        this.refreshImportedPools(owner, consumer, importSubs);
+
+        return importSubs;
+    }
+
+    private void refreshImportedPools(Owner owner, ConsumerDTO consumer, List<SubscriptionDTO> importSubs) {
         // Setup our import subscription adapter with the subscriptions imported:
         final String contentAccessMode = ContentAccessMode
             .resolveModeName(consumer.getContentAccessMode(), true)
@@ -598,8 +981,6 @@ public class Importer {
 
         // Make sure we update the content access mode bits now that we've updated everything else
         this.contentAccessManager.updateOwnerContentAccess(owner, contentAccessMode, contentAccessMode);
-
-        return importSubs;
     }
 
     protected void importRules(File rulesFile, File metadata) throws IOException {
@@ -622,6 +1003,17 @@ public class Importer {
         }
     }
 
+    protected void importRules(String rules) throws IOException {
+        if (rules == null) {
+            log.warn("Skipping rules import, manifest does not contain rules file: {}",
+                ImportFile.RULES_FILE.fileName());
+
+            return;
+        }
+
+        rulesImporter.importObject(new StringReader(rules));
+    }
+
     protected void importConsumerTypes(File[] consumerTypes) throws IOException {
         ConsumerTypeImporter importer = new ConsumerTypeImporter(consumerTypeCurator);
         Set<ConsumerType> consumerTypeObjs = new HashSet<>();
@@ -642,19 +1034,21 @@ public class Importer {
         importer.store(consumerTypeObjs);
     }
 
+    protected void importConsumerTypes(Set<ConsumerType> consumerTypes) {
+        ConsumerTypeImporter importer = new ConsumerTypeImporter(consumerTypeCurator);
+        importer.store(consumerTypes);
+    }
+
     protected ConsumerDTO importConsumer(Owner owner, File consumerFile, File[] upstreamConsumer,
         ConflictOverrides forcedConflicts, Meta meta) throws IOException, SyncDataFormatException {
 
-        IdentityCertificate idcert = null;
+        CertificateDTO dtoCert = null;
         for (File uc : upstreamConsumer) {
             if (uc.getName().endsWith(".json")) {
                 log.debug("Import upstream consumeridentity certificate: {}", uc.getName());
 
                 try (Reader reader = new FileReader(uc)) {
-                    CertificateDTO dtoCert = mapper.readValue(reader, CertificateDTO.class);
-                    idcert = new IdentityCertificate();
-                    ImporterUtils.populateEntity(idcert, dtoCert);
-                    idcert.setId(dtoCert.getId());
+                    dtoCert = mapper.readValue(reader, CertificateDTO.class);
                 }
             }
             else {
@@ -663,34 +1057,43 @@ public class Importer {
         }
 
         ConsumerImporter importer = new ConsumerImporter(ownerCurator, idCertCurator, i18n, csCurator);
-        Reader reader = null;
-        ConsumerDTO consumer = null;
+        ConsumerDTO consumer;
 
-        try {
-            reader = new FileReader(consumerFile);
+        try (Reader reader = new FileReader(consumerFile)) {
             consumer = importer.createObject(mapper, reader);
-            // we can not rely on the actual ConsumerType in the ConsumerDto
-            // because it could have an id not in our database. We need to
-            // stick with the label. Hence we need to lookup the ACTUAL type
-            // by label here before attempting to store the UpstreamConsumer
-            ConsumerType type = consumerTypeCurator.getByLabel(consumer.getType().getLabel());
-            consumer.setType(this.translator.translate(type, ConsumerTypeDTO.class));
+        }
 
-            // in older manifests the web app prefix will not
-            // be on the consumer, we can use the one stored in
-            // the metadata
-            if (StringUtils.isEmpty(consumer.getUrlWeb())) {
-                consumer.setUrlWeb(meta.getWebAppPrefix());
-            }
+        return this.importConsumer(owner, consumer, dtoCert, forcedConflicts, meta);
+    }
 
-            importer.store(owner, consumer, forcedConflicts, idcert);
+    protected ConsumerDTO importConsumer(Owner owner, ConsumerDTO consumer, CertificateDTO dtoCert,
+        ConflictOverrides forcedConflicts, Meta meta) throws SyncDataFormatException {
+
+        IdentityCertificate idcert = null;
+        if (dtoCert != null) {
+            idcert = new IdentityCertificate();
+            ImporterUtils.populateEntity(idcert, dtoCert);
+            idcert.setId(dtoCert.getId());
         }
-        finally {
-            if (reader != null) {
-                reader.close();
-            }
+
+        ConsumerImporter importer = new ConsumerImporter(ownerCurator, idCertCurator, i18n, csCurator);
+
+        // we can not rely on the actual ConsumerType in the ConsumerDto
+        // because it could have an id not in our database. We need to
+        // stick with the label. Hence we need to lookup the ACTUAL type
+        // by label here before attempting to store the UpstreamConsumer
+        ConsumerType type = consumerTypeCurator.getByLabel(consumer.getType().getLabel());
+        consumer.setType(this.translator.translate(type, ConsumerTypeDTO.class));
+
+        // in older manifests the web app prefix will not
+        // be on the consumer, we can use the one stored in
+        // the metadata
+        if (StringUtils.isEmpty(consumer.getUrlWeb())) {
+            consumer.setUrlWeb(meta.getWebAppPrefix());
         }
 
+        importer.store(owner, consumer, forcedConflicts, idcert);
+
         return consumer;
     }
 
@@ -720,6 +1123,22 @@ public class Importer {
         File[] entitlements, String consumerUuid, Meta meta)
         throws IOException, SyncDataFormatException {
 
+        List<EntitlementDTO> entitlementsToImport = new ArrayList<>();
+        for (File entitlement : entitlements) {
+            log.debug("Import entitlement: {}", entitlement.getName());
+
+            try (Reader reader = new FileReader(entitlement)) {
+                entitlementsToImport.add(mapper.readValue(reader, EntitlementDTO.class));
+            }
+        }
+
+        return this.importEntitlements(owner, products, entitlementsToImport, consumerUuid, meta);
+    }
+
+    protected List<SubscriptionDTO> importEntitlements(Owner owner, Set<ProductDTO> products,
+        Collection<EntitlementDTO> entitlements, String consumerUuid, Meta meta)
+        throws SyncDataFormatException {
+
         log.debug("Importing entitlements for owner: {}", owner);
 
         EntitlementImporter importer = new EntitlementImporter(csCurator, cdnCurator, i18n, productCurator,
@@ -735,19 +1154,9 @@ public class Importer {
         }
 
         List<SubscriptionDTO> subscriptionsToImport = new ArrayList<>();
-        for (File entitlement : entitlements) {
-            Reader reader = null;
-            try {
-                log.debug("Import entitlement: {}", entitlement.getName());
-                reader = new FileReader(entitlement);
-                subscriptionsToImport.add(
-                    importer.importObject(mapper, reader, owner, productsById, consumerUuid, meta));
-            }
-            finally {
-                if (reader != null) {
-                    reader.close();
-                }
-            }
+        for (EntitlementDTO entitlement : entitlements) {
+            subscriptionsToImport.add(
+                importer.importObject(entitlement, owner, productsById, consumerUuid, meta));
         }
 
         // Reconcile the subscriptions so they line up with pools we're tracking
@@ -865,6 +1274,11 @@ public class Importer {
         importer.store(distVers);
     }
 
+    protected void importDistributorVersions(Set<DistributorVersionDTO> distVers) {
+        DistributorVersionImporter importer = new DistributorVersionImporter(distVerCurator);
+        importer.store(distVers);
+    }
+
     protected void importContentDeliveryNetworks(File[] cdnFiles) throws IOException {
         CdnImporter importer = new CdnImporter(cdnCurator);
         Set<CdnDTO> cdns = new HashSet<>();
@@ -885,6 +1299,11 @@ public class Importer {
         importer.store(cdns);
     }
 
+    protected void importContentDeliveryNetworks(Set<CdnDTO> cdns) {
+        CdnImporter importer = new CdnImporter(cdnCurator);
+        importer.store(cdns);
+    }
+
     private ImportUpstreamConsumer createImportUpstreamConsumer(Owner owner, UpstreamConsumer uc) {
         ImportUpstreamConsumer iup = null;
         if (uc == null && owner != null) {
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import org.candlepin.dto.manifest.v1.CdnDTO;
+import org.candlepin.dto.manifest.v1.CertificateDTO;
+import org.candlepin.dto.manifest.v1.ConsumerDTO;
+import org.candlepin.dto.manifest.v1.DistributorVersionDTO;
+import org.candlepin.dto.manifest.v1.EntitlementDTO;
+import org.candlepin.dto.manifest.v1.ProductDTO;
+import org.candlepin.model.ConsumerType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+
+/**
+ * The ManifestContents class holds the parsed contents of a manifest read directly from its
+ * archive, allowing the manifest to be imported without first being extracted to disk.
+ * <p></p>
+ * Collections are null until an entry belonging to them has been read, which allows the importer
+ * to distinguish between a manifest missing a directory and one containing an empty directory.
+ */
+public class ManifestContents {
+
+    private Meta meta;
+    private String rules;
+    private ConsumerDTO consumer;
+    private CertificateDTO identityCertificate;
+    private Set<ConsumerType> consumerTypes;
+    private Set<DistributorVersionDTO> distributorVersions;
+    private Set<CdnDTO> cdns;
+    private Set<ProductDTO> products;
+    private List<EntitlementDTO> entitlements;
+
+    public Meta getMeta() {
+        return this.meta;
+    }
+
+    public ManifestContents setMeta(Meta meta) {
+        this.meta = meta;
+        return this;
+    }
+
+    public String getRules() {
+        return this.rules;
+    }
+
+    public ManifestContents setRules(String rules) {
+        this.rules = rules;
+        return this;
+    }
+
+    public ConsumerDTO getConsumer() {
+        return this.consumer;
+    }
+
+    public ManifestContents setConsumer(ConsumerDTO consumer) {
+        this.consumer = consumer;
+        return this;
+    }
+
+    public CertificateDTO getIdentityCertificate() {
+        return this.identityCertificate;
+    }
+
+    public ManifestContents setIdentityCertificate(CertificateDTO identityCertificate) {
+        this.identityCertificate = identityCertificate;
+        return this;
+    }
+
+    public Set<ConsumerType> getConsumerTypes() {
+        return this.consumerTypes;
+    }
+
+    public ManifestContents addConsumerType(ConsumerType consumerType) {
+        if (this.consumerTypes == null) {
+            this.consumerTypes = new HashSet<>();
+        }
+
+        if (consumerType != null) {
+            this.consumerTypes.add(consumerType);
+        }
+
+        return this;
+    }
+
+    public Set<DistributorVersionDTO> getDistributorVersions() {
+        return this.distributorVersions;
+    }
+
+    public ManifestContents addDistributorVersion(DistributorVersionDTO distributorVersion) {
+        if (this.distributorVersions == null) {
+            this.distributorVersions = new HashSet<>();
+        }
+
+        if (distributorVersion != null) {
+            this.distributorVersions.add(distributorVersion);
+        }
+
+        return this;
+    }
+
+    public Set<CdnDTO> getCdns() {
+        return this.cdns;
+    }
+
+    public ManifestContents addCdn(CdnDTO cdn) {
+        if (this.cdns == null) {
+            this.cdns = new HashSet<>();
+        }
+
+        if (cdn != null) {
+            this.cdns.add(cdn);
+        }
+
+        return this;
+    }
+
+    public Set<ProductDTO> getProducts() {
+        return this.products;
+    }
+
+    /**
+     * Adds a product to this manifest. A null product marks the products directory as present
+     * without adding anything to it, as is the case for the product certificates stored alongside
+     * the product data.
+     *
+     * @param product
+     *  the product to add, or null to only mark the products directory as present
+     *
+     * @return
+     *  a reference to this ManifestContents instance
+     */
+    public ManifestContents addProduct(ProductDTO product) {
+        if (this.products == null) {
+            this.products = new HashSet<>();
+        }
+
+        if (product != null) {
+            this.products.add(product);
+        }
+
+        return this;
+    }
+
+    public List<EntitlementDTO> getEntitlements() {
+        return this.entitlements;
+    }
+
+    public ManifestContents addEntitlement(EntitlementDTO entitlement) {
+        if (this.entitlements == null) {
+            this.entitlements = new ArrayList<>();
+        }
+
+        if (entitlement != null) {
+            this.entitlements.add(entitlement);
+        }
+
+        return this;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+
+/**
+ * The SignatureInputStream updates one or more signatures with all data read through it, in the
+ * same manner as a DigestInputStream updates a message digest. Marking is not supported, as data
+ * read again after a reset would be included in the signatures twice.
+ */
+class SignatureInputStream extends FilterInputStream {
+
+    private final List<Signature> signatures;
+
+    /**
+     * Creates a new SignatureInputStream
+     *
+     * @param in
+     *  the input stream from which data should be read
+     *
+     * @param signatures
+     *  the signatures to update with all data read from the input stream; must be initialized for
+     *  signing or verification
+     */
+    public SignatureInputStream(InputStream in, Collection<Signature> signatures) {
+        super(in);
+
+        if (signatures == null) {
+            throw new IllegalArgumentException("signatures is null");
+        }
+
+        this.signatures = new ArrayList<>(signatures);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = this.in.read();
+
+        if (b != -1) {
+            try {
+                for (Signature signature : this.signatures) {
+                    signature.update((byte) b);
+                }
+            }
+            catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = this.in.read(buffer, offset, length);
+
+        if (count > 0) {
+            try {
+                for (Signature signature : this.signatures) {
+                    signature.update(buffer, offset, count);
+                }
+            }
+            catch (SignatureException e) {
+                throw new IOException(e);
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        if (count <= 0) {
+            return 0;
+        }
+
+        // Skipped data must still be included in the signatures, so it's read rather than skipped
+        byte[] buffer = new byte[(int) Math.min(count, 4096)];
+        long skipped = 0;
+
+        while (skipped < count) {
+            int read = this.read(buffer, 0, (int) Math.min(count - skipped, buffer.length));
+            if (read == -1) {
+                break;
+            }
+
+            skipped += read;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int limit) {
+        // Intentionally left empty
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
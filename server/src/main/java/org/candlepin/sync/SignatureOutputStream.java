@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Signature;
+import java.security.SignatureException;
+
+
+
+/**
+ * The SignatureOutputStream updates a signature with all data written through it, in the same
+ * manner as a DigestOutputStream updates a message digest.
+ */
+class SignatureOutputStream extends FilterOutputStream {
+
+    private final Signature signature;
+
+    /**
+     * Creates a new SignatureOutputStream
+     *
+     * @param out
+     *  the output stream to which data should be written
+     *
+     * @param signature
+     *  the signature to update with all data written to the output stream; must be initialized for
+     *  signing or verification
+     */
+    public SignatureOutputStream(OutputStream out, Signature signature) {
+        super(out);
+
+        if (signature == null) {
+            throw new IllegalArgumentException("signature is null");
+        }
+
+        this.signature = signature;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.out.write(b);
+
+        try {
+            this.signature.update((byte) b);
+        }
+        catch (SignatureException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        this.out.write(buffer, offset, length);
+
+        try {
+            this.signature.update(buffer, offset, length);
+        }
+        catch (SignatureException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync.file;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.util.Util;
+
+import com.google.inject.Inject;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * A ManifestFileService implementation that stores manifest files in a local directory, keeping
+ * them out of the database.
+ * <p></p>
+ * File contents are content-addressed, stored under the SHA-256 hash of their data, so identical
+ * manifests share a single copy. Each stored file is described by a small record, which maps the
+ * file's ID to its content and metadata. Contents and records are written to a temporary file
+ * first and then atomically moved into place, so a partially written file is never visible, and
+ * contents are removed once the last record referring to them has been deleted.
+ */
+@Singleton
+public class FileSystemManifestService implements ManifestFileService {
+    private static Logger log = LoggerFactory.getLogger(FileSystemManifestService.class);
+
+    private static final String CONTENT_DIR = "content";
+    private static final String RECORD_DIR = "records";
+    private static final String TEMP_DIR = "tmp";
+    private static final String RECORD_SUFFIX = ".properties";
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final String TYPE_PROPERTY = "type";
+    private static final String NAME_PROPERTY = "filename";
+    private static final String PRINCIPAL_PROPERTY = "principal_name";
+    private static final String TARGET_PROPERTY = "target_id";
+    private static final String CREATED_PROPERTY = "created";
+    private static final String HASH_PROPERTY = "hash";
+
+    /**
+     * A manifest file stored by the FileSystemManifestService.
+     */
+    public static class StoredManifestFile implements ManifestFile {
+        private final String id;
+        private final ManifestFileType type;
+        private final String name;
+        private final String principalName;
+        private final String targetId;
+        private final Date created;
+        private final String hash;
+        private final File content;
+
+        private StoredManifestFile(String id, Properties record, File content) {
+            this.id = id;
+            this.type = ManifestFileType.valueOf(record.getProperty(TYPE_PROPERTY));
+            this.name = record.getProperty(NAME_PROPERTY);
+            this.principalName = record.getProperty(PRINCIPAL_PROPERTY);
+            this.targetId = record.getProperty(TARGET_PROPERTY);
+            this.created = new Date(Long.parseLong(record.getProperty(CREATED_PROPERTY)));
+            this.hash = record.getProperty(HASH_PROPERTY);
+            this.content = content;
+        }
+
+        @Override
+        public String getId() {
+            return this.id;
+        }
+
+        public ManifestFileType getType() {
+            return this.type;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        public String getPrincipalName() {
+            return this.principalName;
+        }
+
+        @Override
+        public String getTargetId() {
+            return this.targetId;
+        }
+
+        public Date getCreated() {
+            return this.created;
+        }
+
+        public String getHash() {
+            return this.hash;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            try {
+                return new FileInputStream(this.content);
+            }
+            catch (FileNotFoundException e) {
+                throw new ManifestFileServiceException("InputStream not available for manifest file.", e);
+            }
+        }
+
+        /**
+         * Transfers the stored file directly from its file channel to the output stream, allowing
+         * the transfer to bypass intermediate buffers where the platform supports it.
+         */
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (FileChannel channel = FileChannel.open(this.content.toPath(), StandardOpenOption.READ)) {
+                // The target channel is intentionally not closed, as it would close the output stream
+                WritableByteChannel target = Channels.newChannel(out);
+
+                long size = channel.size();
+                long position = 0;
+
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        }
+    }
+
+    private final File contentDir;
+    private final File recordDir;
+    private final File tempDir;
+
+    @Inject
+    public FileSystemManifestService(Configuration config) {
+        this(new File(config.getString(ConfigProperties.MANIFEST_STORE_DIR)));
+    }
+
+    /**
+     * Creates a new FileSystemManifestService storing manifest files in the given directory. The
+     * directory is created on demand.
+     *
+     * @param baseDir
+     *  the directory in which to store manifest files
+     */
+    public FileSystemManifestService(File baseDir) {
+        if (baseDir == null) {
+            throw new IllegalArgumentException("baseDir is null");
+        }
+
+        this.contentDir = new File(baseDir, CONTENT_DIR);
+        this.recordDir = new File(baseDir, RECORD_DIR);
+        this.tempDir = new File(baseDir, TEMP_DIR);
+    }
+
+    @Override
+    public ManifestFile get(String id) throws ManifestFileServiceException {
+        File recordFile = this.getRecordFile(id);
+        if (recordFile == null || !recordFile.isFile()) {
+            return null;
+        }
+
+        return this.readRecord(recordFile);
+    }
+
+    @Override
+    public ManifestFile store(ManifestFileType type, File fileToStore, String principalName,
+        String targetId) throws ManifestFileServiceException {
+
+        if (type == null) {
+            throw new IllegalArgumentException("type is null");
+        }
+
+        if (fileToStore == null) {
+            throw new IllegalArgumentException("fileToStore is null");
+        }
+
+        String id = Util.generateDbUUID();
+
+        Properties record = new Properties();
+        record.setProperty(TYPE_PROPERTY, type.name());
+        record.setProperty(NAME_PROPERTY, fileToStore.getName());
+        record.setProperty(CREATED_PROPERTY, String.valueOf(System.currentTimeMillis()));
+
+        if (principalName != null) {
+            record.setProperty(PRINCIPAL_PROPERTY, principalName);
+        }
+
+        if (targetId != null) {
+            record.setProperty(TARGET_PROPERTY, targetId);
+        }
+
+        try {
+            File content = this.createTempFile();
+
+            try {
+                MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+
+                try (InputStream input = new DigestInputStream(new FileInputStream(fileToStore), digest);
+                    FileOutputStream output = new FileOutputStream(content)) {
+
+                    IOUtils.copy(input, output);
+                    output.getChannel().force(true);
+                }
+
+                String hash = Hex.encodeHexString(digest.digest());
+                record.setProperty(HASH_PROPERTY, hash);
+
+                // Placing the content and writing its record must not interleave with the removal
+                // of unreferenced content, or the content could be removed before it's referenced
+                synchronized (this) {
+                    File target = this.getContentFile(hash);
+
+                    if (!target.exists()) {
+                        this.moveIntoPlace(content, target);
+                    }
+
+                    this.writeRecord(this.getRecordFile(id), record);
+                }
+
+                log.debug("Stored manifest file {} with content {}", id, hash);
+                return new StoredManifestFile(id, record, this.getContentFile(hash));
+            }
+            finally {
+                if (content.exists() && !content.delete()) {
+                    log.warn("Unable to delete temporary manifest file: {}", content);
+                }
+            }
+        }
+        catch (IOException | NoSuchAlgorithmException e) {
+            throw new ManifestFileServiceException("Unable to store manifest file", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(String id) throws ManifestFileServiceException {
+        File recordFile = this.getRecordFile(id);
+        if (recordFile == null || !recordFile.isFile()) {
+            return false;
+        }
+
+        StoredManifestFile file = this.readRecord(recordFile);
+        if (!recordFile.delete()) {
+            throw new ManifestFileServiceException("Unable to delete manifest file: " + id);
+        }
+
+        Set<String> hashes = new HashSet<>();
+        hashes.add(file.getHash());
+        this.pruneContent(hashes);
+
+        return true;
+    }
+
+    @Override
+    public synchronized int deleteExpired(Date expiryDate) throws ManifestFileServiceException {
+        if (expiryDate == null) {
+            throw new IllegalArgumentException("expiryDate is null");
+        }
+
+        // Temporary files left behind by an interrupted write are never moved into place
+        File[] tempFiles = this.tempDir.listFiles();
+        if (tempFiles != null) {
+            for (File tempFile : tempFiles) {
+                if (tempFile.lastModified() < expiryDate.getTime() && !tempFile.delete()) {
+                    log.warn("Unable to delete temporary manifest file: {}", tempFile);
+                }
+            }
+        }
+
+        return this.deleteMatching(file -> file.getCreated().before(expiryDate));
+    }
+
+    @Override
+    public synchronized int delete(ManifestFileType type, String targetId)
+        throws ManifestFileServiceException {
+
+        return this.deleteMatching(file -> file.getType() == type &&
+            targetId != null && targetId.equals(file.getTargetId()));
+    }
+
+    private int deleteMatching(Predicate<StoredManifestFile> filter) {
+        Set<String> hashes = new HashSet<>();
+        int count = 0;
+
+        for (StoredManifestFile file : this.listFiles()) {
+            if (filter.test(file)) {
+                if (!this.getRecordFile(file.getId()).delete()) {
+                    throw new ManifestFileServiceException("Unable to delete manifest file: " + file.getId());
+                }
+
+                hashes.add(file.getHash());
+                ++count;
+            }
+        }
+
+        this.pruneContent(hashes);
+        return count;
+    }
+
+    /**
+     * Removes the contents matching the given hashes which are no longer referenced by any record.
+     */
+    private void pruneContent(Set<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        for (StoredManifestFile file : this.listFiles()) {
+            hashes.remove(file.getHash());
+        }
+
+        for (String hash : hashes) {
+            File content = this.getContentFile(hash);
+
+            if (content.exists() && !content.delete()) {
+                log.warn("Unable to delete manifest file content: {}", content);
+            }
+        }
+    }
+
+    private List<StoredManifestFile> listFiles() {
+        List<StoredManifestFile> files = new ArrayList<>();
+
+        File[] recordFiles = this.recordDir.listFiles((dir, name) -> name.endsWith(RECORD_SUFFIX));
+        if (recordFiles != null) {
+            for (File recordFile : recordFiles) {
+                files.add(this.readRecord(recordFile));
+            }
+        }
+
+        return files;
+    }
+
+    private StoredManifestFile readRecord(File recordFile) {
+        String filename = recordFile.getName();
+        String id = filename.substring(0, filename.length() - RECORD_SUFFIX.length());
+
+        Properties record = new Properties();
+
+        try (InputStream input = new FileInputStream(recordFile)) {
+            record.load(input);
+        }
+        catch (IOException e) {
+            throw new ManifestFileServiceException("Unable to read manifest file record: " + id, e);
+        }
+
+        return new StoredManifestFile(id, record, this.getContentFile(record.getProperty(HASH_PROPERTY)));
+    }
+
+    private void writeRecord(File recordFile, Properties record) throws IOException {
+        File temp = this.createTempFile();
+
+        try {
+            try (FileOutputStream output = new FileOutputStream(temp)) {
+                record.store(output, null);
+                output.getChannel().force(true);
+            }
+
+            this.moveIntoPlace(temp, recordFile);
+        }
+        finally {
+            if (temp.exists() && !temp.delete()) {
+                log.warn("Unable to delete temporary manifest file: {}", temp);
+            }
+        }
+    }
+
+    private File createTempFile() throws IOException {
+        this.createDirectory(this.tempDir);
+        return File.createTempFile("manifest-", ".tmp", this.tempDir);
+    }
+
+    private void moveIntoPlace(File source, File target) throws IOException {
+        this.createDirectory(target.getParentFile());
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void createDirectory(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Unable to create directory: " + directory);
+        }
+    }
+
+    private File getContentFile(String hash) {
+        // Spread the contents over subdirectories to keep the size of each directory manageable
+        return new File(new File(this.contentDir, hash.substring(0, 2)), hash);
+    }
+
+    private File getRecordFile(String id) {
+        // IDs are used as file names, so anything other than an ID we generated is rejected
+        if (id == null || !id.matches("[0-9A-Za-z]+")) {
+            return null;
+        }
+
+        return new File(this.recordDir, id + RECORD_SUFFIX);
+    }
+}
@@ -15,7 +15,11 @@
 
 package org.candlepin.sync.file;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Represents a manifest file that is stored in the {@link ManifestFileService}.
@@ -43,6 +47,20 @@ public interface ManifestFile {
      */
     InputStream getInputStream();
 
+    /**
+     * Writes the contents of the stored file to the specified output stream. The output stream is
+     * not closed. Implementations able to transfer the file more efficiently than by reading it
+     * through its input stream should override this method.
+     *
+     * @param out the output stream to write the file to.
+     * @throws IOException if the file could not be written to the output stream.
+     */
+    default void writeTo(OutputStream out) throws IOException {
+        try (InputStream input = this.getInputStream()) {
+            IOUtils.copy(input, out);
+        }
+    }
+
     /**
      * Gets the target id of the stored file. If the file was created as part of
      * a consumer export, it should be the consumer UUID. If it was created as part
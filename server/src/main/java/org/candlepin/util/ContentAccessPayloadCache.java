@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import org.candlepin.cache.BoundedCache;
+import org.candlepin.cache.CandlepinCache;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * The ContentAccessPayloadCache retains the signed content access payloads served to consumers of
+ * owners using simple content access. Every consumer in a given owner and environment shares the
+ * same payload, so it is cached once per owner and environment rather than read from the database
+ * on every request.
+ * <p></p>
+ * Cached payloads must be invalidated whenever the owner's content access is refreshed or the
+ * content of an environment changes. Invalidations take effect immediately and again once the
+ * transaction making the change completes, so a payload read by another transaction in the interim
+ * cannot remain cached. As invalidation only affects the local node, payloads also expire after a
+ * configurable period. The cache is bounded, evicting the least recently used
+ * payloads first.
+ */
+public class ContentAccessPayloadCache {
+
+    /** An array of transaction states that are valid to synchronize against */
+    private static final TransactionStatus[] ACTIVE_STATES = {
+        TransactionStatus.ACTIVE, TransactionStatus.MARKED_ROLLBACK
+    };
+
+    /**
+     * A cached content access payload
+     */
+    public static class CachedPayload {
+        private final String payload;
+        private final Date updated;
+        private final String digest;
+
+        private CachedPayload(String payload, Date updated) {
+            this.payload = Objects.requireNonNull(payload);
+            this.updated = updated != null ? new Date(updated.getTime()) : new Date();
+            this.digest = DigestUtil.sha256(payload);
+        }
+
+        /**
+         * @return the signed content access payload
+         */
+        public String getPayload() {
+            return this.payload;
+        }
+
+        /**
+         * @return the time at which the payload was last updated
+         */
+        public Date getUpdated() {
+            return new Date(this.updated.getTime());
+        }
+
+        /**
+         * @return a digest of the payload, suitable for use in an entity tag
+         */
+        public String getDigest() {
+            return this.digest;
+        }
+    }
+
+    private final Provider<EntityManager> entityManager;
+    private final BoundedCache<String, CachedPayload> payloads;
+
+    @Inject
+    public ContentAccessPayloadCache(Provider<EntityManager> entityManager, Configuration config,
+        CandlepinCache candlepinCache) {
+
+        this(entityManager, config.getInt(ConfigProperties.CONTENT_ACCESS_PAYLOAD_CACHE_SIZE, 0),
+            config.getLong(ConfigProperties.CONTENT_ACCESS_PAYLOAD_CACHE_TTL, 0));
+
+        candlepinCache.registerLocalCache(this.payloads);
+    }
+
+    /**
+     * Creates a new content access payload cache which only applies invalidations immediately.
+     *
+     * @param maxSize
+     *  the maximum number of payloads to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a payload remains valid; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize or ttl is negative
+     */
+    public ContentAccessPayloadCache(int maxSize, long ttl) {
+        this(null, maxSize, ttl);
+    }
+
+    /**
+     * Creates a new content access payload cache.
+     *
+     * @param entityManager
+     *  the entity manager provider used to repeat invalidations once their transaction completes;
+     *  if null, invalidations are only applied immediately
+     *
+     * @param maxSize
+     *  the maximum number of payloads to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a payload remains valid; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize or ttl is negative
+     */
+    public ContentAccessPayloadCache(Provider<EntityManager> entityManager, int maxSize, long ttl) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative: " + maxSize);
+        }
+
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl is negative: " + ttl);
+        }
+
+        this.entityManager = entityManager;
+
+        // Invalidation only affects the local node, so payloads must expire; without a TTL the
+        // cache is disabled outright
+        this.payloads = new BoundedCache<>("content_access_payload", ttl > 0 ? maxSize : 0, ttl);
+    }
+
+    public boolean isEnabled() {
+        return this.payloads.isEnabled();
+    }
+
+    private static String buildKey(String ownerId, String environmentId) {
+        return ownerId + '\0' + (environmentId != null ? environmentId : "");
+    }
+
+    /**
+     * Fetches the payload cached for the given owner and environment.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     *
+     * @param environmentId
+     *  the ID of the environment, or null for consumers not in an environment
+     *
+     * @return
+     *  the cached payload, or null if no valid payload is cached
+     */
+    public CachedPayload get(String ownerId, String environmentId) {
+        return ownerId != null ? this.payloads.get(buildKey(ownerId, environmentId)) : null;
+    }
+
+    /**
+     * Caches the payload for the given owner and environment.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     *
+     * @param environmentId
+     *  the ID of the environment, or null for consumers not in an environment
+     *
+     * @param payload
+     *  the signed content access payload
+     *
+     * @param updated
+     *  the time at which the payload was last updated
+     *
+     * @return
+     *  the cached payload; returned even if the cache is disabled
+     */
+    public CachedPayload put(String ownerId, String environmentId, String payload, Date updated) {
+        CachedPayload cached = new CachedPayload(payload, updated);
+
+        if (ownerId != null) {
+            this.payloads.put(buildKey(ownerId, environmentId), cached);
+        }
+
+        return cached;
+    }
+
+    /**
+     * Removes the payloads cached for every environment of the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     */
+    public void invalidateOwner(String ownerId) {
+        this.invalidate(ownerId + '\0', false);
+    }
+
+    /**
+     * Removes the payloads cached for the given environment, for every owner.
+     *
+     * @param environmentId
+     *  the ID of the environment
+     */
+    public void invalidateEnvironment(String environmentId) {
+        this.invalidate('\0' + environmentId, true);
+    }
+
+    private void invalidate(String fragment, boolean suffix) {
+        if (!this.isEnabled()) {
+            return;
+        }
+
+        this.remove(fragment, suffix);
+
+        Transaction transaction = null;
+        if (this.entityManager != null) {
+            Session session = (Session) this.entityManager.get().getDelegate();
+            transaction = session.getTransaction();
+        }
+
+        if (transaction != null && transaction.getStatus().isOneOf(ACTIVE_STATES)) {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // Intentionally left empty
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // Payloads cached while the change was pending may be stale regardless of the
+                    // outcome, so they're removed on both commit and rollback
+                    remove(fragment, suffix);
+                }
+            });
+        }
+    }
+
+    private void remove(String fragment, boolean suffix) {
+        this.payloads.removeIf((key, payload) -> suffix ? key.endsWith(fragment) : key.startsWith(fragment));
+    }
+
+    /**
+     * Removes all payloads from this cache.
+     */
+    public void clear() {
+        this.payloads.clear();
+    }
+
+    public int size() {
+        return this.payloads.size();
+    }
+
+    /**
+     * Fetches the statistics of this cache.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public Map<String, Object> getStatistics() {
+        return this.payloads.getStatistics();
+    }
+}
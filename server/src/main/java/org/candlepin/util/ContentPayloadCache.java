@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import org.candlepin.cache.BoundedCache;
+import org.candlepin.cache.CandlepinCache;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.dto.Content;
+
+import com.google.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Map;
+
+
+
+/**
+ * The ContentPayloadCache retains the compressed content payloads built for V3 entitlement
+ * certificates. Building a payload requires constructing a path tree and a pair of Huffman tries
+ * for the content sets, yet the same content sets are granted to a great many consumers, so each
+ * distinct set of content only needs to be compressed once.
+ * <p></p>
+ * The payload is a function of the content paths alone, which already reflect the product and
+ * content definitions, the consumer's environment and the content prefix. Payloads are therefore
+ * keyed on a digest of the ordered content paths, so a change to any of those inputs results in a
+ * new key rather than a stale payload. The cache is bounded, evicting the least recently used
+ * payloads first.
+ */
+public class ContentPayloadCache {
+
+    private final BoundedCache<String, byte[]> payloads;
+
+    @Inject
+    public ContentPayloadCache(Configuration config, CandlepinCache candlepinCache) {
+        this(config.getInt(ConfigProperties.CONTENT_PAYLOAD_CACHE_SIZE, 0));
+        candlepinCache.registerLocalCache(this.payloads);
+    }
+
+    /**
+     * Creates a new content payload cache.
+     *
+     * @param maxSize
+     *  the maximum number of payloads to retain; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize is negative
+     */
+    public ContentPayloadCache(int maxSize) {
+        this.payloads = new BoundedCache<>("content_payload", maxSize);
+    }
+
+    public boolean isEnabled() {
+        return this.payloads.isEnabled();
+    }
+
+    /**
+     * Builds the key identifying the payload for the given content. The order of the content is
+     * significant, as it determines the order in which the path tree is built.
+     *
+     * @param contents
+     *  the content from which a payload is to be built
+     *
+     * @return
+     *  the key for the payload of the given content
+     */
+    public String buildKey(Collection<Content> contents) {
+        MessageDigest digest = DigestUtil.sha256();
+
+        for (Content content : contents) {
+            String path = content.getPath();
+
+            if (path != null) {
+                digest.update(path.getBytes(StandardCharsets.UTF_8));
+            }
+
+            digest.update((byte) 0);
+        }
+
+        return DigestUtil.encode(digest);
+    }
+
+    /**
+     * Fetches the payload cached for the given key.
+     *
+     * @param key
+     *  the key of the payload to fetch
+     *
+     * @return
+     *  a copy of the cached payload, or null if no payload is cached for the key
+     */
+    public byte[] get(String key) {
+        byte[] payload = this.payloads.get(key);
+        return payload != null ? payload.clone() : null;
+    }
+
+    /**
+     * Caches the payload for the given key, evicting the least recently used payload if the
+     * cache is full.
+     *
+     * @param key
+     *  the key of the payload
+     *
+     * @param payload
+     *  the payload to cache
+     */
+    public void put(String key, byte[] payload) {
+        if (payload != null) {
+            this.payloads.put(key, payload.clone());
+        }
+    }
+
+    /**
+     * Removes all payloads from this cache.
+     */
+    public void clear() {
+        this.payloads.clear();
+    }
+
+    public int size() {
+        return this.payloads.size();
+    }
+
+    /**
+     * Fetches the statistics of this cache.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public Map<String, Object> getStatistics() {
+        return this.payloads.getStatistics();
+    }
+}
@@ -29,9 +29,11 @@ import org.apache.commons.codec.binary.Base64InputStream;
 import org.apache.commons.codec.binary.Base64OutputStream;
 import org.apache.commons.io.IOUtils;
 import org.mozilla.jss.asn1.InvalidBERException;
+import org.mozilla.jss.netscape.security.util.DerValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -46,19 +48,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
+import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.security.cert.X509CRLEntry;
 import java.security.interfaces.RSAPrivateKey;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -107,15 +115,22 @@ public class CrlFileUtil {
      *  If an IO error occurs while initializing the CRL file
      */
     public void initializeCRLFile(File file, Collection<BigInteger> revoke) throws IOException {
-        FileOutputStream output = null;
-
         List<X509CRLEntryWrapper> entries = new LinkedList<>();
+        Date now = new Date();
 
         for (BigInteger serial : revoke) {
-            entries.add(new X509CRLEntryWrapper(serial, new Date()));
+            entries.add(new X509CRLEntryWrapper(serial, now));
         }
 
-        X509CRL crl = this.pkiUtility.createX509CRL(entries, BigInteger.ONE);
+        this.initializeCRLFile(file, entries, BigInteger.ONE);
+    }
+
+    private void initializeCRLFile(File file, List<X509CRLEntryWrapper> entries, BigInteger crlNumber)
+        throws IOException {
+
+        FileOutputStream output = null;
+
+        X509CRL crl = this.pkiUtility.createX509CRL(entries, crlNumber);
 
         try {
             output = new FileOutputStream(file);
@@ -190,12 +205,74 @@ public class CrlFileUtil {
     public void updateCRLFile(File file, final Collection<BigInteger> revoke,
         final Collection<BigInteger> unrevoke) throws IOException {
 
-        if (!file.exists() || file.length() == 0) {
-            this.initializeCRLFile(file, revoke);
+        List<X509CRLEntryWrapper> entries = new LinkedList<>();
+        if (revoke != null) {
+            Date now = new Date();
+
+            for (BigInteger serial : revoke) {
+                entries.add(new X509CRLEntryWrapper(serial, now));
+            }
+        }
+
+        DeltaCRL delta = this.isDeltaCRLEnabled() ? this.readDeltaCRL(this.getDeltaCRLFile()) : null;
+        if (delta == null) {
+            this.rewriteCRLFile(file, entries, unrevoke, null, false);
             return;
         }
 
+        // The rewritten CRL must be numbered ahead of the delta, which must then be reissued
+        // against it. Unrevoked serials may also have been added to the delta since it was issued.
+        BigInteger crlNumber = this.rewriteCRLFile(file, entries, unrevoke, delta.getNextCrlNumber(), false);
+        boolean changed = unrevoke != null && delta.getEntries().keySet().removeAll(unrevoke);
+
+        if (crlNumber != null) {
+            this.writeDeltaCRL(this.getDeltaCRLFile(), delta.getEntries(), crlNumber.add(BigInteger.ONE),
+                crlNumber);
+        }
+        else if (changed) {
+            this.writeDeltaCRL(this.getDeltaCRLFile(), delta.getEntries(), delta.getNextCrlNumber(),
+                delta.getBaseCrlNumber());
+        }
+    }
+
+    /**
+     * Rewrites the specified CRL file, adding and removing the given entries. If the file does not
+     * exist or appears to be empty, it will be initialized with the entries to add.
+     *
+     * @param file
+     *  The CRL file to rewrite
+     *
+     * @param revoke
+     *  A collection of entries to add
+     *
+     * @param unrevoke
+     *  A collection of serials to remove
+     *
+     * @param minimumCrlNumber
+     *  The lowest CRL number to assign to the rewritten CRL, or null to increment the existing number
+     *
+     * @param force
+     *  Whether or not the file should be rewritten even when there are no entries to add or remove
+     *
+     * @throws IOException
+     *  if an IO error occurs while rewriting the CRL file
+     *
+     * @return
+     *  the CRL number of the rewritten CRL, or null if the file was not rewritten
+     */
+    private BigInteger rewriteCRLFile(File file, Collection<X509CRLEntryWrapper> revoke,
+        final Collection<BigInteger> unrevoke, BigInteger minimumCrlNumber, boolean force)
+        throws IOException {
+
+        if (!file.exists() || file.length() == 0) {
+            BigInteger crlNumber = minimumCrlNumber != null ? minimumCrlNumber : BigInteger.ONE;
+            this.initializeCRLFile(file, new LinkedList<>(revoke), crlNumber);
+
+            return crlNumber;
+        }
+
         File strippedFile = stripCRLFile(file);
+        BigInteger crlNumber = null;
 
         InputStream input = null;
         InputStream reaper = null;
@@ -213,7 +290,7 @@ public class CrlFileUtil {
 
             // Note: This will break if we ever stop using RSA keys
             PrivateKey key = this.certificateReader.getCaKey();
-            X509CRLStreamWriter writer;
+            JSSX509CRLStreamWriter writer;
             try {
                 writer = new JSSX509CRLStreamWriter(
                     input,
@@ -225,13 +302,11 @@ public class CrlFileUtil {
                 throw new IOException("Could not read DER", e);
             }
 
-            // Add new entries
-            if (revoke != null) {
-                Date now = new Date();
-                for (BigInteger serial : revoke) {
+            writer.setMinimumCrlNumber(minimumCrlNumber);
 
-                    writer.add(serial, now, PRIVILEGE_WITHDRAWN);
-                }
+            // Add new entries
+            for (X509CRLEntryWrapper entry : revoke) {
+                writer.add(entry.getSerialNumber(), entry.getRevocationDate(), PRIVILEGE_WITHDRAWN);
             }
 
             // Unfortunately, we need to do the prescan before checking if we have changes queued,
@@ -251,7 +326,7 @@ public class CrlFileUtil {
             writer.setSigningAlgorithm(PKIUtility.SIGNATURE_ALGO);
 
             // Verify we actually have work to do now
-            if (writer.hasChangesQueued()) {
+            if (force || writer.hasChangesQueued()) {
                 output = new BufferedOutputStream(new FileOutputStream(file));
                 filter = new FilterOutputStream(output) {
                     private boolean needsLineBreak = true;
@@ -292,6 +367,8 @@ public class CrlFileUtil {
 
                 output.write("-----END X509 CRL-----\n".getBytes());
                 output.close();
+
+                crlNumber = writer.getCrlNumber();
             }
         }
         catch (GeneralSecurityException e) {
@@ -314,6 +391,8 @@ public class CrlFileUtil {
                 log.error("Unable to delete temporary CRL file: {}", strippedFile);
             }
         }
+
+        return crlNumber;
     }
 
     /**
@@ -423,6 +502,34 @@ public class CrlFileUtil {
         log.debug("Deleted {} cert serials that were expired, revoked and not yet collected.", deleted);
 
         int totalProcessed = 0;
+
+        if (this.isDeltaCRLEnabled()) {
+            File deltaFile = this.getDeltaCRLFile();
+
+            if (this.isBaseCRLRebuildDue(file, deltaFile)) {
+                log.info("Rebuilding base CRL file: {}", file);
+
+                boolean force = true;
+                int processedRecordCount;
+                do {
+                    processedRecordCount = this.batchRebuildBaseCRL(file, deltaFile, batchSize, force);
+                    totalProcessed += processedRecordCount;
+                    force = false;
+                }
+                while (processedRecordCount != 0);
+            }
+
+            int processedRecordCount;
+            do {
+                processedRecordCount = this.batchSyncDeltaCRLWithDB(deltaFile, batchSize);
+                totalProcessed += processedRecordCount;
+            }
+            while (processedRecordCount != 0);
+
+            log.info("CRL sync processed a total of {} serials.", totalProcessed);
+            return;
+        }
+
         boolean moreToProcess = true;
         while (moreToProcess) {
             int processedRecordCount = this.batchSyncCRLWithDB(file, batchSize);
@@ -432,4 +539,254 @@ public class CrlFileUtil {
         log.info("CRL sync processed a total of {} serials.", totalProcessed);
     }
 
+    /**
+     * Adds the next batch of newly revoked serials to the delta CRL. Only the small delta CRL is
+     * rewritten; the base CRL is left untouched until its next rebuild. Expired serials are not
+     * processed, as they remain in the base CRL until it is rebuilt.
+     *
+     * @param deltaFile the delta CRL file to update
+     * @param batchSize the number of DB records to process at a time.
+     * @return the number of records synced.
+     * @throws IOException
+     */
+    @Transactional
+    public int batchSyncDeltaCRLWithDB(File deltaFile, int batchSize) throws IOException {
+        List<Long> uncollected = this.certificateSerialCurator.getUncollectedRevokedCertSerials()
+            .setMaxResults(batchSize).list();
+        uncollected.removeIf(serial -> serial == null);
+
+        if (uncollected.isEmpty()) {
+            return 0;
+        }
+
+        DeltaCRL delta = this.readDeltaCRL(deltaFile);
+        if (delta == null) {
+            throw new IOException("Delta CRL file is missing or unreadable: " + deltaFile);
+        }
+
+        Date now = new Date();
+        for (Long serial : uncollected) {
+            delta.getEntries().putIfAbsent(BigInteger.valueOf(serial), now);
+        }
+
+        log.info("Updating delta CRL file; adding {} newly revoked serials", uncollected.size());
+        this.writeDeltaCRL(deltaFile, delta.getEntries(), delta.getNextCrlNumber(), delta.getBaseCrlNumber());
+
+        int collected = this.certificateSerialCurator.markSerialsAsCollected(uncollected);
+        if (collected != uncollected.size()) {
+            log.error("Unable to collect all expected revoked serials; collected: {}, revoked: {}",
+                collected, uncollected.size());
+        }
+
+        return uncollected.size();
+    }
+
+    /**
+     * Rebuilds the base CRL, folding the entries of the delta CRL into it and removing the next batch
+     * of expired serials, then reissues an empty delta CRL against the rebuilt base.
+     *
+     * @param file the base CRL file to rebuild
+     * @param deltaFile the delta CRL file to fold into the base CRL
+     * @param batchSize the number of DB records to process at a time.
+     * @param force whether to rebuild the base CRL even if there are no changes to apply
+     * @return the number of expired records removed.
+     * @throws IOException
+     */
+    @Transactional
+    public int batchRebuildBaseCRL(File file, File deltaFile, int batchSize, boolean force)
+        throws IOException {
+
+        List<Long> expired = this.certificateSerialCurator.getExpiredRevokedCertSerials()
+            .setMaxResults(batchSize).list();
+        expired.removeIf(serial -> serial == null);
+
+        DeltaCRL delta = this.readDeltaCRL(deltaFile);
+        boolean hasDeltaEntries = delta != null && !delta.getEntries().isEmpty();
+
+        if (!force && !hasDeltaEntries && expired.isEmpty()) {
+            return 0;
+        }
+
+        List<X509CRLEntryWrapper> revoke = new LinkedList<>();
+        if (delta != null) {
+            for (Map.Entry<BigInteger, Date> entry : delta.getEntries().entrySet()) {
+                revoke.add(new X509CRLEntryWrapper(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        Set<BigInteger> unrevoke = new HashSet<>(expired.size());
+        for (Long serial : expired) {
+            unrevoke.add(BigInteger.valueOf(serial));
+        }
+
+        log.info("Rebuilding base CRL file; adding {} serials from the delta CRL, removing {} expired " +
+            "serials", revoke.size(), unrevoke.size());
+
+        BigInteger crlNumber = this.rewriteCRLFile(file, revoke, unrevoke,
+            delta != null ? delta.getNextCrlNumber() : null, true);
+
+        if (crlNumber == null) {
+            throw new IOException("Unable to determine the CRL number of the rebuilt base CRL: " + file);
+        }
+
+        this.writeDeltaCRL(deltaFile, new HashMap<>(), crlNumber.add(BigInteger.ONE), crlNumber);
+
+        if (expired.size() > 0) {
+            int deleted = this.certificateSerialCurator.deleteSerials(expired);
+
+            if (deleted != expired.size()) {
+                log.error("Unable to delete all expected expired serials; deleted: {}, expired: {}",
+                    deleted, expired.size());
+            }
+            else {
+                log.info("Deleted {} expired serials", deleted);
+            }
+        }
+
+        return expired.size();
+    }
+
+    /**
+     * Checks whether or not delta CRLs are enabled. While enabled, newly revoked serials are written
+     * to the delta CRL file rather than to the base CRL file.
+     *
+     * @return
+     *  true if delta CRLs are enabled; false otherwise
+     */
+    public boolean isDeltaCRLEnabled() {
+        return this.config.getBoolean(ConfigProperties.CRL_DELTA_ENABLED, false);
+    }
+
+    /**
+     * Fetches the file in which the delta CRL is stored.
+     *
+     * @return
+     *  the delta CRL file
+     */
+    public File getDeltaCRLFile() {
+        return new File(this.config.getString(ConfigProperties.CRL_DELTA_FILE_PATH));
+    }
+
+    private boolean isBaseCRLRebuildDue(File file, File deltaFile) {
+        if (!file.exists() || file.length() == 0 || !deltaFile.exists() || deltaFile.length() == 0) {
+            return true;
+        }
+
+        long interval = TimeUnit.HOURS.toMillis(
+            this.config.getLong(ConfigProperties.CRL_BASE_REBUILD_INTERVAL, 24));
+
+        return System.currentTimeMillis() - file.lastModified() >= interval;
+    }
+
+    /**
+     * Reads the delta CRL stored in the specified file.
+     *
+     * @param file
+     *  the file containing the delta CRL
+     *
+     * @return
+     *  the delta CRL, or null if the file does not exist or does not contain a valid delta CRL
+     */
+    private DeltaCRL readDeltaCRL(File file) {
+        if (!file.exists() || file.length() == 0) {
+            return null;
+        }
+
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509").generateCRL(input);
+
+            BigInteger crlNumber = readIntegerExtension(crl, OIDUtil.CRL_NUMBER);
+            BigInteger baseCrlNumber = readIntegerExtension(crl, OIDUtil.DELTA_CRL_INDICATOR);
+
+            if (crlNumber == null || baseCrlNumber == null) {
+                log.warn("CRL file is not a delta CRL: {}", file);
+                return null;
+            }
+
+            Map<BigInteger, Date> entries = new HashMap<>();
+            if (crl.getRevokedCertificates() != null) {
+                for (X509CRLEntry entry : crl.getRevokedCertificates()) {
+                    entries.put(entry.getSerialNumber(), entry.getRevocationDate());
+                }
+            }
+
+            return new DeltaCRL(crlNumber, baseCrlNumber, entries);
+        }
+        catch (IOException | GeneralSecurityException e) {
+            log.warn("Unable to read delta CRL file: {}", file, e);
+            return null;
+        }
+    }
+
+    private static BigInteger readIntegerExtension(X509CRL crl, String oid) throws IOException {
+        byte[] value = crl.getExtensionValue(oid);
+        if (value == null) {
+            return null;
+        }
+
+        // The extension value is an octet string wrapping the DER encoded integer
+        DerValue wrapper = new DerValue(value);
+        return new DerValue(wrapper.getOctetString()).getInteger().toBigInteger();
+    }
+
+    /**
+     * Writes a new delta CRL to the specified file. The CRL is written to a temporary file which then
+     * replaces the existing file, so the delta CRL may be served while it is being updated.
+     */
+    private void writeDeltaCRL(File file, Map<BigInteger, Date> entries, BigInteger crlNumber,
+        BigInteger baseCrlNumber) throws IOException {
+
+        List<X509CRLEntryWrapper> wrappers = new LinkedList<>();
+        for (Map.Entry<BigInteger, Date> entry : entries.entrySet()) {
+            wrappers.add(new X509CRLEntryWrapper(entry.getKey(), entry.getValue()));
+        }
+
+        X509CRL crl = this.pkiUtility.createX509DeltaCRL(wrappers, crlNumber, baseCrlNumber);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile("candlepin_delta_crl_", ".pem", parent);
+
+        try {
+            try (OutputStream output = new FileOutputStream(tempFile)) {
+                this.pkiUtility.writePemEncoded(crl, output);
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                log.error("Unable to delete temporary CRL file: {}", tempFile);
+            }
+        }
+    }
+
+    /**
+     * The state of a delta CRL: its number, the number of the base CRL it applies to, and the serials
+     * revoked since that base CRL was issued.
+     */
+    private static class DeltaCRL {
+        private final BigInteger crlNumber;
+        private final BigInteger baseCrlNumber;
+        private final Map<BigInteger, Date> entries;
+
+        public DeltaCRL(BigInteger crlNumber, BigInteger baseCrlNumber, Map<BigInteger, Date> entries) {
+            this.crlNumber = crlNumber;
+            this.baseCrlNumber = baseCrlNumber;
+            this.entries = entries;
+        }
+
+        public BigInteger getNextCrlNumber() {
+            return this.crlNumber.add(BigInteger.ONE);
+        }
+
+        public BigInteger getBaseCrlNumber() {
+            return this.baseCrlNumber;
+        }
+
+        public Map<BigInteger, Date> getEntries() {
+            return this.entries;
+        }
+    }
+
 }
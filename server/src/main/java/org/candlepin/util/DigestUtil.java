@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+
+
+/**
+ * Utility methods for building the SHA-256 digests used as cache keys and fingerprints.
+ */
+public class DigestUtil {
+
+    private DigestUtil() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Creates a new SHA-256 message digest.
+     *
+     * @return
+     *  a new SHA-256 message digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Completes the given digest, encoding the result as an unpadded, URL-safe base64 string.
+     *
+     * @param digest
+     *  the digest to complete
+     *
+     * @return
+     *  the encoded digest
+     */
+    public static String encode(MessageDigest digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 digest of the given string.
+     *
+     * @param value
+     *  the string to digest
+     *
+     * @return
+     *  the digest of the string, encoded as an unpadded, URL-safe base64 string
+     */
+    public static String sha256(String value) {
+        MessageDigest digest = sha256();
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+
+        return encode(digest);
+    }
+}
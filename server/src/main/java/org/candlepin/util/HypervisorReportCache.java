@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import org.candlepin.cache.BoundedCache;
+import org.candlepin.cache.CandlepinCache;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.GuestId;
+
+import com.google.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * The HypervisorReportCache retains a fingerprint of the last virt-who report processed for each
+ * owner and reporter. Most reports carry the same host to guest mapping as the previous report from
+ * their reporter; such reports only need to be recorded as a heartbeat rather than reconciled again.
+ * <p></p>
+ * A fingerprint is recorded as pending when its report is queued for reconciliation, and again by
+ * the node which reconciles it, and only becomes usable once that reconciliation completes without
+ * failures. A different report received or reconciled in the meantime replaces the pending
+ * fingerprint, so an older report can never be confirmed over a newer one. The cache is bounded,
+ * evicting the least recently used fingerprints first.
+ * <p></p>
+ * Fingerprints are local to each node. A fingerprint is only confirmed on the node which reconciled
+ * its report, so in a cluster, reports are only skipped when they are received by the node which
+ * reconciled the previous report from their reporter. Likewise, a newer report received or
+ * reconciled on another node, or the deletion of a host or guest on another node, does not
+ * invalidate the fingerprints held by this node. As such, fingerprints expire after a configurable
+ * period, which bounds how long a node may treat a report as unchanged after the hosts have
+ * changed elsewhere.
+ */
+public class HypervisorReportCache {
+
+    private static class Fingerprint {
+        private final String digest;
+        private boolean confirmed;
+
+        private Fingerprint(String digest) {
+            this.digest = digest;
+            this.confirmed = false;
+        }
+    }
+
+    private final BoundedCache<String, Fingerprint> fingerprints;
+
+    private final AtomicLong skipped;
+    private final AtomicLong processed;
+
+    @Inject
+    public HypervisorReportCache(Configuration config, CandlepinCache candlepinCache) {
+        this(config.getInt(ConfigProperties.HYPERVISOR_REPORT_CACHE_SIZE, 0),
+            config.getLong(ConfigProperties.HYPERVISOR_REPORT_CACHE_TTL, 0));
+
+        candlepinCache.registerLocalCache(this.fingerprints);
+    }
+
+    /**
+     * Creates a new hypervisor report cache.
+     *
+     * @param maxSize
+     *  the maximum number of fingerprints to retain; zero disables the cache
+     *
+     * @param ttl
+     *  the number of seconds a fingerprint remains valid; zero disables the cache
+     *
+     * @throws IllegalArgumentException
+     *  if maxSize or ttl is negative
+     */
+    public HypervisorReportCache(int maxSize, long ttl) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize is negative: " + maxSize);
+        }
+
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl is negative: " + ttl);
+        }
+
+        this.skipped = new AtomicLong();
+        this.processed = new AtomicLong();
+
+        // Fingerprints are not invalidated by changes made on other nodes, so they must expire;
+        // without a TTL the cache is disabled outright
+        this.fingerprints = new BoundedCache<String, Fingerprint>("hypervisor_report",
+            ttl > 0 ? maxSize : 0, ttl)
+            .addStatistic("skipped", this.skipped::get)
+            .addStatistic("processed", this.processed::get);
+    }
+
+    public boolean isEnabled() {
+        return this.fingerprints.isEnabled();
+    }
+
+    private static String buildKey(String ownerKey, String reporterId) {
+        return ownerKey + '\0' + reporterId;
+    }
+
+    /**
+     * Computes the fingerprint of a virt-who report. The fingerprint does not depend on the order
+     * in which hosts, guests or facts are reported.
+     *
+     * @param hypervisors
+     *  the hosts in the report, along with their guests and facts
+     *
+     * @param createMissing
+     *  whether or not the report creates missing hosts
+     *
+     * @return
+     *  the fingerprint of the report
+     */
+    public static String fingerprint(Collection<Consumer> hypervisors, boolean createMissing) {
+        List<String> hosts = new ArrayList<>();
+
+        if (hypervisors != null) {
+            for (Consumer hypervisor : hypervisors) {
+                StringBuilder host = new StringBuilder();
+
+                host.append(hypervisor.getHypervisorId() != null ?
+                    hypervisor.getHypervisorId().getHypervisorId() : null)
+                    .append('\0').append(hypervisor.getName())
+                    .append('\0').append(hypervisor.getFacts() != null ?
+                        new TreeMap<>(hypervisor.getFacts()) : null);
+
+                if (hypervisor.getGuestIds() != null) {
+                    List<String> guests = new ArrayList<>();
+
+                    for (GuestId guestId : hypervisor.getGuestIds()) {
+                        guests.add(guestId.getGuestId() + '\0' + (guestId.getAttributes() != null ?
+                            new TreeMap<>(guestId.getAttributes()) : null));
+                    }
+
+                    guests.sort(Comparator.naturalOrder());
+                    host.append('\0').append(guests);
+                }
+
+                hosts.add(host.toString());
+            }
+        }
+
+        hosts.sort(Comparator.naturalOrder());
+
+        MessageDigest digest = DigestUtil.sha256();
+        digest.update((createMissing ? "create\0" : "update\0").getBytes(StandardCharsets.UTF_8));
+
+        for (String host : hosts) {
+            digest.update(host.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+
+        return DigestUtil.encode(digest);
+    }
+
+    /**
+     * Checks whether a report matches the last report reconciled for its owner and reporter. A
+     * report which does not match is recorded as pending, and becomes the fingerprint to match once
+     * its reconciliation is confirmed. Each check is counted as either a skipped or a processed
+     * report.
+     *
+     * @param ownerKey
+     *  the key of the owner receiving the report
+     *
+     * @param reporterId
+     *  the ID of the reporter which sent the report
+     *
+     * @param fingerprint
+     *  the fingerprint of the report
+     *
+     * @return
+     *  true if the report is unchanged and need not be reconciled; false otherwise
+     */
+    public boolean checkUnchanged(String ownerKey, String reporterId, String fingerprint) {
+        if (!this.isEnabled() || ownerKey == null || reporterId == null || fingerprint == null) {
+            this.processed.incrementAndGet();
+            return false;
+        }
+
+        AtomicBoolean unchanged = new AtomicBoolean(false);
+
+        this.fingerprints.compute(buildKey(ownerKey, reporterId), (key, current) -> {
+            if (current != null && current.confirmed && current.digest.equals(fingerprint)) {
+                unchanged.set(true);
+                return current;
+            }
+
+            return new Fingerprint(fingerprint);
+        });
+
+        (unchanged.get() ? this.skipped : this.processed).incrementAndGet();
+        return unchanged.get();
+    }
+
+    /**
+     * Records the fingerprint of a report which is about to be reconciled on this node, such that
+     * it can be confirmed once reconciled. A pending fingerprint of a different report, received or
+     * reconciled on this node since, is retained, so the older report cannot be confirmed over it.
+     *
+     * @param ownerKey
+     *  the key of the owner which received the report
+     *
+     * @param reporterId
+     *  the ID of the reporter which sent the report
+     *
+     * @param fingerprint
+     *  the fingerprint of the report
+     */
+    public void markPending(String ownerKey, String reporterId, String fingerprint) {
+        if (!this.isEnabled() || ownerKey == null || reporterId == null || fingerprint == null) {
+            return;
+        }
+
+        this.fingerprints.compute(buildKey(ownerKey, reporterId), (key, current) ->
+            current == null || current.confirmed ? new Fingerprint(fingerprint) : current);
+    }
+
+    /**
+     * Confirms that the report with the given fingerprint was reconciled without failures. This
+     * must be called on the node which marked the report as pending before reconciling it. The
+     * confirmation is ignored if a different report has been received from the reporter since.
+     *
+     * @param ownerKey
+     *  the key of the owner which received the report
+     *
+     * @param reporterId
+     *  the ID of the reporter which sent the report
+     *
+     * @param fingerprint
+     *  the fingerprint of the report
+     */
+    public void confirm(String ownerKey, String reporterId, String fingerprint) {
+        if (!this.isEnabled() || ownerKey == null || reporterId == null || fingerprint == null) {
+            return;
+        }
+
+        this.fingerprints.compute(buildKey(ownerKey, reporterId), (key, current) -> {
+            if (current != null && current.digest.equals(fingerprint)) {
+                current.confirmed = true;
+            }
+
+            return current;
+        });
+    }
+
+    /**
+     * Discards the fingerprints of every reporter for the given owner, so the next report from each
+     * is reconciled in full. This must be called whenever an owner's hosts or guests are changed by
+     * means other than reconciling a report, such as deleting a host or guest.
+     *
+     * @param ownerKey
+     *  the key of the owner for which to discard fingerprints
+     */
+    public void invalidateOwner(String ownerKey) {
+        if (!this.isEnabled() || ownerKey == null) {
+            return;
+        }
+
+        String prefix = buildKey(ownerKey, "");
+
+        this.fingerprints.removeIf((key, current) -> key.startsWith(prefix));
+    }
+
+    /**
+     * @return the number of reports found to be unchanged and treated as heartbeats
+     */
+    public long getSkippedCount() {
+        return this.skipped.get();
+    }
+
+    /**
+     * @return the number of reports queued for reconciliation
+     */
+    public long getProcessedCount() {
+        return this.processed.get();
+    }
+
+    public int size() {
+        return this.fingerprints.size();
+    }
+
+    /**
+     * Fetches the statistics of this cache, including the number of skipped and processed reports.
+     *
+     * @return
+     *  a map of statistic names to their current values
+     */
+    public Map<String, Object> getStatistics() {
+        return this.fingerprints.getStatistics();
+    }
+}
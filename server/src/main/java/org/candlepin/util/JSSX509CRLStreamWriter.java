@@ -144,6 +144,9 @@ public class JSSX509CRLStreamWriter extends AbstractX509CRLStreamWriter {
     private int extensionsDelta;
     private byte[] newExtensions;
 
+    private BigInteger minimumCrlNumber;
+    private BigInteger crlNumber;
+
     public JSSX509CRLStreamWriter(File crlToChange, RSAPrivateKey key, X509Certificate ca)
         throws IOException, InvalidBERException {
         this(new BufferedInputStream(new FileInputStream(crlToChange)), key, ca);
@@ -299,6 +302,48 @@ public class JSSX509CRLStreamWriter extends AbstractX509CRLStreamWriter {
         signingAlg = algorithm;
     }
 
+    /**
+     * Sets the lowest CRL number the rewritten CRL may carry. By default, the CRL number of the
+     * rewritten CRL is one greater than that of the original CRL; if that would fall below the given
+     * number, the given number is used instead. This allows the rewritten CRL to remain ahead of any
+     * other CRLs issued from the same number sequence, such as delta CRLs. This must be set before
+     * the stream is pre-scanned.
+     *
+     * @param minimumCrlNumber
+     *  the lowest CRL number to assign to the rewritten CRL, or null to always increment the
+     *  original CRL number
+     */
+    public void setMinimumCrlNumber(BigInteger minimumCrlNumber) {
+        if (locked || preScanned) {
+            throw new IllegalStateException("The CRL number cannot be changed after the pre-scan.");
+        }
+
+        this.minimumCrlNumber = minimumCrlNumber;
+    }
+
+    /**
+     * Fetches the CRL number assigned to the rewritten CRL. The number is not available until the
+     * CRL extensions have been processed, which occurs during the pre-scan, or while writing a CRL
+     * which had no entries.
+     *
+     * @return
+     *  the CRL number of the rewritten CRL, or null if it has not yet been determined
+     */
+    public BigInteger getCrlNumber() {
+        return this.crlNumber;
+    }
+
+    private BigInteger nextCrlNumber(BigInteger current) {
+        BigInteger next = current.add(BigInteger.ONE);
+
+        if (this.minimumCrlNumber != null && next.compareTo(this.minimumCrlNumber) < 0) {
+            next = this.minimumCrlNumber;
+        }
+
+        this.crlNumber = next;
+        return next;
+    }
+
     @Override
     public boolean hasChangesQueued() {
         return this.newEntries.size() > 0 || this.deletedEntries.size() > 0;
@@ -331,7 +376,7 @@ public class JSSX509CRLStreamWriter extends AbstractX509CRLStreamWriter {
                 if (ext.getExtensionId().equals(PKIXExtensions.CRLNumber_Id)) {
                     CRLNumberExtension crlNumExt = (CRLNumberExtension) ext;
                     BigInteger crlNum = (BigInteger) crlNumExt.get(CRLNumberExtension.NUMBER);
-                    newExts.add(new CRLNumberExtension(ext.isCritical(), crlNum.add(BigInteger.ONE)));
+                    newExts.add(new CRLNumberExtension(ext.isCritical(), nextCrlNumber(crlNum)));
                 }
                 else if (ext.getExtensionId().equals(PKIXExtensions.AuthorityKey_Id)) {
                     aki.setCritical(ext.isCritical());
@@ -456,7 +501,7 @@ public class JSSX509CRLStreamWriter extends AbstractX509CRLStreamWriter {
             for (Extension e : exts) {
                 if (e.getExtensionId().equals(PKIXExtensions.CRLNumber_Id)) {
                     DerValue crlNum = new DerValue(e.getExtensionValue());
-                    BigInteger newCrlNum = crlNum.getInteger().toBigInteger().add(BigInteger.ONE);
+                    BigInteger newCrlNum = nextCrlNumber(crlNum.getInteger().toBigInteger());
 
                     modifiedExts.addElement(new org.mozilla.jss.pkix.cert.Extension(
                         new OBJECT_IDENTIFIER(e.getExtensionId().toString()), e.isCritical(),
@@ -68,6 +68,7 @@ public class X509V3ExtensionUtil extends X509Util {
     private ObjectMapper mapper;
     private Configuration config;
     private EntitlementCurator entCurator;
+    private ContentPayloadCache payloadCache;
     public static final String CERT_VERSION = "3.4";
 
     private long pathNodeId = 0;
@@ -75,14 +76,22 @@ public class X509V3ExtensionUtil extends X509Util {
     private static final Object END_NODE = new Object();
     private static boolean treeDebug = false;
 
+    public X509V3ExtensionUtil(Configuration config, EntitlementCurator entCurator,
+        ObjectMapper objectMapper) {
+
+        this(config, entCurator, objectMapper, new ContentPayloadCache(0));
+    }
+
     @Inject
     public X509V3ExtensionUtil(Configuration config, EntitlementCurator entCurator,
-        @Named("X509V3ExtensionUtilObjectMapper") ObjectMapper objectMapper) {
+        @Named("X509V3ExtensionUtilObjectMapper") ObjectMapper objectMapper,
+        ContentPayloadCache payloadCache) {
 
         // Output everything in UTC
         this.config = config;
         this.entCurator = entCurator;
         this.mapper = objectMapper;
+        this.payloadCache = payloadCache;
     }
 
     public Set<X509ExtensionWrapper> getExtensions() {
@@ -122,6 +131,23 @@ public class X509V3ExtensionUtil extends X509Util {
 
     private byte[] retrieveContentValue(EntitlementBody eb) throws IOException {
         List<Content> contentList = getContentList(eb);
+
+        if (!this.payloadCache.isEnabled()) {
+            return this.buildContentValue(contentList);
+        }
+
+        String key = this.payloadCache.buildKey(contentList);
+        byte[] payload = this.payloadCache.get(key);
+
+        if (payload == null) {
+            payload = this.buildContentValue(contentList);
+            this.payloadCache.put(key, payload);
+        }
+
+        return payload;
+    }
+
+    private byte[] buildContentValue(List<Content> contentList) throws IOException {
         PathNode treeRoot = makePathTree(contentList, new PathNode());
         List<String> nodeStrings = orderStrings(treeRoot);
         if (nodeStrings.size() == 0) {
@@ -104,6 +104,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -166,6 +167,8 @@ public class JobManagerTest {
     private CandlepinRequestScope requestScope;
     private Injector injector;
     private EventSink eventSink;
+    private JobMetrics metrics;
+    private JobStatusNotifier notifier;
 
     private Scheduler scheduler;
     private List<ImmutablePair<String, String>> scheduledJobs;
@@ -189,6 +192,8 @@ public class JobManagerTest {
         this.requestScope = mock(CandlepinRequestScope.class);
         this.injector = mock(Injector.class);
         this.eventSink = mock(EventSink.class);
+        this.metrics = new JobMetrics();
+        this.notifier = new JobStatusNotifier();
 
         this.scheduler = mock(Scheduler.class);
         this.scheduledJobs = new LinkedList<>();
@@ -263,7 +268,7 @@ public class JobManagerTest {
     private JobManager createJobManager(JobMessageDispatcher dispatcher) {
         return new JobManager(this.config, this.schedulerFactory, this.modeManager, this.jobCurator,
             this.ownerCurator, dispatcher, this.receiver, this.principalProvider, this.requestScope,
-            this.injector);
+            this.injector, this.metrics, this.notifier);
     }
 
     private JobArguments buildJobArguments(Map<String, Object> args) {
@@ -650,6 +655,78 @@ public class JobManagerTest {
         assertThat(status.getStartTime(), lessThanOrEqualTo(end));
     }
 
+    @Test
+    public void testMetricsRecordedOnExecution() throws JobException {
+        AsyncJob job = jdata -> { /* do nothing */ };
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.QUEUED);
+
+        doReturn(job).when(this.injector).getInstance(TestJob.class);
+        this.injectMockedJobStatus(status);
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        manager.executeJob(new JobMessage(JOB_ID, TestJob.JOB_KEY));
+
+        JobMetrics.JobKeyMetrics keyMetrics = manager.getJobMetrics().getJobKeyMetrics()
+            .get(TestJob.JOB_KEY);
+
+        assertNotNull(keyMetrics);
+        assertEquals(1, keyMetrics.getCompleted());
+        assertEquals(0, keyMetrics.getFailed());
+        assertEquals(0, keyMetrics.getRetried());
+        assertEquals(1, keyMetrics.getExecution().getCount());
+    }
+
+    @Test
+    public void testMetricsRecordedOnExecutionFailure() {
+        AsyncJob job = jdata -> { throw new JobExecutionException("kaboom", true); };
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.QUEUED);
+
+        doReturn(job).when(this.injector).getInstance(TestJob.class);
+        this.injectMockedJobStatus(status);
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        assertThrows(JobException.class, () -> manager.executeJob(new JobMessage(JOB_ID, TestJob.JOB_KEY)));
+
+        JobMetrics.JobKeyMetrics keyMetrics = manager.getJobMetrics().getJobKeyMetrics()
+            .get(TestJob.JOB_KEY);
+
+        assertNotNull(keyMetrics);
+        assertEquals(0, keyMetrics.getCompleted());
+        assertEquals(1, keyMetrics.getFailed());
+        assertEquals(1, keyMetrics.getExecution().getCount());
+    }
+
+    @Test
+    public void testWaitersNotifiedOnJobCompletion() throws JobException {
+        AsyncJob job = jdata -> { /* do nothing */ };
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.QUEUED);
+
+        doReturn(job).when(this.injector).getInstance(TestJob.class);
+        this.injectMockedJobStatus(status);
+
+        CountDownLatch latch = this.notifier.register(Collections.singleton(JOB_ID));
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        manager.executeJob(new JobMessage(JOB_ID, TestJob.JOB_KEY));
+
+        assertEquals(0, latch.getCount());
+    }
+
     @Test
     public void testEndTimeIsSetOnExecution() throws JobException {
         AsyncJob job = jdata -> { /* do nothing */ };
@@ -1289,6 +1366,211 @@ public class JobManagerTest {
         assertThat(result.getJobResult(), containsString("Job blocked by the following existing jobs:"));
     }
 
+    @Test
+    public void testWaitForJobsWithoutTimeoutReadsOnce() {
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.QUEUED);
+
+        doReturn(Collections.singletonList(status)).when(this.jobCurator)
+            .findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+
+        JobManager manager = this.createJobManager();
+        List<AsyncJobStatus> result = manager.waitForJobs(Collections.singleton(JOB_ID), 0);
+
+        assertEquals(Collections.singletonList(status), result);
+        verify(this.jobCurator, times(1)).findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+        assertEquals(0, this.notifier.getWaitedJobCount());
+    }
+
+    @Test
+    public void testWaitForJobsReturnsImmediatelyForTerminalJobs() {
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.FINISHED);
+
+        doReturn(Collections.singletonList(status)).when(this.jobCurator)
+            .findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+
+        JobManager manager = this.createJobManager();
+        List<AsyncJobStatus> result = manager.waitForJobs(Collections.singleton(JOB_ID), 60000);
+
+        assertEquals(Collections.singletonList(status), result);
+        verify(this.jobCurator, times(1)).findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+        assertEquals(0, this.notifier.getWaitedJobCount());
+    }
+
+    @Test
+    public void testWaitForJobsTimesOut() {
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.RUNNING);
+
+        doReturn(Collections.singletonList(status)).when(this.jobCurator)
+            .findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+
+        JobManager manager = this.createJobManager();
+
+        long start = System.currentTimeMillis();
+        List<AsyncJobStatus> result = manager.waitForJobs(Collections.singleton(JOB_ID), 250);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(1, result.size());
+        assertEquals(JobState.RUNNING, result.get(0).getState());
+        assertThat(elapsed, greaterThanOrEqualTo(250L));
+        assertEquals(0, this.notifier.getWaitedJobCount());
+    }
+
+    @Test
+    public void testWaitForJobsSkipsWaitWhenTooManyWaiters() {
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_STATUS_WAIT_MAX_WAITERS, "0");
+
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.RUNNING);
+
+        doReturn(Collections.singletonList(status)).when(this.jobCurator)
+            .findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+
+        JobManager manager = this.createJobManager();
+
+        long start = System.currentTimeMillis();
+        List<AsyncJobStatus> result = manager.waitForJobs(Collections.singleton(JOB_ID), 60000);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(Collections.singletonList(status), result);
+        assertThat(elapsed, lessThan(4000L));
+        verify(this.jobCurator, times(1)).findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+        assertEquals(0, this.notifier.getWaitedJobCount());
+    }
+
+    @Test
+    public void testWaitForJobsWakesWhenJobTerminates() throws Exception {
+        AsyncJobStatus status = this.createJobStatus(JOB_ID)
+            .setJobKey(TestJob.JOB_KEY)
+            .setState(JobState.RUNNING);
+
+        doReturn(Collections.singletonList(status)).when(this.jobCurator)
+            .findJobs(Mockito.any(AsyncJobStatusQueryBuilder.class));
+
+        Thread terminator = new Thread(() -> {
+            // Wait for the manager to start waiting before finishing the job
+            while (this.notifier.getWaitedJobCount() == 0) {
+                Thread.yield();
+            }
+
+            status.setState(JobState.FINISHED);
+            this.notifier.jobTerminated(JOB_ID);
+        });
+
+        JobManager manager = this.createJobManager();
+        terminator.start();
+
+        long start = System.currentTimeMillis();
+        List<AsyncJobStatus> result = manager.waitForJobs(Collections.singleton(JOB_ID), 60000);
+        long elapsed = System.currentTimeMillis() - start;
+
+        terminator.join();
+
+        assertEquals(1, result.size());
+        assertEquals(JobState.FINISHED, result.get(0).getState());
+        // The periodic re-check would not fire until several seconds have passed
+        assertThat(elapsed, lessThan(4000L));
+    }
+
+    @Test
+    public void testJobIsQueuedWithConfiguredPriority() throws Exception {
+        this.config.setProperty(
+            ConfigProperties.jobConfig(TestJob.JOB_KEY, ConfigProperties.ASYNC_JOBS_JOB_PRIORITY), "7");
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        AsyncJobStatus result = manager.queueJob(JobConfig.forJob(TestJob.JOB_KEY));
+
+        assertNotNull(result);
+        assertEquals(JobState.QUEUED, result.getState());
+
+        ArgumentCaptor<JobMessage> captor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(this.dispatcher, times(1)).postJobMessage(captor.capture());
+        assertEquals(Integer.valueOf(7), captor.getValue().getPriority());
+    }
+
+    @Test
+    public void testMetricsRecordedOnQueue() throws Exception {
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        manager.queueJob(JobConfig.forJob(TestJob.JOB_KEY));
+
+        JobMetrics.JobKeyMetrics keyMetrics = manager.getJobMetrics().getJobKeyMetrics()
+            .get(TestJob.JOB_KEY);
+
+        assertNotNull(keyMetrics);
+        assertEquals(1, keyMetrics.getQueued());
+    }
+
+    @Test
+    public void testJobIsQueuedWithDefaultPriorityWhenUnconfigured() throws Exception {
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        manager.queueJob(JobConfig.forJob(TestJob.JOB_KEY));
+
+        ArgumentCaptor<JobMessage> captor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(this.dispatcher, times(1)).postJobMessage(captor.capture());
+        assertNull(captor.getValue().getPriority());
+    }
+
+    @Test
+    public void testJobDoesNotQueueWhenOwnerLimitReached() throws Exception {
+        this.config.setProperty(
+            ConfigProperties.jobConfig(TestJob.JOB_KEY, ConfigProperties.ASYNC_JOBS_JOB_OWNER_LIMIT), "2");
+
+        Owner owner = new Owner("ownerKey", "owner");
+        owner.setId("test_owner");
+
+        doReturn(Arrays.asList("job-1", "job-2")).when(this.jobCurator)
+            .fetchJobIdsByOwner(TestJob.JOB_KEY, owner.getId());
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        AsyncJobStatus result = manager.queueJob(JobConfig.forJob(TestJob.JOB_KEY)
+            .setContextOwner(owner));
+
+        assertNotNull(result);
+        assertEquals(JobState.ABORTED, result.getState());
+        assertThat(result.getJobResult(), containsString("job-1, job-2"));
+        verify(this.dispatcher, never()).postJobMessage(Mockito.any(JobMessage.class));
+    }
+
+    @Test
+    public void testJobIsQueuedWhenBelowOwnerLimit() throws Exception {
+        this.config.setProperty(
+            ConfigProperties.jobConfig(TestJob.JOB_KEY, ConfigProperties.ASYNC_JOBS_JOB_OWNER_LIMIT), "2");
+
+        Owner owner = new Owner("ownerKey", "owner");
+        owner.setId("test_owner");
+
+        doReturn(Arrays.asList("job-1")).when(this.jobCurator)
+            .fetchJobIdsByOwner(TestJob.JOB_KEY, owner.getId());
+
+        JobManager manager = this.createJobManager();
+        manager.initialize();
+        manager.start();
+
+        AsyncJobStatus result = manager.queueJob(JobConfig.forJob(TestJob.JOB_KEY)
+            .setContextOwner(owner));
+
+        assertNotNull(result);
+        assertEquals(JobState.QUEUED, result.getState());
+    }
+
     @Test
     public void jobStatusFound() {
         String jobId = "jobId";
@@ -16,9 +16,11 @@ package org.candlepin.async;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -225,6 +227,38 @@ public class JobMessageDispatcherTest {
         verify(session2, times(1)).commit();
     }
 
+    @Test
+    public void testMessagePriorityIsApplied() throws Exception {
+        JobMessageDispatcher dispatcher = this.buildJobMessageDispatcher();
+
+        CPMSession session = this.mockCPMSession();
+        CPMMessage message = session.createMessage();
+        CPMProducer producer = mock(CPMProducer.class);
+
+        doReturn(session).when(this.sessionFactory).createSession(any(CPMSessionConfig.class));
+        doReturn(producer).when(session).createProducer(any(CPMProducerConfig.class));
+
+        dispatcher.postJobMessage(new JobMessage("job_id-1", "job_key-1").setPriority(7));
+
+        verify(message, times(1)).setPriority(7);
+    }
+
+    @Test
+    public void testMessagePriorityIsNotSetWhenUnspecified() throws Exception {
+        JobMessageDispatcher dispatcher = this.buildJobMessageDispatcher();
+
+        CPMSession session = this.mockCPMSession();
+        CPMMessage message = session.createMessage();
+        CPMProducer producer = mock(CPMProducer.class);
+
+        doReturn(session).when(this.sessionFactory).createSession(any(CPMSessionConfig.class));
+        doReturn(producer).when(session).createProducer(any(CPMProducerConfig.class));
+
+        dispatcher.postJobMessage(new JobMessage("job_id-1", "job_key-1"));
+
+        verify(message, never()).setPriority(anyInt());
+    }
+
     @Test
     public void testAbandonedSessionsAreClosed() throws Exception {
         JobMessageDispatcher dispatcher = this.buildJobMessageDispatcher();
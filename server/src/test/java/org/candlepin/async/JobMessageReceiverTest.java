@@ -143,7 +143,7 @@ public class JobMessageReceiverTest {
     private JobMessageReceiver buildJobMessageReceiver() {
         try {
             JobMessageReceiver receiver = new JobMessageReceiver(this.config, this.cpmSessionFactory,
-                this.mapper, this.unitOfWork);
+                this.mapper, this.unitOfWork, new JobMetrics());
 
             receiver.initialize(this.jobManager);
 
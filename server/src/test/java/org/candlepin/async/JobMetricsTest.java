@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SortedMap;
+
+
+
+/**
+ * Test suite for the JobMetrics class
+ */
+public class JobMetricsTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        JobMetrics.Histogram histogram = new JobMetrics.Histogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getSum());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getP50());
+        assertEquals(0, histogram.getP99());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        JobMetrics.Histogram histogram = new JobMetrics.Histogram();
+
+        for (int i = 0; i < 90; ++i) {
+            histogram.record(5);
+        }
+
+        for (int i = 0; i < 9; ++i) {
+            histogram.record(400);
+        }
+
+        histogram.record(20000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 5 + 9 * 400 + 20000, histogram.getSum());
+        assertEquals(20000, histogram.getMax());
+        assertEquals(10, histogram.getP50());
+        assertEquals(10, histogram.getP90());
+        assertEquals(500, histogram.getP99());
+    }
+
+    @Test
+    public void testHistogramPercentileCappedAtMax() {
+        JobMetrics.Histogram histogram = new JobMetrics.Histogram();
+        histogram.record(3);
+
+        assertEquals(3, histogram.getP50());
+    }
+
+    @Test
+    public void testHistogramBucketsAreCumulative() {
+        JobMetrics.Histogram histogram = new JobMetrics.Histogram();
+        histogram.record(-5);
+        histogram.record(10);
+        histogram.record(75);
+        histogram.record(7200000);
+
+        SortedMap<Long, Long> buckets = histogram.getBuckets();
+
+        assertEquals(2L, buckets.get(10L));
+        assertEquals(2L, buckets.get(50L));
+        assertEquals(3L, buckets.get(100L));
+        assertEquals(3L, buckets.get(3600000L));
+        assertEquals(4L, buckets.get(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, (long) buckets.lastKey());
+    }
+
+    @Test
+    public void testJobCounters() {
+        JobMetrics metrics = new JobMetrics();
+
+        metrics.jobQueued("key-1");
+        metrics.jobQueued("key-1");
+        metrics.jobStarted("key-1", 120);
+        metrics.jobStarted("key-1", -1);
+        metrics.jobCompleted("key-1", 30, true, false);
+        metrics.jobCompleted("key-1", 40, false, true);
+        metrics.jobCompleted("key-1", 50, false, false);
+
+        JobMetrics.JobKeyMetrics keyMetrics = metrics.getJobKeyMetrics().get("key-1");
+
+        assertNotNull(keyMetrics);
+        assertEquals(2, keyMetrics.getQueued());
+        assertEquals(1, keyMetrics.getCompleted());
+        assertEquals(1, keyMetrics.getRetried());
+        assertEquals(1, keyMetrics.getFailed());
+        assertEquals(1, keyMetrics.getQueueWait().getCount());
+        assertEquals(120, keyMetrics.getQueueWait().getMax());
+        assertEquals(3, keyMetrics.getExecution().getCount());
+    }
+
+    @Test
+    public void testInFlightTracking() {
+        JobMetrics metrics = new JobMetrics();
+
+        metrics.messageReceived("key-1");
+        metrics.messageReceived("key-2");
+        metrics.messageReceived("key-2");
+
+        assertEquals(3, metrics.getInFlight());
+        assertEquals(2, metrics.getJobKeyMetrics().get("key-2").getInFlight());
+
+        metrics.messageProcessed("key-2");
+        metrics.messageProcessed("key-1");
+
+        assertEquals(1, metrics.getInFlight());
+        assertEquals(0, metrics.getJobKeyMetrics().get("key-1").getInFlight());
+        assertEquals(1, metrics.getJobKeyMetrics().get("key-2").getInFlight());
+    }
+
+    @Test
+    public void testJobKeyMetricsAreSorted() {
+        JobMetrics metrics = new JobMetrics();
+
+        metrics.jobQueued("key-b");
+        metrics.jobQueued("key-a");
+        metrics.jobQueued(null);
+
+        assertEquals("key-a", metrics.getJobKeyMetrics().firstKey());
+        assertEquals(3, metrics.getJobKeyMetrics().size());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+
+
+/**
+ * Test suite for the JobStatusNotifier class
+ */
+public class JobStatusNotifierTest {
+
+    @Test
+    public void testRegisterRequiresJobIds() {
+        JobStatusNotifier notifier = new JobStatusNotifier();
+        assertThrows(IllegalArgumentException.class, () -> notifier.register(null));
+    }
+
+    @Test
+    public void testLatchReleasedOnTermination() {
+        JobStatusNotifier notifier = new JobStatusNotifier();
+        CountDownLatch latch = notifier.register(Arrays.asList("job-1", "job-2"));
+
+        notifier.jobTerminated("job-2");
+
+        assertEquals(0, latch.getCount());
+    }
+
+    @Test
+    public void testLatchNotReleasedForOtherJobs() {
+        JobStatusNotifier notifier = new JobStatusNotifier();
+        CountDownLatch latch = notifier.register(Collections.singleton("job-1"));
+
+        notifier.jobTerminated("job-2");
+        notifier.jobTerminated(null);
+
+        assertEquals(1, latch.getCount());
+    }
+
+    @Test
+    public void testAllWaitersReleased() {
+        JobStatusNotifier notifier = new JobStatusNotifier();
+        CountDownLatch latch1 = notifier.register(Collections.singleton("job-1"));
+        CountDownLatch latch2 = notifier.register(Collections.singleton("job-1"));
+
+        notifier.jobTerminated("job-1");
+
+        assertEquals(0, latch1.getCount());
+        assertEquals(0, latch2.getCount());
+    }
+
+    @Test
+    public void testUnregisterRemovesWaiters() {
+        JobStatusNotifier notifier = new JobStatusNotifier();
+        CountDownLatch latch1 = notifier.register(Arrays.asList("job-1", "job-2"));
+        CountDownLatch latch2 = notifier.register(Collections.singleton("job-1"));
+
+        assertEquals(2, notifier.getWaitedJobCount());
+
+        notifier.unregister(Arrays.asList("job-1", "job-2"), latch1);
+        assertEquals(1, notifier.getWaitedJobCount());
+
+        notifier.jobTerminated("job-1");
+        assertEquals(1, latch1.getCount());
+        assertEquals(0, latch2.getCount());
+
+        notifier.unregister(Collections.singleton("job-1"), latch2);
+        assertEquals(0, notifier.getWaitedJobCount());
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.async.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.async.JobConstraint;
+import org.candlepin.async.tasks.HealEntireOrgJob;
+import org.candlepin.model.AsyncJobStatus;
+import org.candlepin.model.AsyncJobStatus.JobState;
+import org.candlepin.model.Owner;
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+class ThrottledByOwnerConstraintTest extends DatabaseTestFixture {
+
+    private static final String TEST_KEY = HealEntireOrgJob.JOB_KEY;
+    private static final int LIMIT = 2;
+
+    @Test
+    void shouldThrottleJobsAtTheOwnerLimit() {
+        Owner owner = this.createOwner();
+        this.createJob(owner, JobState.QUEUED);
+        this.createJob(owner, JobState.RUNNING);
+
+        JobConstraint constraint = new ThrottledByOwnerConstraint(TEST_KEY, LIMIT);
+        Collection<String> conflicting = constraint.test(this.asyncJobCurator, this.inboundJob(owner));
+
+        assertEquals(2, conflicting.size());
+    }
+
+    @Test
+    void shouldNotThrottleJobsBelowTheOwnerLimit() {
+        Owner owner = this.createOwner();
+        this.createJob(owner, JobState.QUEUED);
+        this.createJob(owner, JobState.FINISHED);
+
+        JobConstraint constraint = new ThrottledByOwnerConstraint(TEST_KEY, LIMIT);
+        Collection<String> conflicting = constraint.test(this.asyncJobCurator, this.inboundJob(owner));
+
+        assertTrue(conflicting.isEmpty());
+    }
+
+    @Test
+    void shouldNotThrottleJobsOfOtherOwners() {
+        Owner owner = this.createOwner();
+        Owner other = this.createOwner();
+        this.createJob(other, JobState.QUEUED);
+        this.createJob(other, JobState.QUEUED);
+
+        JobConstraint constraint = new ThrottledByOwnerConstraint(TEST_KEY, LIMIT);
+        Collection<String> conflicting = constraint.test(this.asyncJobCurator, this.inboundJob(owner));
+
+        assertTrue(conflicting.isEmpty());
+    }
+
+    @Test
+    void shouldNotThrottleJobsWithoutAnOwner() {
+        JobConstraint constraint = new ThrottledByOwnerConstraint(TEST_KEY, 1);
+        Collection<String> conflicting = constraint.test(this.asyncJobCurator, this.inboundJob(null));
+
+        assertTrue(conflicting.isEmpty());
+    }
+
+    private AsyncJobStatus inboundJob(Owner owner) {
+        return new AsyncJobStatus()
+            .setJobKey(TEST_KEY)
+            .setContextOwner(owner);
+    }
+
+    private AsyncJobStatus createJob(Owner owner, JobState state) {
+        AsyncJobStatus status = this.inboundJob(owner)
+            .setState(state);
+
+        return this.asyncJobCurator.merge(status);
+    }
+
+}
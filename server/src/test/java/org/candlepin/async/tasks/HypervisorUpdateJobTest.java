@@ -16,14 +16,18 @@ package org.candlepin.async.tasks;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -42,12 +46,14 @@ import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.api.v1.ConsumerDTO;
+import org.candlepin.dto.api.v1.HypervisorUpdateResultDTO;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerType;
 import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
 import org.candlepin.model.ConsumerTypeCurator;
 import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.GuestId;
 import org.candlepin.model.HypervisorId;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
@@ -56,8 +62,10 @@ import org.candlepin.resource.ConsumerResource;
 import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.service.impl.HypervisorUpdateAction;
 import org.candlepin.test.TestUtil;
+import org.candlepin.util.HypervisorReportCache;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -96,6 +104,7 @@ public class HypervisorUpdateJobTest {
     private EventSink sink;
     private EventFactory evtFactory;
     private EntityManager entityManager;
+    private HypervisorReportCache reportCache;
 
     private ModelTranslator translator;
 
@@ -118,6 +127,7 @@ public class HypervisorUpdateJobTest {
         evtFactory = mock(EventFactory.class);
         entityManager = mock(EntityManager.class);
         objectMapper = new ObjectMapper();
+        reportCache = new HypervisorReportCache(10, 60);
         when(owner.getId()).thenReturn("joe");
 
         ConsumerType ctype = new ConsumerType(ConsumerTypeEnum.HYPERVISOR);
@@ -201,7 +211,7 @@ public class HypervisorUpdateJobTest {
             .thenReturn(new VirtConsumerMap());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
         verify(consumerCurator).create(any(Consumer.class));
     }
@@ -218,7 +228,7 @@ public class HypervisorUpdateJobTest {
             .thenReturn(new VirtConsumerMap());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
         ArgumentCaptor<Consumer> argument = ArgumentCaptor.forClass(Consumer.class);
         verify(consumerCurator).create(argument.capture());
@@ -244,7 +254,7 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
         verify(consumerResource).checkForFactsUpdate(any(Consumer.class), any(Consumer.class));
         verify(consumerCurator, times(1)).update(any(Consumer.class));
@@ -268,7 +278,7 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
         assertEquals("updateReporterId", hypervisor.getHypervisorId().getReporterId());
     }
@@ -303,7 +313,7 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
@@ -345,7 +355,8 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(
-            ownerCurator, consumerCurator, translator, hypervisorUpdateAction, i18n, objectMapper);
+            ownerCurator, consumerCurator, translator, hypervisorUpdateAction, i18n, objectMapper,
+            reportCache);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> createCaptor = ArgumentCaptor.forClass(Consumer.class);
@@ -373,7 +384,7 @@ public class HypervisorUpdateJobTest {
             .thenReturn(new VirtConsumerMap());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
         verify(consumerResource, never()).createConsumerFromDTO(any(ConsumerDTO.class),
             any(ConsumerType.class), any(Principal.class), anyString(), any(Owner.class), anyString(),
@@ -401,11 +412,184 @@ public class HypervisorUpdateJobTest {
             any(String.class))).thenReturn(new Consumer());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
     }
 
-    private JobConfig createJobConfig(final String reporterId) {
+    @Test
+    public void bulkReconciliationCreatesHosts() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+        when(config.getBoolean(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION), anyBoolean()))
+            .thenReturn(true);
+        when(config.getInt(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE), anyInt()))
+            .thenReturn(500);
+        when(consumerCurator.getHostConsumersMap(eq(owner), Mockito.<String>anyIterable()))
+            .thenReturn(new VirtConsumerMap());
+
+        JobConfig config = createJobConfig("bulkReporterId");
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        ArgumentCaptor<Consumer> createCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(consumerCurator, times(1)).create(createCaptor.capture(), eq(false));
+        verify(consumerCurator, times(1)).flush();
+        verify(consumerCurator, never()).getExistingConsumerByHypervisorIdOrUuid(any(String.class),
+            any(String.class), nullable(String.class));
+
+        Consumer created = createCaptor.getValue();
+        assertEquals("uuid_999", created.getHypervisorId().getHypervisorId());
+        assertEquals("bulkReporterId", created.getHypervisorId().getReporterId());
+        assertEquals(1, created.getGuestIds().size());
+        assertEquals("guestId_1_999", created.getGuestIds().get(0).getGuestId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void bulkReconciliationLocksExistingHosts() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+        when(config.getBoolean(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION), anyBoolean()))
+            .thenReturn(true);
+        when(config.getInt(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE), anyInt()))
+            .thenReturn(500);
+
+        Consumer hypervisor = new Consumer();
+        hypervisor.ensureUUID();
+        hypervisor.setId("hypervisor-id");
+        hypervisor.setName("hypervisor_999");
+        hypervisor.setOwner(owner);
+        hypervisor.setHypervisorId(new HypervisorId("uuid_999"));
+
+        Consumer previousHost = new Consumer();
+        previousHost.ensureUUID();
+        previousHost.setId("previous-host-id");
+        previousHost.setOwner(owner);
+        previousHost.setHypervisorId(new HypervisorId("unreported_hypervisor"));
+        previousHost.addGuestId(new GuestId("guestId_1_999"));
+
+        VirtConsumerMap existingHosts = new VirtConsumerMap();
+        existingHosts.add("uuid_999", hypervisor);
+        when(consumerCurator.getHostConsumersMap(eq(owner), Mockito.<String>anyIterable()))
+            .thenReturn(existingHosts);
+
+        JobConfig config = createJobConfig(null);
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        ArgumentCaptor<Iterable<Consumer>> lockCaptor =
+            ArgumentCaptor.forClass((Class<Iterable<Consumer>>) (Class) Iterable.class);
+        verify(consumerCurator, times(1)).lock(lockCaptor.capture());
+        assertTrue(Iterables.contains(lockCaptor.getValue(), hypervisor));
+
+        assertEquals(1, hypervisor.getGuestIds().size());
+        assertEquals("guestId_1_999", hypervisor.getGuestIds().get(0).getGuestId());
+
+        // As with hosts reconciled individually, hosts outside of the report are left untouched
+        assertEquals(1, previousHost.getGuestIds().size());
+
+        verify(consumerCurator, times(1)).flush();
+        verify(consumerCurator, never()).update(any(Consumer.class));
+    }
+
+    @Test
+    public void bulkReconciliationDiscardsFailuresOfRolledBackBatch() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+        when(config.getBoolean(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION), anyBoolean()))
+            .thenReturn(true);
+        when(config.getInt(eq(ConfigProperties.HYPERVISOR_BULK_RECONCILIATION_BATCH_SIZE), anyInt()))
+            .thenReturn(500);
+        when(consumerCurator.getHostConsumersMap(eq(owner), Mockito.<String>anyIterable()))
+            .thenReturn(new VirtConsumerMap());
+        doThrow(new RuntimeException("batch failure")).when(consumerCurator).flush();
+
+        JobConfig config = HypervisorUpdateJob.createJobConfig()
+            .setOwner(owner)
+            .setData(hypervisorJson)
+            .setCreateMissing(false)
+            .setPrincipal(principal);
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        ArgumentCaptor<Object> resultCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(ctx).setJobResult(resultCaptor.capture());
+
+        HypervisorUpdateResultDTO result = (HypervisorUpdateResultDTO) resultCaptor.getValue();
+        assertEquals(1, result.getFailedUpdate().size());
+        verify(consumerCurator, times(1)).getExistingConsumerByHypervisorIdOrUuid(any(String.class),
+            any(String.class), nullable(String.class));
+    }
+
+    @Test
+    public void reconciledReportFingerprintIsConfirmed() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+
+        assertFalse(reportCache.checkUnchanged("joe", "reporter", "fingerprint"));
+
+        JobConfig config = createJobConfig("reporter")
+            .setFingerprint("fingerprint");
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        assertTrue(reportCache.checkUnchanged("joe", "reporter", "fingerprint"));
+    }
+
+    @Test
+    public void reportReceivedByAnotherNodeIsConfirmed() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+
+        // The report was received by another node, so this node has no pending fingerprint for it
+        JobConfig config = createJobConfig("reporter")
+            .setFingerprint("fingerprint");
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        assertTrue(reportCache.checkUnchanged("joe", "reporter", "fingerprint"));
+    }
+
+    @Test
+    public void failedReportFingerprintIsNotConfirmed() throws JobExecutionException {
+        when(ownerCurator.getByKey(eq("joe"))).thenReturn(owner);
+
+        assertFalse(reportCache.checkUnchanged("joe", "reporter", "fingerprint"));
+
+        // Without creating missing hosts, the unknown host in the report fails to reconcile
+        JobConfig config = HypervisorUpdateJob.createJobConfig()
+            .setOwner(owner)
+            .setData(hypervisorJson)
+            .setCreateMissing(false)
+            .setPrincipal(principal)
+            .setReporter("reporter")
+            .setFingerprint("fingerprint");
+        JobExecutionContext ctx = mock(JobExecutionContext.class);
+        when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
+
+        HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
+        job.execute(ctx);
+
+        assertFalse(reportCache.checkUnchanged("joe", "reporter", "fingerprint"));
+    }
+
+    private HypervisorUpdateJob.HypervisorUpdateJobConfig createJobConfig(final String reporterId) {
         return HypervisorUpdateJob.createJobConfig()
             .setOwner(owner)
             .setData(hypervisorJson)
@@ -457,7 +641,7 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
@@ -488,7 +672,7 @@ public class HypervisorUpdateJobTest {
             any(String.class))).thenReturn(new Consumer());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
@@ -529,7 +713,7 @@ public class HypervisorUpdateJobTest {
         when(ctx.getJobArguments()).thenReturn(config.getJobArguments());
 
         HypervisorUpdateJob job = new HypervisorUpdateJob(ownerCurator, consumerCurator,
-            translator, hypervisorUpdateAction, i18n, objectMapper);
+            translator, hypervisorUpdateAction, i18n, objectMapper, reportCache);
         job.execute(ctx);
 
         ArgumentCaptor<Consumer> updateCaptor = ArgumentCaptor.forClass(Consumer.class);
@@ -127,6 +127,8 @@ public class RefreshPoolsJobTest {
         doReturn(owner).when(ownerCurator).getByKey(eq("my-test-owner"));
         doReturn(refresher).when(poolManager).getRefresher(eq(subAdapter), eq(true));
         doReturn(refresher).when(refresher).add(eq(owner));
+        doReturn(3).when(refresher).getUpdatedSubscriptionCount();
+        doReturn(5).when(refresher).getSkippedSubscriptionCount();
 
         ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
 
@@ -135,7 +137,8 @@ public class RefreshPoolsJobTest {
         verify(context, times(1)).setJobResult(captor.capture());
         Object result = captor.getValue();
 
-        assertEquals("Pools refreshed for owner: my-test-owner-displayname", result);
+        assertEquals("Pools refreshed for owner: my-test-owner-displayname; subscriptions updated: 3, " +
+            "unchanged: 5", result);
     }
 
     @Test
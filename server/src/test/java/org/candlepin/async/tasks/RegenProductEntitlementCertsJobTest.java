@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -31,6 +32,7 @@ import org.candlepin.async.JobArguments;
 import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobExecutionContext;
 import org.candlepin.async.JobExecutionException;
+import org.candlepin.controller.EntitlementCertificateGenerator;
 import org.candlepin.controller.PoolManager;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Owner;
@@ -152,11 +154,11 @@ public class RegenProductEntitlementCertsJobTest {
 
         verify(this.mockOwnerCurator, times(1)).getOwnersWithProducts(eq(productIds));
         verify(this.mockPoolManager, times(1))
-            .regenerateCertificatesOf(eq(owner1), eq(productId), eq(lazyRegen));
+            .regenerateCertificatesOf(eq(owner1), eq(productId), eq(lazyRegen), any());
         verify(this.mockPoolManager, times(1))
-            .regenerateCertificatesOf(eq(owner2), eq(productId), eq(lazyRegen));
+            .regenerateCertificatesOf(eq(owner2), eq(productId), eq(lazyRegen), any());
         verify(this.mockPoolManager, times(1))
-            .regenerateCertificatesOf(eq(owner3), eq(productId), eq(lazyRegen));
+            .regenerateCertificatesOf(eq(owner3), eq(productId), eq(lazyRegen), any());
     }
 
     @Test
@@ -183,6 +185,37 @@ public class RegenProductEntitlementCertsJobTest {
 
         verify(this.mockOwnerCurator, times(1)).getOwnersWithProducts(eq(productIds));
         verify(this.mockPoolManager, never())
-            .regenerateCertificatesOf(any(Owner.class), anyString(), anyBoolean());
+            .regenerateCertificatesOf(any(Owner.class), anyString(), anyBoolean(), any());
+    }
+
+    @Test
+    public void testExecutionReportsProgress() throws JobExecutionException {
+        String productId = "test_prod_id";
+        Owner owner = new Owner("test_owner_key", "test_owner_name");
+
+        CandlepinQuery<Owner> ownerQuery = mock(CandlepinQuery.class);
+        doReturn(Arrays.asList(owner)).when(ownerQuery).list();
+        doReturn(ownerQuery).when(this.mockOwnerCurator)
+            .getOwnersWithProducts(eq(Collections.singleton(productId)));
+
+        doAnswer(invocation -> {
+            EntitlementCertificateGenerator.ProgressListener listener = invocation.getArgument(3);
+            listener.onProgress(5, 10);
+            return null;
+        }).when(this.mockPoolManager).regenerateCertificatesOf(eq(owner), eq(productId), eq(false), any());
+
+        JobConfig config = RegenProductEntitlementCertsJob.createJobConfig()
+            .setProductId(productId)
+            .setLazyRegeneration(false);
+
+        JobExecutionContext context = mock(JobExecutionContext.class);
+        doReturn(config.getJobArguments()).when(context).getJobArguments();
+
+        RegenProductEntitlementCertsJob testJob = this.buildTestJob();
+        testJob.execute(context);
+
+        verify(context, times(1)).setJobResult(
+            "Regenerated %d of %d entitlement certificates for owner %s (%d of %d owners)",
+            5, 10, "test_owner_key", 1, 1);
     }
 }
@@ -16,10 +16,12 @@ package org.candlepin.audit;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -53,8 +55,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 
 
@@ -169,6 +175,50 @@ public class DefaultEventMessageReceiverTest {
         verify(clientSession, never()).commit();
     }
 
+    @Test
+    public void batchedMessageEventsAreAllProcessed() throws Exception {
+        this.primeBuffer(ClientMessage.TEXT_TYPE, "[" + this.eventJson() + "," + this.eventJson() + "]");
+        doReturn(true).when(this.clientMessage).containsProperty(EventSinkImpl.EVENT_BATCH_SIZE_KEY);
+
+        receiver.onMessage(clientMessage);
+        verify(eventListener, times(2)).onEvent(any(Event.class));
+        verify(clientSession).commit();
+        verify(clientSession, never()).rollback();
+    }
+
+    @Test
+    public void compressedBatchedMessageEventsAreAllProcessed() throws Exception {
+        String payload = "[" + this.eventJson() + "," + this.eventJson() + "," + this.eventJson() + "]";
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(payload.getBytes(StandardCharsets.UTF_8));
+        }
+
+        this.activeMQBuffer.writeBytes(bytes.toByteArray());
+        doReturn(ClientMessage.BYTES_TYPE).when(this.clientMessage).getType();
+        doReturn(true).when(this.clientMessage).containsProperty(EventSinkImpl.EVENT_BATCH_SIZE_KEY);
+        doReturn(EventSinkImpl.EVENT_ENCODING_GZIP).when(this.clientMessage)
+            .getStringProperty(EventSinkImpl.EVENT_ENCODING_KEY);
+
+        receiver.onMessage(clientMessage);
+        verify(eventListener, times(3)).onEvent(any(Event.class));
+        verify(clientSession).commit();
+        verify(clientSession, never()).rollback();
+    }
+
+    @Test
+    public void batchedMessageIsRolledBackWhenAnyEventFails() throws Exception {
+        this.primeBuffer(ClientMessage.TEXT_TYPE, "[" + this.eventJson() + "," + this.eventJson() + "]");
+        doReturn(true).when(this.clientMessage).containsProperty(EventSinkImpl.EVENT_BATCH_SIZE_KEY);
+        doNothing().doThrow(new RuntimeException("Forced")).when(eventListener).onEvent(any(Event.class));
+
+        receiver.onMessage(clientMessage);
+        verify(eventListener, times(2)).onEvent(any(Event.class));
+        verify(clientSession).rollback();
+        verify(clientSession, never()).commit();
+    }
+
     @Test
     public void sessionCloseIgnoredIfSessionIsNull() throws Exception {
         DefaultEventMessageReceiver receiver = new DefaultEventMessageReceiver(eventListener,
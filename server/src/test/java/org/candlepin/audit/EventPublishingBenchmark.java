@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.async.impl.ActiveMQSessionFactory;
+import org.candlepin.auth.SystemPrincipal;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.controller.mode.CandlepinModeManager;
+import org.candlepin.controller.mode.CandlepinModeManager.Mode;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.CoreAddressConfiguration;
+import org.apache.activemq.artemis.core.config.CoreQueueConfiguration;
+import org.apache.activemq.artemis.core.config.FileDeploymentManager;
+import org.apache.activemq.artemis.core.config.impl.FileConfiguration;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * JMH benchmark measuring the cost of publishing a large transaction's worth of events to an
+ * embedded Artemis broker configured by the packaged broker.xml, with and without event batching
+ * and compression. Persistence is left enabled, with the journal redirected to a temporary
+ * directory. The benchmark is not run as part of the test suite, and may be run directly through
+ * its main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventPublishingBenchmark {
+
+    private static final int EVENT_COUNT = 10000;
+
+    @Param({"1", "100", "1000"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean compress;
+
+    private File brokerDir;
+    private EmbeddedActiveMQ broker;
+    private List<SimpleString> queueNames;
+    private ActiveMQSessionFactory sessionFactory;
+    private EventSinkImpl sink;
+    private List<Event> events;
+
+    @Setup
+    public void setup() throws Exception {
+        this.brokerDir = Files.createTempDirectory("event_benchmark").toFile();
+
+        FileConfiguration brokerConfig = new FileConfiguration();
+        new FileDeploymentManager("broker.xml")
+            .addDeployable(brokerConfig)
+            .readConfiguration();
+
+        brokerConfig.setBindingsDirectory(new File(this.brokerDir, "bindings").getPath());
+        brokerConfig.setJournalDirectory(new File(this.brokerDir, "journal").getPath());
+        brokerConfig.setLargeMessagesDirectory(new File(this.brokerDir, "largemsgs").getPath());
+        brokerConfig.setPagingDirectory(new File(this.brokerDir, "paging").getPath());
+
+        this.queueNames = new ArrayList<>();
+        for (CoreAddressConfiguration address : brokerConfig.getAddressConfigurations()) {
+            for (CoreQueueConfiguration queue : address.getQueueConfigurations()) {
+                this.queueNames.add(SimpleString.toSimpleString(queue.getName()));
+            }
+        }
+
+        this.broker = new EmbeddedActiveMQ();
+        this.broker.setConfiguration(brokerConfig);
+        this.broker.start();
+
+        Configuration config = new CandlepinCommonTestConfig();
+        config.setProperty(ConfigProperties.ACTIVEMQ_EVENT_BATCH_SIZE, String.valueOf(this.batchSize));
+        config.setProperty(ConfigProperties.ACTIVEMQ_EVENT_BATCH_COMPRESSION, String.valueOf(this.compress));
+
+        CandlepinModeManager modeManager = mock(CandlepinModeManager.class);
+        doReturn(Mode.NORMAL).when(modeManager).getCurrentMode();
+
+        this.sessionFactory = new ActiveMQSessionFactory(config);
+        this.sink = new EventSinkImpl(new EventFilter(config), mock(EventFactory.class), new ObjectMapper(),
+            config, this.sessionFactory, modeManager);
+
+        // Build a set of events resembling those emitted while revoking entitlements in bulk
+        SystemPrincipal principal = new SystemPrincipal();
+        StringBuilder data = new StringBuilder("{\"pools\":[");
+        for (int i = 0; i < 10; ++i) {
+            data.append(i > 0 ? "," : "")
+                .append("{\"id\":\"pool-").append(i).append("\",\"quantity\":").append(i * 10)
+                .append(",\"productId\":\"product-").append(i).append("\"}");
+        }
+        data.append("]}");
+
+        this.events = new ArrayList<>();
+        for (int i = 0; i < EVENT_COUNT; ++i) {
+            this.events.add(new Event(Event.Type.DELETED, Event.Target.ENTITLEMENT, "entitlement-" + i,
+                principal, "owner-id", "consumer-" + (i % 100), "entitlement-" + i, data.toString(), null,
+                null));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void purgeQueues() throws Exception {
+        // Drop the published messages so the queues don't grow into paging between iterations
+        for (SimpleString name : this.queueNames) {
+            Queue queue = this.broker.getActiveMQServer().locateQueue(name);
+            if (queue != null) {
+                queue.deleteAllReferences();
+            }
+        }
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        this.broker.stop();
+        FileUtils.deleteQuietly(this.brokerDir);
+    }
+
+    @Benchmark
+    public void publishEvents() {
+        for (Event event : this.events) {
+            this.sink.queueEvent(event);
+        }
+
+        this.sink.sendEvents();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EventPublishingBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
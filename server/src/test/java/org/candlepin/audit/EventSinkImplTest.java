@@ -19,19 +19,24 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyByte;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyObject;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.async.impl.ActiveMQSessionFactory;
 import org.candlepin.auth.Principal;
+import org.candlepin.common.config.Configuration;
 import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.mode.CandlepinModeManager;
 import org.candlepin.controller.mode.CandlepinModeManager.Mode;
 import org.candlepin.guice.PrincipalProvider;
@@ -118,6 +123,18 @@ public class EventSinkImplTest {
         return sink;
     }
 
+    private EventSinkImpl createBatchingEventSink(int batchSize, boolean compress) throws Exception {
+        Configuration config = new CandlepinCommonTestConfig();
+        config.setProperty(ConfigProperties.ACTIVEMQ_EVENT_BATCH_SIZE, String.valueOf(batchSize));
+        config.setProperty(ConfigProperties.ACTIVEMQ_EVENT_BATCH_COMPRESSION, String.valueOf(compress));
+
+        // Batched messages may outgrow the default fixed buffer; give each message its own
+        when(mockClientMessage.getBodyBuffer()).thenAnswer(inv -> ActiveMQBuffers.dynamicBuffer(1024));
+
+        return new EventSinkImpl(eventFilter, factory, mapper, config, this.amqSessionFactory,
+            mockModeManager);
+    }
+
     @Test
     public void sendEventShouldSendMessageOnProperEventInput() throws Exception {
         String content = "Simple String";
@@ -224,4 +241,63 @@ public class EventSinkImplTest {
         verify(mockClientProducer).send(any(ClientMessage.class));
     }
 
+    @Test
+    public void eventsAreSentIndividuallyWhenBatchingDisabled() throws Exception {
+        EventSinkImpl sink = this.createBatchingEventSink(1, true);
+
+        for (int i = 0; i < 3; ++i) {
+            sink.emitOwnerCreated(o);
+        }
+
+        sink.sendEvents();
+
+        verify(mockClientProducer, times(3)).send(any(ClientMessage.class));
+        verify(mockClientMessage, never()).putIntProperty(eq(EventSinkImpl.EVENT_BATCH_SIZE_KEY), anyInt());
+        verify(mockClientSession, never()).createMessage(ClientMessage.BYTES_TYPE, true);
+    }
+
+    @Test
+    public void eventsAreGroupedIntoBatches() throws Exception {
+        EventSinkImpl sink = this.createBatchingEventSink(3, false);
+
+        for (int i = 0; i < 7; ++i) {
+            sink.emitOwnerCreated(o);
+        }
+
+        // Full batches are sent as they fill up...
+        verify(mockClientProducer, times(2)).send(any(ClientMessage.class));
+
+        // ...and the remainder is flushed when the events are sent
+        sink.sendEvents();
+
+        verify(mockClientProducer, times(3)).send(any(ClientMessage.class));
+        verify(mockClientMessage, times(2)).putIntProperty(EventSinkImpl.EVENT_BATCH_SIZE_KEY, 3);
+        verify(mockClientSession).commit();
+    }
+
+    @Test
+    public void batchedEventsCanBeCompressed() throws Exception {
+        EventSinkImpl sink = this.createBatchingEventSink(2, true);
+
+        sink.emitOwnerCreated(o);
+        sink.emitOwnerCreated(o);
+        sink.sendEvents();
+
+        verify(mockClientSession).createMessage(ClientMessage.BYTES_TYPE, true);
+        verify(mockClientMessage).putStringProperty(EventSinkImpl.EVENT_ENCODING_KEY,
+            EventSinkImpl.EVENT_ENCODING_GZIP);
+        verify(mockClientProducer, times(1)).send(any(ClientMessage.class));
+    }
+
+    @Test
+    public void pendingBatchIsDiscardedOnRollback() throws Exception {
+        EventSinkImpl sink = this.createBatchingEventSink(10, false);
+
+        sink.emitOwnerCreated(o);
+        sink.emitOwnerCreated(o);
+        sink.rollback();
+
+        verify(mockClientProducer, never()).send(any(ClientMessage.class));
+        verify(mockClientSession).rollback();
+    }
 }
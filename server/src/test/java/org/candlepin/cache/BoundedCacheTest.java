@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+
+
+/**
+ * Test suite for the BoundedCache class
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void testInvalidArgumentsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>("test", -1));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>("test", 10, -1));
+    }
+
+    @Test
+    public void testDisabledCacheRetainsNothing() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 0);
+        assertFalse(cache.isEnabled());
+
+        cache.put("key", "value");
+        assertNull(cache.get("key"));
+        assertEquals("value", cache.compute("key", (key, current) -> "value"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedValueIsEvicted() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 2);
+
+        cache.put("key1", "value1");
+        cache.put("key2", "value2");
+        cache.get("key1");
+        cache.put("key3", "value3");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("key2"));
+        assertEquals("value1", cache.get("key1"));
+        assertEquals("value3", cache.get("key3"));
+        assertEquals(2L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+        assertEquals(1L, cache.getEvictions());
+    }
+
+    @Test
+    public void testUnusableValueIsRetainedAndCountedAsMiss() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10);
+        cache.put("key", "value");
+
+        assertNull(cache.get("key", value -> false));
+        assertEquals("value", cache.get("key", value -> true));
+        assertEquals(1L, cache.getHits());
+        assertEquals(1L, cache.getMisses());
+    }
+
+    @Test
+    public void testComputeRetainsReturnedInstance() {
+        BoundedCache<String, StringBuilder> cache = new BoundedCache<>("test", 10);
+        StringBuilder value = new StringBuilder("a");
+
+        assertSame(value, cache.compute("key", (key, current) -> value));
+        assertSame(value, cache.compute("key", (key, current) -> current.append('b')));
+        assertEquals("ab", cache.get("key").toString());
+
+        assertNull(cache.compute("key", (key, current) -> null));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getHits());
+        assertEquals(0L, cache.getMisses());
+    }
+
+    @Test
+    public void testRemoveIf() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>("test", 10);
+        cache.put("a1", 1);
+        cache.put("a2", 2);
+        cache.put("b1", 3);
+
+        assertEquals(2, cache.removeIf((key, value) -> key.startsWith("a")));
+        assertEquals(1, cache.size());
+        assertEquals(Integer.valueOf(3), cache.get("b1"));
+    }
+
+    @Test
+    public void testStatisticsIncludeRegisteredStatistics() {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>("test", 5)
+            .addStatistic("extra", () -> 42L);
+
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("missing");
+
+        Map<String, Object> stats = cache.getStatistics();
+        assertEquals(true, stats.get("enabled"));
+        assertEquals(1, stats.get("size"));
+        assertEquals(5, stats.get("maxSize"));
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0L, stats.get("evictions"));
+        assertEquals(42L, stats.get("extra"));
+    }
+}
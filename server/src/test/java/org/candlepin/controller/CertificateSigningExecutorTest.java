@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Test suite for the CertificateSigningExecutor class
+ */
+public class CertificateSigningExecutorTest {
+
+    @Test
+    public void testNegativeThreadCountRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CertificateSigningExecutor(-1));
+    }
+
+    @Test
+    public void testZeroThreadsUsesAvailableProcessors() {
+        CertificateSigningExecutor signer = new CertificateSigningExecutor(0);
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), signer.getParallelism());
+        assertEquals(signer.getParallelism() > 1, signer.isParallel());
+    }
+
+    @Test
+    public void testSingleThreadRunsOnCallingThread() {
+        CertificateSigningExecutor signer = new CertificateSigningExecutor(1);
+        Thread caller = Thread.currentThread();
+        Thread[] runner = new Thread[1];
+
+        assertFalse(signer.isParallel());
+        signer.getExecutor().execute(() -> runner[0] = Thread.currentThread());
+
+        assertEquals(caller, runner[0]);
+    }
+
+    @Test
+    public void testMultipleThreadsRunOnWorkers() throws Exception {
+        CertificateSigningExecutor signer = new CertificateSigningExecutor(4);
+
+        assertTrue(signer.isParallel());
+        assertEquals(4, signer.getParallelism());
+
+        Thread worker = CompletableFuture.supplyAsync(Thread::currentThread, signer.getExecutor())
+            .get(10, TimeUnit.SECONDS);
+
+        assertNotEquals(Thread.currentThread(), worker);
+        assertTrue(worker.isDaemon());
+        assertTrue(worker.getName().startsWith("cert-signer-"));
+    }
+}
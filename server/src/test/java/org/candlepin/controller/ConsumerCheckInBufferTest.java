@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.Map;
+
+
+
+/**
+ * Test suite for the ConsumerCheckInBuffer class
+ */
+@ExtendWith(MockitoExtension.class)
+public class ConsumerCheckInBufferTest {
+
+    @Mock private ConsumerCurator mockConsumerCurator;
+
+    private Consumer buildConsumer(String id) {
+        Consumer consumer = new Consumer();
+        consumer.setId(id);
+
+        return consumer;
+    }
+
+    @Test
+    public void testNegativeIntervalRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ConsumerCheckInBuffer(this.mockConsumerCurator, -1));
+    }
+
+    @Test
+    public void testZeroIntervalWritesImmediately() {
+        ConsumerCheckInBuffer buffer = new ConsumerCheckInBuffer(this.mockConsumerCurator, 0);
+        Consumer consumer = this.buildConsumer("c1");
+        Date date = new Date();
+
+        assertFalse(buffer.isBuffering());
+        buffer.checkIn(consumer, date);
+
+        verify(this.mockConsumerCurator, times(1)).updateLastCheckin(consumer, date);
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void testCheckInsCoalescedPerConsumer() {
+        ConsumerCheckInBuffer buffer = new ConsumerCheckInBuffer(this.mockConsumerCurator, 3600);
+        Consumer consumer1 = this.buildConsumer("c1");
+        Consumer consumer2 = this.buildConsumer("c2");
+        Date early = new Date(1000);
+        Date late = new Date(2000);
+
+        assertTrue(buffer.isBuffering());
+        buffer.checkIn(consumer1, late);
+        buffer.checkIn(consumer1, early);
+        buffer.checkIn(consumer2, early);
+
+        verify(this.mockConsumerCurator, never()).updateLastCheckin(consumer1, late);
+        assertEquals(2, buffer.getPendingCount());
+
+        assertEquals(2, buffer.flush());
+
+        ArgumentCaptor<Map<String, Date>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(this.mockConsumerCurator, times(1)).updateLastCheckins(captor.capture());
+
+        Map<String, Date> checkins = captor.getValue();
+        assertEquals(2, checkins.size());
+        assertEquals(late, checkins.get("c1"));
+        assertEquals(early, checkins.get("c2"));
+        assertEquals(0, buffer.getPendingCount());
+
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testFailedFlushRetainsCheckIns() {
+        ConsumerCheckInBuffer buffer = new ConsumerCheckInBuffer(this.mockConsumerCurator, 3600);
+        buffer.checkIn(this.buildConsumer("c1"), new Date());
+
+        doThrow(new RuntimeException("db down")).when(this.mockConsumerCurator).updateLastCheckins(anyMap());
+
+        assertThrows(RuntimeException.class, buffer::flush);
+        assertEquals(1, buffer.getPendingCount());
+
+        buffer.shutdown();
+    }
+
+    @Test
+    public void testShutdownFlushesAndWritesImmediatelyAfterward() {
+        ConsumerCheckInBuffer buffer = new ConsumerCheckInBuffer(this.mockConsumerCurator, 3600);
+        Consumer consumer = this.buildConsumer("c1");
+        buffer.checkIn(consumer, new Date());
+
+        buffer.shutdown();
+
+        verify(this.mockConsumerCurator, times(1)).updateLastCheckins(anyMap());
+        assertEquals(0, buffer.getPendingCount());
+
+        Date date = new Date();
+        buffer.checkIn(consumer, date);
+        verify(this.mockConsumerCurator, times(1)).updateLastCheckin(consumer, date);
+    }
+}
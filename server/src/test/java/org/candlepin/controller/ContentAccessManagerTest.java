@@ -54,6 +54,7 @@ import org.candlepin.pki.impl.DefaultSubjectKeyIdentifierWriter;
 import org.candlepin.pki.impl.JSSPKIUtility;
 import org.candlepin.pki.impl.JSSPrivateKeyReader;
 import org.candlepin.test.TestUtil;
+import org.candlepin.util.ContentAccessPayloadCache;
 import org.candlepin.util.Util;
 import org.candlepin.util.X509V3ExtensionUtil;
 
@@ -107,6 +108,7 @@ public class ContentAccessManagerTest {
     private PKIUtility pkiUtility;
     private ObjectMapper objMapper;
     private X509V3ExtensionUtil x509V3ExtensionUtil;
+    private ContentAccessPayloadCache payloadCache;
 
     private final String entitlementMode = ContentAccessMode.ENTITLEMENT.toDatabaseValue();
     private final String orgEnvironmentMode = ContentAccessMode.ORG_ENVIRONMENT.toDatabaseValue();
@@ -135,6 +137,7 @@ public class ContentAccessManagerTest {
         this.pkiUtility = spy(new JSSPKIUtility(certReader, keyIdWriter, this.config));
 
         this.objMapper = new ObjectMapper();
+        this.payloadCache = new ContentAccessPayloadCache(0, 0);
         this.x509V3ExtensionUtil = spy(new X509V3ExtensionUtil(this.config, this.mockEntitlementCurator,
             this.objMapper));
 
@@ -165,7 +168,7 @@ public class ContentAccessManagerTest {
             this.mockKeyPairCurator, this.mockCertSerialCurator, this.mockOwnerContentCurator,
             this.mockOwnerCurator, this.mockOwnerEnvContentAccessCurator, this.mockConsumerCurator,
             this.mockConsumerTypeCurator, this.mockEnvironmentCurator, this.mockContentAccessCertCurator,
-            this.mockEventSink);
+            this.mockEventSink, this.payloadCache);
     }
 
     private Owner mockOwner() {
@@ -529,6 +532,48 @@ public class ContentAccessManagerTest {
         assertEquals(expected, content.getPath());
     }
 
+    @Test
+    public void testContentPayloadIsCachedPerOwnerAndEnvironment() throws Exception {
+        this.payloadCache = new ContentAccessPayloadCache(10, 300);
+
+        Owner owner = this.mockOwner();
+        Consumer consumer = this.mockConsumer(owner);
+        Content content = this.mockContent(owner);
+        this.mockProduct(content);
+
+        ContentAccessManager manager = this.createManager();
+        assertNull(manager.getContentAccessETag(consumer));
+
+        String first = manager.getCertificate(consumer).getCert();
+        String etag = manager.getContentAccessETag(consumer);
+        String second = manager.getCertificate(consumer).getCert();
+
+        assertEquals(first, second);
+        assertNotNull(etag);
+        assertEquals(etag, manager.getContentAccessETag(consumer));
+        verify(this.mockOwnerEnvContentAccessCurator, times(1)).getContentAccess(eq(owner.getId()), isNull());
+    }
+
+    @Test
+    public void testRefreshOwnerInvalidatesCachedContentPayload() throws Exception {
+        this.payloadCache = new ContentAccessPayloadCache(10, 300);
+
+        Owner owner = this.mockOwner();
+        Consumer consumer = this.mockConsumer(owner);
+        Content content = this.mockContent(owner);
+        this.mockProduct(content);
+
+        ContentAccessManager manager = this.createManager();
+        manager.getCertificate(consumer);
+        assertNotNull(manager.getContentAccessETag(consumer));
+
+        manager.refreshOwnerForContentAccess(owner);
+
+        assertNull(manager.getContentAccessETag(consumer));
+        manager.getCertificate(consumer);
+        verify(this.mockOwnerEnvContentAccessCurator, times(2)).getContentAccess(eq(owner.getId()), isNull());
+    }
+
     @Test
     public void testContentPrefixShouldBeOmittedInHosted() throws Exception {
         this.config.setProperty(ConfigProperties.STANDALONE, "false");
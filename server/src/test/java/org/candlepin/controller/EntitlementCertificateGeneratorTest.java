@@ -61,6 +61,7 @@ import org.mockito.quality.Strictness;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -70,6 +71,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 
 
@@ -328,6 +331,52 @@ public class EntitlementCertificateGeneratorTest {
         verify(this.mockEventSink, times(1)).queueEvent(any(Event.class));
     }
 
+    @Test
+    public void testParallelRegenerationForProductById() throws Exception {
+        this.ecGenerator = new EntitlementCertificateGenerator(this.mockEntCertCurator,
+            this.mockEntCertAdapter, this.mockEntitlementCurator, this.mockPoolCurator,
+            this.mockEventSink, this.mockEventFactory, this.mockProductCurator,
+            this.mockContentAccessManager, this.mockOwnerCurator, new CertificateSigningExecutor(2), 1);
+
+        Owner owner = TestUtil.createOwner("test-owner", "Test Owner");
+        Product product = TestUtil.createProduct();
+        Pool pool = TestUtil.createPool(owner, product);
+        Entitlement entitlement1 = TestUtil.createEntitlement(owner, TestUtil.createConsumer(owner), pool,
+            null);
+        Entitlement entitlement2 = TestUtil.createEntitlement(owner, TestUtil.createConsumer(owner), pool,
+            null);
+        entitlement1.setDirty(true);
+        entitlement2.setDirty(true);
+        pool.setEntitlements(new HashSet<>(Arrays.asList(entitlement1, entitlement2)));
+
+        when(this.mockPoolCurator.listAvailableEntitlementPools(isNull(), eq(owner),
+            eq(product.getId()), any(Date.class))).thenReturn(Arrays.asList(pool));
+        when(this.mockEntCertAdapter.generateEntitlementCertsAsync(any(Consumer.class), any(Map.class),
+            any(Map.class), any(Map.class), any(Executor.class))).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(
+                    Collections.singletonMap(pool.getId(), new EntitlementCertificate())));
+        when(mockEventFactory.entitlementChanged(any(Entitlement.class))).thenReturn(mock(Event.class));
+
+        List<Integer> progress = new ArrayList<>();
+        this.ecGenerator.regenerateCertificatesOf(owner, product.getId(), false,
+            (processed, total) -> progress.add(processed));
+
+        assertFalse(entitlement1.isDirty());
+        assertFalse(entitlement2.isDirty());
+        assertEquals(1, entitlement1.getCertificates().size());
+        assertEquals(1, entitlement2.getCertificates().size());
+
+        // One signing batch per consumer, each persisted separately with a batch size of one
+        verify(this.mockEntCertAdapter, times(2)).generateEntitlementCertsAsync(any(Consumer.class),
+            any(Map.class), any(Map.class), any(Map.class), any(Executor.class));
+        verify(this.mockEntCertCurator, times(2)).deleteByEntitlementIds(any(Iterable.class));
+        verify(this.mockEntitlementCurator, times(2)).saveOrUpdateAll(any(Collection.class), eq(true),
+            eq(false));
+        verify(this.mockEventSink, times(2)).queueEvent(any(Event.class));
+
+        assertEquals(Integer.valueOf(2), progress.get(progress.size() - 1));
+    }
+
     @Test
     public void testLazyRegenerateForConsumer() {
         Entitlement entitlement = new Entitlement();
@@ -16,12 +16,14 @@ package org.candlepin.controller;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.nullable;
 import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -51,6 +53,7 @@ import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.sync.ConflictOverrides;
+import org.candlepin.sync.ExportCreationException;
 import org.candlepin.sync.ExportResult;
 import org.candlepin.sync.Exporter;
 import org.candlepin.sync.Importer;
@@ -64,6 +67,7 @@ import org.candlepin.util.Util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -73,6 +77,8 @@ import org.xnap.commons.i18n.I18nFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -401,6 +407,60 @@ public class ManifestManagerTest {
         verify(responseOutputStream).flush();
     }
 
+    @Test
+    public void testWriteManifestToResponse(@TempDir Path tempDir) throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream responseOutputStream = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(responseOutputStream);
+
+        Consumer consumer = this.createMockConsumer(true);
+        Cdn cdn = new Cdn("test-cdn", "Test CDN", "");
+        Map<String, String> extData = new HashMap<>();
+
+        File exportDir = Files.createDirectory(tempDir.resolve("export")).toFile();
+        File archive = new File(exportDir, "export.zip");
+        Files.write(archive.toPath(), new byte[] { 1, 2, 3 });
+
+        Event event = mock(Event.class);
+        when(eventFactory.exportCreated(eq(consumer))).thenReturn(event);
+        when(consumerCurator.verifyAndLookupConsumer(eq(consumer.getUuid()))).thenReturn(consumer);
+        when(cdnCurator.getByLabel(eq(cdn.getLabel()))).thenReturn(cdn);
+        when(exporter.getFullExport(eq(consumer), eq(cdn.getLabel()), eq("webapp-prefix"),
+            eq("api-url"), eq(extData))).thenReturn(archive);
+
+        manager.writeManifestToResponse(consumer.getUuid(), cdn.getLabel(), "webapp-prefix", "api-url",
+            extData, response);
+
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer));
+        verify(response).setContentType("application/zip");
+        verify(response).setHeader(eq("Content-Disposition"),
+            eq("attachment; filename=" + consumer.getUuid() + "-export.zip"));
+        verify(responseOutputStream).write(any(byte[].class), eq(0), eq(3));
+        verify(responseOutputStream).flush();
+        verify(eventSink).queueEvent(eq(event));
+
+        // The staged archive is removed once it has been written
+        assertFalse(exportDir.exists());
+    }
+
+    @Test
+    public void testWriteManifestToResponseLeavesResponseUntouchedOnFailure() throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+
+        Consumer consumer = this.createMockConsumer(true);
+        when(consumerCurator.verifyAndLookupConsumer(eq(consumer.getUuid()))).thenReturn(consumer);
+
+        doThrow(new ExportCreationException("failed")).when(exporter).getFullExport(eq(consumer),
+            nullable(String.class), nullable(String.class), nullable(String.class), any(Map.class));
+
+        assertThrows(ExportCreationException.class, () -> manager.writeManifestToResponse(
+            consumer.getUuid(), null, null, null, new HashMap<>(), response));
+
+        // Nothing may be committed to the response until the export is complete
+        verifyZeroInteractions(response);
+        verifyZeroInteractions(eventSink);
+    }
+
     @Test
     public void testWriteStoredExportToResponseFailsWhenManifestFileNotFound() throws Exception {
         HttpServletResponse response = mock(HttpServletResponse.class);
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfoCounters;
+import org.candlepin.model.OwnerInfoCurator;
+import org.candlepin.test.TestUtil;
+
+import com.google.inject.persist.UnitOfWork;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+
+
+/**
+ * Test suite for the OwnerInfoReconciler class
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OwnerInfoReconcilerTest {
+
+    @Mock private OwnerCurator mockOwnerCurator;
+    @Mock private OwnerInfoCurator mockOwnerInfoCurator;
+    @Mock private OwnerInfoCounters mockOwnerInfoCounters;
+    @Mock private UnitOfWork mockUnitOfWork;
+
+    private OwnerInfoReconciler buildReconciler(long interval) {
+        return new OwnerInfoReconciler(this.mockOwnerCurator, this.mockOwnerInfoCurator,
+            this.mockOwnerInfoCounters, this.mockUnitOfWork, interval);
+    }
+
+    @Test
+    public void testNegativeIntervalRejected() {
+        assertThrows(IllegalArgumentException.class, () -> this.buildReconciler(-1));
+    }
+
+    @Test
+    public void testEnabledRequiresIntervalAndCaching() {
+        doReturn(true).when(this.mockOwnerInfoCounters).isEnabled();
+        assertTrue(this.buildReconciler(60).isEnabled());
+        assertFalse(this.buildReconciler(0).isEnabled());
+
+        doReturn(false).when(this.mockOwnerInfoCounters).isEnabled();
+        assertFalse(this.buildReconciler(60).isEnabled());
+    }
+
+    @Test
+    public void testReconcileRefreshesCachedOwners() {
+        Owner owner = TestUtil.createOwner("test_owner");
+
+        doReturn(true).when(this.mockOwnerInfoCounters).isEnabled();
+        doReturn(new HashSet<>(Arrays.asList(owner.getId(), "deleted-owner")))
+            .when(this.mockOwnerInfoCounters).getOwnerIds();
+        doReturn(owner).when(this.mockOwnerCurator).get(owner.getId());
+
+        assertEquals(1, this.buildReconciler(60).reconcile());
+
+        verify(this.mockOwnerInfoCurator).refresh(owner);
+        verify(this.mockOwnerInfoCounters).invalidate("deleted-owner");
+        verify(this.mockOwnerInfoCounters, never()).invalidate(owner.getId());
+        verify(this.mockUnitOfWork).begin();
+        verify(this.mockUnitOfWork).end();
+    }
+
+    @Test
+    public void testReconcileEndsUnitOfWorkOnFailure() {
+        Owner owner = TestUtil.createOwner("test_owner");
+
+        doReturn(true).when(this.mockOwnerInfoCounters).isEnabled();
+        doReturn(Collections.singleton(owner.getId())).when(this.mockOwnerInfoCounters).getOwnerIds();
+        doReturn(owner).when(this.mockOwnerCurator).get(owner.getId());
+        doThrow(new RuntimeException("kaboom")).when(this.mockOwnerInfoCurator).refresh(owner);
+
+        OwnerInfoReconciler reconciler = this.buildReconciler(60);
+
+        assertThrows(RuntimeException.class, reconciler::reconcile);
+        verify(this.mockUnitOfWork).end();
+    }
+
+    @Test
+    public void testReconcileDoesNothingWhenCachingDisabled() {
+        doReturn(false).when(this.mockOwnerInfoCounters).isEnabled();
+
+        assertEquals(0, this.buildReconciler(60).reconcile());
+
+        verifyZeroInteractions(this.mockOwnerCurator, this.mockOwnerInfoCurator, this.mockUnitOfWork);
+    }
+}
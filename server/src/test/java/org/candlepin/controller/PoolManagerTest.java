@@ -28,6 +28,7 @@ import static org.mockito.Mockito.anyCollectionOf;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyListOf;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyMap;
 import static org.mockito.Mockito.anyMapOf;
 import static org.mockito.Mockito.anySetOf;
@@ -85,6 +86,7 @@ import org.candlepin.model.Eventful;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerContentCurator;
 import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerInfoCounters;
 import org.candlepin.model.OwnerProductCurator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Pool.PoolType;
@@ -103,6 +105,7 @@ import org.candlepin.policy.SystemPurposeComplianceRules;
 import org.candlepin.policy.ValidationError;
 import org.candlepin.policy.ValidationResult;
 import org.candlepin.policy.activationkey.ActivationKeyRules;
+import org.candlepin.policy.js.JsRunnerProvider;
 import org.candlepin.policy.js.autobind.AutobindRules;
 import org.candlepin.policy.js.compliance.ComplianceRules;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
@@ -149,6 +152,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -189,6 +193,7 @@ public class PoolManagerTest {
     @Mock private BindChainFactory mockBindChainFactory;
     @Mock private BindContextFactory mockBindContextFactory;
     @Mock private PreEntitlementRulesCheckOpFactory mockPreEntitlementRulesCheckFactory;
+    @Mock private JsRunnerProvider mockJsRunnerProvider;
 
     private CandlepinPoolManager manager;
     private UserPrincipal principal;
@@ -223,7 +228,7 @@ public class PoolManagerTest {
             mockECGenerator, complianceRules, systemPurposeComplianceRules, autobindRules,
             activationKeyRules, mockProductCurator, mockProductManager, mockContentManager,
             mockOwnerContentCurator, mockOwnerCurator, mockOwnerProductCurator, mockOwnerManager,
-            mockCdnCurator, i18n, mockBindChainFactory
+            mockCdnCurator, i18n, mockBindChainFactory, mockJsRunnerProvider
         ));
 
         setupBindChain();
@@ -278,7 +283,8 @@ public class PoolManagerTest {
 
     private void setupBindChain() {
         final HandleEntitlementsOp entitlementsOp =
-            new HandleEntitlementsOp(mockPoolCurator, entitlementCurator);
+            new HandleEntitlementsOp(mockPoolCurator, entitlementCurator,
+            new OwnerInfoCounters(null, consumerTypeCuratorMock, 0));
         final PostBindBonusPoolsOp postBindBonusPoolsOp = new PostBindBonusPoolsOp(manager,
             consumerTypeCuratorMock, mockPoolCurator, enforcerMock);
         final CheckBonusPoolQuantitiesOp checkBonusPoolQuantitiesOp = new CheckBonusPoolQuantitiesOp(manager);
@@ -479,6 +485,172 @@ public class PoolManagerTest {
         TestUtil.assertPoolsAreEqual(TestUtil.copyFromSub(sub), argPool.getValue());
     }
 
+    private Subscription setupFingerprintedRefresh(Owner owner, Product product, String fingerprint) {
+        Subscription sub = TestUtil.createSubscription(owner, product);
+        sub.setId("testing-subid");
+
+        Pool pool = TestUtil.createPool(product);
+        pool.setSourceSubscription(new SourceSubscription(sub.getId(), "master"));
+        pool.setOwner(owner);
+        List<Pool> pools = Arrays.asList(pool);
+
+        this.mockSubscriptions(owner, Arrays.asList(sub));
+        mockPoolsList(pools);
+        when(mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        this.mockProducts(owner, product);
+        this.mockProductImport(owner, product);
+        this.mockContentImport(owner, new Content[] {});
+
+        CandlepinQuery<Pool> cqmock = mock(CandlepinQuery.class);
+        when(cqmock.list()).thenReturn(pools);
+        when(cqmock.iterator()).thenReturn(pools.iterator());
+        when(mockPoolCurator.listByOwnerAndType(eq(owner), any(PoolType.class))).thenReturn(cqmock);
+
+        Map<String, String> fingerprints = new HashMap<>();
+        fingerprints.put(sub.getId(), fingerprint != null ? fingerprint :
+            SubscriptionFingerprinter.fingerprint(sub, Collections.singletonMap(product.getId(), product),
+            this.manager.getRefreshRulesVersion()));
+        when(mockPoolCurator.getMasterPoolFingerprints(eq(owner))).thenReturn(fingerprints);
+
+        return sub;
+    }
+
+    @Test
+    public void testRefreshPoolsSkipsUnchangedSubscriptions() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+        Subscription sub = this.setupFingerprintedRefresh(owner, product, null);
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, true);
+
+        assertEquals(0, result.getUpdatedCount());
+        assertEquals(1, result.getSkippedCount());
+        verify(this.manager, never()).refreshPoolsForMasterPool(any(Pool.class), anyBoolean(),
+            anyBoolean(), any(Map.class));
+
+        // Skipped subscriptions must still protect their pools from deletion
+        verify(mockPoolCurator).getPoolsFromBadSubs(eq(owner), eq(Collections.singleton(sub.getId())));
+    }
+
+    @Test
+    public void testRefreshPoolsUpdatesChangedSubscriptions() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+        Subscription sub = this.setupFingerprintedRefresh(owner, product, "stale-fingerprint");
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, true);
+
+        assertEquals(1, result.getUpdatedCount());
+        assertEquals(0, result.getSkippedCount());
+
+        ArgumentCaptor<Pool> argPool = ArgumentCaptor.forClass(Pool.class);
+        verify(this.manager).refreshPoolsForMasterPool(argPool.capture(), eq(false), eq(true),
+            any(Map.class));
+
+        String expected = SubscriptionFingerprinter.fingerprint(sub,
+            Collections.singletonMap(product.getId(), product), this.manager.getRefreshRulesVersion());
+        assertEquals(expected, argPool.getValue().getSubscriptionFingerprint());
+    }
+
+    @Test
+    public void testRefreshPoolsUpdatesSubscriptionsAfterRulesUpgrade() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+
+        when(mockJsRunnerProvider.getRulesVersion()).thenReturn("5.40");
+        this.setupFingerprintedRefresh(owner, product, null);
+        when(mockJsRunnerProvider.getRulesVersion()).thenReturn("5.41");
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, true);
+
+        assertEquals(1, result.getUpdatedCount());
+        assertEquals(0, result.getSkippedCount());
+    }
+
+    @Test
+    public void testNonLazyRefreshPoolsUpdatesUnchangedSubscriptions() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+        this.setupFingerprintedRefresh(owner, product, null);
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, false);
+
+        assertEquals(1, result.getUpdatedCount());
+        assertEquals(0, result.getSkippedCount());
+        verify(this.manager).refreshPoolsForMasterPool(any(Pool.class), eq(false), eq(false),
+            any(Map.class));
+    }
+
+    @Test
+    public void testRefreshPoolsUpdatesUnchangedSubscriptionsMissingBonusPool() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+        product.setAttribute(Product.Attributes.VIRT_LIMIT, "4");
+        this.setupFingerprintedRefresh(owner, product, null);
+
+        when(poolRulesMock.requiresBonusPool(eq(product))).thenReturn(true);
+        when(mockPoolCurator.getBonusPoolSubscriptionIds(eq(owner))).thenReturn(Collections.emptySet());
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, true);
+
+        assertEquals(1, result.getUpdatedCount());
+        assertEquals(0, result.getSkippedCount());
+    }
+
+    @Test
+    public void testRefreshPoolsInBatches() {
+        Owner owner = this.getOwner();
+        Product product = TestUtil.createProduct();
+        List<Subscription> subscriptions = new ArrayList<>();
+        List<Pool> pools = new ArrayList<>();
+
+        for (int i = 0; i < 3; ++i) {
+            Subscription sub = TestUtil.createSubscription(owner, product);
+            sub.setId("testing-subid-" + i);
+            subscriptions.add(sub);
+
+            Pool pool = TestUtil.createPool(product);
+            pool.setId("pool-" + i);
+            pool.setSourceSubscription(new SourceSubscription(sub.getId(), "master"));
+            pool.setOwner(owner);
+            pools.add(pool);
+        }
+
+        this.mockSubscriptions(owner, subscriptions);
+        mockPoolsList(pools);
+        when(mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        this.mockProducts(owner, product);
+        this.mockProductImport(owner, product);
+        this.mockContentImport(owner, new Content[] {});
+        when(mockConfig.getInt(eq(ConfigProperties.POOL_REFRESH_BATCH_SIZE))).thenReturn(2);
+
+        when(mockPoolCurator.getPoolsBySubscriptionIds(any(Collection.class))).thenAnswer(iom -> {
+            Collection<String> subIds = (Collection<String>) iom.getArguments()[0];
+            List<Pool> matched = pools.stream()
+                .filter(pool -> subIds.contains(pool.getSubscriptionId()))
+                .collect(Collectors.toList());
+
+            CandlepinQuery<Pool> cqmock = mock(CandlepinQuery.class);
+            when(cqmock.list()).thenReturn(matched);
+            return cqmock;
+        });
+
+        RefreshResult result = this.manager.refreshPoolsWithRegeneration(mockSubAdapter, owner, false);
+
+        assertEquals(3, result.getUpdatedCount());
+
+        // Three subscriptions in batches of two should be refreshed with two lookups
+        verify(mockPoolCurator, times(2)).getPoolsBySubscriptionIds(any(Collection.class));
+        verify(mockPoolCurator, never()).getPoolsBySubscriptionId(anyString());
+        verify(this.manager, never()).refreshPoolsForMasterPool(any(Pool.class), anyBoolean(),
+            anyBoolean(), any(Map.class));
+
+        for (Pool pool : pools) {
+            verify(poolRulesMock).updatePools(any(Pool.class), eq(Collections.singletonList(pool)),
+                anyLong(), any(Map.class));
+        }
+    }
+
     private void mockSubscriptions(Owner owner, Collection<? extends SubscriptionInfo> subscriptions) {
         Set<String> sids = new HashSet<>();
 
@@ -83,6 +83,24 @@ public class RefresherTest {
         verify(ownerManager).updateRefreshDate(owner);
     }
 
+    @Test
+    public void testRefreshCountsAccumulated() {
+        Owner owner1 = TestUtil.createOwner();
+        Owner owner2 = TestUtil.createOwner();
+
+        when(poolManager.refreshPoolsWithRegeneration(eq(subAdapter), eq(owner1), eq(false)))
+            .thenReturn(new RefreshResult(2, 3));
+        when(poolManager.refreshPoolsWithRegeneration(eq(subAdapter), eq(owner2), eq(false)))
+            .thenReturn(new RefreshResult(1, 4));
+
+        refresher.add(owner1);
+        refresher.add(owner2);
+        refresher.run();
+
+        assertEquals(3, refresher.getUpdatedSubscriptionCount());
+        assertEquals(7, refresher.getSkippedSubscriptionCount());
+    }
+
     @Test
     public void testProductOnlyExaminedOnce() {
         Product product = TestUtil.createProduct();
@@ -259,6 +259,24 @@ public class CandlepinContextListenerTest {
         assertThrows(RuntimeException.class, () -> listener.contextInitialized(evt));
     }
 
+    @Test
+    public void unknownRulesEngineAbortsInitialization() {
+        when(config.getString(eq(ConfigProperties.COMPLIANCE_ENGINE), any())).thenReturn("natvie");
+        prepareForInitialization();
+
+        assertThrows(RuntimeException.class, () -> listener.contextInitialized(evt));
+        verifyZeroInteractions(hqlistener);
+    }
+
+    @Test
+    public void unknownManifestStoreAbortsInitialization() {
+        when(config.getString(eq(ConfigProperties.MANIFEST_STORE), any())).thenReturn("filesytem");
+        prepareForInitialization();
+
+        assertThrows(RuntimeException.class, () -> listener.contextInitialized(evt));
+        verifyZeroInteractions(hqlistener);
+    }
+
     @Test
     public void exitStageLeft() {
         assertEquals(Stage.PRODUCTION, listener.getStage(ctx));
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.test.MockResultIterator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * Test suite for the AppendedCandlepinQuery class
+ */
+public class AppendedCandlepinQueryTest {
+
+    private CandlepinQuery<String> query;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        this.query = mock(CandlepinQuery.class);
+
+        doReturn(new MockResultIterator<>(Arrays.asList("a", "b").iterator()))
+            .when(this.query).iterate(anyInt(), anyBoolean());
+        doReturn(new ArrayList<>(Arrays.asList("a", "b"))).when(this.query).list();
+        doReturn(2).when(this.query).getRowCount();
+    }
+
+    @Test
+    public void testRequiresQuery() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new AppendedCandlepinQuery<>(null, Collections.singletonList("c")));
+    }
+
+    @Test
+    public void testIterateAppendsElements() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c", "d");
+
+        List<String> output = new ArrayList<>();
+        ResultIterator<String> iterator = appended.iterate();
+        while (iterator.hasNext()) {
+            output.add(iterator.next());
+        }
+
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), output);
+    }
+
+    @Test
+    public void testListAppendsElements() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c");
+
+        assertEquals(Arrays.asList("a", "b", "c"), appended.list());
+        assertEquals(3, appended.getRowCount());
+    }
+
+    @Test
+    public void testTransformAppliesToAppendedElements() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c");
+
+        assertEquals(Arrays.asList("A", "B", "C"), appended.transform(String::toUpperCase).list());
+    }
+
+    @Test
+    public void testForEachStopsWhenProcessorReturnsFalse() {
+        CandlepinQuery<String> empty = mock(CandlepinQuery.class);
+        doReturn(0).when(empty).forEach(anyInt(), anyBoolean(), any(ResultProcessor.class));
+
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(empty, "c", "d");
+
+        List<String> output = new ArrayList<>();
+        int count = appended.forEach(element -> {
+            output.add(element);
+            return false;
+        });
+
+        assertEquals(1, count);
+        assertEquals(Collections.singletonList("c"), output);
+    }
+
+    @Test
+    public void testPagingIsAppliedToBaseQuery() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c");
+
+        appended.setFirstResult(5).setMaxResults(10);
+
+        verify(this.query).setFirstResult(eq(5));
+
+        // One row past the page is fetched to determine whether or not it is the last page
+        verify(this.query).setMaxResults(eq(11));
+    }
+
+    @Test
+    public void testElementsNotAppendedToIntermediatePage() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c");
+        appended.setMaxResults(1);
+
+        List<String> output = new ArrayList<>();
+        ResultIterator<String> iterator = appended.iterate();
+        while (iterator.hasNext()) {
+            output.add(iterator.next());
+        }
+
+        assertEquals(Collections.singletonList("a"), output);
+        assertEquals(Collections.singletonList("a"), appended.list());
+    }
+
+    @Test
+    public void testElementsAppendedToLastPage() {
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(this.query, "c");
+        appended.setMaxResults(2);
+
+        List<String> output = new ArrayList<>();
+        ResultIterator<String> iterator = appended.iterate();
+        while (iterator.hasNext()) {
+            output.add(iterator.next());
+        }
+
+        assertEquals(Arrays.asList("a", "b", "c"), output);
+        assertEquals(Arrays.asList("a", "b", "c"), appended.list());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testForEachOmitsElementsFromIntermediatePage() {
+        CandlepinQuery<String> base = mock(CandlepinQuery.class);
+        doAnswer(invocation -> {
+            ResultProcessor<String> processor = invocation.getArgument(2);
+            int count = 0;
+
+            for (String element : Arrays.asList("a", "b")) {
+                ++count;
+                if (!processor.process(element)) {
+                    break;
+                }
+            }
+
+            return count;
+        }).when(base).forEach(anyInt(), anyBoolean(), any(ResultProcessor.class));
+
+        AppendedCandlepinQuery<String> appended = new AppendedCandlepinQuery<>(base, "c");
+        appended.setMaxResults(1);
+
+        List<String> output = new ArrayList<>();
+        int count = appended.forEach((ResultProcessor<String>) output::add);
+
+        assertEquals(1, count);
+        assertEquals(Collections.singletonList("a"), output);
+    }
+
+}
@@ -2656,5 +2656,49 @@ public class AsyncJobStatusCuratorTest extends DatabaseTestFixture {
         this.validateJobStates(jobMap, Arrays.asList(), JobState.ABORTED);
     }
 
+    private AsyncJobStatus createLaneJob(String name, String key, JobState state, Owner owner) {
+        return this.createJob(name, key, state, owner, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    public void testGetJobCountsByLane() {
+        Owner owner1 = this.createOwner("owner-1");
+        Owner owner2 = this.createOwner("owner-2");
+
+        this.createLaneJob("job-1", "job_key-1", JobState.QUEUED, owner1);
+        this.createLaneJob("job-2", "job_key-1", JobState.QUEUED, owner1);
+        this.createLaneJob("job-3", "job_key-2", JobState.RUNNING, owner1);
+        this.createLaneJob("job-4", "job_key-1", JobState.QUEUED, owner2);
+        this.createLaneJob("job-5", "job_key-1", JobState.FINISHED, owner2);
+        this.createLaneJob("job-6", "job_key-3", JobState.QUEUED, null);
+
+        Map<String, Map<String, Long>> lanes = this.asyncJobCurator.getJobCountsByLane(null);
+
+        assertEquals(3, lanes.size());
+        assertEquals(2L, lanes.get("owner-1").get("job_key-1"));
+        assertEquals(1L, lanes.get("owner-1").get("job_key-2"));
+        assertEquals(1L, lanes.get("owner-2").get("job_key-1"));
+        assertEquals(1L, lanes.get(null).get("job_key-3"));
+
+        lanes = this.asyncJobCurator.getJobCountsByLane(Arrays.asList(JobState.RUNNING));
+
+        assertEquals(1, lanes.size());
+        assertEquals(1L, lanes.get("owner-1").get("job_key-2"));
+    }
+
+    @Test
+    public void testFetchJobIdsByOwner() {
+        Owner owner1 = this.createOwner("owner-1");
+        Owner owner2 = this.createOwner("owner-2");
+
+        AsyncJobStatus job1 = this.createLaneJob("job-1", "job_key-1", JobState.QUEUED, owner1);
+        this.createLaneJob("job-2", "job_key-1", JobState.FINISHED, owner1);
+        this.createLaneJob("job-3", "job_key-2", JobState.QUEUED, owner1);
+        this.createLaneJob("job-4", "job_key-1", JobState.QUEUED, owner2);
+
+        List<String> jobIds = this.asyncJobCurator.fetchJobIdsByOwner("job_key-1", owner1.getId());
+
+        assertEquals(Arrays.asList(job1.getId()), jobIds);
+    }
 
 }
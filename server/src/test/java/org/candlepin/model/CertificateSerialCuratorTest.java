@@ -326,6 +326,28 @@ public class CertificateSerialCuratorTest extends DatabaseTestFixture {
         assertEquals(null, certSerialCurator.listBySerialIds(null));
     }
 
+    @Test
+    public void testFindEntitlementSerialIds() {
+        Owner owner = this.createOwner();
+        Consumer consumer = this.createConsumer(owner);
+        Consumer other = this.createConsumer(owner);
+        Pool pool = this.createPool(owner, this.createProduct(owner));
+
+        EntitlementCertificate cert1 = this.createEntitlementCertificate(
+            this.createEntitlement(owner, consumer, pool), "key1", "cert1");
+        EntitlementCertificate cert2 = this.createEntitlementCertificate(
+            this.createEntitlement(owner, consumer, pool), "key2", "cert2");
+        EntitlementCertificate cert3 = this.createEntitlementCertificate(
+            this.createEntitlement(owner, other, pool), "key3", "cert3");
+
+        List<Long> serials = this.certSerialCurator.findEntitlementSerialIds(consumer).list();
+
+        assertEquals(2, serials.size());
+        assertTrue(serials.contains(cert1.getSerial().getId()));
+        assertTrue(serials.contains(cert2.getSerial().getId()));
+        assertFalse(serials.contains(cert3.getSerial().getId()));
+    }
+
     @Test
     public void certSerialCreateWithManuallySetId() {
         Long expectedSerialNumber = Util.generateUniqueLong();
@@ -923,6 +923,43 @@ public class ConsumerCuratorTest extends DatabaseTestFixture {
         assertTrue(consumer.getLastCheckin().getTime() > date.getTime());
     }
 
+    @Test
+    public void updateLastCheckins() throws Exception {
+        Consumer consumer1 = consumerCurator.create(new Consumer("consumer1", "testUser", owner, ct));
+        Consumer consumer2 = consumerCurator.create(new Consumer("consumer2", "testUser", owner, ct));
+        Consumer consumer3 = consumerCurator.create(new Consumer("consumer3", "testUser", owner, ct));
+        Date dt1 = ResourceDateParser.parseDateString("2011-09-26T18:10:50.184081+00:00");
+        Date dt2 = ResourceDateParser.parseDateString("2012-10-27T19:11:51.184081+00:00");
+
+        Map<String, Date> checkins = new HashMap<>();
+        checkins.put(consumer1.getId(), dt1);
+        checkins.put(consumer2.getId(), dt2);
+
+        assertEquals(2, consumerCurator.updateLastCheckins(checkins));
+        consumerCurator.refresh(consumer1, consumer2, consumer3);
+
+        assertEquals(dt1.getTime(), consumer1.getLastCheckin().getTime());
+        assertEquals(dt2.getTime(), consumer2.getLastCheckin().getTime());
+        assertNull(consumer3.getLastCheckin());
+    }
+
+    @Test
+    public void updateLastCheckinsNeverMovesBackwards() throws Exception {
+        Consumer consumer = consumerCurator.create(new Consumer("consumer1", "testUser", owner, ct));
+        Date older = ResourceDateParser.parseDateString("2011-09-26T18:10:50.184081+00:00");
+        Date newer = ResourceDateParser.parseDateString("2012-10-27T19:11:51.184081+00:00");
+
+        consumerCurator.updateLastCheckin(consumer, newer);
+
+        Map<String, Date> checkins = Collections.singletonMap(consumer.getId(), older);
+
+        assertEquals(0, consumerCurator.updateLastCheckins(checkins));
+        consumerCurator.refresh(consumer);
+
+        assertEquals(newer.getTime(), consumer.getLastCheckin().getTime());
+        assertEquals(newer.getTime(), consumer.getUpdated().getTime());
+    }
+
     @Test
     public void delete() {
         Consumer consumer = new Consumer("testConsumer", "testUser", owner, ct);
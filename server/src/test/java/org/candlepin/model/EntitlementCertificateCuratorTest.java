@@ -24,8 +24,10 @@ import org.candlepin.test.DatabaseTestFixture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -157,6 +159,37 @@ public class EntitlementCertificateCuratorTest extends DatabaseTestFixture {
 
     }
 
+    @Test
+    public void testFindForConsumer() {
+        Consumer other = this.createConsumer(this.owner);
+
+        EntitlementCertificate cert1 = this.createEntitlementCertificate(
+            this.createEntitlement(this.owner, this.consumer, this.pool), "key1", "cert1");
+        EntitlementCertificate cert2 = this.createEntitlementCertificate(
+            this.createEntitlement(this.owner, this.consumer, this.pool), "key2", "cert2");
+        this.createEntitlementCertificate(
+            this.createEntitlement(this.owner, other, this.pool), "key3", "cert3");
+
+        List<EntitlementCertificate> certs = this.entitlementCertificateCurator
+            .findForConsumer(this.consumer, null)
+            .list();
+
+        Set<String> certIds = certs.stream()
+            .map(c -> c.getId())
+            .collect(Collectors.toSet());
+
+        assertEquals(2, certIds.size());
+        assertTrue(certIds.contains(cert1.getId()));
+        assertTrue(certIds.contains(cert2.getId()));
+
+        certs = this.entitlementCertificateCurator
+            .findForConsumer(this.consumer, Arrays.asList(cert2.getSerial().getId()))
+            .list();
+
+        assertEquals(1, certs.size());
+        assertEquals(cert2.getId(), certs.get(0).getId());
+    }
+
     @Test
     public void testDeleteDoesntAffectUnsavedCerts() {
         Entitlement ent1 = this.createEntitlement(this.owner, this.consumer, this.pool);
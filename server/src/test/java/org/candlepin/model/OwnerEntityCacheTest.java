@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * Test suite for the OwnerEntityCache class
+ */
+public class OwnerEntityCacheTest {
+
+    @Test
+    public void testNegativeSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OwnerEntityCache(null, -1, 60));
+    }
+
+    @Test
+    public void testNegativeTtlRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OwnerEntityCache(null, 10, -1));
+    }
+
+    @Test
+    public void testDisabledCacheRetainsNothing() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 0);
+        assertFalse(cache.isEnabled());
+
+        cache.put("owner", "id", "uuid");
+
+        assertNull(cache.getUuid("owner", "id"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMappingsKeyedOnOwnerAndId() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 60);
+
+        cache.put("owner1", "id", "uuid1");
+        cache.put("owner2", "id", "uuid2");
+
+        assertEquals("uuid1", cache.getUuid("owner1", "id"));
+        assertEquals("uuid2", cache.getUuid("owner2", "id"));
+        assertNull(cache.getUuid("owner1", "other"));
+        assertNull(cache.getUuid("owner3", "id"));
+
+        assertEquals(2L, cache.getStatistics().get("hits"));
+        assertEquals(2L, cache.getStatistics().get("misses"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedMappingsEvicted() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 2, 60);
+
+        cache.put("owner", "id1", "uuid1");
+        cache.put("owner", "id2", "uuid2");
+        cache.getUuid("owner", "id1");
+        cache.put("owner", "id3", "uuid3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1L, cache.getStatistics().get("evictions"));
+        assertEquals("uuid1", cache.getUuid("owner", "id1"));
+        assertNull(cache.getUuid("owner", "id2"));
+        assertEquals("uuid3", cache.getUuid("owner", "id3"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 60);
+
+        cache.put("owner1", "id1", "uuid");
+        cache.put("owner1", "id2", "uuid");
+        cache.put("owner2", "id1", "uuid");
+
+        cache.invalidate("owner1", "id1");
+
+        assertNull(cache.getUuid("owner1", "id1"));
+        assertEquals("uuid", cache.getUuid("owner1", "id2"));
+        assertEquals("uuid", cache.getUuid("owner2", "id1"));
+    }
+
+    @Test
+    public void testInvalidateOwner() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 60);
+
+        cache.put("owner1", "id1", "uuid");
+        cache.put("owner1", "id2", "uuid");
+        cache.put("owner2", "id1", "uuid");
+
+        cache.invalidateOwner("owner1");
+
+        assertNull(cache.getUuid("owner1", "id1"));
+        assertNull(cache.getUuid("owner1", "id2"));
+        assertEquals("uuid", cache.getUuid("owner2", "id1"));
+    }
+
+    @Test
+    public void testInvalidateEntity() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 60);
+
+        cache.put("owner1", "id1", "uuid");
+        cache.put("owner1", "id2", "uuid");
+        cache.put("owner2", "id1", "uuid");
+
+        cache.invalidateEntity("id1");
+
+        assertNull(cache.getUuid("owner1", "id1"));
+        assertEquals("uuid", cache.getUuid("owner1", "id2"));
+        assertNull(cache.getUuid("owner2", "id1"));
+    }
+
+    @Test
+    public void testInvalidationRepeatedOnTransactionCompletion() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(TransactionStatus.ACTIVE).when(transaction).getStatus();
+        Session session = mock(Session.class);
+        doReturn(transaction).when(session).getTransaction();
+        EntityManager entityManager = mock(EntityManager.class);
+        doReturn(session).when(entityManager).getDelegate();
+        Provider<EntityManager> provider = () -> entityManager;
+
+        OwnerEntityCache cache = new OwnerEntityCache(provider, 10, 60);
+        cache.put("owner", "id", "uuid");
+
+        cache.invalidate("owner", "id");
+        assertNull(cache.getUuid("owner", "id"));
+
+        // A lookup made before the change commits may re-cache the previous mapping
+        cache.put("owner", "id", "uuid");
+
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction).registerSynchronization(captor.capture());
+        captor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNull(cache.getUuid("owner", "id"));
+    }
+
+    @Test
+    public void testInvalidationsRepeatedBySingleSynchronization() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(TransactionStatus.ACTIVE).when(transaction).getStatus();
+        Session session = mock(Session.class);
+        doReturn(transaction).when(session).getTransaction();
+        EntityManager entityManager = mock(EntityManager.class);
+        doReturn(session).when(entityManager).getDelegate();
+        Provider<EntityManager> provider = () -> entityManager;
+
+        OwnerEntityCache cache = new OwnerEntityCache(provider, 10, 60);
+
+        cache.invalidate("owner1", "id1");
+        cache.invalidate("owner1", "id2");
+        cache.invalidateOwner("owner2");
+        cache.invalidateEntity("id3");
+
+        // Lookups made before the changes commit may re-cache the previous mappings
+        cache.put("owner1", "id1", "uuid");
+        cache.put("owner1", "id2", "uuid");
+        cache.put("owner1", "id4", "uuid");
+        cache.put("owner2", "id1", "uuid");
+        cache.put("owner3", "id3", "uuid");
+
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction, times(1)).registerSynchronization(captor.capture());
+        captor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNull(cache.getUuid("owner1", "id1"));
+        assertNull(cache.getUuid("owner1", "id2"));
+        assertEquals("uuid", cache.getUuid("owner1", "id4"));
+        assertNull(cache.getUuid("owner2", "id1"));
+        assertNull(cache.getUuid("owner3", "id3"));
+        assertEquals(1, cache.size());
+
+        // Once the transaction completes, the next invalidation registers a new synchronization
+        cache.invalidate("owner1", "id4");
+        verify(transaction, times(2)).registerSynchronization(any(Synchronization.class));
+    }
+
+    @Test
+    public void testEvictedMappingsRemovedFromOwnerIndex() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 1, 60);
+
+        cache.put("owner1", "id1", "uuid");
+        cache.put("owner2", "id1", "uuid");
+        cache.invalidateOwner("owner1");
+        cache.put("owner1", "id2", "uuid");
+
+        assertEquals(1, cache.size());
+        assertEquals("uuid", cache.getUuid("owner1", "id2"));
+        assertNull(cache.getUuid("owner2", "id1"));
+    }
+
+    @Test
+    public void testClear() {
+        OwnerEntityCache cache = new OwnerEntityCache(null, 10, 60);
+
+        cache.put("owner", "id1", "uuid");
+        cache.put("owner", "id2", "uuid");
+        cache.clear();
+
+        assertEquals(0, cache.size());
+    }
+}
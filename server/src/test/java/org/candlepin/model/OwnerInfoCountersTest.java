@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+
+
+/**
+ * Test suite for the OwnerInfoCounters class
+ */
+public class OwnerInfoCountersTest {
+
+    private ConsumerTypeCurator consumerTypeCurator;
+    private ConsumerType ctype;
+    private Owner owner;
+
+    @BeforeEach
+    public void init() {
+        this.ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        this.ctype.setId("test-ctype");
+
+        this.consumerTypeCurator = mock(ConsumerTypeCurator.class);
+        doReturn(this.ctype).when(this.consumerTypeCurator).getConsumerType(any(Consumer.class));
+
+        this.owner = TestUtil.createOwner("test_owner");
+    }
+
+    private OwnerInfoCounters createCounters(long maxAge) {
+        return new OwnerInfoCounters(null, this.consumerTypeCurator, maxAge);
+    }
+
+    private OwnerInfo createOwnerInfo() {
+        OwnerInfo info = new OwnerInfo();
+        info.addTypeTotal(this.ctype, 2, 5);
+        info.setPhysicalCount(2);
+        info.addToEntitlementsConsumedByFamily("family", 5, 0);
+
+        return info;
+    }
+
+    private Entitlement createEntitlement(Consumer consumer, String family, int quantity) {
+        Product product = TestUtil.createProduct();
+        Pool pool = TestUtil.createPool(this.owner, product);
+        pool.setAttribute(Pool.Attributes.PRODUCT_FAMILY, family);
+
+        return new Entitlement(pool, consumer, this.owner, quantity);
+    }
+
+    @Test
+    public void testDisabledCountersDoNotCache() {
+        OwnerInfoCounters counters = this.createCounters(0);
+        counters.put(this.owner.getId(), this.createOwnerInfo(), new Date());
+
+        assertFalse(counters.isEnabled());
+        assertNull(counters.get(this.owner.getId()));
+        assertEquals(0, counters.size());
+    }
+
+    @Test
+    public void testGetReturnsCopy() {
+        OwnerInfoCounters counters = this.createCounters(60000);
+        counters.put(this.owner.getId(), this.createOwnerInfo(), new Date());
+
+        OwnerInfo first = counters.get(this.owner.getId());
+        assertNotNull(first);
+        first.getConsumerCounts().put(this.ctype.getLabel(), 100);
+
+        OwnerInfo second = counters.get(this.owner.getId());
+        assertNotSame(first, second);
+        assertEquals(2, second.getConsumerCounts().get(this.ctype.getLabel()));
+    }
+
+    @Test
+    public void testExpiredInfoIsDiscarded() {
+        OwnerInfoCounters counters = this.createCounters(60000);
+        counters.put(this.owner.getId(), this.createOwnerInfo(),
+            new Date(System.currentTimeMillis() - 120000));
+
+        assertNull(counters.get(this.owner.getId()));
+        assertEquals(0, counters.size());
+    }
+
+    @Test
+    public void testConsumerCreationAndDeletionAdjustCounts() {
+        OwnerInfoCounters counters = this.createCounters(60000);
+        counters.put(this.owner.getId(), this.createOwnerInfo(), new Date());
+
+        Consumer physical = TestUtil.createConsumer(this.ctype, this.owner);
+        Consumer guest = TestUtil.createConsumer(this.ctype, this.owner);
+        guest.setFact("virt.is_guest", "true");
+
+        counters.consumerCreated(physical);
+        counters.consumerCreated(guest);
+
+        OwnerInfo info = counters.get(this.owner.getId());
+        assertEquals(4, info.getConsumerCounts().get(this.ctype.getLabel()));
+        assertEquals(3, info.getConsumerGuestCounts().get(OwnerInfo.PHYSICAL));
+        assertEquals(1, info.getConsumerGuestCounts().get(OwnerInfo.GUEST));
+
+        counters.consumerDeleted(guest);
+
+        info = counters.get(this.owner.getId());
+        assertEquals(3, info.getConsumerCounts().get(this.ctype.getLabel()));
+        assertEquals(0, info.getConsumerGuestCounts().get(OwnerInfo.GUEST));
+    }
+
+    @Test
+    public void testEntitlementChangesAdjustCounts() {
+        OwnerInfoCounters counters = this.createCounters(60000);
+        counters.put(this.owner.getId(), this.createOwnerInfo(), new Date());
+
+        Consumer consumer = TestUtil.createConsumer(this.ctype, this.owner);
+        Entitlement existing = this.createEntitlement(consumer, "family", 3);
+        Entitlement created = this.createEntitlement(consumer, "other", 2);
+
+        counters.entitlementsCreated(Arrays.asList(created));
+
+        OwnerInfo info = counters.get(this.owner.getId());
+        assertEquals(7, info.getEntitlementsConsumedByType().get(this.ctype.getLabel()));
+        assertEquals(new OwnerInfo.ConsumptionTypeCounts(5, 0), info.getEntitlementsConsumedByFamily()
+            .get("family"));
+        assertEquals(new OwnerInfo.ConsumptionTypeCounts(2, 0), info.getEntitlementsConsumedByFamily()
+            .get("other"));
+
+        counters.entitlementsDeleted(Arrays.asList(existing));
+
+        info = counters.get(this.owner.getId());
+        assertEquals(4, info.getEntitlementsConsumedByType().get(this.ctype.getLabel()));
+        assertEquals(new OwnerInfo.ConsumptionTypeCounts(2, 0), info.getEntitlementsConsumedByFamily()
+            .get("family"));
+    }
+
+    @Test
+    public void testChangesForUncachedOwnersAreIgnored() {
+        OwnerInfoCounters counters = this.createCounters(60000);
+        Consumer consumer = TestUtil.createConsumer(this.ctype, this.owner);
+
+        counters.consumerCreated(consumer);
+        counters.entitlementsCreated(Arrays.asList(this.createEntitlement(consumer, "family", 1)));
+
+        assertNull(counters.get(this.owner.getId()));
+        assertTrue(counters.getOwnerIds().isEmpty());
+    }
+}
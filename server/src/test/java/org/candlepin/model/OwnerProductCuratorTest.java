@@ -113,6 +113,36 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
         assertNull(resultB);
     }
 
+    @Test
+    public void testGetProductByIdAfterReferencesUpdated() {
+        Owner owner = this.createOwner();
+        Product original = this.createProduct();
+        Product updated = this.createProduct(original.getId(), "updated");
+        this.createOwnerProductMapping(owner, original);
+
+        assertEquals(original, this.ownerProductCurator.getProductById(owner, original.getId()));
+
+        Map<String, String> uuidMap = new HashMap<>();
+        uuidMap.put(original.getUuid(), updated.getUuid());
+
+        this.ownerProductCurator.updateOwnerProductReferences(owner, uuidMap);
+
+        assertEquals(updated, this.ownerProductCurator.getProductById(owner, original.getId()));
+    }
+
+    @Test
+    public void testGetProductByIdAfterOwnerRemoved() {
+        Owner owner = this.createOwner();
+        Product product = this.createProduct();
+        this.createOwnerProductMapping(owner, product);
+
+        assertEquals(product, this.ownerProductCurator.getProductById(owner, product.getId()));
+
+        this.ownerProductCurator.removeOwnerFromProduct(product, owner);
+
+        assertNull(this.ownerProductCurator.getProductById(owner, product.getId()));
+    }
+
     @Test
     public void testGetOwnersByProduct() {
         Owner owner1 = this.createOwner();
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+
+
+/**
+ * Test suite for the KeyPairPool class
+ */
+public class KeyPairPoolTest {
+
+    private PKIUtility pki;
+    private KeyPairPool pool;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.pki = mock(PKIUtility.class);
+
+        doAnswer(iom -> new KeyPair(mock(PublicKey.class), mock(PrivateKey.class)))
+            .when(this.pki).generateNewKeyPair();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    private void waitForDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 500 && this.pool.getDepth() < depth; ++i) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(depth, this.pool.getDepth());
+    }
+
+    @Test
+    public void testInvalidWatermarks() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(this.pki, -1, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(this.pki, 6, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> new KeyPairPool(this.pki, 1, 5, 0));
+    }
+
+    @Test
+    public void testDisabledPoolGeneratesInline() throws Exception {
+        this.pool = new KeyPairPool(this.pki, 0, 0, 0);
+
+        assertNotNull(this.pool.take());
+        assertNotNull(this.pool.take());
+
+        verify(this.pki, times(2)).generateNewKeyPair();
+        assertEquals(0, this.pool.getDepth());
+        assertEquals(2, this.pool.getTakenCount());
+        assertEquals(0, this.pool.getStarvedCount());
+    }
+
+    @Test
+    public void testEmptyPoolGeneratesInlineAndRefills() throws Exception {
+        this.pool = new KeyPairPool(this.pki, 2, 5, 2);
+
+        assertNotNull(this.pool.take());
+        assertEquals(1, this.pool.getStarvedCount());
+
+        this.waitForDepth(5);
+        verify(this.pki, atLeast(6)).generateNewKeyPair();
+    }
+
+    @Test
+    public void testTakeUsesPooledKeyPairs() throws Exception {
+        this.pool = new KeyPairPool(this.pki, 1, 3, 1);
+
+        KeyPair first = this.pool.take();
+        this.waitForDepth(3);
+
+        KeyPair second = this.pool.take();
+        KeyPair third = this.pool.take();
+
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(3, this.pool.getTakenCount());
+        assertEquals(1, this.pool.getStarvedCount());
+        assertTrue(this.pool.getDepth() <= 3);
+    }
+
+    @Test
+    public void testShutdownDiscardsPooledKeyPairs() throws Exception {
+        this.pool = new KeyPairPool(this.pki, 1, 3, 1);
+
+        this.pool.take();
+        this.waitForDepth(3);
+
+        this.pool.shutdown();
+        assertEquals(0, this.pool.getDepth());
+
+        assertNotNull(this.pool.take());
+        assertEquals(2, this.pool.getStarvedCount());
+    }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.autobind.AutobindEngine;
+import org.candlepin.policy.js.autobind.JsAutobindEngine;
+import org.candlepin.policy.js.autobind.NativeAutobindEngine;
+
+import java.util.Map;
+
+
+
+/**
+ * Differential test suite which runs every AutobindRulesTest fixture through both the javascript
+ * and native autobind engines, and verifies the engines select the same pools and quantities.
+ */
+public class AutobindEngineParityTest extends AutobindRulesTest {
+
+    @Override
+    protected AutobindEngine createEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        AutobindEngine jsEngine = new JsAutobindEngine(jsRules, mapper);
+        AutobindEngine nativeEngine = new NativeAutobindEngine();
+
+        return context -> {
+            Map<String, Integer> expected = jsEngine.selectPools(context);
+            Map<String, Integer> actual = nativeEngine.selectPools(context);
+
+            assertEquals("native autobind engine disagrees with the rules", expected, actual);
+            return expected;
+        };
+    }
+}
@@ -50,7 +50,9 @@ import org.candlepin.policy.js.JsRunnerProvider;
 import org.candlepin.policy.js.JsRunnerRequestCache;
 import org.candlepin.policy.js.JsonJsContext;
 import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.policy.js.autobind.AutobindEngine;
 import org.candlepin.policy.js.autobind.AutobindRules;
+import org.candlepin.policy.js.autobind.JsAutobindEngine;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
 import org.candlepin.test.TestDateUtil;
 import org.candlepin.test.TestUtil;
@@ -120,8 +122,8 @@ public class AutobindRulesTest {
         mapper =  new RulesObjectMapper(new ProductCachedSerializationModule(mockProductCurator));
 
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, mockOwnerCurator);
-        autobindRules = new AutobindRules(jsRules, mockProductCurator, consumerTypeCurator, mockOwnerCurator,
-           mapper, translator);
+        autobindRules = new AutobindRules(this.createEngine(jsRules, mapper), mockProductCurator,
+            consumerTypeCurator, mockOwnerCurator, translator);
 
         owner = new Owner();
         owner.setId(TestUtil.randomString());
@@ -142,6 +144,14 @@ public class AutobindRulesTest {
         activeGuestAttrs.put("active", "1");
     }
 
+    /**
+     * Creates the autobind engine used to select pools. Subclasses may override this to run the
+     * tests against other engines.
+     */
+    protected AutobindEngine createEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        return new JsAutobindEngine(jsRules, mapper);
+    }
+
 
     @Test
     public void testFindBestWithSingleProductSinglePoolReturnsProvidedPool() {
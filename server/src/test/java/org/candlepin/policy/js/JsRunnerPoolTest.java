@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.function.Supplier;
+
+
+
+/**
+ * Test suite for the JsRunnerPool class
+ */
+public class JsRunnerPoolTest {
+
+    private Supplier<JsRunner> factory() {
+        return () -> mock(JsRunner.class);
+    }
+
+    @Test
+    public void testBorrowRequiresInitialization() {
+        JsRunnerPool pool = new JsRunnerPool(2, 0);
+        assertThrows(IllegalStateException.class, pool::borrow);
+    }
+
+    @Test
+    public void testInvalidSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new JsRunnerPool(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new JsRunnerPool(1, -1));
+    }
+
+    @Test
+    public void testPoolIsPrewarmed() {
+        JsRunnerPool pool = new JsRunnerPool(3, 0);
+        pool.invalidate(new Date(), this.factory());
+
+        assertEquals(3, pool.getIdleCount());
+    }
+
+    @Test
+    public void testReleasedRunnersAreReused() {
+        JsRunnerPool pool = new JsRunnerPool(1, 0);
+        pool.invalidate(new Date(), this.factory());
+
+        JsRunnerPool.Lease lease = pool.borrow();
+        JsRunner runner = lease.getRunner();
+        assertEquals(0, pool.getIdleCount());
+
+        lease.close();
+        verify(runner).reset();
+        assertEquals(1, pool.getIdleCount());
+
+        assertSame(runner, pool.borrow().getRunner());
+        assertEquals(2, pool.getHits());
+        assertEquals(0, pool.getMisses());
+    }
+
+    @Test
+    public void testExhaustedPoolCreatesUnpooledRunners() {
+        JsRunnerPool pool = new JsRunnerPool(1, 0);
+        pool.invalidate(new Date(), this.factory());
+
+        JsRunnerPool.Lease lease1 = pool.borrow();
+        JsRunnerPool.Lease lease2 = pool.borrow();
+
+        assertNotSame(lease1.getRunner(), lease2.getRunner());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        // Unpooled runners should not be returned to the pool
+        lease2.close();
+        assertEquals(0, pool.getIdleCount());
+        verify(lease2.getRunner(), never()).reset();
+
+        lease1.close();
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testExhaustedPoolWaitsForRunners() {
+        JsRunnerPool pool = new JsRunnerPool(1, 10);
+        pool.invalidate(new Date(), this.factory());
+
+        JsRunnerPool.Lease lease1 = pool.borrow();
+        JsRunnerPool.Lease lease2 = pool.borrow();
+
+        assertNotSame(lease1.getRunner(), lease2.getRunner());
+        assertEquals(1, pool.getWaits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    public void testInvalidationDiscardsStaleRunners() {
+        Date updated1 = new Date(1000);
+        Date updated2 = new Date(2000);
+
+        JsRunnerPool pool = new JsRunnerPool(2, 0);
+        pool.invalidate(updated1, this.factory());
+
+        JsRunnerPool.Lease lease = pool.borrow();
+        JsRunner stale = lease.getRunner();
+
+        pool.invalidate(updated2, this.factory());
+        assertEquals(updated2, pool.getRulesUpdated());
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(1, pool.getInvalidations());
+
+        // The stale runner should be dropped rather than returned to the new generation
+        lease.close();
+        assertEquals(2, pool.getIdleCount());
+        verify(stale, never()).reset();
+    }
+
+    @Test
+    public void testLeaseCanOnlyBeClosedOnce() {
+        JsRunnerPool pool = new JsRunnerPool(1, 0);
+        pool.invalidate(new Date(), this.factory());
+
+        JsRunnerPool.Lease lease = pool.borrow();
+        lease.close();
+        lease.close();
+
+        assertEquals(1, pool.getIdleCount());
+    }
+}
@@ -100,4 +100,65 @@ public class JsRunnerProviderTest {
         verify(rulesCurator, times(3)).getUpdated();
     }
 
+    @Test
+    public void pooledRunnersReturnedOnRequestEnd() {
+        JsRunnerProvider pooled = new JsRunnerProvider(rulesCurator, cacheProvider, 2, 0);
+        JsRunnerRequestCache cache = new JsRunnerRequestCache();
+        when(cacheProvider.get()).thenReturn(cache);
+
+        JsRunner runner1 = pooled.get();
+        JsRunner runner2 = pooled.get();
+        Assert.assertNotSame(runner1, runner2);
+        Assert.assertEquals(0, pooled.getPool().getIdleCount());
+
+        cache.close();
+        Assert.assertEquals(2, pooled.getPool().getIdleCount());
+        Assert.assertEquals(2, pooled.getPool().getHits());
+    }
+
+    @Test
+    public void poolInvalidatedOnRecompile() {
+        JsRunnerProvider pooled = new JsRunnerProvider(rulesCurator, cacheProvider, 1, 0);
+        JsRunnerRequestCache cache = new JsRunnerRequestCache();
+        when(cacheProvider.get()).thenReturn(cache);
+
+        JsRunner runner = pooled.get();
+        pooled.compileRules(true);
+        cache.close();
+
+        Assert.assertEquals(1, pooled.getPool().getInvalidations());
+        Assert.assertEquals(1, pooled.getPool().getIdleCount());
+        Assert.assertNotSame(runner, pooled.get());
+    }
+
+    @Test
+    public void pooledRunnersRetainNamespacesAndClearVariables() throws Exception {
+        when(rules.getRules()).thenReturn("function test_name_space() { " +
+            "return { count: 0, inc: function() { return ++this.count; }, " +
+            "value: function() { return typeof v == 'undefined' ? null : v; } }; }");
+
+        JsRunnerProvider pooled = new JsRunnerProvider(rulesCurator, cacheProvider, 1, 0);
+        JsRunnerRequestCache cache = new JsRunnerRequestCache();
+        when(cacheProvider.get()).thenReturn(cache);
+
+        JsRunner runner = pooled.get();
+        runner.init("test_name_space");
+
+        ArgumentJsContext context = new ArgumentJsContext();
+        context.put("v", "value");
+
+        Assert.assertEquals(1, ((Number) runner.invokeMethod("inc")).intValue());
+        Assert.assertEquals("value", runner.invokeMethod("value", context));
+        cache.close();
+
+        cache = new JsRunnerRequestCache();
+        when(cacheProvider.get()).thenReturn(cache);
+
+        JsRunner leased = pooled.get();
+        Assert.assertSame(runner, leased);
+
+        leased.init("test_name_space");
+        Assert.assertEquals(2, ((Number) leased.invokeMethod("inc")).intValue());
+        Assert.assertNull(leased.invokeMethod("value"));
+    }
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+
+
+/**
+ * Test suite for the RulesEngine enum
+ */
+public class RulesEngineTest {
+
+    @Test
+    public void testFromLabel() {
+        assertEquals(RulesEngine.JAVASCRIPT, RulesEngine.fromLabel("javascript"));
+        assertEquals(RulesEngine.NATIVE, RulesEngine.fromLabel("native"));
+        assertEquals(RulesEngine.NATIVE, RulesEngine.fromLabel(" Native "));
+    }
+
+    @Test
+    public void testFromLabelDefaultsToJavascript() {
+        assertEquals(RulesEngine.JAVASCRIPT, RulesEngine.fromLabel(null));
+    }
+
+    @Test
+    public void testFromLabelRejectsUnknownLabels() {
+        assertThrows(IllegalArgumentException.class, () -> RulesEngine.fromLabel("rhino2"));
+        assertThrows(IllegalArgumentException.class, () -> RulesEngine.fromLabel(""));
+    }
+}
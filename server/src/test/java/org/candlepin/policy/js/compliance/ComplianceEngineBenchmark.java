@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.dto.rules.v1.ConsumerDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.dto.rules.v1.GuestIdDTO;
+import org.candlepin.jackson.ProductCachedSerializationModule;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerInstalledProduct;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductCurator;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.policy.js.JsRunnerRequestCache;
+import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.Util;
+
+import com.google.inject.Provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * JMH benchmark comparing the cost of calculating a consumer's compliance status with the
+ * javascript and native compliance engines. The benchmark is not run as part of the test suite,
+ * and may be run directly through its main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplianceEngineBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int entitlementCount;
+
+    @Param({"false", "true"})
+    private boolean calculateDates;
+
+    private ComplianceEngine jsEngine;
+    private ComplianceEngine nativeEngine;
+    private ComplianceContext context;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        RulesCurator rulesCurator = mock(RulesCurator.class);
+        Provider<JsRunnerRequestCache> cacheProvider = mock(Provider.class);
+        ConsumerTypeCurator consumerTypeCurator = mock(ConsumerTypeCurator.class);
+
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        when(rulesCurator.getRules()).thenReturn(new Rules(Util.readFile(is)));
+        when(rulesCurator.getUpdated()).thenReturn(new Date());
+        when(cacheProvider.get()).thenReturn(mock(JsRunnerRequestCache.class));
+
+        RulesObjectMapper mapper =
+            new RulesObjectMapper(new ProductCachedSerializationModule(mock(ProductCurator.class)));
+        ModelTranslator translator = new StandardTranslator(consumerTypeCurator,
+            mock(EnvironmentCurator.class), mock(OwnerCurator.class));
+
+        JsRunnerProvider provider = new JsRunnerProvider(rulesCurator, cacheProvider);
+        this.jsEngine = new JsComplianceEngine(provider.get(), mapper);
+        this.nativeEngine = new NativeComplianceEngine();
+
+        Owner owner = new Owner("benchmark");
+        owner.setId("benchmark-owner");
+
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("benchmark-ctype");
+
+        Consumer consumer = new Consumer("benchmark consumer", "benchmark user", owner, ctype);
+        consumer.setUuid("benchmark-consumer");
+        consumer.setFact("cpu.cpu_socket(s)", "8");
+        consumer.setFact("memory.memtotal", "16777216");
+        when(consumerTypeCurator.getConsumerType(any(Consumer.class))).thenReturn(ctype);
+        when(consumerTypeCurator.get(ctype.getId())).thenReturn(ctype);
+
+        // Build a mix of stacked and unstacked entitlements, each covering an installed product, with
+        // a staggered set of end dates so compliant until and date range calculations have work to do
+        List<EntitlementDTO> entitlements = new ArrayList<>();
+        for (int i = 0; i < this.entitlementCount; ++i) {
+            Product provided = new Product("installed-" + i, "Installed Product " + i);
+            consumer.addInstalledProduct(new ConsumerInstalledProduct(provided.getId(), provided.getName()));
+
+            Product product = TestUtil.createProduct("sku-" + i, "SKU " + i);
+            product.setAttribute(Product.Attributes.SOCKETS, "2");
+            if (i % 2 == 0) {
+                product.setAttribute(Product.Attributes.STACKING_ID, "stack-" + (i % 3));
+            }
+
+            Pool pool = new Pool(owner, product, Collections.singleton(provided), 1000L,
+                TestUtil.createDate(2000, 1, 1), TestUtil.createDate(2030 + (i % 10), 1, 1),
+                "1000", "1000", "1000");
+            pool.setId("pool-" + i);
+            pool.setUpdated(new Date());
+
+            Entitlement entitlement = new Entitlement(pool, consumer, owner, 2);
+            entitlement.setId("ent-" + i);
+
+            entitlements.add(translator.translate(entitlement, EntitlementDTO.class));
+        }
+
+        this.context = new ComplianceContext()
+            .setConsumer(translator.translate(consumer, ConsumerDTO.class))
+            .setEntitlements(entitlements)
+            .setGuestIds(Collections.<GuestIdDTO>emptyList())
+            .setOnDate(TestUtil.createDate(2020, 1, 1))
+            .setCalculateCompliantUntil(this.calculateDates)
+            .setCalculateProductComplianceDateRanges(this.calculateDates);
+    }
+
+    @Benchmark
+    public Object javascriptEngine() {
+        return this.jsEngine.getStatus(this.context);
+    }
+
+    @Benchmark
+    public Object nativeEngine() {
+        return this.nativeEngine.getStatus(this.context);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ComplianceEngineBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
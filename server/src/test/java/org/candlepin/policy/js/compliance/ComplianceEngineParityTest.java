@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.junit.Assert.assertEquals;
+
+import org.candlepin.dto.rules.v1.ComplianceStatusDTO;
+import org.candlepin.dto.rules.v1.EntitlementDTO;
+import org.candlepin.policy.js.JsRunner;
+import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.util.DateRange;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+
+/**
+ * Differential test suite which runs every ComplianceRulesTest fixture through both the javascript
+ * and native compliance engines, and verifies the engines arrive at the same status.
+ */
+public class ComplianceEngineParityTest extends ComplianceRulesTest {
+
+    @Override
+    protected ComplianceEngine createEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        ComplianceEngine jsEngine = new JsComplianceEngine(jsRules, mapper);
+        ComplianceEngine nativeEngine = new NativeComplianceEngine();
+
+        return new ComplianceEngine() {
+            @Override
+            public ComplianceStatusDTO getStatus(ComplianceContext context) {
+                ComplianceStatusDTO expected = jsEngine.getStatus(context);
+                ComplianceStatusDTO actual = nativeEngine.getStatus(context);
+
+                assertEquals("native compliance engine disagrees with the rules", normalize(expected),
+                    normalize(actual));
+                return expected;
+            }
+
+            @Override
+            public boolean isStackCompliant(ComplianceContext context, String stackId) {
+                boolean expected = jsEngine.isStackCompliant(context, stackId);
+
+                assertEquals("native compliance engine disagrees with the rules", expected,
+                    nativeEngine.isStackCompliant(context, stackId));
+                return expected;
+            }
+
+            @Override
+            public boolean isEntitlementCompliant(ComplianceContext context, EntitlementDTO entitlement) {
+                boolean expected = jsEngine.isEntitlementCompliant(context, entitlement);
+
+                assertEquals("native compliance engine disagrees with the rules", expected,
+                    nativeEngine.isEntitlementCompliant(context, entitlement));
+                return expected;
+            }
+        };
+    }
+
+    /**
+     * Reduces a compliance status to the values which are retained by the ComplianceStatus built
+     * from it, such that statuses may be compared regardless of the engine which produced them.
+     */
+    private static Map<String, Object> normalize(ComplianceStatusDTO status) {
+        Map<String, Object> output = new HashMap<>();
+
+        output.put("date", time(status.getDate()));
+        output.put("compliantUntil", time(status.getCompliantUntil()));
+        output.put("compliantProducts", entitlementIds(status.getCompliantProducts()));
+        output.put("partiallyCompliantProducts", entitlementIds(status.getPartiallyCompliantProducts()));
+        output.put("partialStacks", entitlementIds(status.getPartialStacks()));
+        output.put("nonCompliantProducts", copy(status.getNonCompliantProducts()));
+        output.put("reasons", copy(status.getReasons()));
+
+        Map<String, DateRange> ranges = status.getProductComplianceDateRanges();
+        if (ranges != null) {
+            output.put("productComplianceDateRanges", ranges.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> time(entry.getValue().getStartDate()) +
+                    " - " + time(entry.getValue().getEndDate()))));
+        }
+
+        return output;
+    }
+
+    private static <T> Set<T> copy(Set<T> source) {
+        return source != null ? new HashSet<>(source) : null;
+    }
+
+    private static Long time(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    private static Map<String, Set<String>> entitlementIds(Map<String, Set<EntitlementDTO>> source) {
+        if (source == null) {
+            return null;
+        }
+
+        return source.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> entry.getValue().stream().map(EntitlementDTO::getId).collect(Collectors.toSet())));
+    }
+}
@@ -27,6 +27,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.jackson.ProductCachedSerializationModule;
@@ -125,9 +127,11 @@ public class ComplianceRulesTest {
         when(rulesCuratorMock.getRules()).thenReturn(rules);
         when(cacheProvider.get()).thenReturn(cache);
         provider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
-        compliance = new ComplianceRules(provider.get(), entCurator, new StatusReasonMessageGenerator(i18n),
-            eventSink, consumerCurator, consumerTypeCurator,
-            new RulesObjectMapper(new ProductCachedSerializationModule(productCurator)), translator);
+        RulesObjectMapper mapper =
+            new RulesObjectMapper(new ProductCachedSerializationModule(productCurator));
+        compliance = new ComplianceRules(this.createEngine(provider.get(), mapper), entCurator,
+            new StatusReasonMessageGenerator(i18n), eventSink, consumerCurator, consumerTypeCurator,
+            translator);
 
         owner = new Owner("test");
         owner.setId(TestUtil.randomString());
@@ -142,6 +146,14 @@ public class ComplianceRulesTest {
         consumer = new Consumer("test consumer", "test user", owner, ctype);
     }
 
+    /**
+     * Creates the compliance engine used to calculate compliance. Subclasses may override this to
+     * run the tests against other engines.
+     */
+    protected ComplianceEngine createEngine(JsRunner jsRules, RulesObjectMapper mapper) {
+        return new JsComplianceEngine(jsRules, mapper);
+    }
+
     /*
      * Make sure additive properties coming back from the javascript do not break when
      * we deserialize.
@@ -342,6 +354,38 @@ public class ComplianceRulesTest {
         assertEquals(0, status.getPartiallyCompliantProducts().size());
     }
 
+    @Test
+    public void currentComplianceIsCachedUntilInputsChange() {
+        Configuration config = mock(Configuration.class);
+        when(config.getString(eq(ConfigProperties.COMPLIANCE_ENGINE))).thenReturn("javascript");
+
+        ComplianceStatusCache cache = new ComplianceStatusCache(10, provider);
+        compliance = new ComplianceRules(provider.get(), entCurator, new StatusReasonMessageGenerator(i18n),
+            eventSink, consumerCurator, consumerTypeCurator,
+            new RulesObjectMapper(new ProductCachedSerializationModule(productCurator)), translator, config,
+            cache);
+
+        Consumer c = mockFullyEntitledConsumer();
+        c.setUuid("cached-consumer");
+
+        ComplianceStatus first = compliance.getStatus(c);
+        ComplianceStatus second = compliance.getStatus(c);
+
+        assertEquals(1L, cache.getStatistics().get("hits"));
+        assertEquals(first.getStatus(), second.getStatus());
+        assertEquals(first.getCompliantProducts().keySet(), second.getCompliantProducts().keySet());
+
+        // Statuses for explicit dates are never cached
+        compliance.getStatus(c, TestUtil.createDate(2011, 8, 30));
+        assertEquals(1L, cache.getStatistics().get("hits"));
+
+        c.setFact("cpu.cpu_socket(s)", "16");
+        compliance.getStatus(c);
+
+        assertEquals(1L, cache.getStatistics().get("hits"));
+        assertEquals(2L, cache.getStatistics().get("misses"));
+    }
+
     @Test
     public void testArchitectureMismatch() {
         Consumer c = mockConsumer(PRODUCT_1, PRODUCT_2);
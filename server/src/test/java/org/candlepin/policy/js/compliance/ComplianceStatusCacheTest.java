@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.test.TestUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+
+
+/**
+ * Test suite for the ComplianceStatusCache class
+ */
+public class ComplianceStatusCacheTest {
+
+    private Owner owner;
+    private Consumer consumer;
+    private ComplianceStatusCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        this.owner = new Owner("test-owner", "Test Owner");
+        this.owner.setId("test-owner-id");
+
+        ConsumerType ctype = new ConsumerType(ConsumerType.ConsumerTypeEnum.SYSTEM);
+        ctype.setId("test-ctype");
+
+        this.consumer = new Consumer("test-consumer", "test-user", this.owner, ctype);
+        this.consumer.setUuid("test-consumer-uuid");
+        this.consumer.setFact("cpu.cpu_socket(s)", "4");
+        this.consumer.addEntitlement(this.createEntitlement("ent-1", TestUtil.createDate(2030, 1, 1)));
+
+        this.cache = new ComplianceStatusCache(10, null);
+    }
+
+    private Entitlement createEntitlement(String id, Date endDate) {
+        Product product = TestUtil.createProduct("sku-" + id, "SKU " + id);
+        Pool pool = new Pool(this.owner, product, Collections.emptySet(), 10L,
+            TestUtil.createDate(2000, 1, 1), endDate, "1000", "1000", "1000");
+        pool.setId("pool-" + id);
+
+        Entitlement entitlement = new Entitlement(pool, this.consumer, this.owner, 1);
+        entitlement.setId(id);
+
+        return entitlement;
+    }
+
+    private ComplianceStatus createStatus(Date date) {
+        ComplianceStatus status = new ComplianceStatus(date);
+        status.addNonCompliantProduct("p1");
+
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put(ComplianceReason.Attributes.PRODUCT_ID, "p1");
+
+        ComplianceReason reason = new ComplianceReason();
+        reason.setKey(ComplianceReason.ReasonKeys.NOT_COVERED);
+        reason.setAttributes(attributes);
+        status.setReasons(Collections.singleton(reason));
+
+        return status;
+    }
+
+    @Test
+    public void testNegativeSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ComplianceStatusCache(-1, null));
+    }
+
+    @Test
+    public void testDisabledCacheRetainsNothing() {
+        ComplianceStatusCache disabled = new ComplianceStatusCache(0, null);
+        Date date = new Date(1000);
+        String hash = disabled.hashInputs(this.consumer);
+
+        disabled.put("uuid", hash, this.createStatus(date), true, null);
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, disabled.size());
+        assertNull(disabled.get("uuid", hash, date, false, this.consumer.getEntitlements()));
+    }
+
+    @Test
+    public void testCachedStatusIsCopied() {
+        Date date = new Date(1000);
+        Date later = new Date(2000);
+        String hash = this.cache.hashInputs(this.consumer);
+        ComplianceStatus status = this.createStatus(date);
+
+        this.cache.put("uuid", hash, status, false, null);
+        ComplianceStatus cached = this.cache.get("uuid", hash, later, false, this.consumer.getEntitlements());
+
+        assertNotNull(cached);
+        assertNotSame(status, cached);
+        assertEquals(later, cached.getDate());
+        assertEquals(status.getNonCompliantProducts(), cached.getNonCompliantProducts());
+        assertEquals(status.getStatus(), cached.getStatus());
+        assertNotSame(status.getReasons().iterator().next(), cached.getReasons().iterator().next());
+        assertEquals(1L, this.cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    public void testCachedEntitlementsResolvedFromCurrentEntitlements() {
+        Date date = new Date(1000);
+        String hash = this.cache.hashInputs(this.consumer);
+        Entitlement original = this.consumer.getEntitlements().iterator().next();
+
+        ComplianceStatus status = this.createStatus(date);
+        status.addCompliantProduct("p2", original);
+        status.addPartiallyCompliantProduct("p3", original);
+        this.cache.put("uuid", hash, status, false, null);
+
+        Entitlement current = this.createEntitlement("ent-1", TestUtil.createDate(2030, 1, 1));
+        ComplianceStatus cached = this.cache.get("uuid", hash, date, false, Collections.singleton(current));
+
+        assertNotNull(cached);
+        assertSame(current, cached.getCompliantProducts().get("p2").iterator().next());
+        assertSame(current, cached.getPartiallyCompliantProducts().get("p3").iterator().next());
+        assertEquals(1L, this.cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    public void testUnresolvedEntitlementsMissCache() {
+        Date date = new Date(1000);
+        String hash = this.cache.hashInputs(this.consumer);
+
+        ComplianceStatus status = this.createStatus(date);
+        status.addCompliantProduct("p2", this.consumer.getEntitlements().iterator().next());
+        this.cache.put("uuid", hash, status, false, null);
+
+        assertNull(this.cache.get("uuid", hash, date, false, Collections.emptySet()));
+        assertEquals(1L, this.cache.getStatistics().get("misses"));
+        assertEquals(1L, this.cache.getStatistics().get("unresolved"));
+        assertEquals(0, this.cache.size());
+    }
+
+    @Test
+    public void testChangedInputsMissCache() {
+        Date date = new Date(1000);
+        String hash = this.cache.hashInputs(this.consumer);
+        this.cache.put("uuid", hash, this.createStatus(date), false, null);
+
+        this.consumer.setFact("cpu.cpu_socket(s)", "8");
+        String changed = this.cache.hashInputs(this.consumer);
+
+        assertNotEquals(hash, changed);
+        assertNull(this.cache.get("uuid", changed, date, false, this.consumer.getEntitlements()));
+        assertEquals(1L, this.cache.getStatistics().get("misses"));
+    }
+
+    @Test
+    public void testInputHashTracksEntitlementPeriods() {
+        String hash = this.cache.hashInputs(this.consumer);
+
+        Entitlement entitlement = this.consumer.getEntitlements().iterator().next();
+        entitlement.setEndDateOverride(TestUtil.createDate(2025, 1, 1));
+
+        assertNotEquals(hash, this.cache.hashInputs(this.consumer));
+    }
+
+    @Test
+    public void testInputHashTracksGuests() {
+        String hash = this.cache.hashInputs(this.consumer);
+
+        GuestId guest = new GuestId("guest-1", this.consumer);
+        this.consumer.addGuestId(guest);
+        String withGuest = this.cache.hashInputs(this.consumer);
+        assertNotEquals(hash, withGuest);
+
+        guest.setAttributes(Collections.singletonMap("active", "1"));
+        assertNotEquals(withGuest, this.cache.hashInputs(this.consumer));
+    }
+
+    @Test
+    public void testStatusExpiresAtTransition() {
+        Date date = new Date(1000);
+        Date transition = new Date(5000);
+        String hash = this.cache.hashInputs(this.consumer);
+
+        this.cache.put("uuid", hash, this.createStatus(date), false, transition);
+
+        assertNotNull(this.cache.get("uuid", hash, new Date(4999), false, this.consumer.getEntitlements()));
+        assertNull(this.cache.get("uuid", hash, transition, false, this.consumer.getEntitlements()));
+        assertNull(this.cache.get("uuid", hash, new Date(999), false, this.consumer.getEntitlements()));
+    }
+
+    @Test
+    public void testCompliantUntilRequiresCalculatedStatus() {
+        Date date = new Date(1000);
+        String hash = this.cache.hashInputs(this.consumer);
+
+        this.cache.put("uuid", hash, this.createStatus(date), false, null);
+        assertNull(this.cache.get("uuid", hash, date, true, this.consumer.getEntitlements()));
+
+        this.cache.put("uuid", hash, this.createStatus(date), true, null);
+        assertNotNull(this.cache.get("uuid", hash, date, true, this.consumer.getEntitlements()));
+        assertNotNull(this.cache.get("uuid", hash, date, false, this.consumer.getEntitlements()));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedConsumersEvicted() {
+        ComplianceStatusCache small = new ComplianceStatusCache(2, null);
+        Date date = new Date(1000);
+        String hash = small.hashInputs(this.consumer);
+
+        small.put("uuid-1", hash, this.createStatus(date), false, null);
+        small.put("uuid-2", hash, this.createStatus(date), false, null);
+        assertNotNull(small.get("uuid-1", hash, date, false, this.consumer.getEntitlements()));
+
+        small.put("uuid-3", hash, this.createStatus(date), false, null);
+
+        assertEquals(2, small.size());
+        assertNotNull(small.get("uuid-1", hash, date, false, this.consumer.getEntitlements()));
+        assertNull(small.get("uuid-2", hash, date, false, this.consumer.getEntitlements()));
+        assertNotNull(small.get("uuid-3", hash, date, false, this.consumer.getEntitlements()));
+    }
+
+    @Test
+    public void testInvalidate() {
+        Date date = new Date(1000);
+        String hash = this.cache.hashInputs(this.consumer);
+
+        this.cache.put("uuid", hash, this.createStatus(date), false, null);
+        this.cache.invalidate("uuid");
+
+        assertNull(this.cache.get("uuid", hash, date, false, this.consumer.getEntitlements()));
+        assertTrue(this.cache.isEnabled());
+    }
+}
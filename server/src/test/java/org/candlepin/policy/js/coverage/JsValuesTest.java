@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.coverage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+
+
+/**
+ * Test suite for the JsValues class
+ */
+public class JsValuesTest {
+
+    @Test
+    public void testParseInt() {
+        assertEquals(4.0, JsValues.parseInt("4"));
+        assertEquals(4.0, JsValues.parseInt(" 4 sockets"));
+        assertEquals(-3.0, JsValues.parseInt("-3.7"));
+        assertEquals(16.0, JsValues.parseInt("0x10"));
+        assertEquals(2.0, JsValues.parseInt(2.9));
+        assertTrue(Double.isNaN(JsValues.parseInt("sockets")));
+        assertTrue(Double.isNaN(JsValues.parseInt(null)));
+    }
+
+    @Test
+    public void testToNumber() {
+        assertEquals(0.0, JsValues.toNumber(null));
+        assertEquals(0.0, JsValues.toNumber(" "));
+        assertEquals(1.5, JsValues.toNumber("1.5"));
+        assertEquals(1.0, JsValues.toNumber(true));
+        assertTrue(Double.isNaN(JsValues.toNumber("4 sockets")));
+    }
+
+    @Test
+    public void testToInt32() {
+        assertEquals(0, JsValues.toInt32(null));
+        assertEquals(0, JsValues.toInt32("bad"));
+        assertEquals(7, JsValues.toInt32("7.9"));
+    }
+
+    @Test
+    public void testIsTruthy() {
+        assertFalse(JsValues.isTruthy(null));
+        assertFalse(JsValues.isTruthy(""));
+        assertFalse(JsValues.isTruthy(0));
+        assertFalse(JsValues.isTruthy(Double.NaN));
+        assertTrue(JsValues.isTruthy("0"));
+        assertTrue(JsValues.isTruthy(1));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("null", JsValues.toString(null));
+        assertEquals("2", JsValues.toString(2.0));
+        assertEquals("2.5", JsValues.toString(2.5));
+        assertEquals("NaN", JsValues.toString(Double.NaN));
+    }
+
+    @Test
+    public void testToJsonString() {
+        assertNull(JsValues.toJsonString(null));
+        assertNull(JsValues.toJsonString(Double.NaN));
+        assertEquals("8", JsValues.toJsonString(8.0));
+        assertEquals("x86_64", JsValues.toJsonString("x86_64"));
+    }
+
+    @Test
+    public void testEqualsIgnoreCase() {
+        assertTrue(JsValues.equalsIgnoreCase("TRUE", "true"));
+        assertTrue(JsValues.equalsIgnoreCase(null, null));
+        assertFalse(JsValues.equalsIgnoreCase(null, ""));
+        assertFalse(JsValues.equalsIgnoreCase("true", "false"));
+    }
+
+    @Test
+    public void testDifferenceRemovesSingleOccurrences() {
+        assertEquals(Arrays.asList("a", "b"),
+            JsValues.difference(Arrays.asList("a", "a", "b"), Collections.singletonList("a")));
+    }
+
+    @Test
+    public void testIntersection() {
+        assertEquals(Arrays.asList("b", "b"),
+            JsValues.intersection(Arrays.asList("a", "b", "b"), Arrays.asList("b", "c")));
+    }
+}
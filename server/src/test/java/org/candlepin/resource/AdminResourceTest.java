@@ -20,15 +20,22 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.cache.BoundedCache;
+import org.candlepin.cache.CandlepinCache;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.model.User;
 import org.candlepin.model.UserCurator;
+import org.candlepin.pki.KeyPairPool;
 import org.candlepin.service.UserServiceAdapter;
 import org.candlepin.service.impl.DefaultUserServiceAdapter;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
 import javax.inject.Inject;
 
 /**
@@ -39,13 +46,17 @@ public class AdminResourceTest {
     private UserServiceAdapter usa;
     private AdminResource ar;
     private UserCurator uc;
+    private KeyPairPool keyPairPool;
+    private CandlepinCache candlepinCache;
     @Inject private Configuration config;
 
     @Before
     public void init() {
         usa = mock(DefaultUserServiceAdapter.class);
         uc = mock(UserCurator.class);
-        ar = new AdminResource(usa, uc, null, config, null);
+        keyPairPool = mock(KeyPairPool.class);
+        candlepinCache = new CandlepinCache(null);
+        ar = new AdminResource(usa, uc, null, config, candlepinCache, keyPairPool);
     }
 
     @Test
@@ -57,7 +68,8 @@ public class AdminResourceTest {
 
     @Test
     public void initWithNonDefaultUserService() {
-        ar = new AdminResource(mock(UserServiceAdapter.class), uc, null, config, null);
+        ar = new AdminResource(mock(UserServiceAdapter.class), uc, null, config, candlepinCache,
+            keyPairPool);
         assertEquals("Already initialized.", ar.initialize());
     }
 
@@ -66,4 +78,43 @@ public class AdminResourceTest {
         when(uc.getUserCount()).thenReturn(new Long(1000));
         assertEquals("Already initialized.", ar.initialize());
     }
+
+    @Test
+    public void keyPairPoolStats() {
+        when(keyPairPool.getDepth()).thenReturn(3);
+        when(keyPairPool.getTakenCount()).thenReturn(10L);
+        when(keyPairPool.getStarvedCount()).thenReturn(2L);
+
+        Map<String, Object> stats = ar.getKeyPairPoolStats();
+
+        assertEquals(3, stats.get("depth"));
+        assertEquals(10L, stats.get("taken"));
+        assertEquals(2L, stats.get("starved"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void localCacheStats() {
+        BoundedCache<String, String> second = new BoundedCache<>("second", 2);
+        second.addStatistic("extra", () -> 5L);
+        second.put("key", "value");
+        second.get("key");
+        second.get("missing");
+
+        candlepinCache.registerLocalCache(second);
+        candlepinCache.registerLocalCache(new BoundedCache<>("first", 0));
+
+        Map<String, Object> stats = ar.getLocalCacheStats();
+        assertEquals(Arrays.asList("first", "second"), new ArrayList<>(stats.keySet()));
+
+        Map<String, Object> first = (Map<String, Object>) stats.get("first");
+        assertEquals(false, first.get("enabled"));
+
+        Map<String, Object> secondStats = (Map<String, Object>) stats.get("second");
+        assertEquals(true, secondStats.get("enabled"));
+        assertEquals(1, secondStats.get("size"));
+        assertEquals(1L, secondStats.get("hits"));
+        assertEquals(1L, secondStats.get("misses"));
+        assertEquals(5L, secondStats.get("extra"));
+    }
 }
@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
@@ -94,6 +95,7 @@ import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Response;
 
@@ -184,7 +186,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumerResource.bind(consumer.getUuid(), pool.getId(),
             null, 1, null, null, false, null, null);
         List<CertificateDTO> serials = consumerResource
-            .getEntitlementCertificates(consumer.getUuid(), null);
+            .getEntitlementCertificates(consumer.getUuid(), null)
+            .list();
         assertEquals(1, serials.size());
     }
 
@@ -199,7 +202,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumerResource.bind(consumer.getUuid(), pool.getId(),
             null, 1, null, null, false, null, null);
         List<CertificateDTO> certificates = consumerResource
-            .getEntitlementCertificates(consumer.getUuid(), null);
+            .getEntitlementCertificates(consumer.getUuid(), null)
+            .list();
         assertEquals(4, certificates.size());
 
         Long serial1 = certificates.get(0).getSerial().getId();
@@ -207,7 +211,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
 
         String serialsToFilter = serial1.toString() + "," + serial2.toString();
 
-        certificates = consumerResource.getEntitlementCertificates(consumer.getUuid(), serialsToFilter);
+        certificates = consumerResource.getEntitlementCertificates(consumer.getUuid(), serialsToFilter)
+            .list();
         assertEquals(2, certificates.size());
         assertEquals(serial1, certificates.get(0).getSerial().getId());
         assertEquals(serial2, certificates.get(1).getSerial().getId());
@@ -298,7 +303,7 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
     }
 
     @Test
-    public void testReadOnlyUsersCanGenerateExports() {
+    public void testReadOnlyUsersCanGenerateExports() throws Exception {
         // add an identity certificate for the export
         IdentityCertificate idCert = TestUtil.createIdCert();
         idCert.setId(null); // needs to be null to persist
@@ -310,8 +315,10 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumerCurator.update(consumer);
         setupPrincipal(owner, Access.READ_ONLY);
         securityInterceptor.enable();
-        consumerResource.exportData(mock(HttpServletResponse.class), consumer.getUuid(), null, null, null,
-            new ArrayList<>());
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+
+        consumerResource.exportData(response, consumer.getUuid(), null, null, null, new ArrayList<>());
         // if no exception, we're good
     }
 
@@ -373,7 +380,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumerResource.bind(consumer.getUuid(), pool.getId(),
             null, 1, null, null, false, null, null);
         List<CertificateDTO> serials = consumerResource
-            .getEntitlementCertificates(consumer.getUuid(), null);
+            .getEntitlementCertificates(consumer.getUuid(), null)
+            .list();
         assertEquals(1, serials.size());
 
         consumerResource.unbindBySerial(consumer.getUuid(), serials.get(0).getSerial().getId());
@@ -412,7 +420,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
 
         setupPrincipal(new ConsumerPrincipal(consumer, owner));
 
-        assertEquals(3, consumerResource.getEntitlementCertificates(consumer.getUuid(), null).size());
+        assertEquals(3, consumerResource.getEntitlementCertificates(consumer.getUuid(), null)
+            .list().size());
     }
 
     @Test
@@ -447,7 +456,7 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         securityInterceptor.enable();
 
         assertEquals(0, consumerResource.getEntitlementCertificates(
-            consumer.getUuid(), null).size());
+            consumer.getUuid(), null).list().size());
     }
 
     @Test
@@ -668,7 +677,8 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         consumer.setFact("system.certificate_version", "3.3");
         consumerCurator.create(consumer);
 
-        List<CertificateDTO> serials = consumerResource.getEntitlementCertificates(consumer.getUuid(), null);
+        List<CertificateDTO> serials = consumerResource.getEntitlementCertificates(consumer.getUuid(), null)
+            .list();
         assertEquals(1, serials.size());
 
         CertificateDTO original = serials.get(0);
@@ -684,7 +694,7 @@ public class ConsumerResourceIntegrationTest extends DatabaseTestFixture {
         serial.setExpiration(cal.getTime());
         serialCurator.merge(serial);
 
-        serials = consumerResource.getEntitlementCertificates(consumer.getUuid(), null);
+        serials = consumerResource.getEntitlementCertificates(consumer.getUuid(), null).list();
         assertEquals(1, serials.size());
         CertificateDTO updated = serials.get(0);
         assertThat(updated, instanceOf(CertificateDTO.class));
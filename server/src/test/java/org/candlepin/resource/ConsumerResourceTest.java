@@ -23,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
@@ -48,6 +49,7 @@ import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.controller.CandlepinPoolManager;
 import org.candlepin.controller.ContentAccessManager;
+import org.candlepin.controller.ContentAccessManager.ContentAccessMode;
 import org.candlepin.controller.Entitler;
 import org.candlepin.controller.ManifestManager;
 import org.candlepin.controller.PoolManager;
@@ -79,6 +81,7 @@ import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
+import org.candlepin.model.TransformedCandlepinQuery;
 import org.candlepin.model.activationkeys.ActivationKey;
 import org.candlepin.model.activationkeys.ActivationKeyCurator;
 import org.candlepin.model.dto.Subscription;
@@ -97,6 +100,7 @@ import org.candlepin.service.EntitlementCertServiceAdapter;
 import org.candlepin.service.IdentityCertServiceAdapter;
 import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.service.UserServiceAdapter;
+import org.candlepin.test.MockResultIterator;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.ElementTransformer;
 import org.candlepin.util.FactValidator;
@@ -351,6 +355,19 @@ public class ConsumerResourceTest {
         return this.createConsumer(null, null);
     }
 
+    @Test
+    public void testGetContentAccessBodyIgnoresETagWhenContentAccessDisabled() {
+        Owner owner = this.createOwner();
+        owner.setContentAccessMode(ContentAccessMode.ENTITLEMENT.toDatabaseValue());
+        when(mockOwnerCurator.findOwnerById(eq(owner.getId()))).thenReturn(owner);
+
+        Consumer consumer = this.createConsumer(owner);
+        when(mockContentAccessManager.getContentAccessETag(eq(consumer))).thenReturn("\"etag\"");
+
+        assertThrows(BadRequestException.class, () ->
+            consumerResource.getContentAccessBody(consumer.getUuid(), new Date(0), "\"etag\""));
+    }
+
     @Test
     public void testGetCertSerials() {
         Consumer consumer = createConsumer(createOwner());
@@ -360,11 +377,17 @@ public class ConsumerResourceTest {
             serialIds.add(ec.getSerial().getId());
         }
 
-        when(mockEntitlementCertServiceAdapter.listEntitlementSerialIds(consumer)).thenReturn(serialIds);
+        CandlepinQuery<Long> cqmock = mock(CandlepinQuery.class);
+        when(cqmock.iterate(anyInt(), anyBoolean())).thenReturn(new MockResultIterator(serialIds.iterator()));
+        when(cqmock.transform(any(ElementTransformer.class))).thenAnswer(
+            iom -> new TransformedCandlepinQuery(cqmock, iom.getArgument(0)));
+
+        when(mockEntitlementCertServiceAdapter.findEntitlementSerialIds(consumer)).thenReturn(cqmock);
         when(mockEntitlementCurator.listByConsumer(consumer)).thenReturn(new ArrayList<>());
 
         List<CertificateSerialDTO> serials = consumerResource
-            .getEntitlementCertificateSerials(consumer.getUuid());
+            .getEntitlementCertificateSerials(consumer.getUuid())
+            .list();
 
         verifyCertificateSerialNumbers(serials);
     }
@@ -389,7 +412,7 @@ public class ConsumerResourceTest {
         CandlepinPoolManager poolManager = new CandlepinPoolManager(
             null, null, null, this.config, null, null, mockEntitlementCurator,
             mockConsumerCurator, mockConsumerTypeCurator, null, null, null, null, null,
-            mockActivationKeyRules, null, null, null, null, null, null, null, null, null, null
+            mockActivationKeyRules, null, null, null, null, null, null, null, null, null, null, null
         );
 
         ConsumerResource consumerResource = new ConsumerResource(
@@ -757,9 +780,10 @@ public class ConsumerResourceTest {
     @Test
     public void testcheckForGuestsMigrationSerialList() {
         Consumer consumer = createConsumer(createOwner());
-        List<EntitlementCertificate> certificates = createEntitlementCertificates();
+        CandlepinQuery<Long> cqmock = mock(CandlepinQuery.class);
+        when(cqmock.transform(any(ElementTransformer.class))).thenReturn(cqmock);
 
-        when(mockEntitlementCertServiceAdapter.listForConsumer(consumer)) .thenReturn(certificates);
+        when(mockEntitlementCertServiceAdapter.findEntitlementSerialIds(consumer)).thenReturn(cqmock);
         when(mockConsumerCurator.verifyAndLookupConsumer(consumer.getUuid())).thenReturn(consumer);
         when(mockEntitlementCurator.listByConsumer(consumer)).thenReturn(new ArrayList<>());
 
@@ -770,9 +794,10 @@ public class ConsumerResourceTest {
     @Test
     public void testCheckForGuestsMigrationCertList() {
         Consumer consumer = createConsumer(createOwner());
-        List<EntitlementCertificate> certificates = createEntitlementCertificates();
+        CandlepinQuery<EntitlementCertificate> cqmock = mock(CandlepinQuery.class);
+        when(cqmock.transform(any(ElementTransformer.class))).thenReturn(cqmock);
 
-        when(mockEntitlementCertServiceAdapter.listForConsumer(consumer)) .thenReturn(certificates);
+        when(mockEntitlementCertServiceAdapter.findForConsumer(eq(consumer), any())).thenReturn(cqmock);
         when(mockConsumerCurator.verifyAndLookupConsumer(consumer.getUuid())).thenReturn(consumer);
         when(mockEntitlementCurator.listByConsumer(consumer)).thenReturn(new ArrayList<>());
 
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.common.config.Configuration;
+import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CertificateSerial;
@@ -94,6 +95,30 @@ public class CrlResourceTest {
         verify(crlFileUtil).syncCRLWithDB(any(File.class));
     }
 
+    @Test
+    public void testGetDeltaCrl() throws Exception {
+        File deltaFile = File.createTempFile("test-", "delta-crl");
+
+        try {
+            when(crlFileUtil.isDeltaCRLEnabled()).thenReturn(true);
+            when(crlFileUtil.getDeltaCRLFile()).thenReturn(deltaFile);
+
+            Object response = this.resource.getDeltaCrl(null);
+
+            assertTrue(response != null);
+            verify(crlFileUtil).syncCRLWithDB(any(File.class));
+        }
+        finally {
+            deltaFile.delete();
+        }
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testGetDeltaCrlWhenDisabled() throws Exception {
+        when(crlFileUtil.isDeltaCRLEnabled()).thenReturn(false);
+        this.resource.getDeltaCrl(null);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testUnrevokeWithArguments() throws Exception {
@@ -58,6 +58,7 @@ import org.candlepin.service.IdentityCertServiceAdapter;
 import org.candlepin.service.SubscriptionServiceAdapter;
 import org.candlepin.service.UserServiceAdapter;
 import org.candlepin.test.TestUtil;
+import org.candlepin.util.HypervisorReportCache;
 import org.candlepin.util.FactValidator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -160,7 +161,7 @@ public class HypervisorResourceTest {
 
         this.hypervisorResource = new HypervisorResource(consumerResource,
             consumerCurator, consumerTypeCurator, i18n, ownerCurator, migrationProvider, modelTranslator,
-            guestIdResource, jobManager, new ObjectMapper());
+            guestIdResource, jobManager, new ObjectMapper(), new HypervisorReportCache(0, 0));
 
         // Ensure that we get the consumer that was passed in back from the create call.
         when(consumerCurator.create(any(Consumer.class)))
@@ -29,6 +29,7 @@ import org.candlepin.async.JobConfig;
 import org.candlepin.async.JobException;
 import org.candlepin.async.JobManager;
 import org.candlepin.async.JobManager.ManagerState;
+import org.candlepin.async.JobMetrics;
 import org.candlepin.async.StateManagementException;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.BadRequestException;
@@ -69,11 +70,14 @@ import org.xnap.commons.i18n.I18nFactory;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
@@ -191,6 +195,45 @@ public class JobResourceTest extends DatabaseTestFixture {
         assertThrows(IseException.class, () -> resource.setSchedulerStatus(running));
     }
 
+    @Test
+    public void testGetJobCountsByLane() {
+        Map<String, Map<String, Long>> lanes = new HashMap<>();
+        lanes.put("owner-1", Collections.singletonMap("job_key-1", 3L));
+        lanes.put(null, Collections.singletonMap("job_key-2", 1L));
+
+        doReturn(lanes).when(this.jobManager).getJobCountsByLane(null);
+
+        JobResource resource = this.buildJobResource();
+        Map<String, Map<String, Long>> output = resource.getJobCountsByLane(null);
+
+        assertNotNull(output);
+        assertEquals(2, output.size());
+        assertEquals(3L, output.get("owner-1").get("job_key-1"));
+        assertEquals(1L, output.get("null").get("job_key-2"));
+    }
+
+    @Test
+    public void testGetJobMetrics() {
+        JobMetrics metrics = new JobMetrics();
+        metrics.jobQueued("job_key-1");
+        metrics.jobCompleted("job_key-1", 150, true, false);
+
+        doReturn(metrics).when(this.jobManager).getJobMetrics();
+
+        JobResource resource = this.buildJobResource();
+        Map<String, Object> output = resource.getJobMetrics();
+
+        assertNotNull(output);
+        assertEquals(metrics.getExecutor(), output.get("executor"));
+        assertEquals(0, output.get("inFlight"));
+
+        Map<String, JobMetrics.JobKeyMetrics> jobs =
+            (Map<String, JobMetrics.JobKeyMetrics>) output.get("jobs");
+        assertNotNull(jobs);
+        assertEquals(1, jobs.get("job_key-1").getQueued());
+        assertEquals(1, jobs.get("job_key-1").getCompleted());
+    }
+
     public static Stream<Arguments> targetJobStatusesSimpleCollectionProvider() {
         return Stream.of(
             Arguments.of((Set) null),
@@ -928,6 +971,55 @@ public class JobResourceTest extends DatabaseTestFixture {
         assertThrows(BadRequestException.class, () -> resource.getJobStatus(jobId));
     }
 
+    @Test
+    public void testGetJobStatuses() {
+        Set<String> jobIds = Util.asSet("job-1", "job-2");
+
+        AsyncJobStatus status1 = mock(AsyncJobStatus.class);
+        doReturn("job-1").when(status1).getId();
+        AsyncJobStatus status2 = mock(AsyncJobStatus.class);
+        doReturn("job-2").when(status2).getId();
+
+        doReturn(Arrays.asList(status1, status2)).when(this.jobManager).waitForJobs(eq(jobIds), eq(0L));
+
+        JobResource resource = this.buildJobResource();
+        List<AsyncJobStatusDTO> output = resource.getJobStatuses(jobIds, 0)
+            .collect(Collectors.toList());
+
+        assertNotNull(output);
+        assertEquals(2, output.size());
+        assertEquals(jobIds, output.stream().map(AsyncJobStatusDTO::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testGetJobStatusesCapsWaitTime() {
+        Set<String> jobIds = Util.asSet("job-1");
+        this.config.setProperty(ConfigProperties.ASYNC_JOBS_STATUS_WAIT_MAX, "5");
+
+        doReturn(Collections.emptyList()).when(this.jobManager).waitForJobs(any(), any(Long.class));
+
+        JobResource resource = this.buildJobResource();
+        resource.getJobStatuses(jobIds, 3);
+        resource.getJobStatuses(jobIds, 300);
+
+        verify(this.jobManager, times(1)).waitForJobs(eq(jobIds), eq(3000L));
+        verify(this.jobManager, times(1)).waitForJobs(eq(jobIds), eq(5000L));
+    }
+
+    @Test
+    public void testGetJobStatusesRequiresJobIds() {
+        JobResource resource = this.buildJobResource();
+
+        assertThrows(BadRequestException.class, () -> resource.getJobStatuses(null, 0));
+        assertThrows(BadRequestException.class, () -> resource.getJobStatuses(Collections.emptySet(), 0));
+    }
+
+    @Test
+    public void testGetJobStatusesRejectsNegativeWait() {
+        JobResource resource = this.buildJobResource();
+        assertThrows(BadRequestException.class, () -> resource.getJobStatuses(Util.asSet("job-1"), -1));
+    }
+
     @Test
     public void testCancelJob() {
         String jobId = "test_job_id";
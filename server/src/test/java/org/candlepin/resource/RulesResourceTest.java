@@ -18,12 +18,16 @@ import static org.junit.Assert.assertEquals;
 
 import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunnerPool;
+import org.candlepin.policy.js.JsRunnerProvider;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.TestUtil;
 
 import org.apache.commons.codec.binary.Base64;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import javax.inject.Inject;
 
 /**
@@ -32,6 +36,7 @@ import javax.inject.Inject;
 public class RulesResourceTest extends DatabaseTestFixture {
     @Inject private RulesCurator rulesCurator;
     @Inject private RulesResource rulesResource;
+    @Inject private JsRunnerProvider jsRunnerProvider;
 
     @Test
     public void testUpload() {
@@ -62,4 +67,18 @@ public class RulesResourceTest extends DatabaseTestFixture {
         String rulesAfterDelete = rulesResource.get();
         assertEquals(rulesAfterDelete, origRules);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetMetrics() {
+        Map<String, Object> metrics = rulesResource.getMetrics();
+        assertEquals(jsRunnerProvider.getRulesVersion(), metrics.get("rulesVersion"));
+
+        JsRunnerPool pool = jsRunnerProvider.getPool();
+        if (pool != null) {
+            Map<String, Object> poolMetrics = (Map<String, Object>) metrics.get("runnerPool");
+            assertEquals(pool.getSize(), poolMetrics.get("size"));
+            assertEquals(pool.getHits(), poolMetrics.get("hits"));
+        }
+    }
 }
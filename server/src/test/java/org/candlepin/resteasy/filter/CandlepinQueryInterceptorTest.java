@@ -14,9 +14,14 @@
  */
 package org.candlepin.resteasy.filter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.common.paging.KeysetCursor;
+import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.model.Owner;
 import org.candlepin.resteasy.JsonProvider;
@@ -28,6 +33,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Provider;
 
+import org.hibernate.NullPrecedence;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
@@ -40,6 +46,7 @@ import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -106,11 +113,18 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
 
         // Create some owners to play with
         for (int i = 0; i < 5; ++i) {
-            this.createOwner("test-owner-" + (i + 1), "Test Owner " + (i + 1));
+            Owner owner = this.createOwner("test-owner-" + (i + 1), "Test Owner " + (i + 1));
+
+            // Leave some content prefixes null to test paging over null sort values
+            if (i % 2 == 1) {
+                owner.setContentPrefix("/prefix/" + i);
+                this.ownerCurator.merge(owner);
+            }
         }
 
         // Make sure we don't leave any page request on the context to muck with other tests
         ResteasyContext.popContextData(PageRequest.class);
+        ResteasyContext.popContextData(Page.class);
     }
 
     @Test
@@ -196,6 +210,75 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
         verify(this.mockJsonGenerator, times(1)).writeEndArray();
     }
 
+    private static Stream<Object[]> paramsForKeysetPaginatedContentTest() {
+        return Stream.of(
+            new Object[] { 1, "key", PageRequest.Order.ASCENDING },
+            new Object[] { 1, "key", PageRequest.Order.DESCENDING },
+            new Object[] { 2, "key", PageRequest.Order.ASCENDING },
+            new Object[] { 2, "key", PageRequest.Order.DESCENDING },
+            new Object[] { 5, "key", PageRequest.Order.ASCENDING },
+            new Object[] { 10, "created", PageRequest.Order.DESCENDING },
+            new Object[] { 1, "contentPrefix", PageRequest.Order.ASCENDING },
+            new Object[] { 2, "contentPrefix", PageRequest.Order.ASCENDING },
+            new Object[] { 2, "contentPrefix", PageRequest.Order.DESCENDING }
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("paramsForKeysetPaginatedContentTest")
+    public void testWriteKeysetPaginatedCandlepinQueryContents(int perPage, String sortBy,
+        PageRequest.Order order) throws IOException {
+
+        List<Owner> owners = this.ownerCurator.listAll()
+            .addOrder((order == PageRequest.Order.ASCENDING ? Order.asc(sortBy) : Order.desc(sortBy))
+                .nulls(NullPrecedence.LAST))
+            .addOrder(order == PageRequest.Order.ASCENDING ? Order.asc("id") : Order.desc("id"))
+            .list();
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+        List<Object> written = new ArrayList<>();
+        KeysetCursor cursor = null;
+        int pages = 0;
+
+        doAnswer(invocation -> written.add(invocation.getArgument(1)))
+            .when(this.mockObjectMapper).writeValue(eq(this.mockJsonGenerator), any());
+
+        do {
+            PageRequest pageRequest = new PageRequest();
+            pageRequest.setKeyset(true);
+            pageRequest.setCursor(cursor);
+            pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+            pageRequest.setPerPage(perPage);
+            pageRequest.setSortBy(sortBy);
+            pageRequest.setOrder(order);
+
+            ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+            ContainerResponseContext responseContext = mock(ContainerResponseContext.class);
+            doReturn(this.ownerCurator.listAll()).when(responseContext).getEntity();
+
+            ResteasyContext.pushContext(PageRequest.class, pageRequest);
+            cqi.filter(requestContext, responseContext);
+
+            ArgumentCaptor<StreamingOutput> captor = ArgumentCaptor.forClass(StreamingOutput.class);
+            verify(responseContext, times(1)).setEntity(captor.capture());
+            ((StreamingOutput) captor.getValue()).write(this.mockOutputStream);
+
+            Page result = ResteasyContext.getContextData(Page.class);
+            assertNotNull(result);
+
+            // Counting is opt-in for keyset requests
+            assertNull(result.getMaxRecords());
+
+            cursor = result.getNextCursor();
+            ++pages;
+        }
+        while (cursor != null && pages <= owners.size());
+
+        // Every row should be written exactly once, in order, without a trailing empty page
+        assertEquals(owners, written);
+        assertEquals(Math.max(1, (owners.size() + perPage - 1) / perPage), pages);
+    }
+
     // These tests can't possibly be all-inclusive, so we'll just test most our common cases
 
     @Test
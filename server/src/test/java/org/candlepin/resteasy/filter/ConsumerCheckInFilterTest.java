@@ -21,6 +21,7 @@ import static org.mockito.Mockito.when;
 import org.candlepin.auth.ConsumerPrincipal;
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.UpdateConsumerCheckIn;
+import org.candlepin.controller.ConsumerCheckInBuffer;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Owner;
 import org.candlepin.resteasy.AnnotationLocator;
@@ -86,7 +87,8 @@ public class ConsumerCheckInFilterTest extends DatabaseTestFixture {
 
         AnnotationLocator annotationLocator = new AnnotationLocator(injector);
         annotationLocator.init();
-        interceptor = new ConsumerCheckInFilter(consumerCurator, annotationLocator);
+        interceptor = new ConsumerCheckInFilter(new ConsumerCheckInBuffer(consumerCurator, 0),
+            annotationLocator);
     }
 
     private void mockResourceMethod(Method method) {
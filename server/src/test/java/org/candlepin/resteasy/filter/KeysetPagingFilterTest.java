@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resteasy.filter;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.candlepin.common.exceptions.BadRequestException;
+import org.candlepin.common.paging.PageRequest;
+import org.candlepin.model.CandlepinQuery;
+import org.candlepin.model.Owner;
+
+import org.jboss.resteasy.core.ResteasyContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ResourceInfo;
+
+
+
+/**
+ * Test suite for the KeysetPagingFilter
+ */
+public class KeysetPagingFilterTest {
+
+    private KeysetPagingFilter filter;
+    private ContainerRequestContext requestContext;
+
+    /** A fake resource with a keyset-capable and an offset-only method */
+    public static class FakeResource {
+        public CandlepinQuery<Owner> listByQuery() {
+            return null;
+        }
+
+        public List<Owner> listByPage() {
+            return null;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
+        this.filter = new KeysetPagingFilter(() -> i18n);
+        this.requestContext = mock(ContainerRequestContext.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ResteasyContext.popContextData(PageRequest.class);
+        ResteasyContext.popContextData(ResourceInfo.class);
+    }
+
+    private void mockRequest(String methodName, boolean keyset) throws Exception {
+        Method method = FakeResource.class.getMethod(methodName);
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        doReturn(method).when(resourceInfo).getResourceMethod();
+
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setKeyset(keyset);
+        pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+        pageRequest.setPerPage(PageRequest.DEFAULT_PER_PAGE);
+
+        ResteasyContext.pushContext(ResourceInfo.class, resourceInfo);
+        ResteasyContext.pushContext(PageRequest.class, pageRequest);
+    }
+
+    @Test
+    public void testKeysetAllowedForCandlepinQueryResources() throws Exception {
+        this.mockRequest("listByQuery", true);
+        this.filter.filter(this.requestContext);
+    }
+
+    @Test
+    public void testKeysetRejectedForOffsetPagedResources() throws Exception {
+        this.mockRequest("listByPage", true);
+        assertThrows(BadRequestException.class, () -> this.filter.filter(this.requestContext));
+    }
+
+    @Test
+    public void testOffsetPagingAllowedForAnyResource() throws Exception {
+        this.mockRequest("listByPage", false);
+        this.filter.filter(this.requestContext);
+    }
+
+    @Test
+    public void testRequestsWithoutPagingAreIgnored() throws Exception {
+        this.mockRequest("listByPage", false);
+        ResteasyContext.pushContext(PageRequest.class, null);
+
+        this.filter.filter(this.requestContext);
+    }
+}
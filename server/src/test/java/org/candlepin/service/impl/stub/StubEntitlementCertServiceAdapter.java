@@ -14,6 +14,7 @@
  */
 package org.candlepin.service.impl.stub;
 
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CertificateSerial;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.model.Consumer;
@@ -117,4 +118,9 @@ public class StubEntitlementCertServiceAdapter extends BaseEntitlementCertServic
     public List<Long> listEntitlementSerialIds(Consumer consumer) {
         return serialCurator.listEntitlementSerialIds(consumer);
     }
+
+    @Override
+    public CandlepinQuery<Long> findEntitlementSerialIds(Consumer consumer) {
+        return serialCurator.findEntitlementSerialIds(consumer);
+    }
 }
@@ -68,20 +68,23 @@ import org.candlepin.test.TestUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -131,6 +134,7 @@ public class ExporterTest {
     private SyncUtils su;
     private ExportExtensionAdapter exportExtensionAdapter;
     private ModelTranslator translator;
+    private java.security.KeyPair signingKeyPair;
 
     @Before
     public void setUp() {
@@ -164,6 +168,24 @@ public class ExporterTest {
         exportExtensionAdapter = mock(ExportExtensionAdapter.class);
 
         when(exportRules.canExport(any(Entitlement.class))).thenReturn(Boolean.TRUE);
+
+        signingKeyPair = this.createSigningKeyPair();
+        when(pki.getSHA256WithRSASigner()).thenAnswer(invocation -> {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(signingKeyPair.getPrivate());
+            return signature;
+        });
+    }
+
+    private java.security.KeyPair createSigningKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private KeyPair createKeyPair() {
@@ -245,7 +267,6 @@ public class ExporterTest {
 
         when(ent.getPool()).thenReturn(pool);
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(consumer.getEntitlements()).thenReturn(entitlements);
         when(psa.getProductCertificate(any(String.class), any(String.class))).thenReturn(pcert);
@@ -309,8 +330,6 @@ public class ExporterTest {
         List<Entitlement> entitlements = new ArrayList<>();
         entitlements.add(ent);
 
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn(
-            "signature".getBytes());
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
 
@@ -348,7 +367,6 @@ public class ExporterTest {
         IdentityCertificate idcert = new IdentityCertificate();
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -397,7 +415,6 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -446,7 +463,6 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -501,7 +517,6 @@ public class ExporterTest {
         Principal principal = mock(Principal.class);
 
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
         when(pprov.get()).thenReturn(principal);
         when(principal.getUsername()).thenReturn("testUser");
@@ -577,7 +592,6 @@ public class ExporterTest {
 
         Rules mrules = mock(Rules.class);
         when(mrules.getRules()).thenReturn("foobar");
-        when(pki.getSHA256WithRSAHash(any(InputStream.class))).thenReturn("signature".getBytes());
         when(rc.getRules()).thenReturn(mrules);
 
         // specific to this test
@@ -595,6 +609,53 @@ public class ExporterTest {
         verify(exportExtensionAdapter).extendManifest(any(File.class), eq(consumer), eq(extensionData));
     }
 
+    @Test
+    public void exportArchiveSignedAsWritten() throws Exception {
+        Principal principal = mock(Principal.class);
+        when(pprov.get()).thenReturn(principal);
+
+        Consumer consumer = mock(Consumer.class);
+        when(consumer.getUuid()).thenReturn("consumer-uuid");
+        when(ecsa.listForConsumer(consumer)).thenReturn(new ArrayList<>());
+
+        Exporter e = new Exporter(ctc, oc, me, ce, cte, re, ece, ecsa, pe, psa,
+            pce, ec, ee, pki, config, exportRules, pprov, dvc, dve, cdnc, cdne, pc, su,
+            exportExtensionAdapter, translator);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        e.writeEntitlementExport(consumer, null, out);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                entries.put(entry.getName(), IOUtils.toByteArray(zis));
+            }
+        }
+
+        assertEquals(2, entries.size());
+        byte[] archive = entries.get("consumer_export.zip");
+        assertNotNull(archive);
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initVerify(signingKeyPair.getPublic());
+        signature.update(archive);
+        assertTrue(signature.verify(entries.get("signature")));
+
+        assertTrue(verifyHasEntry(archive, "export/meta.json"));
+    }
+
+    private boolean verifyHasEntry(byte[] archive, String name) throws IOException {
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                if (entry.getName().equals(name)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * return true if export has a given entry named name.
      * @param export zip file to inspect
@@ -79,6 +79,7 @@ import org.mockito.quality.Strictness;
 import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -88,10 +89,16 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Reader;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -745,6 +752,172 @@ public class ImporterTest {
         assertThat(throwable.getMessage(), StringContains.containsString(errmsg));
     }
 
+    private File createSignedManifest(String filename, Map<String, Object> entries, KeyPair keyPair)
+        throws Exception {
+
+        ByteArrayOutputStream consumerExport = new ByteArrayOutputStream();
+        try (ZipOutputStream cezip = new ZipOutputStream(consumerExport)) {
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                cezip.putNextEntry(new ZipEntry(entry.getKey()));
+
+                if (entry.getValue() instanceof String) {
+                    cezip.write(((String) entry.getValue()).getBytes(StandardCharsets.UTF_8));
+                }
+                else {
+                    cezip.write(this.mapper.writeValueAsBytes(entry.getValue()));
+                }
+
+                cezip.closeEntry();
+            }
+        }
+
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(consumerExport.toByteArray());
+
+        File archive = new File(this.tmpFolder, filename);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            out.putNextEntry(new ZipEntry("consumer_export.zip"));
+            out.write(consumerExport.toByteArray());
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("signature"));
+            out.write(signer.sign());
+            out.closeEntry();
+        }
+
+        return archive;
+    }
+
+    private Map<String, Object> createStreamingImportEntries() {
+        ConsumerDTO consumerDTO = new ConsumerDTO();
+        consumerDTO.setUuid("eb5e04bf-be27-44cf-abe3-0c0b1edd523e");
+        consumerDTO.setName("mymachine");
+        ConsumerTypeDTO typeDTO = new ConsumerTypeDTO();
+        typeDTO.setLabel("candlepin");
+        typeDTO.setManifest(true);
+        consumerDTO.setType(typeDTO);
+        consumerDTO.setUrlWeb("foo.example.com/subscription");
+        consumerDTO.setUrlApi("/candlepin");
+        consumerDTO.setContentAccessMode("");
+        OwnerDTO ownerDTO = new OwnerDTO();
+        ownerDTO.setKey("admin");
+        ownerDTO.setDisplayName("Admin Owner");
+        consumerDTO.setOwner(ownerDTO);
+
+        Product prod = new Product("prodId", "prodTest", null);
+        prod.setDependentProductIds(null);
+
+        Entitlement ent = new Entitlement();
+        Pool pool = new Pool();
+        pool.setProduct(prod);
+        ent.setPool(pool);
+        ent.setQuantity(2);
+
+        Meta meta = new Meta("0.0.3", new Date(), "test_user", "prefix", null);
+
+        Map<String, Object> entries = new LinkedHashMap<>();
+        entries.put("export/" + ImportFile.META.fileName(), meta);
+        entries.put("export/" + ImportFile.CONSUMER.fileName(), consumerDTO);
+        entries.put("export/" + ImportFile.ENTITLEMENTS.fileName() + "/1.json", ent);
+        entries.put("export/" + ImportFile.PRODUCTS.fileName() + "/prodId.json", prod);
+        entries.put("export/" + ImportFile.PRODUCTS.fileName() + "/prodId.pem", "product certificate");
+        entries.put("export/" + ImportFile.CONSUMER_TYPE.fileName() + "/candlepin.json", typeDTO);
+        entries.put("export/" + ImportFile.RULES_FILE.fileName(), "// nothing to see here");
+
+        return entries;
+    }
+
+    private KeyPair mockStreamingSignatureCheck() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keyPair.getPublic());
+
+        doReturn(Collections.singletonList(verifier))
+            .when(this.mockPKIUtility)
+            .getSHA256WithRSAVerifiers();
+
+        this.config.setProperty(ConfigProperties.SYNC_STREAMING_IMPORT, "true");
+
+        return keyPair;
+    }
+
+    @Test
+    public void testStreamingImport() throws Exception {
+        KeyPair keyPair = this.mockStreamingSignatureCheck();
+        Owner owner = new Owner("admin", "Admin Owner");
+
+        ConsumerType ctype = new ConsumerType(ConsumerTypeEnum.CANDLEPIN);
+        ctype.setId("test-ctype");
+        this.mockConsumerType(ctype);
+
+        Refresher mockRefresher = mock(Refresher.class);
+        doReturn(mockRefresher)
+            .when(this.mockPoolManager)
+            .getRefresher(any(SubscriptionServiceAdapter.class));
+
+        File archive = this.createSignedManifest("manifest.zip", this.createStreamingImportEntries(),
+            keyPair);
+
+        Importer importer = this.buildImporter();
+        ImportRecord record = importer.loadExport(owner, archive, new ConflictOverrides(), "manifest.zip");
+
+        assertEquals(ImportRecord.Status.SUCCESS, record.getStatus());
+        assertEquals("test_user", record.getGeneratedBy());
+
+        verify(this.mockRulesImporter).importObject(any(Reader.class));
+        verify(this.mockOwnerCurator).merge(eq(owner));
+        verify(mockRefresher).run();
+        verify(this.mockImportRecordCurator).create(eq(record));
+        verify(this.mockPKIUtility, never()).verifySHA256WithRSAHashAgainstCACerts(any(File.class),
+            any(byte[].class));
+    }
+
+    @Test
+    public void testStreamingImportBadSignature() throws Exception {
+        this.mockStreamingSignatureCheck();
+        Owner owner = new Owner("admin", "Admin Owner");
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair otherKeyPair = generator.generateKeyPair();
+
+        File archive = this.createSignedManifest("manifest.zip", this.createStreamingImportEntries(),
+            otherKeyPair);
+
+        Importer importer = this.buildImporter();
+        ImportConflictException exception = assertThrows(ImportConflictException.class,
+            () -> importer.loadExport(owner, archive, new ConflictOverrides(), "manifest.zip"));
+
+        assertTrue(exception.message().getConflicts().contains(Importer.Conflict.SIGNATURE_CONFLICT));
+
+        // Nothing from the manifest should be persisted when the signature check fails
+        verify(this.mockOwnerCurator, never()).lock(any(Owner.class));
+        verify(this.mockRulesImporter, never()).importObject(any(Reader.class));
+        verify(this.mockImportRecordCurator, never()).create(any(ImportRecord.class));
+    }
+
+    @Test
+    public void testStreamingImportWithSigAndEmptyConsumerZip() throws Exception {
+        KeyPair keyPair = this.mockStreamingSignatureCheck();
+        Owner owner = mock(Owner.class);
+
+        Map<String, Object> entries = new HashMap<>();
+        entries.put("no_content", "");
+
+        File archive = this.createSignedManifest("manifest.zip", entries, keyPair);
+
+        Importer importer = this.buildImporter();
+        Throwable throwable = assertThrows(ImportExtractionException.class,
+            () -> importer.loadExport(owner, archive, new ConflictOverrides(), "manifest.zip"));
+
+        String errmsg = "consumer_export archive has no contents";
+        assertThat(throwable.getMessage(), StringContains.containsString(errmsg));
+    }
+
     @Test
     public void importConsumer() throws Exception {
         ConsumerType type = new ConsumerType(ConsumerTypeEnum.CANDLEPIN);
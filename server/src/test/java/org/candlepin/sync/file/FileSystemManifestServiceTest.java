@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.sync.file;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+
+
+/**
+ * Test suite for the FileSystemManifestService class
+ */
+public class FileSystemManifestServiceTest {
+
+    @TempDir protected File tmpFolder;
+
+    private File storeDir;
+    private FileSystemManifestService service;
+
+    @BeforeEach
+    public void init() {
+        this.storeDir = new File(this.tmpFolder, "store");
+        this.service = new FileSystemManifestService(this.storeDir);
+    }
+
+    private File createManifest(String name, String data) throws IOException {
+        File file = new File(this.tmpFolder, name);
+        FileUtils.writeStringToFile(file, data, "UTF-8");
+
+        return file;
+    }
+
+    private int countContent() {
+        File contentDir = new File(this.storeDir, "content");
+        return contentDir.exists() ? FileUtils.listFiles(contentDir, null, true).size() : 0;
+    }
+
+    @Test
+    public void testStoreAndGet() throws Exception {
+        File manifest = this.createManifest("manifest.zip", "manifest data");
+
+        ManifestFile stored = this.service.store(ManifestFileType.EXPORT, manifest, "admin", "consumer");
+        assertNotNull(stored);
+        assertNotNull(stored.getId());
+
+        ManifestFile fetched = this.service.get(stored.getId());
+        assertNotNull(fetched);
+        assertEquals(stored.getId(), fetched.getId());
+        assertEquals("manifest.zip", fetched.getName());
+        assertEquals("consumer", fetched.getTargetId());
+
+        try (InputStream input = fetched.getInputStream()) {
+            assertEquals("manifest data", IOUtils.toString(input, "UTF-8"));
+        }
+    }
+
+    @Test
+    public void testWriteTo() throws Exception {
+        File manifest = this.createManifest("manifest.zip", "manifest data");
+        ManifestFile stored = this.service.store(ManifestFileType.EXPORT, manifest, "admin", "consumer");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        this.service.get(stored.getId()).writeTo(output);
+
+        assertEquals("manifest data", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void testGetUnknownFile() {
+        assertNull(this.service.get("1234"));
+        assertNull(this.service.get("../records/1234"));
+        assertNull(this.service.get(null));
+    }
+
+    @Test
+    public void testIdenticalContentStoredOnce() throws Exception {
+        File manifest1 = this.createManifest("manifest1.zip", "manifest data");
+        File manifest2 = this.createManifest("manifest2.zip", "manifest data");
+
+        ManifestFile stored1 = this.service.store(ManifestFileType.IMPORT, manifest1, "admin", "owner");
+        ManifestFile stored2 = this.service.store(ManifestFileType.IMPORT, manifest2, "admin", "owner");
+
+        assertNotEquals(stored1.getId(), stored2.getId());
+        assertEquals(1, this.countContent());
+
+        // The shared content must remain available until its last reference is deleted
+        assertTrue(this.service.delete(stored1.getId()));
+        assertNull(this.service.get(stored1.getId()));
+        assertEquals(1, this.countContent());
+
+        try (InputStream input = this.service.get(stored2.getId()).getInputStream()) {
+            assertEquals("manifest data", IOUtils.toString(input, "UTF-8"));
+        }
+
+        assertTrue(this.service.delete(stored2.getId()));
+        assertEquals(0, this.countContent());
+        assertFalse(this.service.delete(stored2.getId()));
+    }
+
+    @Test
+    public void testDeleteByTypeAndTarget() throws Exception {
+        ManifestFile export1 = this.service.store(ManifestFileType.EXPORT,
+            this.createManifest("export1.zip", "export 1"), "admin", "consumer");
+        ManifestFile export2 = this.service.store(ManifestFileType.EXPORT,
+            this.createManifest("export2.zip", "export 2"), "admin", "other_consumer");
+        ManifestFile manifestImport = this.service.store(ManifestFileType.IMPORT,
+            this.createManifest("import.zip", "import"), "admin", "consumer");
+
+        assertEquals(1, this.service.delete(ManifestFileType.EXPORT, "consumer"));
+
+        assertNull(this.service.get(export1.getId()));
+        assertNotNull(this.service.get(export2.getId()));
+        assertNotNull(this.service.get(manifestImport.getId()));
+        assertEquals(2, this.countContent());
+    }
+
+    @Test
+    public void testDeleteExpired() throws Exception {
+        this.service.store(ManifestFileType.EXPORT, this.createManifest("export.zip", "export"), "admin",
+            "consumer");
+        this.service.store(ManifestFileType.IMPORT, this.createManifest("import.zip", "import"), "admin",
+            "owner");
+
+        Date past = new Date(System.currentTimeMillis() - 60000);
+        Date future = new Date(System.currentTimeMillis() + 60000);
+
+        assertEquals(0, this.service.deleteExpired(past));
+        assertEquals(2, this.service.deleteExpired(future));
+        assertEquals(0, this.countContent());
+    }
+
+    @Test
+    public void testDeleteExpiredRemovesStaleTempFiles() throws Exception {
+        File tempDir = new File(this.storeDir, "tmp");
+        tempDir.mkdirs();
+
+        File stale = new File(tempDir, "manifest-1.tmp");
+        FileUtils.writeStringToFile(stale, "partial", "UTF-8");
+        stale.setLastModified(System.currentTimeMillis() - 120000);
+
+        assertEquals(0, this.service.deleteExpired(new Date(System.currentTimeMillis() - 60000)));
+        assertFalse(stale.exists());
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.candlepin.util.ContentAccessPayloadCache.CachedPayload;
+
+import com.google.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * Test suite for the ContentAccessPayloadCache class
+ */
+public class ContentAccessPayloadCacheTest {
+
+    @Test
+    public void testNegativeSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentAccessPayloadCache(-1, 60));
+    }
+
+    @Test
+    public void testNegativeTtlRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentAccessPayloadCache(10, -1));
+    }
+
+    @Test
+    public void testDisabledCacheRetainsNothing() {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(0, 60);
+        assertFalse(cache.isEnabled());
+
+        CachedPayload cached = cache.put("owner", null, "payload", new Date());
+
+        assertNotNull(cached);
+        assertEquals("payload", cached.getPayload());
+        assertNull(cache.get("owner", null));
+    }
+
+    @Test
+    public void testPayloadsKeyedOnOwnerAndEnvironment() {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(10, 60);
+
+        cache.put("owner", null, "no-env", new Date());
+        cache.put("owner", "env", "env", new Date());
+
+        assertEquals("no-env", cache.get("owner", null).getPayload());
+        assertEquals("env", cache.get("owner", "env").getPayload());
+        assertNull(cache.get("other", null));
+        assertNotEquals(cache.get("owner", null).getDigest(), cache.get("owner", "env").getDigest());
+    }
+
+    @Test
+    public void testInvalidateOwner() {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(10, 60);
+
+        cache.put("owner1", null, "payload", new Date());
+        cache.put("owner1", "env", "payload", new Date());
+        cache.put("owner2", null, "payload", new Date());
+
+        cache.invalidateOwner("owner1");
+
+        assertNull(cache.get("owner1", null));
+        assertNull(cache.get("owner1", "env"));
+        assertNotNull(cache.get("owner2", null));
+    }
+
+    @Test
+    public void testInvalidateEnvironment() {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(10, 60);
+
+        cache.put("owner", null, "payload", new Date());
+        cache.put("owner", "env1", "payload", new Date());
+        cache.put("owner", "env2", "payload", new Date());
+
+        cache.invalidateEnvironment("env1");
+
+        assertNotNull(cache.get("owner", null));
+        assertNull(cache.get("owner", "env1"));
+        assertNotNull(cache.get("owner", "env2"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPayloadEvicted() {
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(2, 60);
+
+        cache.put("owner1", null, "payload", new Date());
+        cache.put("owner2", null, "payload", new Date());
+        cache.get("owner1", null);
+        cache.put("owner3", null, "payload", new Date());
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("owner1", null));
+        assertNull(cache.get("owner2", null));
+        assertNotNull(cache.get("owner3", null));
+    }
+
+    @Test
+    public void testInvalidationRepeatedOnTransactionCompletion() {
+        Transaction transaction = mock(Transaction.class);
+        doReturn(TransactionStatus.ACTIVE).when(transaction).getStatus();
+        Session session = mock(Session.class);
+        doReturn(transaction).when(session).getTransaction();
+        EntityManager entityManager = mock(EntityManager.class);
+        doReturn(session).when(entityManager).getDelegate();
+        Provider<EntityManager> provider = () -> entityManager;
+
+        ContentAccessPayloadCache cache = new ContentAccessPayloadCache(provider, 10, 60);
+        cache.put("owner", "env", "payload", new Date());
+
+        cache.invalidateOwner("owner");
+        assertNull(cache.get("owner", "env"));
+
+        // A request served before the refresh commits may re-cache the previous payload
+        cache.put("owner", "env", "payload", new Date());
+
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction).registerSynchronization(captor.capture());
+        captor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNull(cache.get("owner", "env"));
+    }
+}
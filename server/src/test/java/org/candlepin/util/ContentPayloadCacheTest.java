@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.candlepin.model.dto.Content;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+
+/**
+ * Test suite for the ContentPayloadCache class
+ */
+public class ContentPayloadCacheTest {
+
+    private List<Content> buildContent(String... paths) {
+        List<Content> contents = new ArrayList<>();
+
+        for (String path : paths) {
+            Content content = new Content();
+            content.setPath(path);
+            contents.add(content);
+        }
+
+        return contents;
+    }
+
+    @Test
+    public void testNegativeSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ContentPayloadCache(-1));
+    }
+
+    @Test
+    public void testDisabledCacheRetainsNothing() {
+        ContentPayloadCache cache = new ContentPayloadCache(0);
+        assertFalse(cache.isEnabled());
+
+        cache.put("key", new byte[] { 1 });
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testKeyReflectsPathsAndOrder() {
+        ContentPayloadCache cache = new ContentPayloadCache(10);
+
+        String key = cache.buildKey(this.buildContent("/a/b", "/c/d"));
+        assertEquals(key, cache.buildKey(this.buildContent("/a/b", "/c/d")));
+        assertNotEquals(key, cache.buildKey(this.buildContent("/c/d", "/a/b")));
+        assertNotEquals(key, cache.buildKey(this.buildContent("/a/b/c/d")));
+        assertNotEquals(key, cache.buildKey(this.buildContent("/a/b", "/c/d", "/e")));
+    }
+
+    @Test
+    public void testCachedPayloadsAreCopied() {
+        ContentPayloadCache cache = new ContentPayloadCache(10);
+        byte[] payload = new byte[] { 1, 2, 3 };
+
+        cache.put("key", payload);
+        payload[0] = 9;
+
+        byte[] cached = cache.get("key");
+        assertArrayEquals(new byte[] { 1, 2, 3 }, cached);
+
+        cached[1] = 9;
+        assertArrayEquals(new byte[] { 1, 2, 3 }, cache.get("key"));
+        assertEquals(2L, cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPayloadIsEvicted() {
+        ContentPayloadCache cache = new ContentPayloadCache(2);
+
+        cache.put("key1", new byte[] { 1 });
+        cache.put("key2", new byte[] { 2 });
+        cache.get("key1");
+        cache.put("key3", new byte[] { 3 });
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("key2"));
+        assertArrayEquals(new byte[] { 1 }, cache.get("key1"));
+        assertArrayEquals(new byte[] { 3 }, cache.get("key3"));
+        assertEquals(1L, cache.getStatistics().get("misses"));
+        assertEquals(1L, cache.getStatistics().get("evictions"));
+    }
+}
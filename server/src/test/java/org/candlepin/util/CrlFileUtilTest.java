@@ -21,6 +21,8 @@ import static org.mockito.Mockito.*;
 
 import org.candlepin.TestingModules;
 import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.CertificateSerialCurator;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.PKIUtility;
@@ -39,20 +41,27 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.mockito.stubbing.OngoingStubbing;
+import org.mozilla.jss.netscape.security.util.DerValue;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.file.Files;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.security.cert.X509CRLEntry;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -222,6 +231,118 @@ public class CrlFileUtilTest {
         assertFalse(new ContainsSerials(temp).matchesSafely(unrevoke));
     }
 
+    @SuppressWarnings("unchecked")
+    private CandlepinQuery<Long> mockSerialQuery(List<Long>... batches) {
+        CandlepinQuery<Long> query = mock(CandlepinQuery.class);
+        doReturn(query).when(query).setMaxResults(anyInt());
+
+        OngoingStubbing<List<Long>> stubbing = when(query.list());
+        for (List<Long> batch : batches) {
+            stubbing = stubbing.thenReturn(new LinkedList<>(batch));
+        }
+        stubbing.thenReturn(new LinkedList<>());
+
+        return query;
+    }
+
+    private void enableDeltaCRL(File deltaFile) {
+        when(this.config.getBoolean(eq(ConfigProperties.CRL_DELTA_ENABLED), anyBoolean())).thenReturn(true);
+        when(this.config.getString(ConfigProperties.CRL_DELTA_FILE_PATH))
+            .thenReturn(deltaFile.getAbsolutePath());
+        when(this.config.getLong(eq(ConfigProperties.CRL_BASE_REBUILD_INTERVAL), anyLong())).thenReturn(24L);
+        when(this.config.getInt(ConfigProperties.CRL_SERIAL_BATCH_SIZE)).thenReturn(10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeltaCRLReceivesNewlyRevokedSerials() throws Exception {
+        File deltaFile = File.createTempFile("cp_test_delta_crl-", ".pem");
+        deltaFile.delete();
+
+        try {
+            this.enableDeltaCRL(deltaFile);
+
+            CandlepinQuery<Long> uncollected = this.mockSerialQuery(Arrays.asList(5L, 6L));
+            CandlepinQuery<Long> expired = this.mockSerialQuery();
+            when(this.certSerialCurator.getUncollectedRevokedCertSerials()).thenReturn(uncollected);
+            when(this.certSerialCurator.getExpiredRevokedCertSerials()).thenReturn(expired);
+            when(this.certSerialCurator.markSerialsAsCollected(anyCollection()))
+                .thenAnswer(iom -> ((List) iom.getArgument(0)).size());
+
+            // The first sync rebuilds the base CRL, as there is no delta CRL to apply to it yet
+            this.cfu.initializeCRLFile(temp, initialEntry);
+            this.cfu.syncCRLWithDB(temp);
+
+            Set<BigInteger> revoked = new HashSet<>(
+                Arrays.asList(BigInteger.valueOf(5), BigInteger.valueOf(6)));
+            assertThat(revoked, new ContainsSerials(deltaFile));
+            assertFalse(new ContainsSerials(temp).matchesSafely(revoked));
+            assertNotNull(this.readCRL(deltaFile).getExtensionValue(OIDUtil.DELTA_CRL_INDICATOR));
+
+            // Subsequent syncs only touch the delta CRL
+            byte[] base = Files.readAllBytes(temp.toPath());
+            uncollected = this.mockSerialQuery(Arrays.asList(7L));
+            when(this.certSerialCurator.getUncollectedRevokedCertSerials()).thenReturn(uncollected);
+
+            this.cfu.syncCRLWithDB(temp);
+
+            revoked.add(BigInteger.valueOf(7));
+            assertThat(revoked, new ContainsSerials(deltaFile));
+            assertArrayEquals(base, Files.readAllBytes(temp.toPath()));
+        }
+        finally {
+            deltaFile.delete();
+        }
+    }
+
+    @Test
+    public void testBaseCRLRebuildFoldsDeltaCRL() throws Exception {
+        File deltaFile = File.createTempFile("cp_test_delta_crl-", ".pem");
+        deltaFile.delete();
+
+        try {
+            this.enableDeltaCRL(deltaFile);
+
+            CandlepinQuery<Long> uncollected = this.mockSerialQuery(Arrays.asList(5L, 6L));
+            CandlepinQuery<Long> expired = this.mockSerialQuery();
+            when(this.certSerialCurator.getUncollectedRevokedCertSerials()).thenReturn(uncollected);
+            when(this.certSerialCurator.getExpiredRevokedCertSerials()).thenReturn(expired);
+            when(this.certSerialCurator.markSerialsAsCollected(anyCollection())).thenReturn(2);
+
+            this.cfu.initializeCRLFile(temp, initialEntry);
+            this.cfu.syncCRLWithDB(temp);
+
+            // Age the base CRL past its rebuild interval
+            assertTrue(temp.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(25)));
+            this.cfu.syncCRLWithDB(temp);
+
+            Set<BigInteger> revoked = new HashSet<>(
+                Arrays.asList(BigInteger.valueOf(5), BigInteger.valueOf(6)));
+            assertThat(revoked, new ContainsSerials(temp));
+            assertNull(this.readCRL(deltaFile).getRevokedCertificates());
+
+            // The delta CRL must be numbered ahead of, and refer to, the rebuilt base CRL
+            BigInteger baseNumber = this.readCRLNumber(this.readCRL(temp), OIDUtil.CRL_NUMBER);
+            X509CRL delta = this.readCRL(deltaFile);
+            assertEquals(baseNumber, this.readCRLNumber(delta, OIDUtil.DELTA_CRL_INDICATOR));
+            assertEquals(baseNumber.add(BigInteger.ONE), this.readCRLNumber(delta, OIDUtil.CRL_NUMBER));
+        }
+        finally {
+            deltaFile.delete();
+        }
+    }
+
+    private X509CRL readCRL(File file) throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return (X509CRL) CertificateFactory.getInstance("X.509").generateCRL(in);
+        }
+    }
+
+    private BigInteger readCRLNumber(X509CRL crl, String oid) throws Exception {
+        DerValue wrapper = new DerValue(crl.getExtensionValue(oid));
+        return new DerValue(wrapper.getOctetString()).getInteger().toBigInteger();
+    }
+
     public class ContainsSerials extends TypeSafeMatcher<Set<BigInteger>> {
         private Set<BigInteger> serials;
 
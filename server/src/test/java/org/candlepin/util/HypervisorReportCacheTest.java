@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2009 - 2020 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.GuestId;
+import org.candlepin.model.HypervisorId;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+
+
+/**
+ * Test suite for the HypervisorReportCache class
+ */
+public class HypervisorReportCacheTest {
+
+    private Consumer buildHypervisor(String hypervisorId, String... guestIds) {
+        Consumer hypervisor = new Consumer();
+        hypervisor.setName(hypervisorId);
+        hypervisor.setHypervisorId(new HypervisorId(hypervisorId));
+
+        for (String guestId : guestIds) {
+            hypervisor.addGuestId(new GuestId(guestId));
+        }
+
+        return hypervisor;
+    }
+
+    @Test
+    public void testNegativeSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HypervisorReportCache(-1, 60));
+    }
+
+    @Test
+    public void testNegativeTtlRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HypervisorReportCache(10, -1));
+    }
+
+    @Test
+    public void testFingerprintIgnoresReportOrder() {
+        String fingerprint1 = HypervisorReportCache.fingerprint(Arrays.asList(
+            this.buildHypervisor("host-1", "guest-1", "guest-2"),
+            this.buildHypervisor("host-2", "guest-3")), true);
+
+        String fingerprint2 = HypervisorReportCache.fingerprint(Arrays.asList(
+            this.buildHypervisor("host-2", "guest-3"),
+            this.buildHypervisor("host-1", "guest-2", "guest-1")), true);
+
+        assertEquals(fingerprint1, fingerprint2);
+    }
+
+    @Test
+    public void testFingerprintReflectsReportContent() {
+        String fingerprint = HypervisorReportCache.fingerprint(Collections.singletonList(
+            this.buildHypervisor("host-1", "guest-1")), true);
+
+        assertNotEquals(fingerprint, HypervisorReportCache.fingerprint(Collections.singletonList(
+            this.buildHypervisor("host-1", "guest-2")), true));
+
+        assertNotEquals(fingerprint, HypervisorReportCache.fingerprint(Collections.singletonList(
+            this.buildHypervisor("host-2", "guest-1")), true));
+
+        assertNotEquals(fingerprint, HypervisorReportCache.fingerprint(Collections.singletonList(
+            this.buildHypervisor("host-1", "guest-1")), false));
+    }
+
+    @Test
+    public void testFingerprintAllowsNullGuestAttributes() {
+        Consumer hypervisor = this.buildHypervisor("host-1", "guest-1");
+        hypervisor.getGuestIds().get(0).setAttributes(null);
+
+        String fingerprint = HypervisorReportCache.fingerprint(Collections.singletonList(hypervisor), true);
+
+        assertNotEquals(fingerprint, HypervisorReportCache.fingerprint(Collections.singletonList(
+            this.buildHypervisor("host-1", "guest-1")), true));
+    }
+
+    @Test
+    public void testDisabledCacheSkipsNothing() {
+        HypervisorReportCache cache = new HypervisorReportCache(0, 60);
+        assertFalse(cache.isEnabled());
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+        cache.confirm("owner", "reporter", "fingerprint");
+        assertFalse(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+
+        assertEquals(0, cache.getSkippedCount());
+        assertEquals(2, cache.getProcessedCount());
+    }
+
+    @Test
+    public void testOnlyConfirmedReportsAreSkipped() {
+        HypervisorReportCache cache = new HypervisorReportCache(10, 60);
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+        assertFalse(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+
+        cache.confirm("owner", "reporter", "fingerprint");
+
+        assertTrue(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+        assertFalse(cache.checkUnchanged("owner", "other_reporter", "fingerprint"));
+        assertFalse(cache.checkUnchanged("other_owner", "reporter", "fingerprint"));
+
+        assertEquals(1, cache.getSkippedCount());
+        assertEquals(4, cache.getProcessedCount());
+    }
+
+    @Test
+    public void testNewerReportPreventsConfirmationOfOlderReport() {
+        HypervisorReportCache cache = new HypervisorReportCache(10, 60);
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-1"));
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-2"));
+
+        // The first report completes after the second was received
+        cache.confirm("owner", "reporter", "report-1");
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-1"));
+    }
+
+    @Test
+    public void testReportConfirmedOnReconcilingNode() {
+        HypervisorReportCache receiving = new HypervisorReportCache(10, 60);
+        HypervisorReportCache reconciling = new HypervisorReportCache(10, 60);
+
+        assertFalse(receiving.checkUnchanged("owner", "reporter", "fingerprint"));
+
+        reconciling.markPending("owner", "reporter", "fingerprint");
+        reconciling.confirm("owner", "reporter", "fingerprint");
+
+        assertTrue(reconciling.checkUnchanged("owner", "reporter", "fingerprint"));
+        assertFalse(receiving.checkUnchanged("owner", "reporter", "fingerprint"));
+    }
+
+    @Test
+    public void testMarkPendingRetainsNewerPendingReport() {
+        HypervisorReportCache cache = new HypervisorReportCache(10, 60);
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-1"));
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-2"));
+
+        // The first report is reconciled after the second was received
+        cache.markPending("owner", "reporter", "report-1");
+        cache.confirm("owner", "reporter", "report-1");
+
+        cache.markPending("owner", "reporter", "report-2");
+        cache.confirm("owner", "reporter", "report-2");
+
+        assertTrue(cache.checkUnchanged("owner", "reporter", "report-2"));
+        assertFalse(cache.checkUnchanged("owner", "reporter", "report-1"));
+    }
+
+    @Test
+    public void testReportsWithoutReporterAreNotSkipped() {
+        HypervisorReportCache cache = new HypervisorReportCache(10, 60);
+
+        assertFalse(cache.checkUnchanged("owner", null, "fingerprint"));
+        cache.confirm("owner", null, "fingerprint");
+        assertFalse(cache.checkUnchanged("owner", null, "fingerprint"));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateOwnerClearsOnlyThatOwner() {
+        HypervisorReportCache cache = new HypervisorReportCache(10, 60);
+
+        cache.checkUnchanged("owner", "reporter", "fingerprint");
+        cache.confirm("owner", "reporter", "fingerprint");
+        cache.checkUnchanged("owner2", "reporter", "fingerprint");
+        cache.confirm("owner2", "reporter", "fingerprint");
+
+        cache.invalidateOwner("owner");
+
+        assertFalse(cache.checkUnchanged("owner", "reporter", "fingerprint"));
+        assertTrue(cache.checkUnchanged("owner2", "reporter", "fingerprint"));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        HypervisorReportCache cache = new HypervisorReportCache(2, 60);
+
+        cache.checkUnchanged("owner", "reporter-1", "fingerprint");
+        cache.checkUnchanged("owner", "reporter-2", "fingerprint");
+        cache.checkUnchanged("owner", "reporter-3", "fingerprint");
+
+        assertEquals(2, cache.size());
+    }
+}
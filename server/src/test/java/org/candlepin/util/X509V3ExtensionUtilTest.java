@@ -14,6 +14,7 @@
  */
 package org.candlepin.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -31,6 +32,7 @@ import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.model.ProductContent;
 import org.candlepin.model.dto.TinySubscription;
+import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.X509V3ExtensionUtil.NodePair;
 import org.candlepin.util.X509V3ExtensionUtil.PathNode;
@@ -45,6 +47,8 @@ import com.google.inject.name.Named;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -226,4 +230,51 @@ public class X509V3ExtensionUtilTest {
         assertTrue("The serialized data should contain addon!", output.contains("my_addon2"));
     }
 
+    private List<org.candlepin.model.dto.Product> buildProductModels(String... paths) {
+        List<org.candlepin.model.dto.Content> contents = new ArrayList<>();
+        for (String path : paths) {
+            org.candlepin.model.dto.Content content = new org.candlepin.model.dto.Content();
+            content.setPath(path);
+            contents.add(content);
+        }
+
+        org.candlepin.model.dto.Product product = new org.candlepin.model.dto.Product();
+        product.setContent(contents);
+
+        return Arrays.asList(product);
+    }
+
+    private byte[] getContentPayload(X509V3ExtensionUtil util, List<org.candlepin.model.dto.Product> models)
+        throws IOException {
+
+        Set<X509ByteExtensionWrapper> extensions = util.getByteExtensions(null, models, "", new HashMap<>());
+        return extensions.iterator().next().getValue();
+    }
+
+    @Test
+    public void contentPayloadIsCompressedOncePerContentSet() throws IOException {
+        ContentPayloadCache cache = new ContentPayloadCache(10);
+        X509V3ExtensionUtil cachingUtil = new X509V3ExtensionUtil(config, ec, this.mapper, cache);
+
+        String[] paths = { "/content/dist/rhel/server/7/os", "/content/dist/rhel/server/7/debug",
+            "/content/beta/rhel/server/7/os" };
+
+        byte[] expected = this.getContentPayload(util, this.buildProductModels(paths));
+        byte[] first = this.getContentPayload(cachingUtil, this.buildProductModels(paths));
+        byte[] second = this.getContentPayload(cachingUtil, this.buildProductModels(paths));
+
+        assertArrayEquals(expected, first);
+        assertArrayEquals(expected, second);
+        assertEquals(paths.length, util.hydrateContentPackage(second).size());
+        assertEquals(1L, cache.getStatistics().get("misses"));
+        assertEquals(1L, cache.getStatistics().get("hits"));
+
+        // A different content set must not reuse the cached payload
+        byte[] other = this.getContentPayload(cachingUtil,
+            this.buildProductModels("/content/dist/rhel/server/8/os"));
+
+        assertFalse(Arrays.equals(expected, other));
+        assertEquals(2L, cache.getStatistics().get("misses"));
+        assertEquals(2, cache.size());
+    }
 }